@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -75,6 +76,12 @@ public class DebuggerJvmVisitor implements JvmExecutionVisitor {
 	/** map from request-id to event-request */
 	private final ConcurrentMap<Integer, JdwpEventRequest> eventRequests;
 
+	/** interest-mask derived from the event-requests (shared by the visitors using the same event-requests) */
+	private final AtomicInteger interestMask;
+
+	/** <code>true</code> while instructions are logged at debug-level */
+	private volatile boolean isLoggingInstructions;
+
 	/** interface of the debugger */
 	private DebuggerInterface debugger;
 
@@ -112,10 +119,28 @@ public class DebuggerJvmVisitor implements JvmExecutionVisitor {
 	public DebuggerJvmVisitor(final ConcurrentMap<Integer, JdwpEventRequest> eventRequests,
 			final int maxInstrLogged, final int maxMethodsLogged,
 			final SourceFileRequester sourceFileRequester) {
+		this(eventRequests, new AtomicInteger(INTEREST_ALL), maxInstrLogged, maxMethodsLogged, sourceFileRequester);
+		updateInterestMask();
+	}
+
+	/**
+	 * Constructor
+	 * @param eventRequests map from jdwp-request-id to event-request
+	 * @param interestMask interest-mask of the event-requests, shared by all visitors using the event-requests
+	 * @param maxInstrLogged number of instructions to be logged at debug-level
+	 * @param maxMethodsLogged number of method-invocations to be logged at debug-level
+	 * @param sourceFileRequester optional source-file-requester
+	 */
+	public DebuggerJvmVisitor(final ConcurrentMap<Integer, JdwpEventRequest> eventRequests,
+			final AtomicInteger interestMask,
+			final int maxInstrLogged, final int maxMethodsLogged,
+			final SourceFileRequester sourceFileRequester) {
 		this.maxInstrLogged = maxInstrLogged;
 		this.maxMethodsLogged = maxMethodsLogged;
 		this.sourceFileRequester = sourceFileRequester;
 		this.eventRequests = eventRequests;
+		this.interestMask = interestMask;
+		this.isLoggingInstructions = (maxInstrLogged > 0 && LOG.isDebugEnabled());
 	}
 
 	/**
@@ -228,6 +253,7 @@ public class DebuggerJvmVisitor implements JvmExecutionVisitor {
 	 */
 	public void addEventRequest(final JdwpEventRequest evReq) {
 		eventRequests.put(Integer.valueOf(evReq.getRequestId()), evReq);
+		updateInterestMask();
 		if (evReq.getEventType() == VMEventType.SINGLE_STEP) {
 			addEventRequestSingleStep(evReq);
 		}
@@ -300,6 +326,7 @@ public class DebuggerJvmVisitor implements JvmExecutionVisitor {
 	 */
 	public void clearEventRequest(VMEventType eventType, int requestId) {
 		final JdwpEventRequest evReq = eventRequests.remove(Integer.valueOf(requestId));
+		updateInterestMask();
 		if (evReq == null) {
 			LOG.debug(String.format("Event (type %s, req-id %d) is not known",
 					eventType, Integer.valueOf(requestId)));
@@ -583,11 +610,17 @@ loopEvents:
 	public void visitInstruction(AbstractInsnNode instr, OperandStack opStack, Object[] aLocals) {
 		JdwpEventRequest currStepReq = null;
 		JdwpModifierStep currModStep = null;
-		if (instrCounter.incrementAndGet() < maxInstrLogged) {
-			LOG.debug(String.format("visitInstruction: line=%d, index=%d, %s",
-					Integer.valueOf(currFrame.frame.getCurrLineNum()),
-					Integer.valueOf(currFrame.frame.instrNum),
-					InstructionVisitor.displayInstruction(instr, currFrame.frame.getMethodNode())));
+		if (isLoggingInstructions) {
+			if (instrCounter.incrementAndGet() < maxInstrLogged) {
+				LOG.debug(String.format("visitInstruction: line=%d, index=%d, %s",
+						Integer.valueOf(currFrame.frame.getCurrLineNum()),
+						Integer.valueOf(currFrame.frame.instrNum),
+						InstructionVisitor.displayInstruction(instr, currFrame.frame.getMethodNode())));
+			}
+			else {
+				// The instructions of interest only will be visited from now on.
+				isLoggingInstructions = false;
+			}
 		}
 		final int opcode = instr.getOpcode();
 		if (opcode < 0 && !(instr instanceof LineNumberNode)) {
@@ -913,6 +946,76 @@ stepSearch:
 			loopFrame.eventRequestStepUp = null;
 		}
 		eventRequests.clear();
+		updateInterestMask();
+	}
+
+	/**
+	 * Computes the interest-mask of the current event-requests.
+	 * Steps, breakpoints and watchpoints are checked at instructions.
+	 * Without such requests the interpreter may skip the instruction-callbacks.
+	 * The de-simulation-decisions of the simulator are invalidated.
+	 */
+	private void updateInterestMask() {
+		synchronized (interestMask) {
+			int mask = 0;
+			for (final JdwpEventRequest evReq : eventRequests.values()) {
+				final VMEventType eventType = evReq.getEventType();
+				if (eventType == VMEventType.SINGLE_STEP || eventType == VMEventType.BREAKPOINT
+						|| eventType == VMEventType.FIELD_ACCESS || eventType == VMEventType.FIELD_MODIFICATION) {
+					mask |= INTEREST_INSTRUCTION;
+				}
+			}
+			interestMask.set(mask);
+		}
+		if (vm != null) {
+			vm.invalidateDesimulation();
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int getInterestMask() {
+		return isLoggingInstructions ? INTEREST_ALL : interestMask.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>A method is observed if there is a breakpoint in the method or a request
+	 * which isn't bound to a location (step, watchpoint, method-entry or method-exit).</p>
+	 */
+	@Override
+	public boolean isMethodObserved(final Executable method) {
+		if (isLoggingInstructions) {
+			return true;
+		}
+loopEvents:
+		for (final JdwpEventRequest evReq : eventRequests.values()) {
+			final VMEventType eventType = evReq.getEventType();
+			if (eventType == VMEventType.BREAKPOINT) {
+				for (final JdwpEventModifier mod : evReq.getModifiers()) {
+					if (mod.getModKind() == ModKind.LOCATION_ONLY
+							&& method.equals(vm.getVMObject(((JdwpModifierLocationOnly) mod).getMethodId()))) {
+						return true;
+					}
+				}
+			}
+			else if (eventType == VMEventType.METHOD_EXIT || eventType == VMEventType.METHOD_EXIT_WITH_RETURN_VALUE) {
+				for (final JdwpEventModifier mod : evReq.getModifiers()) {
+					if (mod.getModKind() == ModKind.CLASS_ONLY) {
+						final JdwpModifierClassOnly modClass = (JdwpModifierClassOnly) mod;
+						if (!method.getDeclaringClass().equals(vm.getVMObject(modClass.getClazz()))) {
+							continue loopEvents;
+						}
+					}
+				}
+				return true;
+			}
+			else if (eventType == VMEventType.SINGLE_STEP || eventType == VMEventType.METHOD_ENTRY
+					|| eventType == VMEventType.FIELD_ACCESS || eventType == VMEventType.FIELD_MODIFICATION) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/** {@inheritDoc} */
@@ -2,6 +2,7 @@ package org.rogmann.jsmud.debugger;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.rogmann.jsmud.events.JdwpEventRequest;
 import org.rogmann.jsmud.log.Logger;
@@ -29,6 +30,9 @@ public class DebuggerJvmVisitorProvider implements JvmExecutionVisitorProvider {
 	/** map from request-id to event-request */
 	private final ConcurrentMap<Integer, JdwpEventRequest> eventRequests = new ConcurrentHashMap<>();
 
+	/** interest-mask of the event-requests */
+	private final AtomicInteger interestMask = new AtomicInteger();
+
 	/**
 	 * default-constructor,
 	 * the first 100 instructions will be logged.
@@ -60,7 +64,7 @@ public class DebuggerJvmVisitorProvider implements JvmExecutionVisitorProvider {
 			LOGGER.debug(String.format("create: vm=%s, cT=%s, visitorParent=%s",
 					vm, currentThread, visitorParent));
 		}
-		final DebuggerJvmVisitor visitor = new DebuggerJvmVisitor(eventRequests,
+		final DebuggerJvmVisitor visitor = new DebuggerJvmVisitor(eventRequests, interestMask,
 				maxInstrLogged, maxMethodsLogged, sourceFileRequester);
 		visitor.setJvmSimulator(vm);
 		if (visitorParent instanceof DebuggerJvmVisitor) {
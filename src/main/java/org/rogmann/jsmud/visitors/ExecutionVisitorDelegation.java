@@ -12,7 +12,10 @@ import org.rogmann.jsmud.vm.OperandStack;
 /**
  * Delegates visitor-calls to an internal visitor.
  * 
- * <p>One can use this class to override some methods.</p>
+ * <p>One can use this class to override some methods.
+ * A sub-class overriding visitInstruction, visitLine or visitFieldAccess should override
+ * {@link #getInterestMask()}, too. A sub-class overriding the method-callbacks
+ * should override {@link #isMethodObserved(Executable)}.</p>
  */
 public class ExecutionVisitorDelegation implements JvmExecutionVisitor {
 
@@ -27,6 +30,18 @@ public class ExecutionVisitorDelegation implements JvmExecutionVisitor {
 		this.visitor = visitor;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public int getInterestMask() {
+		return visitor.getInterestMask();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean isMethodObserved(final Executable method) {
+		return visitor.isMethodObserved(method);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void visitThreadStarted(Thread startedThread) {
@@ -63,6 +78,12 @@ public class ExecutionVisitorDelegation implements JvmExecutionVisitor {
 		visitor.visitInstruction(instr, stack, aLocals);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void visitLine(MethodFrame frame, int lineNumber) {
+		visitor.visitLine(frame, lineNumber);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Object visitFieldAccess(int opcode, Object owner, Field field, Object value) {
@@ -29,7 +29,6 @@ import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.MultiANewArrayInsnNode;
 import org.objectweb.asm.tree.TypeInsnNode;
 import org.objectweb.asm.tree.VarInsnNode;
-import org.rogmann.jsmud.vm.FrameDisplay;
 import org.rogmann.jsmud.vm.JvmException;
 import org.rogmann.jsmud.vm.JvmExecutionVisitor;
 import org.rogmann.jsmud.vm.MethodFrame;
@@ -57,6 +56,12 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 	/** output-allowed flag */
 	private boolean showOutput = true;
 
+	/** line-trace flag: the output shows lines instead of instructions */
+	private boolean showLinesOnly = false;
+
+	/** interest-mask, depends on output-flag and statistics-flags */
+	private volatile int interestMask;
+
 	/** statistics-flag */
 	private boolean showStatisticsAfterExecution = true;
 	/** optional additional statistics-producer (called at visitor-close) */
@@ -105,6 +110,30 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 		this.dumpClassStatistic = dumpClassStatistic;
 		this.dumpInstructionStatistic = dumpInstructionStatistic;
 		this.dumpMethodCallTrace = dumpMethodCallTrace;
+		this.interestMask = computeInterestMask();
+	}
+
+	/**
+	 * Computes the interest-mask. Instructions are needed for output and instruction-statistics only.
+	 * A line-trace needs lines only, so compiled code isn't de-optimized.
+	 * Field-accesses are not modified by this visitor.
+	 * @return interest-mask
+	 */
+	private int computeInterestMask() {
+		int mask = 0;
+		if ((showOutput && !showLinesOnly) || dumpClassStatistic || dumpInstructionStatistic) {
+			mask |= INTEREST_INSTRUCTION;
+		}
+		if (showOutput && showLinesOnly) {
+			mask |= INTEREST_LINE;
+		}
+		return mask;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int getInterestMask() {
+		return interestMask;
 	}
 
 	/** {@inheritDoc} */
@@ -205,22 +234,11 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 		}
 		final int opcode = instr.getOpcode();
 		if (opcode == -1) {
+			// The interpreter skips label- and frame-nodes, line-number-nodes are visited.
 			if (instr instanceof LineNumberNode) {
 				final LineNumberNode ln = (LineNumberNode) instr;
 				vFrame.currLine = ln.line;
 			}
-			else if (instr instanceof LabelNode) {
-				final LabelNode label = (LabelNode) instr;
-				if (showOutput) {
-					printer.println("  Label: " + label.getLabel());
-				}
-			}
-			else if (instr instanceof FrameNode) {
-				final FrameNode fn = (FrameNode) instr;
-				if (showOutput) {
-					printer.println(String.format("Frame %d: %s", Integer.valueOf(fn.type), FrameDisplay.lookup(fn.type)));
-				}
-			}
 		}
 		else {
 			if (dumpClassStatistic) {
@@ -232,7 +250,7 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 				counter.incrementAndGet();
 			}
 		}
-		if (!showOutput) {
+		if (!showOutput || showLinesOnly) {
 			return;
 		}
 		if (vFrame.isJreClass && !dumpJreInstructions) {
@@ -258,6 +276,19 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 		}
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void visitLine(final MethodFrame frame, final int lineNumber) {
+		vFrame.currLine = lineNumber;
+		if (!showOutput || !showLinesOnly) {
+			return;
+		}
+		if (vFrame.isJreClass && !dumpJreInstructions) {
+			return;
+		}
+		printer.println(String.format("L %d, %s", Integer.valueOf(lineNumber), frame.getMethod()));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Object visitFieldAccess(final int opcode, final Object owner, final Field field, final Object value) {
@@ -486,6 +517,16 @@ public class InstructionVisitor implements JvmExecutionVisitor {
 	 */
 	public void setShowOutput(final boolean flag) {
 		showOutput = flag;
+		interestMask = computeInterestMask();
+	}
+
+	/**
+	 * Sets if the output should show the executed lines instead of the executed instructions.
+	 * @param flag line-trace flag
+	 */
+	public void setShowLinesOnly(final boolean flag) {
+		showLinesOnly = flag;
+		interestMask = computeInterestMask();
 	}
 
 	/**
@@ -24,6 +24,9 @@ public class InstructionVisitorProvider implements JvmExecutionVisitorProvider {
 	/** output-allowed flag */
 	private boolean showOutput = true;
 
+	/** line-trace flag */
+	private boolean showLinesOnly = false;
+
 	/** statistics-flag */
 	private boolean showStatisticsAfterExecution = true;
 
@@ -80,6 +83,7 @@ public class InstructionVisitorProvider implements JvmExecutionVisitorProvider {
 				dumpInstructionStatistic,
 				dumpMethodCallTrace);
 		visitor.setShowOutput(showOutput);
+		visitor.setShowLinesOnly(showLinesOnly);
 		visitor.setShowStatisticsAfterExecution(showStatisticsAfterExecution);
 		return visitor;
 	}
@@ -92,6 +96,14 @@ public class InstructionVisitorProvider implements JvmExecutionVisitorProvider {
 		showOutput = flag;
 	}
 
+	/**
+	 * Sets if the output should show the executed lines instead of the executed instructions.
+	 * @param flag line-trace flag
+	 */
+	public void setShowLinesOnly(final boolean flag) {
+		showLinesOnly = flag;
+	}
+
 	/**
 	 * Sets if statistics after execution show be displayed.
 	 * @param flag statistics-flag
@@ -27,6 +27,47 @@ public class CallSiteContext {
 	/** method-handle to be executed */
 	private final Handle methodHandle;
 
+	/** resolved target of the method-handle or <code>null</code> */
+	private volatile ResolvedTarget resolvedTarget;
+
+	/**
+	 * Resolved target of the method-handle.
+	 * The target is resolved again after a class-redefinition (see {@link ClassRegistry#getRedefinitionCount()}).
+	 */
+	static final class ResolvedTarget {
+		/** class declaring the method */
+		final Class<?> classMethod;
+		/** executor of the method or <code>null</code> if the method is executed without simulation */
+		final SimpleClassExecutor executor;
+		/** method or constructor */
+		final Executable method;
+		/** invoke-instruction to execute the method in the simulation */
+		final int opcodeInvoke;
+		/** <code>true</code> if the method is static */
+		final boolean isStatic;
+		/** redefinition-count of the registry while resolving the target */
+		final int redefinitionCount;
+
+		/**
+		 * Constructor
+		 * @param classMethod class declaring the method
+		 * @param executor executor or <code>null</code>
+		 * @param method method or constructor
+		 * @param opcodeInvoke invoke-instruction (in case of an executor)
+		 * @param isStatic static-flag
+		 * @param redefinitionCount redefinition-count
+		 */
+		ResolvedTarget(final Class<?> classMethod, final SimpleClassExecutor executor, final Executable method,
+				final int opcodeInvoke, final boolean isStatic, final int redefinitionCount) {
+			this.classMethod = classMethod;
+			this.executor = executor;
+			this.method = method;
+			this.opcodeInvoke = opcodeInvoke;
+			this.isStatic = isStatic;
+			this.redefinitionCount = redefinitionCount;
+		}
+	}
+
 	/**
 	 * Constructor
 	 * @param registry class-registry
@@ -46,6 +87,59 @@ public class CallSiteContext {
 	 * @throws Throwable throwable in case of an exception
 	 */
 	public Object executeMethod(final Object[] args) throws Throwable {
+		ResolvedTarget target = resolvedTarget;
+		if (target == null || target.redefinitionCount != registry.getRedefinitionCount()) {
+			target = resolveTarget();
+			resolvedTarget = target;
+		}
+
+		final Object objReturn;
+		final SimpleClassExecutor executor = target.executor;
+		final Executable method = target.method;
+		if (executor == null) {
+			// The method should be executed without simulation.
+			if (LOG.isDebugEnabled()) {
+				LOG.debug(String.format("executeMethod: non-simulated execution of %s%s in %s",
+						methodHandle.getName(), methodHandle.getDesc(), target.classMethod));
+			}
+			final NativeMethodExecutor nativeExecutor = registry.getConfiguration().getNativeExecutor();
+			if (method instanceof Constructor) {
+				objReturn = nativeExecutor.executeConstructorNative((Constructor<?>) method, args);
+			}
+			else {
+				final Object obj;
+				final Object[] mArgs;
+				if (target.isStatic) {
+					obj = target.classMethod;
+					mArgs = args;
+				}
+				else {
+					obj = args[0];
+					mArgs = Arrays.copyOfRange(args, 1, args.length);
+				}
+				objReturn = nativeExecutor.executeMethodNative((Method) method, obj, mArgs);
+			}
+		}
+		else {
+			// The arguments are moved into the callee's locals directly.
+			final OperandStack stack = new OperandStack(args);
+			if (LOG.isDebugEnabled()) {
+				LOG.debug(String.format("executeMethod: opcode=%s, method=%s, %s",
+						OpcodeDisplay.lookup(target.opcodeInvoke), method, stack));
+			}
+			objReturn = executor.executeMethod(target.opcodeInvoke, method, methodHandle.getDesc(), stack);
+		}
+		return objReturn;
+	}
+
+	/**
+	 * Resolves the target of the method-handle.
+	 * @return resolved target
+	 * @throws ClassNotFoundException if an argument-class of the method to be simulated can't be loaded
+	 * @throws NoSuchMethodException if the method to be simulated can't be found
+	 */
+	private ResolvedTarget resolveTarget() throws ClassNotFoundException, NoSuchMethodException {
+		final int redefinitionCount = registry.getRedefinitionCount();
 		final String methodClassName = methodHandle.getOwner().replace('/', '.');
 		final Class<?> classMethod;
 		try {
@@ -55,14 +149,13 @@ public class CallSiteContext {
 					methodClassName, methodHandle, classOwner), e);
 		}
 
-		final Object objReturn;
 		final SimpleClassExecutor executor = registry.getClassExecutor(classMethod);
+		final Executable method;
+		final int opcodeInvoke;
 		if (executor == null) {
-			// The method should be executed without simulation.
 			final Type methodType = Type.getMethodType(methodHandle.getDesc());
 			final Type[] types = methodType.getArgumentTypes();
 			final Type returnType = methodType.getReturnType();
-			final Executable method;
 			if ("<init>".equals(methodHandle.getName())) {
 				method = MethodFrame.findConstrInClass(types, classMethod);
 			}
@@ -73,31 +166,10 @@ public class CallSiteContext {
 				throw new JvmException(String.format("Can't find method (%s) in class (%s)",
 						methodHandle.getName(), methodHandle.getDesc(), classMethod));
 			}
-			if (LOG.isDebugEnabled()) {
-				LOG.debug(String.format("executeMethod: non-simulated execution of %s%s in %s",
-						methodHandle.getName(), methodHandle.getDesc(), classMethod));
-			}
-			
-			method.setAccessible(true);
-			if (method instanceof Constructor) {
-				objReturn = ((Constructor<?>) method).newInstance(args);
-			}
-			else {
-				final Object obj;
-				final Object[] mArgs;
-				if (Modifier.isStatic(method.getModifiers())) {
-					obj = classMethod;
-					mArgs = args;
-				}
-				else {
-					obj = args[0];
-					mArgs = Arrays.copyOfRange(args, 1, args.length);
-				}
-				objReturn = ((Method) method).invoke(obj, mArgs);
-			}
+			opcodeInvoke = 0;
 		}
 		else {
-			final int opcodeInvoke = lookupInvokeOpcode(classOwner, methodHandle);
+			opcodeInvoke = lookupInvokeOpcode(classOwner, methodHandle);
 			final Type[] argTypes = Type.getArgumentTypes(methodHandle.getDesc());
 			final Class<?>[] aArgs = new Class<?>[argTypes.length];
 			for (int i = 0; i < argTypes.length; i++) {
@@ -105,18 +177,10 @@ public class CallSiteContext {
 				final Class<?> clazz = convertTypeToClass(type, classOwner);
 				aArgs[i] = clazz;
 			}
-			final Executable method = classMethod.getDeclaredMethod(methodHandle.getName(), aArgs);
-			final OperandStack stack = new OperandStack(args.length);
-			for (int i = 0; i < args.length; i++) {
-				stack.push(args[i]);
-			}
-			if (LOG.isDebugEnabled()) {
-				LOG.debug(String.format("executeMethod: opcode=%s, method=%s, %s",
-						OpcodeDisplay.lookup(opcodeInvoke), method, stack));
-			}
-			objReturn = executor.executeMethod(opcodeInvoke, method, methodHandle.getDesc(), stack);
+			method = classMethod.getDeclaredMethod(methodHandle.getName(), aArgs);
 		}
-		return objReturn;
+		return new ResolvedTarget(classMethod, executor, method, opcodeInvoke,
+				Modifier.isStatic(method.getModifiers()), redefinitionCount);
 	}
 
 	private Class<?> convertTypeToClass(final Type type, Class<?> classOwner) throws ClassNotFoundException {
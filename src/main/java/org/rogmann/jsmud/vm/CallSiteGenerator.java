@@ -2,6 +2,9 @@ package org.rogmann.jsmud.vm;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -87,8 +90,8 @@ public class CallSiteGenerator {
 	/** map from generated class to bytecode used */ 
 	private final ConcurrentMap<Class<?>, byte[]> mapBytecodes = new ConcurrentHashMap<>();
 
-	/** map from INVOKEDYNAMIC-instruction to call-site */
-	private final ConcurrentMap<InvokeDynamicInstructionKey, Class<?>> mapCallSiteClasses = new ConcurrentHashMap<>();
+	/** map from INVOKEDYNAMIC-instruction to call-site-factory */
+	private final ConcurrentMap<InvokeDynamicInstructionKey, CallSiteFactory> mapCallSiteFactories = new ConcurrentHashMap<>();
 
 	/** jsmud-configuration */
 	private final JsmudConfiguration config;
@@ -118,6 +121,61 @@ public class CallSiteGenerator {
 		
 	}
 
+	/**
+	 * Factory of the call-site-instances of an INVOKEDYNAMIC-instruction (LambdaMetafactory).
+	 * The factory contains the generated call-site-class, its constructor and the call-site-context
+	 * shared by the call-site-instances.
+	 */
+	static final class CallSiteFactory {
+		/** generated call-site-class */
+		final Class<?> classCallSite;
+		/** types of the captured arguments */
+		private final Type[] callSiteConstrArgs;
+		/** constructor of the call-site-class, type (Object[])Object (call-site-context and captured arguments) */
+		private final MethodHandle mhConstr;
+		/** call-site-context */
+		private final CallSiteContext callSiteContext;
+
+		/**
+		 * Constructor
+		 * @param classCallSite generated call-site-class
+		 * @param callSiteConstrArgs types of the captured arguments
+		 * @param mhConstr constructor of the call-site-class
+		 * @param callSiteContext call-site-context
+		 */
+		CallSiteFactory(final Class<?> classCallSite, final Type[] callSiteConstrArgs,
+				final MethodHandle mhConstr, final CallSiteContext callSiteContext) {
+			this.classCallSite = classCallSite;
+			this.callSiteConstrArgs = callSiteConstrArgs;
+			this.mhConstr = mhConstr;
+			this.callSiteContext = callSiteContext;
+		}
+
+		/**
+		 * Creates a call-site-instance. The captured arguments are taken from the stack.
+		 * @param stack current stack
+		 * @return call-site-instance
+		 */
+		Object createCallSite(final OperandStack stack) {
+			final Object[] args = new Object[1 + callSiteConstrArgs.length];
+			for (int i = args.length - 1; i > 0; i--) {
+				final Object oJvm = stack.pop();
+				// e.g. boolean outside lambda: int -> boolean.
+				final Object oDecl = MethodFrame.convertJvmTypeIntoDeclType(oJvm, callSiteConstrArgs[i - 1]);
+				args[i] = oDecl;
+			}
+			args[0] = callSiteContext;
+			final Object callSite;
+			try {
+				callSite = mhConstr.invokeExact(args);
+			} catch (Throwable e) {
+				throw new JvmException(String.format("Can't instanciate call-site (%s)",
+						classCallSite), e);
+			}
+			return callSite;
+		}
+	}
+
 	/**
 	 * Constructor
 	 * @param classLoader class-loader for generated classes
@@ -140,24 +198,56 @@ public class CallSiteGenerator {
 	 */
 	public Object createCallSite(ClassRegistry registry, final Class<?> classOwner,
 			final InvokeDynamicInsnNode idin, final OperandStack stack) {
-		final Handle bsm = idin.bsm;
-		if ("java/lang/runtime/SwitchBootstraps".equals(bsm.getOwner())
-				&& "typeSwitch".equals(bsm.getName())
-				&& "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;[Ljava/lang/Object;)Ljava/lang/invoke/CallSite;".equals(bsm.getDesc())) {
+		if (!isCallSiteFactory(idin)) {
 			return createCallSiteClassTypeSwitch(classOwner, idin, stack);
 		}
 		// bootstrap-method of java.lang.Record#toString():
 		//   bwm.owner = "java/lang/runtime/ObjectMethods"
 		//   bsm.name = "bootstrap"
 		//   bsm.desc = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/TypeDescriptor;Ljava/lang/Class;Ljava/lang/String;[Ljava/lang/invoke/MethodHandle;)Ljava/lang/Object;"
+		return getCallSiteFactory(registry, classOwner, idin).createCallSite(stack);
+	}
+
+	/**
+	 * Checks if the call-site-instances of an INVOKEDYNAMIC-instruction are built by a call-site-factory.
+	 * @param idin INVOKEDYNAMIC
+	 * @return <code>true</code> in case of a call-site-factory, <code>false</code> in case of a type-switch
+	 */
+	static boolean isCallSiteFactory(final InvokeDynamicInsnNode idin) {
+		final Handle bsm = idin.bsm;
+		return !("java/lang/runtime/SwitchBootstraps".equals(bsm.getOwner())
+				&& "typeSwitch".equals(bsm.getName())
+				&& "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;[Ljava/lang/Object;)Ljava/lang/invoke/CallSite;".equals(bsm.getDesc()));
+	}
+
+	/**
+	 * Gets the call-site-factory of an INVOKEDYNAMIC-instruction.
+	 * The call-site-class is generated at the first call.
+	 * @param registry class-registry (VM)
+	 * @param classOwner owner-class
+	 * @param idin INVOKEDYNAMIC
+	 * @return call-site-factory
+	 */
+	CallSiteFactory getCallSiteFactory(final ClassRegistry registry, final Class<?> classOwner,
+			final InvokeDynamicInsnNode idin) {
 		final InvokeDynamicInstructionKey key = new InvokeDynamicInstructionKey(classOwner, idin);
-		Class<?> classCallSite = mapCallSiteClasses.get(key);
-		if (classCallSite == null) {
-			// In a multi-threaded environment this computeIfAbsent-less implementation could result in several call-site-classes.
-			classCallSite = createCallSiteClassMetafactory(classOwner, idin);
-			mapCallSiteClasses.put(key, classCallSite);
+		CallSiteFactory factory = mapCallSiteFactories.get(key);
+		if (factory == null) {
+			factory = mapCallSiteFactories.computeIfAbsent(key, k -> createCallSiteFactory(registry, classOwner, idin));
 		}
-		
+		return factory;
+	}
+
+	/**
+	 * Generates the call-site-class of an INVOKEDYNAMIC-instruction and builds its factory.
+	 * @param registry class-registry (VM)
+	 * @param classOwner owner-class
+	 * @param idin INVOKEDYNAMIC
+	 * @return call-site-factory
+	 */
+	private CallSiteFactory createCallSiteFactory(final ClassRegistry registry, final Class<?> classOwner,
+			final InvokeDynamicInsnNode idin) {
+		final Class<?> classCallSite = createCallSiteClassMetafactory(classOwner, idin);
 		final Type[] callSiteConstrArgs = Type.getArgumentTypes(idin.desc);
 		final Constructor<?> constr;
 		try {
@@ -167,24 +257,19 @@ public class CallSiteGenerator {
 					classCallSite, classOwner, idin.name, idin.desc), e);
 		}
 		constr.setAccessible(true);
-		final Object[] args = new Object[1 + callSiteConstrArgs.length];
-		final Handle methodHandle = (Handle) idin.bsmArgs[1];
-		final CallSiteContext callSiteContext = new CallSiteContext(registry, classOwner, methodHandle);
-		for (int i = args.length - 1; i > 0; i--) {
-			final Object oJvm = stack.pop();
-			// e.g. boolean outside lambda: int -> boolean.
-			final Object oDecl = MethodFrame.convertJvmTypeIntoDeclType(oJvm, callSiteConstrArgs[i - 1]);
-			args[i] = oDecl;
-		}
-		args[0] = callSiteContext;
-		final Object callSite;
+		final int numArgs = 1 + callSiteConstrArgs.length;
+		final MethodHandle mhConstr;
 		try {
-			callSite = constr.newInstance(args);
-		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-			throw new JvmException(String.format("Can't instanciate call-site (%s) for class (%s)",
+			mhConstr = MethodHandles.lookup().unreflectConstructor(constr)
+					.asType(MethodType.genericMethodType(numArgs))
+					.asSpreader(Object[].class, numArgs);
+		} catch (IllegalAccessException e) {
+			throw new JvmException(String.format("Can't access constructor of call-site (%s) for class (%s)",
 					classCallSite, classOwner), e);
 		}
-		return callSite;
+		final Handle methodHandle = (Handle) idin.bsmArgs[1];
+		final CallSiteContext callSiteContext = new CallSiteContext(registry, classOwner, methodHandle);
+		return new CallSiteFactory(classCallSite, callSiteConstrArgs, mhConstr, callSiteContext);
 	}
 	
 	/**
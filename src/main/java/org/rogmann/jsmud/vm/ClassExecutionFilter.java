@@ -2,6 +2,9 @@ package org.rogmann.jsmud.vm;
 
 /**
  * Interface for filtering classes to be simulated by the interpreter.
+ *
+ * <p>The decision of a class is memoized by the class-registry,
+ * so a filter should give the same decision at each call.</p>
  */
 public interface ClassExecutionFilter {
 
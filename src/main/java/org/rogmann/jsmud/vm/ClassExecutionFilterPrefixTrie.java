@@ -0,0 +1,156 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Filter of classes given by lists of name-prefixes to be included or excluded, e.g. "java.util." or "org.example.".
+ *
+ * <p>The prefixes are compiled into a trie of the characters of the prefixes.
+ * A class-name is checked in one pass independent of the number of prefixes,
+ * the longest matching prefix decides. An excluded prefix wins against the same included prefix.
+ * A class-name without matching prefix gets the default-decision.</p>
+ * <p>The filter is immutable.</p>
+ */
+public class ClassExecutionFilterPrefixTrie implements ClassExecutionFilter {
+
+	/** no prefix ends at a node */
+	private static final byte DECISION_NONE = 0;
+	/** an included prefix ends at a node */
+	private static final byte DECISION_SIMULATE = 1;
+	/** an excluded prefix ends at a node */
+	private static final byte DECISION_EXECUTE = 2;
+
+	/** default-decision in case of no matching prefix */
+	private final boolean isSimulationDefault;
+
+	/** root-node of the trie */
+	private final Node root;
+
+	/**
+	 * Compiled node of the trie.
+	 */
+	static final class Node {
+		/** sorted characters of the child-nodes */
+		final char[] keys;
+		/** child-nodes */
+		final Node[] children;
+		/** decision of a prefix ending at this node */
+		final byte decision;
+
+		/**
+		 * Constructor
+		 * @param keys sorted characters of the child-nodes
+		 * @param children child-nodes
+		 * @param decision decision of a prefix ending at this node
+		 */
+		Node(final char[] keys, final Node[] children, final byte decision) {
+			this.keys = keys;
+			this.children = children;
+			this.decision = decision;
+		}
+	}
+
+	/**
+	 * Node of the trie while adding prefixes.
+	 */
+	static final class BuildNode {
+		/** child-nodes */
+		final Map<Character, BuildNode> children = new TreeMap<>();
+		/** decision of a prefix ending at this node */
+		byte decision = DECISION_NONE;
+	}
+
+	/**
+	 * Constructor
+	 * @param isSimulationDefault <code>true</code> if classes without matching prefix are to be simulated
+	 * @param includes prefixes of class-names to be simulated
+	 * @param excludes prefixes of class-names to be executed by the underlying JVM
+	 */
+	public ClassExecutionFilterPrefixTrie(final boolean isSimulationDefault,
+			final Collection<String> includes, final Collection<String> excludes) {
+		this.isSimulationDefault = isSimulationDefault;
+		final BuildNode buildRoot = new BuildNode();
+		for (final String prefix : includes) {
+			addPrefix(buildRoot, prefix, DECISION_SIMULATE);
+		}
+		for (final String prefix : excludes) {
+			addPrefix(buildRoot, prefix, DECISION_EXECUTE);
+		}
+		root = compile(buildRoot);
+	}
+
+	/**
+	 * Adds a prefix into the trie.
+	 * @param buildRoot root-node
+	 * @param prefix prefix of class-names
+	 * @param decision decision of the prefix
+	 */
+	private static void addPrefix(final BuildNode buildRoot, final String prefix, final byte decision) {
+		BuildNode node = buildRoot;
+		final int len = prefix.length();
+		for (int i = 0; i < len; i++) {
+			node = node.children.computeIfAbsent(Character.valueOf(prefix.charAt(i)), c -> new BuildNode());
+		}
+		if (node.decision != DECISION_EXECUTE) {
+			node.decision = decision;
+		}
+	}
+
+	/**
+	 * Compiles a node and its child-nodes.
+	 * @param buildNode node of the trie while adding prefixes
+	 * @return compiled node
+	 */
+	private static Node compile(final BuildNode buildNode) {
+		final int numChildren = buildNode.children.size();
+		final char[] keys = new char[numChildren];
+		final Node[] children = new Node[numChildren];
+		int idx = 0;
+		for (final Entry<Character, BuildNode> entry : buildNode.children.entrySet()) {
+			keys[idx] = entry.getKey().charValue();
+			children[idx] = compile(entry.getValue());
+			idx++;
+		}
+		return new Node(keys, children, buildNode.decision);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean isClassToBeSimulated(final Class<?> clazz) {
+		return isClassNameToBeSimulated(clazz.getName());
+	}
+
+	/**
+	 * Checks if a class given by its name should be interpreted by the simulator.
+	 * @param className name of the class, e.g. "java.util.ArrayList"
+	 * @return <code>true</code> if the class should be interpreted by the simulator
+	 */
+	public boolean isClassNameToBeSimulated(final String className) {
+		byte decision = root.decision;
+		Node node = root;
+		final int len = className.length();
+		for (int i = 0; i < len; i++) {
+			final int idx = Arrays.binarySearch(node.keys, className.charAt(i));
+			if (idx < 0) {
+				break;
+			}
+			node = node.children[idx];
+			if (node.decision != DECISION_NONE) {
+				decision = node.decision;
+			}
+		}
+		final boolean isSimulation;
+		if (decision == DECISION_NONE) {
+			isSimulation = isSimulationDefault;
+		}
+		else {
+			isSimulation = (decision == DECISION_SIMULATE);
+		}
+		return isSimulation;
+	}
+
+}
@@ -105,12 +105,30 @@ public class ClassRegistry implements VM, ObjectMonitor {
 	/** maximum number of while waiting for a monitor-slot */ 
 	private static final AtomicInteger MONITOR_MAX_TRIES = new AtomicInteger(100);
 
-	/** map from class to executor */
-	private final ThreadLocal<ConcurrentMap<Class<?>, SimpleClassExecutor>> tlMapClassExecutors = ThreadLocal.withInitial(() -> new ConcurrentHashMap<>(500));
+	/** map from class to executor (shared by all threads) */
+	private final ConcurrentMap<Class<?>, SimpleClassExecutor> mapClassExecutors = new ConcurrentHashMap<>(500);
+
+	/** map from class to executor of classes simulated regardless of the filter (shared by all threads) */
+	private final ConcurrentMap<Class<?>, SimpleClassExecutor> mapClassExecutorsForced = new ConcurrentHashMap<>();
+
+	/** execution-visitor of the current thread */
+	private final ThreadLocal<JvmExecutionVisitor> tlVisitor = new ThreadLocal<>();
+
+	/** frame-arena of the current thread */
+	private final ThreadLocal<FrameArena> tlFrameArena = ThreadLocal.withInitial(FrameArena::new);
 
 	/** execution-filter */
 	final ClassExecutionFilter executionFilter;
 
+	/** memoized decisions of the execution-filter, held weakly by the classes */
+	private final ClassValue<Boolean> cvIsClassToBeSimulated = new ClassValue<Boolean>() {
+		/** {@inheritDoc} */
+		@Override
+		protected Boolean computeValue(final Class<?> type) {
+			return Boolean.valueOf(executionFilter.isClassToBeSimulated(type));
+		}
+	};
+
 	/** configuration of jsmud-analysis */
 	private final JsmudConfiguration configuration;
 
@@ -125,6 +143,12 @@ public class ClassRegistry implements VM, ObjectMonitor {
 
 	/** VM-suspend-counter */
 	private final AtomicInteger vmSuspendCounter = new AtomicInteger();
+
+	/** number of class-redefinitions (used to invalidate inline-caches) */
+	private final AtomicInteger redefinitionCounter = new AtomicInteger();
+
+	/** generation of the event-requests (used to invalidate de-simulation-decisions) */
+	private final AtomicInteger eventRequestGeneration = new AtomicInteger();
 	
 	/** thread-id of the thread being debugged */
 	private final ConcurrentMap<Long, VMThreadID> mapThreads = new ConcurrentHashMap<>();
@@ -165,7 +189,7 @@ public class ClassRegistry implements VM, ObjectMonitor {
 	/** map of loaded classes */
 	private final ConcurrentMap<String, Class<?>> mapLoadedClasses = new ConcurrentHashMap<>();
 
-	/** map from (patched) classes to is-initialized flag */
+	/** map from (patched) classes to is-initialized flag (<code>false</code> while the static initializer is running) */
 	protected final ConcurrentMap<Class<?>, Boolean> mapClassesClinitIsInitialized = new ConcurrentHashMap<>();
 	/** map from (patched) classes to CLINIT-executor */
 	protected final ConcurrentMap<Class<?>, Runnable> mapClassesClinitExecutor = new ConcurrentHashMap<>();
@@ -265,29 +289,46 @@ public class ClassRegistry implements VM, ObjectMonitor {
 	 * @return executor or <code>null</code>
 	 */
 	public SimpleClassExecutor getClassExecutor(final Class<?> clazz, final boolean forceSimulation) {
-		final ConcurrentMap<Class<?>, SimpleClassExecutor> mapClassExecutors = tlMapClassExecutors.get();
 		SimpleClassExecutor executor = mapClassExecutors.get(clazz);
-		// We don't want to analyze ourself (i.e. JsmudClassLoader).
+		// We don't want to analyze ourself (i.e. JsmudClassLoader or the handover of entry-methods).
 		if (executor == null && MockMethods.class.equals(clazz)) {
-			executor = new SimpleClassExecutor(this, clazz, invocationHandler);
-			mapClassExecutors.put(clazz, executor);
-			executor.getVisitor().visitLoadClass(clazz);
-		}
-		else if (executor == null && !JsmudClassLoader.class.equals(clazz)) {
-			boolean isFilterClassToBeSimulated = executionFilter.isClassToBeSimulated(clazz);
-			boolean doSimulation = isFilterClassToBeSimulated || forceSimulation;
-			if (doSimulation) {
-				executor = new SimpleClassExecutor(this, clazz, invocationHandler);
-				if (isFilterClassToBeSimulated) {
-					// All methods in this class should be simulated.
-					mapClassExecutors.put(clazz, executor);
+			executor = createClassExecutor(mapClassExecutors, clazz);
+		}
+		else if (executor == null && !JsmudClassLoader.class.equals(clazz) && !EntryTrigger.class.equals(clazz)) {
+			// The filter is called once per class only.
+			boolean isFilterClassToBeSimulated = cvIsClassToBeSimulated.get(clazz).booleanValue();
+			if (isFilterClassToBeSimulated) {
+				// All methods in this class should be simulated.
+				executor = createClassExecutor(mapClassExecutors, clazz);
+			}
+			else if (forceSimulation) {
+				executor = mapClassExecutorsForced.get(clazz);
+				if (executor == null) {
+					executor = createClassExecutor(mapClassExecutorsForced, clazz);
 				}
-				executor.getVisitor().visitLoadClass(clazz);
 			}
 		}
 		return executor;
 	}
 
+	/**
+	 * Creates an executor and stores it in a map shared by all threads.
+	 * The class is parsed once only, a thread loosing the race uses the executor of the other thread.
+	 * @param mapExecutors map of executors
+	 * @param clazz class to be simulated
+	 * @return executor
+	 */
+	private SimpleClassExecutor createClassExecutor(final ConcurrentMap<Class<?>, SimpleClassExecutor> mapExecutors,
+			final Class<?> clazz) {
+		final SimpleClassExecutor executor = new SimpleClassExecutor(this, clazz, invocationHandler);
+		final SimpleClassExecutor executorPrev = mapExecutors.putIfAbsent(clazz, executor);
+		if (executorPrev != null) {
+			return executorPrev;
+		}
+		getCurrentVisitor().visitLoadClass(clazz);
+		return executor;
+	}
+
 	/**
 	 * Gets the configuration.
 	 * @return configuration
@@ -305,11 +346,15 @@ public class ClassRegistry implements VM, ObjectMonitor {
 	/** {@inheritDoc} */
 	@Override
 	public JvmExecutionVisitor getCurrentVisitor() {
-		final Long threadKey = Long.valueOf(Thread.currentThread().getId());
-		final JvmExecutionVisitor visitor = mapThreadVisitor.get(threadKey);
+		JvmExecutionVisitor visitor = tlVisitor.get();
 		if (visitor == null) {
-			throw new JvmException(String.format("No registered execution-visitor of thread (%d/%s)",
-					threadKey, Thread.currentThread().getName()));
+			final Long threadKey = Long.valueOf(Thread.currentThread().getId());
+			visitor = mapThreadVisitor.get(threadKey);
+			if (visitor == null) {
+				throw new JvmException(String.format("No registered execution-visitor of thread (%d/%s)",
+						threadKey, Thread.currentThread().getName()));
+			}
+			tlVisitor.set(visitor);
 		}
 		return visitor;
 	}
@@ -437,8 +482,9 @@ public class ClassRegistry implements VM, ObjectMonitor {
 	 */
 	private void checkAndExecutePatchedClinit(Class<?> clazz, final SimpleClassExecutor executor,
 			final JsmudClassLoader jsmudCl) {
-		final Boolean isInit = mapClassesClinitIsInitialized.putIfAbsent(clazz, Boolean.TRUE);
-		boolean initializeClass = jsmudCl.isStaticInitializerPatched(clazz) && (isInit == null);
+		final boolean isPatched = jsmudCl.isStaticInitializerPatched(clazz);
+		final Boolean isInit = mapClassesClinitIsInitialized.putIfAbsent(clazz, Boolean.valueOf(!isPatched));
+		boolean initializeClass = isPatched && (isInit == null);
 		boolean isJdwpRunning = false;
 		DebuggerJvmVisitor dgbVisitor = null;
 		if (initializeClass) {
@@ -490,6 +536,8 @@ public class ClassRegistry implements VM, ObjectMonitor {
 								className, clazz.getClassLoader()));
 					}
 					executor.executeMethod(Opcodes.INVOKESTATIC, pMethod, methodDesc, args);
+					// The class is initialized, the flag is stable from now on.
+					mapClassesClinitIsInitialized.put(clazz, Boolean.TRUE);
 				} catch (final Throwable e) {
 					throw new JvmException(String.format("Error while executing static initializer (%s) in (%s)",
 							methodName, className), e);
@@ -519,6 +567,27 @@ public class ClassRegistry implements VM, ObjectMonitor {
 		}
 	}
 
+	/**
+	 * Checks if a class has to be initialized, executes its static initializer if necessary
+	 * and tells if the class is initialized completely.
+	 * A call-site may skip further checks of the class if the result is <code>true</code>.
+	 * The result is <code>false</code> while the static initializer is running.
+	 * @param clazz class
+	 * @return stable is-initialized flag
+	 */
+	boolean initializeClass(final Class<?> clazz) {
+		checkClassInitialization(clazz);
+		final Boolean isInit = mapClassesClinitIsInitialized.get(clazz);
+		if (isInit != null) {
+			return isInit.booleanValue();
+		}
+		if (!(classLoaderDefault instanceof JsmudClassLoader)) {
+			// There are no patched static initializers.
+			return true;
+		}
+		return !((JsmudClassLoader) classLoaderDefault).isStaticInitializerPatched(clazz);
+	}
+
 	/**
 	 * Stores the bytecode of a class defined at runtime.
 	 * @param classLoader class-loader of defined class
@@ -564,6 +633,22 @@ public class ClassRegistry implements VM, ObjectMonitor {
 		final Class<?> classNew = classLoader.redefineJsmudClass(classUntilNow.getName(), aClassbytes,
 				classUntilNow);
 		mapLoadedClasses.put(classNew.getName(), classNew);
+		redefinitionCounter.incrementAndGet();
+	}
+
+	/**
+	 * Gets the number of class-redefinitions.
+	 *
+	 * <p>Caches of resolved classes, fields and methods (e.g. the inline-caches of the instructions)
+	 * store this count in each entry. A lookup passes the current count and ignores the entries
+	 * of another count, so the classes, fields and methods are resolved again after a redefinition.
+	 * Adding an entry of the current count removes the outdated entries. The resolved part of an entry
+	 * is immutable and the entries are published as a whole, so a cache can be shared by several threads
+	 * without locking: a concurrent resolution stores an equivalent entry.</p>
+	 * @return redefinition-count
+	 */
+	public int getRedefinitionCount() {
+		return redefinitionCounter.get();
 	}
 
 	/**
@@ -684,6 +769,9 @@ public class ClassRegistry implements VM, ObjectMonitor {
 			mapThreadSuspendCounter.put(threadKey, new AtomicInteger(0));
 			final JvmExecutionVisitor visitor = visitorProvider.create(this, thread, parentVisitor);
 			mapThreadVisitor.put(threadKey, visitor);
+			if (Thread.currentThread().equals(thread)) {
+				tlVisitor.set(visitor);
+			}
 		}
 		return isThreadWasNotRegistered;
 	}
@@ -710,7 +798,8 @@ public class ClassRegistry implements VM, ObjectMonitor {
 		}
 		finally {
 			if (Thread.currentThread().equals(thread)) {
-				tlMapClassExecutors.remove();
+				tlVisitor.remove();
+				tlFrameArena.remove();
 			}
 		}
 	}
@@ -1831,6 +1920,73 @@ public class ClassRegistry implements VM, ObjectMonitor {
 		return (refObj != null) ? refObj.get() : null;
 	}
 	
+	/**
+	 * Gets the reference of a method-frame which has been given to the debugger.
+	 * @param frame method-frame
+	 * @return frame-reference or <code>null</code> if the frame isn't known
+	 */
+	RefFrameBean getRefFrameBean(final MethodFrame frame) {
+		return mapRefFrameBean.get(frame);
+	}
+
+	/**
+	 * Gets the frame-arena of the current thread.
+	 * @return frame-arena or <code>null</code> if frames shouldn't be recycled
+	 */
+	FrameArena getFrameArena() {
+		return configuration.isFrameArena ? tlFrameArena.get() : null;
+	}
+
+	/**
+	 * Checks if calls of simulated methods should be executed by a trampoline.
+	 * @return trampoline-flag
+	 */
+	boolean isTrampolineInterpreter() {
+		return configuration.isTrampolineInterpreter;
+	}
+
+	/**
+	 * Checks if methods should be translated into register-code.
+	 * @return register-tier-flag
+	 */
+	boolean isRegisterTier() {
+		return configuration.isRegisterTier;
+	}
+
+	/**
+	 * Gets the number of calls of a method before it may be executed by the underlying JVM.
+	 * @return de-simulation-threshold, 0 if de-simulation is disabled
+	 */
+	int getDesimulationThreshold() {
+		return configuration.desimulationThreshold;
+	}
+
+	/**
+	 * Gets the generation of the event-requests.
+	 * @return generation
+	 */
+	int getEventRequestGeneration() {
+		return eventRequestGeneration.get();
+	}
+
+	/**
+	 * Invalidates the de-simulation- and observation-decisions after a change of the event-requests.
+	 * A de-simulated or quickened method which could match a new event-request will be simulated
+	 * again instruction by instruction.
+	 */
+	public void invalidateDesimulation() {
+		eventRequestGeneration.incrementAndGet();
+	}
+
+	/**
+	 * Checks if a class should be simulated due to the execution-filter.
+	 * @param clazz class
+	 * @return <code>true</code> if the filter selects the class
+	 */
+	boolean isClassToBeSimulated(final Class<?> clazz) {
+		return cvIsClassToBeSimulated.get(clazz).booleanValue();
+	}
+
 	/**
 	 * Pushes a method-frame onto the stack.
 	 * @param thread current thread
@@ -0,0 +1,444 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import org.rogmann.jsmud.log.Logger;
+import org.rogmann.jsmud.log.LoggerFactory;
+
+/**
+ * Compiled code of a hot int-method (optional execution-tier).
+ *
+ * <p>The instructions of a method supported by {@link RegisterCode#isIntMethod(MethodNode, MethodCode)}
+ * are copied into a static method of a generated class, so they are executed by the JIT of the underlying JVM.
+ * The generated method gets the int-locals in an int-array. At safe-points (jump-targets of backward-branches
+ * and line-numbers with empty operand-stack) the generated code checks the interest of the execution-visitor.
+ * If the visitor is interested in single instructions (e.g. a breakpoint or step-request has been set)
+ * the generated code stores the locals and the program-counter of the safe-point into the array and returns,
+ * the stack-interpreter continues the execution of the frame (de-optimization).</p>
+ *
+ * <p>At each line-number the generated code calls {@link JvmExecutionVisitor#visitLine(MethodFrame, int)}
+ * if the visitor is interested in lines, so a line-tracing visitor doesn't force the method into the interpreter.
+ * The other instruction-callbacks aren't needed: an int-method doesn't access fields
+ * and the method-callbacks are called by the frame.</p>
+ */
+final class CompiledCode {
+	/** logger */
+	private static final Logger LOG = LoggerFactory.getLogger(CompiledCode.class);
+
+	/** counter of generated classes */
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	/** internal name of the execution-visitor */
+	private static final String INTERNAL_NAME_VISITOR = Type.getInternalName(JvmExecutionVisitor.class);
+
+	/** name of the generated method */
+	private static final String METHOD_EXECUTE = "execute";
+
+	/** type of the generated method */
+	private static final MethodType TYPE_EXECUTE = MethodType.methodType(int.class, int[].class,
+			JvmExecutionVisitor.class, MethodFrame.class);
+
+	/** generated method */
+	private final MethodHandle mhExecute;
+
+	/** index of the program-counter of a de-optimization in the state-array (max-locals) */
+	private final int idxDeoptPc;
+
+	/** <code>true</code> if the method returns void */
+	private final boolean isVoid;
+
+	/** indices of the int-arguments in the locals */
+	private final int[] intArgLocals;
+
+	/** indices of the int-locals */
+	private final int[] intLocals;
+
+	/**
+	 * Class-loader of a generated class.
+	 * Each generated class gets its own class-loader, so the class can be unloaded with its execution-plan.
+	 */
+	static final class CompiledCodeClassLoader extends ClassLoader {
+		/**
+		 * Constructor
+		 * @param parent parent class-loader (class-loader of jsmud)
+		 */
+		CompiledCodeClassLoader(final ClassLoader parent) {
+			super(parent);
+		}
+
+		/**
+		 * Defines the generated class.
+		 * @param name class-name
+		 * @param bytecode bytecode of the class
+		 * @return class
+		 */
+		Class<?> define(final String name, final byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param mhExecute generated method
+	 * @param maxLocals number of locals
+	 * @param isVoid <code>true</code> if the method returns void
+	 * @param intArgLocals indices of the int-arguments
+	 * @param intLocals indices of the int-locals
+	 */
+	private CompiledCode(final MethodHandle mhExecute, final int maxLocals, final boolean isVoid,
+			final int[] intArgLocals, final int[] intLocals) {
+		this.mhExecute = mhExecute;
+		this.idxDeoptPc = maxLocals;
+		this.isVoid = isVoid;
+		this.intArgLocals = intArgLocals;
+		this.intLocals = intLocals;
+	}
+
+	/**
+	 * Compiles an int-method.
+	 * @param method ASM-method
+	 * @param code pre-decoded code
+	 * @param argDefs types of the arguments
+	 * @param argLocalIndices local-indices of the arguments in the order of the caller's stack
+	 * @return compiled code or <code>null</code> if the method can't be compiled
+	 */
+	static CompiledCode compile(final MethodNode method, final MethodCode code,
+			final Type[] argDefs, final int[] argLocalIndices) {
+		if (!RegisterCode.isIntMethod(method, code)) {
+			return null;
+		}
+		final boolean[] isSafepoint = computeSafepoints(method);
+		if (isSafepoint == null) {
+			return null;
+		}
+		final int[] intArgLocals = RegisterCode.getIntArgLocals(argDefs, argLocalIndices);
+		final int[] intLocals = RegisterCode.getIntLocals(method, code, intArgLocals);
+		final String className = String.format("org.rogmann.jsmud.vm.compiled.CompiledCode%d",
+				Integer.valueOf(COUNTER.incrementAndGet()));
+		final byte[] bytecode = generate(className, method, code, isSafepoint, intArgLocals, intLocals);
+		final MethodHandle mhExecute;
+		try {
+			final CompiledCodeClassLoader cl = new CompiledCodeClassLoader(CompiledCode.class.getClassLoader());
+			final Class<?> classCompiled = cl.define(className, bytecode);
+			mhExecute = MethodHandles.publicLookup().findStatic(classCompiled, METHOD_EXECUTE, TYPE_EXECUTE);
+		} catch (LinkageError | ReflectiveOperationException e) {
+			LOG.error(String.format("Couldn't compile method (%s%s)", method.name, method.desc), e);
+			return null;
+		}
+		final boolean isVoid = (Type.getReturnType(method.desc) == Type.VOID_TYPE);
+		return new CompiledCode(mhExecute, method.maxLocals, isVoid, intArgLocals, intLocals);
+	}
+
+	/**
+	 * Computes the safe-points of a method: jump-targets of backward-branches and line-numbers
+	 * where the operand-stack is empty.
+	 * @param method ASM-method
+	 * @return safe-point-flags by ASM-index or <code>null</code> if a backward-branch has a non-empty stack
+	 */
+	private static boolean[] computeSafepoints(final MethodNode method) {
+		final InsnList instructions = method.instructions;
+		final AbstractInsnNode[] insns = instructions.toArray();
+		final int[] depthAt = new int[insns.length];
+		Arrays.fill(depthAt, -1);
+		final boolean[] isSafepoint = new boolean[insns.length];
+		int depth = 0;
+		boolean isReachable = true;
+		for (int i = 0; i < insns.length; i++) {
+			final AbstractInsnNode insn = insns[i];
+			if (insn instanceof LabelNode) {
+				if (isReachable) {
+					if (depthAt[i] >= 0 && depthAt[i] != depth) {
+						return null;
+					}
+					depthAt[i] = depth;
+				}
+				else if (depthAt[i] >= 0) {
+					depth = depthAt[i];
+					isReachable = true;
+				}
+				continue;
+			}
+			if (!isReachable) {
+				continue;
+			}
+			if (insn instanceof LineNumberNode) {
+				isSafepoint[i] = (depth == 0);
+				continue;
+			}
+			final int opcode = insn.getOpcode();
+			switch (opcode) {
+			case Opcodes.ICONST_M1: case Opcodes.ICONST_0: case Opcodes.ICONST_1: case Opcodes.ICONST_2:
+			case Opcodes.ICONST_3: case Opcodes.ICONST_4: case Opcodes.ICONST_5:
+			case Opcodes.BIPUSH: case Opcodes.SIPUSH: case Opcodes.LDC:
+			case Opcodes.ILOAD: case Opcodes.DUP:
+				depth++;
+				break;
+			case Opcodes.ISTORE: case Opcodes.POP:
+			case Opcodes.IADD: case Opcodes.ISUB: case Opcodes.IMUL: case Opcodes.IAND: case Opcodes.IOR:
+			case Opcodes.IXOR: case Opcodes.ISHL: case Opcodes.ISHR: case Opcodes.IUSHR:
+			case Opcodes.IFEQ: case Opcodes.IFNE: case Opcodes.IFLT: case Opcodes.IFGE: case Opcodes.IFGT: case Opcodes.IFLE:
+				depth--;
+				break;
+			case Opcodes.IF_ICMPEQ: case Opcodes.IF_ICMPNE: case Opcodes.IF_ICMPLT:
+			case Opcodes.IF_ICMPGE: case Opcodes.IF_ICMPGT: case Opcodes.IF_ICMPLE:
+				depth -= 2;
+				break;
+			case Opcodes.IRETURN: case Opcodes.RETURN:
+				isReachable = false;
+				break;
+			default:
+				// IINC, INEG, I2B, I2C, I2S, GOTO, NOP
+				break;
+			}
+			if (insn instanceof JumpInsnNode) {
+				final int target = instructions.indexOf(((JumpInsnNode) insn).label);
+				if (depthAt[target] >= 0 && depthAt[target] != depth) {
+					return null;
+				}
+				depthAt[target] = depth;
+				if (target < i) {
+					if (depth != 0) {
+						return null;
+					}
+					isSafepoint[target] = true;
+				}
+				if (opcode == Opcodes.GOTO) {
+					isReachable = false;
+				}
+			}
+		}
+		return isSafepoint;
+	}
+
+	/**
+	 * Generates the class containing the compiled method.
+	 * The local i of the method is the local i + 3 of the generated method,
+	 * the locals 0, 1 and 2 are the state-array, the execution-visitor and the frame.
+	 * @param className name of the generated class
+	 * @param method ASM-method
+	 * @param code pre-decoded code
+	 * @param isSafepoint safe-point-flags by ASM-index
+	 * @param intArgLocals indices of the int-arguments
+	 * @param intLocals indices of the int-locals
+	 * @return bytecode
+	 */
+	private static byte[] generate(final String className, final MethodNode method, final MethodCode code,
+			final boolean[] isSafepoint, final int[] intArgLocals, final int[] intLocals) {
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+				className.replace('.', '/'), null, "java/lang/Object", null);
+		final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, METHOD_EXECUTE,
+				TYPE_EXECUTE.toMethodDescriptorString(), null, null);
+		mv.visitCode();
+		final int idxDeoptPc = method.maxLocals;
+		final int localDeoptPc = method.maxLocals + 3;
+		final int localMask = method.maxLocals + 4;
+
+		// Prologue: read the int-arguments, initialize the other int-locals.
+		final boolean[] isIntArg = new boolean[method.maxLocals];
+		for (final int local : intArgLocals) {
+			isIntArg[local] = true;
+		}
+		for (final int local : intLocals) {
+			if (isIntArg[local]) {
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				pushInt(mv, local);
+				mv.visitInsn(Opcodes.IALOAD);
+			}
+			else {
+				mv.visitInsn(Opcodes.ICONST_0);
+			}
+			mv.visitVarInsn(Opcodes.ISTORE, local + 3);
+		}
+
+		final Label labelDeopt = new Label();
+		boolean hasSafepoints = false;
+		final Map<LabelNode, Label> mapLabels = new HashMap<>();
+		final InsnList instructions = method.instructions;
+		final AbstractInsnNode[] insns = instructions.toArray();
+		for (int i = 0; i < insns.length; i++) {
+			final AbstractInsnNode insn = insns[i];
+			if (insn instanceof LabelNode) {
+				mv.visitLabel(mapLabels.computeIfAbsent((LabelNode) insn, l -> new Label()));
+			}
+			if (isSafepoint[i] || insn instanceof LineNumberNode) {
+				mv.visitVarInsn(Opcodes.ALOAD, 1);
+				mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, INTERNAL_NAME_VISITOR, "getInterestMask", "()I", true);
+				mv.visitVarInsn(Opcodes.ISTORE, localMask);
+			}
+			if (isSafepoint[i]) {
+				// Check the interest of the visitor, continue in the stack-interpreter at this position if needed.
+				final Label labelContinue = new Label();
+				mv.visitVarInsn(Opcodes.ILOAD, localMask);
+				pushInt(mv, JvmExecutionVisitor.INTEREST_INSTRUCTION);
+				mv.visitInsn(Opcodes.IAND);
+				mv.visitJumpInsn(Opcodes.IFEQ, labelContinue);
+				pushInt(mv, code.codeIndex[i]);
+				mv.visitVarInsn(Opcodes.ISTORE, localDeoptPc);
+				mv.visitJumpInsn(Opcodes.GOTO, labelDeopt);
+				mv.visitLabel(labelContinue);
+				hasSafepoints = true;
+			}
+			if (insn instanceof LineNumberNode) {
+				// The stack-interpreter calls visitLine itself after a de-optimization at this line.
+				final Label labelNoLine = new Label();
+				mv.visitVarInsn(Opcodes.ILOAD, localMask);
+				pushInt(mv, JvmExecutionVisitor.INTEREST_LINE);
+				mv.visitInsn(Opcodes.IAND);
+				mv.visitJumpInsn(Opcodes.IFEQ, labelNoLine);
+				mv.visitVarInsn(Opcodes.ALOAD, 1);
+				mv.visitVarInsn(Opcodes.ALOAD, 2);
+				pushInt(mv, ((LineNumberNode) insn).line);
+				mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, INTERNAL_NAME_VISITOR, "visitLine",
+						Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(MethodFrame.class), Type.INT_TYPE), true);
+				mv.visitLabel(labelNoLine);
+			}
+			if (insn instanceof VarInsnNode) {
+				mv.visitVarInsn(insn.getOpcode(), ((VarInsnNode) insn).var + 3);
+			}
+			else if (insn instanceof IincInsnNode) {
+				final IincInsnNode iinc = (IincInsnNode) insn;
+				mv.visitIincInsn(iinc.var + 3, iinc.incr);
+			}
+			else if (insn instanceof JumpInsnNode) {
+				final LabelNode target = ((JumpInsnNode) insn).label;
+				mv.visitJumpInsn(insn.getOpcode(), mapLabels.computeIfAbsent(target, l -> new Label()));
+			}
+			else if (insn instanceof IntInsnNode) {
+				mv.visitIntInsn(insn.getOpcode(), ((IntInsnNode) insn).operand);
+			}
+			else if (insn instanceof LdcInsnNode) {
+				mv.visitLdcInsn(((LdcInsnNode) insn).cst);
+			}
+			else if (insn.getOpcode() == Opcodes.RETURN) {
+				mv.visitInsn(Opcodes.ICONST_0);
+				mv.visitInsn(Opcodes.IRETURN);
+			}
+			else if (insn.getOpcode() >= 0) {
+				mv.visitInsn(insn.getOpcode());
+			}
+		}
+
+		if (hasSafepoints) {
+			// De-optimization: store the int-locals and the program-counter.
+			mv.visitLabel(labelDeopt);
+			for (final int local : intLocals) {
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				pushInt(mv, local);
+				mv.visitVarInsn(Opcodes.ILOAD, local + 3);
+				mv.visitInsn(Opcodes.IASTORE);
+			}
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			pushInt(mv, idxDeoptPc);
+			mv.visitVarInsn(Opcodes.ILOAD, localDeoptPc);
+			mv.visitInsn(Opcodes.IASTORE);
+			mv.visitInsn(Opcodes.ICONST_0);
+			mv.visitInsn(Opcodes.IRETURN);
+		}
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Pushes an int-constant.
+	 * @param mv method-visitor
+	 * @param value int-value
+	 */
+	private static void pushInt(final MethodVisitor mv, final int value) {
+		if (value >= -1 && value <= 5) {
+			mv.visitInsn(Opcodes.ICONST_0 + value);
+		}
+		else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.BIPUSH, value);
+		}
+		else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.SIPUSH, value);
+		}
+		else {
+			mv.visitLdcInsn(Integer.valueOf(value));
+		}
+	}
+
+	/**
+	 * Creates the state-array of an execution. The int-arguments are read from the locals.
+	 * @param aLocals locals (references or kinds of primitive values)
+	 * @param aPrims primitive values of the locals
+	 * @return state-array (int-locals and program-counter of a de-optimization)
+	 */
+	int[] createState(final Object[] aLocals, final long[] aPrims) {
+		final int[] state = new int[idxDeoptPc + 1];
+		for (final int local : intArgLocals) {
+			final Object oLocal = aLocals[local];
+			state[local] = (oLocal == SlotKind.INT) ? (int) aPrims[local] : SlotKind.unboxInt(oLocal);
+		}
+		state[idxDeoptPc] = -1;
+		return state;
+	}
+
+	/**
+	 * Executes the compiled code.
+	 * @param state state-array
+	 * @param visitor execution-visitor (checked at safe-points and line-numbers)
+	 * @param frame frame of the execution (given to the visitor)
+	 * @return int-result (0 in case of void or of a de-optimization)
+	 * @throws Throwable in case of an error
+	 */
+	int execute(final int[] state, final JvmExecutionVisitor visitor, final MethodFrame frame) throws Throwable {
+		return (int) mhExecute.invokeExact(state, visitor, frame);
+	}
+
+	/**
+	 * Gets the return-value of a completed execution.
+	 * @param value int-result of the generated method
+	 * @return result (JVM-type) or <code>null</code> in case of void
+	 */
+	Object getReturnValue(final int value) {
+		return isVoid ? null : Integer.valueOf(value);
+	}
+
+	/**
+	 * Gets the program-counter of a de-optimization.
+	 * @param state state-array after the execution
+	 * @return program-counter or -1 if the execution has been completed
+	 */
+	int getDeoptPc(final int[] state) {
+		return state[idxDeoptPc];
+	}
+
+	/**
+	 * Stores the int-locals of a de-optimized execution into the locals of the frame.
+	 * @param state state-array after the execution
+	 * @param aLocals locals (references or kinds of primitive values)
+	 * @param aPrims primitive values of the locals
+	 */
+	void deoptimize(final int[] state, final Object[] aLocals, final long[] aPrims) {
+		for (final int local : intLocals) {
+			aLocals[local] = SlotKind.INT;
+			aPrims[local] = state[local];
+		}
+	}
+}
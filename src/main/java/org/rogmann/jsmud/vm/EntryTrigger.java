@@ -0,0 +1,127 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Handover of an entry-method into the simulation (entry-trigger-mode).
+ *
+ * <p>In entry-trigger-mode the application runs natively. {@link JsmudClassLoader} renames the entry-methods
+ * (see configuration-property EntryMethods) and adds a stub of the original name and descriptor which calls
+ * {@link #execute(Class, String, String, Object, Object[])}. The renamed method and the methods called by it
+ * are simulated, the caller of the stub continues natively after the handover.</p>
+ */
+public final class EntryTrigger {
+	/** prefix of a renamed entry-method */
+	public static final String PREFIX_ENTRY_METHOD = "__JSMUD_entry_";
+
+	/** internal name of this class */
+	static final String INTERNAL_NAME = Type.getInternalName(EntryTrigger.class);
+
+	/** name of the handover-method */
+	static final String METHOD_EXECUTE = "execute";
+
+	/** descriptor of the handover-method */
+	static final String DESC_EXECUTE = "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	/** renamed entry-methods of a class by name and descriptor */
+	private static final ClassValue<ConcurrentMap<String, Method>> CV_METHODS = new ClassValue<ConcurrentMap<String, Method>>() {
+		/** {@inheritDoc} */
+		@Override
+		protected ConcurrentMap<String, Method> computeValue(final Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Private constructor: utility-class.
+	 */
+	private EntryTrigger() {
+		// utility-class
+	}
+
+	/**
+	 * Executes a renamed entry-method in the simulation of the class-registry of the class' class-loader.
+	 * The method is executed natively if there is no class-registry.
+	 * @param clazz class declaring the entry-method
+	 * @param methodName name of the renamed entry-method
+	 * @param methodDesc descriptor of the entry-method
+	 * @param objRef object-instance or <code>null</code> in case of a static method
+	 * @param args arguments (primitive values are boxed)
+	 * @return return-value (boxed in case of a primitive) or <code>null</code>
+	 * @throws Throwable exception thrown by the entry-method
+	 */
+	public static Object execute(final Class<?> clazz, final String methodName, final String methodDesc,
+			final Object objRef, final Object[] args) throws Throwable {
+		final Method method = lookupMethod(clazz, methodName, methodDesc);
+		final ClassLoader classLoader = clazz.getClassLoader();
+		final ClassRegistry registry = (classLoader instanceof JsmudClassLoader)
+				? ((JsmudClassLoader) classLoader).getEntryRegistry() : null;
+		if (registry == null) {
+			try {
+				return method.invoke(objRef, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		final boolean isStatic = Modifier.isStatic(method.getModifiers());
+		final OperandStack stackArgs = new OperandStack((isStatic ? 0 : 1) + args.length);
+		if (!isStatic) {
+			stackArgs.push(objRef);
+		}
+		for (final Object arg : args) {
+			stackArgs.push(arg);
+		}
+		final Thread thread = Thread.currentThread();
+		// A handover in a simulated thread (e.g. a recursion of an entry-method) keeps the registration.
+		final boolean isThreadRegistered = registry.registerThread(thread);
+		try {
+			final SimpleClassExecutor executor = registry.getClassExecutor(clazz, true);
+			return executor.executeMethod(isStatic ? Opcodes.INVOKESTATIC : Opcodes.INVOKEVIRTUAL,
+					method, methodDesc, stackArgs);
+		} catch (JvmUncaughtException e) {
+			throw e.getCause();
+		}
+		finally {
+			if (isThreadRegistered) {
+				registry.unregisterThread(thread);
+			}
+		}
+	}
+
+	/**
+	 * Looks up a renamed entry-method.
+	 * @param clazz declaring class
+	 * @param methodName name of the renamed method
+	 * @param methodDesc descriptor of the method
+	 * @return method
+	 * @throws NoSuchMethodError if the method doesn't exist
+	 */
+	private static Method lookupMethod(final Class<?> clazz, final String methodName, final String methodDesc) {
+		final ConcurrentMap<String, Method> mapMethods = CV_METHODS.get(clazz);
+		final String key = methodName + methodDesc;
+		Method method = mapMethods.get(key);
+		if (method == null) {
+			for (final Method loopMethod : clazz.getDeclaredMethods()) {
+				if (loopMethod.getName().equals(methodName) && Type.getMethodDescriptor(loopMethod).equals(methodDesc)) {
+					method = loopMethod;
+					break;
+				}
+			}
+			if (method == null) {
+				throw new NoSuchMethodError(String.format("No entry-method (%s%s) in (%s)",
+						methodName, methodDesc, clazz.getName()));
+			}
+			method.setAccessible(true);
+			mapMethods.put(key, method);
+		}
+		return method;
+	}
+}
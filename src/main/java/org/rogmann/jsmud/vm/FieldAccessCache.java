@@ -0,0 +1,192 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import org.objectweb.asm.tree.FieldInsnNode;
+
+/**
+ * Inline-cache of a field-instruction (GETFIELD, PUTFIELD, GETSTATIC or PUTSTATIC).
+ *
+ * <p>The cache maps the receiver-class of an instruction to the resolved and accessible field.
+ * Static instructions use the key <code>null</code>. Up to {@link #MAX_ENTRIES} receiver-classes
+ * are cached (polymorphic inline-cache), further classes replace the entries.</p>
+ * <p>The entries are resolved again after a class-redefinition (see {@link ClassRegistry#getRedefinitionCount()}).
+ * The class-initialized-flag and the field-setter of an entry are set lazily,
+ * two threads preparing the setter concurrently store equivalent method-handles.</p>
+ */
+final class FieldAccessCache {
+
+	/** no special field */
+	static final int SPECIAL_NONE = 0;
+	/** field System.security (the current security-manager) */
+	static final int SPECIAL_SECURITY_MANAGER = 1;
+	/** JSMUD-internal field: class is executed by JSMUD */
+	static final int SPECIAL_EXECUTED_BY_JSMUD = 2;
+
+	/** maximal number of receiver-classes in a cache */
+	static final int MAX_ENTRIES = 4;
+
+	/** no entries */
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+
+	/** field-instruction */
+	final FieldInsnNode fi;
+
+	/** name of the owner-class of the field-instruction, e.g. "java.lang.System" */
+	final String ownerName;
+
+	/** kind of special field, e.g. {@link #SPECIAL_NONE} */
+	final int special;
+
+	/** first character of the field's descriptor, e.g. 'Z' */
+	private final char typeDesc;
+
+	/** cached entries */
+	private volatile Entry[] entries = NO_ENTRIES;
+
+	/**
+	 * Resolved field of a receiver-class.
+	 */
+	static final class Entry {
+		/** receiver-class (<code>null</code> in case of a static field) */
+		final Class<?> receiverClass;
+		/** class used to resolve the field */
+		final Class<?> classFieldOwner;
+		/** accessible field */
+		final Field field;
+		/** redefinition-count of the registry while resolving the field */
+		final int redefinitionCount;
+		/** <code>true</code> if the declaring class of the static field is initialized completely */
+		volatile boolean isClassInitialized;
+		/** setter of the field (type (Object, Object)void) or <code>null</code> if not yet prepared */
+		volatile MethodHandle setter;
+
+		/**
+		 * Constructor
+		 * @param receiverClass receiver-class or <code>null</code>
+		 * @param classFieldOwner class used to resolve the field
+		 * @param field accessible field
+		 * @param redefinitionCount redefinition-count
+		 */
+		Entry(final Class<?> receiverClass, final Class<?> classFieldOwner, final Field field,
+				final int redefinitionCount) {
+			this.receiverClass = receiverClass;
+			this.classFieldOwner = classFieldOwner;
+			this.field = field;
+			this.redefinitionCount = redefinitionCount;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param fi field-instruction
+	 */
+	FieldAccessCache(final FieldInsnNode fi) {
+		this.fi = fi;
+		this.ownerName = fi.owner.replace('/', '.');
+		this.typeDesc = fi.desc.charAt(0);
+		if ("java.lang.System".equals(ownerName) && "security".equals(fi.name)) {
+			special = SPECIAL_SECURITY_MANAGER;
+		}
+		else if (CallSiteGenerator.FIELD_IS_EXECUTED_BY_JSMUD.equals(fi.name) && "Z".equals(fi.desc)) {
+			special = SPECIAL_EXECUTED_BY_JSMUD;
+		}
+		else {
+			special = SPECIAL_NONE;
+		}
+	}
+
+	/**
+	 * Gets the entry of a receiver-class.
+	 * @param receiverClass receiver-class or <code>null</code> (static field)
+	 * @param redefinitionCount current redefinition-count of the registry
+	 * @return entry or <code>null</code>
+	 */
+	Entry lookup(final Class<?> receiverClass, final int redefinitionCount) {
+		final Entry[] aEntries = entries;
+		for (int i = 0; i < aEntries.length; i++) {
+			final Entry entry = aEntries[i];
+			if (entry.receiverClass == receiverClass && entry.redefinitionCount == redefinitionCount) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an entry. Entries of an older redefinition-count are removed.
+	 * @param entry new entry
+	 */
+	void add(final Entry entry) {
+		final Entry[] aEntries = entries;
+		final Entry[] aEntriesNew = new Entry[Math.min(aEntries.length + 1, MAX_ENTRIES)];
+		aEntriesNew[0] = entry;
+		int numEntries = 1;
+		for (int i = 0; i < aEntries.length && numEntries < aEntriesNew.length; i++) {
+			if (aEntries[i].redefinitionCount == entry.redefinitionCount) {
+				aEntriesNew[numEntries++] = aEntries[i];
+			}
+		}
+		entries = (numEntries == aEntriesNew.length) ? aEntriesNew : Arrays.copyOf(aEntriesNew, numEntries);
+	}
+
+	/**
+	 * Converts a field-value into the type used in the JVM (boolean, byte, char and short into int).
+	 * @param objField field-value
+	 * @return converted value
+	 */
+	Object convertFieldTypeIntoJvmType(final Object objField) {
+		final Object objConv;
+		switch (typeDesc) {
+		case 'Z':
+			objConv = (objField instanceof Boolean) ? Integer.valueOf(((Boolean) objField).booleanValue() ? 1 : 0) : objField;
+			break;
+		case 'B':
+			objConv = (objField instanceof Byte) ? Integer.valueOf(((Byte) objField).intValue()) : objField;
+			break;
+		case 'C':
+			objConv = (objField instanceof Character) ? Integer.valueOf(((Character) objField).charValue()) : objField;
+			break;
+		case 'S':
+			objConv = (objField instanceof Short) ? Integer.valueOf(((Short) objField).intValue()) : objField;
+			break;
+		default:
+			objConv = objField;
+			break;
+		}
+		return objConv;
+	}
+
+	/**
+	 * Converts a JVM-value into the type of the field (e.g. int into boolean).
+	 * @param vStack value on the stack
+	 * @return value of the field's type
+	 */
+	Object convertJvmTypeIntoFieldType(final Object vStack) {
+		if (!(vStack instanceof Integer)) {
+			return vStack;
+		}
+		final int iValue = ((Integer) vStack).intValue();
+		final Object objConv;
+		switch (typeDesc) {
+		case 'Z':
+			objConv = Boolean.valueOf(iValue != 0);
+			break;
+		case 'B':
+			objConv = Byte.valueOf((byte) iValue);
+			break;
+		case 'C':
+			objConv = Character.valueOf((char) iValue);
+			break;
+		case 'S':
+			objConv = Short.valueOf((short) iValue);
+			break;
+		default:
+			objConv = vStack;
+			break;
+		}
+		return objConv;
+	}
+}
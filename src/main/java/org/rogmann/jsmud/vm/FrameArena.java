@@ -0,0 +1,173 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.Arrays;
+
+/**
+ * Arena of a thread recycling the operand-stacks and local-arrays of method-frames.
+ *
+ * <p>The arrays are kept in free-lists by size, so a frame gets arrays of exactly the size
+ * its method needs. Sizes above {@link #MAX_SIZE} are not recycled and each free-list holds
+ * at most {@link #MAX_FREE} entries, so deep recursions don't keep a lot of memory.</p>
+ * <p>An arena is used by one thread only, it isn't synchronized.</p>
+ */
+final class FrameArena {
+
+	/** maximal size of recycled stacks and locals */
+	static final int MAX_SIZE = 32;
+
+	/** maximal number of free entries per size */
+	static final int MAX_FREE = 64;
+
+	/** free operand-stacks by maximum size */
+	private final OperandStack[][] freeStacks = new OperandStack[MAX_SIZE + 1][];
+	/** number of free operand-stacks by maximum size */
+	private final int[] numFreeStacks = new int[MAX_SIZE + 1];
+
+	/** free local-arrays (references) by size */
+	private final Object[][][] freeLocals = new Object[MAX_SIZE + 1][][];
+	/** number of free local-arrays (references) by size */
+	private final int[] numFreeLocals = new int[MAX_SIZE + 1];
+
+	/** free local-arrays (primitive values) by size */
+	private final long[][][] freePrims = new long[MAX_SIZE + 1][][];
+	/** number of free local-arrays (primitive values) by size */
+	private final int[] numFreePrims = new int[MAX_SIZE + 1];
+
+	/**
+	 * Gets an empty operand-stack.
+	 * @param maxSize maximum size of the stack
+	 * @return operand-stack
+	 */
+	OperandStack acquireStack(final int maxSize) {
+		if (maxSize <= MAX_SIZE) {
+			final int numFree = numFreeStacks[maxSize];
+			if (numFree > 0) {
+				final OperandStack[] aStacks = freeStacks[maxSize];
+				final OperandStack stack = aStacks[numFree - 1];
+				aStacks[numFree - 1] = null;
+				numFreeStacks[maxSize] = numFree - 1;
+				return stack;
+			}
+		}
+		return new OperandStack(maxSize);
+	}
+
+	/**
+	 * Returns an operand-stack into the arena.
+	 * The references in the stack are cleared.
+	 * @param stack operand-stack
+	 * @param maxSize maximum size of the stack while acquiring
+	 */
+	void releaseStack(final OperandStack stack, final int maxSize) {
+		if (maxSize > MAX_SIZE || !stack.reset(maxSize)) {
+			return;
+		}
+		final int numFree = numFreeStacks[maxSize];
+		if (numFree == MAX_FREE) {
+			return;
+		}
+		OperandStack[] aStacks = freeStacks[maxSize];
+		if (aStacks == null) {
+			aStacks = new OperandStack[4];
+			freeStacks[maxSize] = aStacks;
+		}
+		else if (numFree == aStacks.length) {
+			aStacks = Arrays.copyOf(aStacks, Math.min(2 * numFree, MAX_FREE));
+			freeStacks[maxSize] = aStacks;
+		}
+		aStacks[numFree] = stack;
+		numFreeStacks[maxSize] = numFree + 1;
+	}
+
+	/**
+	 * Gets an array of local-references.
+	 * @param size number of locals
+	 * @return array of nulls
+	 */
+	Object[] acquireLocals(final int size) {
+		if (size <= MAX_SIZE) {
+			final int numFree = numFreeLocals[size];
+			if (numFree > 0) {
+				final Object[][] aLocals = freeLocals[size];
+				final Object[] locals = aLocals[numFree - 1];
+				aLocals[numFree - 1] = null;
+				numFreeLocals[size] = numFree - 1;
+				return locals;
+			}
+		}
+		return new Object[size];
+	}
+
+	/**
+	 * Returns an array of local-references into the arena.
+	 * The references are cleared.
+	 * @param locals local-references
+	 */
+	void releaseLocals(final Object[] locals) {
+		final int size = locals.length;
+		if (size > MAX_SIZE) {
+			return;
+		}
+		final int numFree = numFreeLocals[size];
+		if (numFree == MAX_FREE) {
+			return;
+		}
+		Arrays.fill(locals, null);
+		Object[][] aLocals = freeLocals[size];
+		if (aLocals == null) {
+			aLocals = new Object[4][];
+			freeLocals[size] = aLocals;
+		}
+		else if (numFree == aLocals.length) {
+			aLocals = Arrays.copyOf(aLocals, Math.min(2 * numFree, MAX_FREE));
+			freeLocals[size] = aLocals;
+		}
+		aLocals[numFree] = locals;
+		numFreeLocals[size] = numFree + 1;
+	}
+
+	/**
+	 * Gets an array of primitive values of locals.
+	 * @param size number of locals
+	 * @return array of primitive values
+	 */
+	long[] acquirePrims(final int size) {
+		if (size <= MAX_SIZE) {
+			final int numFree = numFreePrims[size];
+			if (numFree > 0) {
+				final long[][] aPrims = freePrims[size];
+				final long[] prims = aPrims[numFree - 1];
+				aPrims[numFree - 1] = null;
+				numFreePrims[size] = numFree - 1;
+				return prims;
+			}
+		}
+		return new long[size];
+	}
+
+	/**
+	 * Returns an array of primitive values of locals into the arena.
+	 * @param prims primitive values
+	 */
+	void releasePrims(final long[] prims) {
+		final int size = prims.length;
+		if (size > MAX_SIZE) {
+			return;
+		}
+		final int numFree = numFreePrims[size];
+		if (numFree == MAX_FREE) {
+			return;
+		}
+		long[][] aPrims = freePrims[size];
+		if (aPrims == null) {
+			aPrims = new long[4][];
+			freePrims[size] = aPrims;
+		}
+		else if (numFree == aPrims.length) {
+			aPrims = Arrays.copyOf(aPrims, Math.min(2 * numFree, MAX_FREE));
+			freePrims[size] = aPrims;
+		}
+		aPrims[numFree] = prims;
+		numFreePrims[size] = numFree + 1;
+	}
+}
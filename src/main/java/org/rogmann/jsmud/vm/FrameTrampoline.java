@@ -0,0 +1,98 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trampoline executing the calls of simulated methods without a recursion of the JVM.
+ *
+ * <p>A frame in trampoline-mode leaves its instruction-loop at the call of a simulated method.
+ * The trampoline enters the pending callee, keeps the caller in an explicit list of simulated
+ * frames and resumes the caller when the callee returns or throws an exception.
+ * So the depth of the simulated call-stack isn't limited by the stack of the underlying JVM.</p>
+ * <p>Constructors and methods executed by the JVM are still called recursively.</p>
+ */
+final class FrameTrampoline {
+
+	/** private constructor */
+	private FrameTrampoline() {
+		// static methods only
+	}
+
+	/**
+	 * Executes a method and its calls of simulated methods.
+	 * The root-frame has to be pushed onto the method-stack of the thread by the caller.
+	 * @param registry class-registry
+	 * @param rootFrame frame of the method to be executed
+	 * @param args arguments on caller's stack
+	 * @return result or <code>null</code>
+	 * @throws Throwable in case of an exception
+	 */
+	static Object execute(final ClassRegistry registry, final MethodFrame rootFrame, final OperandStack args) throws Throwable {
+		final Thread thread = Thread.currentThread();
+		final FrameArena arena = registry.getFrameArena();
+		final List<MethodFrame> callers = new ArrayList<>();
+		rootFrame.isTrampolined = true;
+		rootFrame.enter(args);
+		MethodFrame frame = rootFrame;
+		while (true) {
+			Object result = null;
+			Throwable exception = null;
+			try {
+				result = frame.executeInstructions();
+			}
+			catch (Throwable e) {
+				exception = e;
+			}
+			if (result == MethodFrame.CALL_PENDING) {
+				final MethodFrame callee = frame.getPendingCallee();
+				callee.isTrampolined = true;
+				callers.add(frame);
+				registry.pushMethodFrame(thread, callee);
+				frame = callee;
+				try {
+					callers.get(callers.size() - 1).enterPendingCallee();
+					continue;
+				}
+				catch (Throwable e) {
+					result = null;
+					exception = e;
+				}
+			}
+
+			// The frame has been finished: resume its caller.
+			while (true) {
+				if (callers.isEmpty()) {
+					if (exception != null) {
+						throw exception;
+					}
+					return result;
+				}
+				if (exception instanceof JvmUncaughtException) {
+					final StackTraceElement ste = new StackTraceElement(frame.clazz.getName(),
+							frame.getMethod().getName(), "", frame.getCurrLineNum());
+					((JvmUncaughtException) exception).getSimStacktrace().add(ste);
+				}
+				registry.popMethodFrame(thread);
+				if (arena != null) {
+					frame.release(arena);
+				}
+				frame = callers.remove(callers.size() - 1);
+				try {
+					if (exception == null) {
+						frame.resumeAfterCall(result);
+					}
+					else {
+						frame.resumeAfterException(exception);
+					}
+					break;
+				}
+				catch (Throwable e) {
+					frame.exitAfterException();
+					result = null;
+					exception = e;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodInsnNode;
+
+/**
+ * Inline-cache of an invoke-instruction (INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC or INVOKEINTERFACE).
+ *
+ * <p>The cache maps the receiver-class of a call-site to the resolved method and its executor.
+ * Static calls use the key <code>null</code>. Up to {@link #MAX_ENTRIES} receiver-classes
+ * are cached (polymorphic inline-cache). A call-site seeing more receiver-classes is megamorphic,
+ * its methods are resolved on each call until a class is redefined.</p>
+ * <p>The entries and the megamorphic state belong to a redefinition-count
+ * (see {@link ClassRegistry#getRedefinitionCount()}).
+ * Calls of INVOKEDYNAMIC-call-sites are not cached.</p>
+ */
+final class InvokeCache {
+
+	/** maximal number of receiver-classes in a cache */
+	static final int MAX_ENTRIES = 4;
+
+	/** no entries */
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+
+	/** invoke-instruction */
+	final MethodInsnNode mi;
+
+	/** name of the owner-class of the method, e.g. "java.lang.String" */
+	final String ownerName;
+
+	/** argument-types of the method */
+	final Type[] argTypes;
+
+	/** return-type of the method */
+	final Type returnType;
+
+	/** <code>true</code> in case of java.security.AccessController#doPrivileged */
+	final boolean isDoPrivileged;
+
+	/** <code>true</code> if the owner of the method is java.lang.Object */
+	final boolean isOwnerObject;
+
+	/** cached entries */
+	private volatile Entry[] entries = NO_ENTRIES;
+
+	/** redefinition-count of the registry when the call-site got megamorphic or -1 */
+	private volatile int megamorphicCount = -1;
+
+	/**
+	 * Resolved method of a receiver-class.
+	 * The class-initialized-flag of a static method is set at its first call.
+	 */
+	static final class Entry {
+		/** receiver-class (<code>null</code> in case of a static method) */
+		final Class<?> receiverClass;
+		/** class used to resolve the method (static method: owner-class) */
+		final Class<?> classOwner;
+		/** resolved method */
+		final Method invMethod;
+		/** executor of the resolved method or <code>null</code> if the method is executed by the JVM */
+		final SimpleClassExecutor executor;
+		/** method to be executed by the JVM (in case of no executor) */
+		final Method methodExec;
+		/** return-type of the resolved method */
+		final Class<?> classReturnType;
+		/** redefinition-count of the registry while resolving the method */
+		final int redefinitionCount;
+		/** <code>true</code> if the owner-class of the static method is initialized completely */
+		volatile boolean isClassInitialized;
+
+		/**
+		 * Constructor
+		 * @param receiverClass receiver-class or <code>null</code>
+		 * @param classOwner class used to resolve the method
+		 * @param invMethod resolved method
+		 * @param executor executor or <code>null</code>
+		 * @param methodExec method to be executed by the JVM or <code>null</code>
+		 * @param redefinitionCount redefinition-count
+		 */
+		Entry(final Class<?> receiverClass, final Class<?> classOwner, final Method invMethod,
+				final SimpleClassExecutor executor, final Method methodExec, final int redefinitionCount) {
+			this.receiverClass = receiverClass;
+			this.classOwner = classOwner;
+			this.invMethod = invMethod;
+			this.executor = executor;
+			this.methodExec = methodExec;
+			this.classReturnType = invMethod.getReturnType();
+			this.redefinitionCount = redefinitionCount;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param mi invoke-instruction
+	 */
+	InvokeCache(final MethodInsnNode mi) {
+		this.mi = mi;
+		this.ownerName = mi.owner.replace('/', '.');
+		this.argTypes = Type.getArgumentTypes(mi.desc);
+		this.returnType = Type.getReturnType(mi.desc);
+		this.isDoPrivileged = "java/security/AccessController".equals(mi.owner)
+				&& "doPrivileged".equals(mi.name);
+		this.isOwnerObject = "java/lang/Object".equals(mi.owner);
+	}
+
+	/**
+	 * Gets the entry of a receiver-class.
+	 * @param receiverClass receiver-class or <code>null</code> (static method)
+	 * @param redefinitionCount current redefinition-count of the registry
+	 * @return entry or <code>null</code>
+	 */
+	Entry lookup(final Class<?> receiverClass, final int redefinitionCount) {
+		final Entry[] aEntries = entries;
+		for (int i = 0; i < aEntries.length; i++) {
+			final Entry entry = aEntries[i];
+			if (entry.receiverClass == receiverClass && entry.redefinitionCount == redefinitionCount) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an entry. Entries of an older redefinition-count are removed.
+	 * The call-site gets megamorphic if there are too many receiver-classes,
+	 * an entry of a newer redefinition-count starts a new inline-cache.
+	 * @param entry new entry
+	 */
+	void add(final Entry entry) {
+		if (megamorphicCount == entry.redefinitionCount) {
+			return;
+		}
+		final Entry[] aEntries = entries;
+		final Entry[] aEntriesNew = new Entry[aEntries.length + 1];
+		aEntriesNew[0] = entry;
+		int numEntries = 1;
+		for (int i = 0; i < aEntries.length; i++) {
+			if (aEntries[i].redefinitionCount == entry.redefinitionCount) {
+				aEntriesNew[numEntries++] = aEntries[i];
+			}
+		}
+		if (numEntries > MAX_ENTRIES) {
+			megamorphicCount = entry.redefinitionCount;
+			entries = NO_ENTRIES;
+			return;
+		}
+		entries = (numEntries == aEntriesNew.length) ? aEntriesNew : Arrays.copyOf(aEntriesNew, numEntries);
+	}
+}
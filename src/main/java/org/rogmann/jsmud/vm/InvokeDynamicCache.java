@@ -0,0 +1,32 @@
+package org.rogmann.jsmud.vm;
+
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+
+/**
+ * Cache of an INVOKEDYNAMIC-instruction.
+ *
+ * <p>The cache is allocated while decoding the method and holds the call-site-factory
+ * of the instruction (see {@link CallSiteGenerator#getCallSiteFactory(ClassRegistry, Class, InvokeDynamicInsnNode)}).
+ * The factory is stored at the first execution, a concurrent execution stores the same factory.
+ * Type-switches don't have a factory, their call-sites are created on each execution.</p>
+ */
+final class InvokeDynamicCache {
+
+	/** INVOKEDYNAMIC-instruction */
+	final InvokeDynamicInsnNode idin;
+
+	/** <code>true</code> if the call-site-instances are built by a call-site-factory */
+	final boolean isCallSiteFactory;
+
+	/** call-site-factory or <code>null</code> if the instruction hasn't been executed yet */
+	volatile CallSiteGenerator.CallSiteFactory factory;
+
+	/**
+	 * Constructor
+	 * @param idin INVOKEDYNAMIC-instruction
+	 */
+	InvokeDynamicCache(final InvokeDynamicInsnNode idin) {
+		this.idin = idin;
+		this.isCallSiteFactory = CallSiteGenerator.isCallSiteFactory(idin);
+	}
+}
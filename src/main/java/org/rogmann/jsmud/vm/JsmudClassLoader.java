@@ -11,7 +11,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
+import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -20,6 +22,7 @@ import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
@@ -95,6 +98,12 @@ public class JsmudClassLoader extends ClassLoader {
 	/** optional class-provider used to provide user-defined classes (e.g. provided by a dex-file) */ 
 	private final AtomicReference<ClassProvider> refClassProvider = new AtomicReference<>();
 
+	/** optional pattern of entry-methods ("class-name#method-name") to be patched in entry-trigger-mode */
+	private final Pattern entryMethodPattern;
+
+	/** class-registry simulating the entry-methods (entry-trigger-mode) */
+	private final AtomicReference<ClassRegistry> refEntryRegistry = new AtomicReference<>();
+
 	/**
 	 * Constructor.
 	 * <p>Default is patchFilter = (name -&gt; false), patchClinit = patchInit = redefineClasses = false.</p>
@@ -120,6 +129,7 @@ public class JsmudClassLoader extends ClassLoader {
 		this.patchClinit = patchClinit;
 		this.patchInit = patchInit;
 		this.redefineClasses = redefineClasses;
+		this.entryMethodPattern = (configuration.entryMethods != null) ? Pattern.compile(configuration.entryMethods) : null;
 	}
 
 	/**
@@ -130,7 +140,24 @@ public class JsmudClassLoader extends ClassLoader {
 		this.refClassProvider.set(provider);
 	}
 
-	
+
+	/**
+	 * Sets the class-registry which simulates the entry-methods (entry-trigger-mode).
+	 * Without class-registry the entry-methods are executed natively.
+	 * @param registry class-registry
+	 */
+	public void setEntryRegistry(final ClassRegistry registry) {
+		refEntryRegistry.set(registry);
+	}
+
+	/**
+	 * Gets the class-registry which simulates the entry-methods.
+	 * @return class-registry or <code>null</code>
+	 */
+	public ClassRegistry getEntryRegistry() {
+		return refEntryRegistry.get();
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Class<?> loadClass(String name) throws ClassNotFoundException {
@@ -280,7 +307,7 @@ public class JsmudClassLoader extends ClassLoader {
 			}
 		}
 		if (clazz == null) {
-			final boolean classMayBePatched = patchFilter.test(name) && (patchClinit || patchInit);
+			final boolean classMayBePatched = patchFilter.test(name) && (patchClinit || patchInit || entryMethodPattern != null);
 			boolean classIsAlreadyDefined = false;
 			if (classLoader != null) {
 				classIsAlreadyDefined = (vm != null) && (vm.getBytecodeOfDefinedClass(classLoader, name) != null);
@@ -425,7 +452,7 @@ public class JsmudClassLoader extends ClassLoader {
 	}
 
 	/**
-	 * Patches static initializer and optional constructors of a class.
+	 * Patches static initializer, optional constructors and optional entry-methods of a class.
 	 * @param name class-name
 	 * @param isBytecode input-stream of bytecode
 	 * @return patched bytecode, <code>null</code> in case of an interface
@@ -469,6 +496,9 @@ public class JsmudClassLoader extends ClassLoader {
 
 		/** access-bits of this class */
 		private int classAccess;
+
+		/** class-file-version of the patched class */
+		private int classVersion;
 		
 		/** <code>true</code> if the class is an interface */
 		private boolean isInterface;
@@ -509,6 +539,7 @@ public class JsmudClassLoader extends ClassLoader {
 			}
 			String sVersion = configuration.patchedClassesVersion;
 			final int versionDest = (sVersion == null) ? version : Integer.parseInt(sVersion);
+			classVersion = versionDest;
 			super.visit(versionDest, access, name, signature, superName, interfaces);
 			typeSuper = Type.getObjectType(superName);
 			if (!"java/lang/Object".equals(superName)) {
@@ -595,6 +626,17 @@ public class JsmudClassLoader extends ClassLoader {
 				final MethodVisitor mv = cv.visitMethod(access, name, descriptor, signature, exceptions);
 				return new DefaultConstructorAdapter(access, name, descriptor, signature, exceptions, mv, tClassName);
 			}
+			else if (isEntryMethod(access, name)) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug(String.format("visitMethod entry-method: name=%s, desc=%s, class=%s", name, descriptor, tClassName));
+				}
+				final int accessRenamed = (access & ~(Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED))
+						| Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC;
+				final MethodVisitor mvRenamed = super.visitMethod(accessRenamed, EntryTrigger.PREFIX_ENTRY_METHOD + name, descriptor, signature, exceptions);
+				// The stub keeps ACC_SYNCHRONIZED: the JVM holds the monitor while the renamed method is simulated.
+				final MethodNode stub = new MethodNode(Opcodes.ASM9, access, name, descriptor, signature, exceptions);
+				return new EntryMethodAdapter(mvRenamed, stub);
+			}
 			//else if ("toString".equals(name) && "()Ljava/lang/String;".equals(descriptor) {
 			//	final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
 			//	final Label labelJsmudExec = new Label();
@@ -607,6 +649,179 @@ public class JsmudClassLoader extends ClassLoader {
 			return super.visitMethod(access, name, descriptor, signature, exceptions);
 		}
 
+		/**
+		 * Checks if a method is an entry-method to be patched.
+		 * Constructors, abstract and native methods and methods of interfaces aren't patched.
+		 * @param access access-flags of the method
+		 * @param name name of the method
+		 * @return <code>true</code> if the method should start the simulation
+		 */
+		private boolean isEntryMethod(final int access, final String name) {
+			if (entryMethodPattern == null || isInterface || name.charAt(0) == '<'
+					|| (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_BRIDGE)) != 0
+					|| (classVersion & 0xffff) < Opcodes.V1_5) {
+				return false;
+			}
+			final String className = Type.getObjectType(tClassName).getClassName();
+			return entryMethodPattern.matcher(className + '#' + name).matches();
+		}
+
+		/**
+		 * Visitor of a renamed entry-method.
+		 * Annotations of the method and its parameters are moved to the stub so that frameworks
+		 * (e.g. request-mappings) see the stub as before, parameter-names are kept at both methods.
+		 * The stub is generated at the end of the renamed method.
+		 */
+		class EntryMethodAdapter extends MethodVisitor {
+			/** stub of the entry-method */
+			private final MethodNode stub;
+
+			/**
+			 * Constructor
+			 * @param mvRenamed visitor of the renamed method
+			 * @param stub stub to be generated
+			 */
+			EntryMethodAdapter(final MethodVisitor mvRenamed, final MethodNode stub) {
+				super(Opcodes.ASM9, mvRenamed);
+				this.stub = stub;
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public void visitParameter(final String name, final int access) {
+				stub.visitParameter(name, access);
+				super.visitParameter(name, access);
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public AnnotationVisitor visitAnnotation(final String descriptor, final boolean visible) {
+				return stub.visitAnnotation(descriptor, visible);
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public AnnotationVisitor visitTypeAnnotation(final int typeRef, final TypePath typePath,
+					final String descriptor, final boolean visible) {
+				return stub.visitTypeAnnotation(typeRef, typePath, descriptor, visible);
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public void visitAnnotableParameterCount(final int parameterCount, final boolean visible) {
+				stub.visitAnnotableParameterCount(parameterCount, visible);
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public AnnotationVisitor visitParameterAnnotation(final int parameter, final String descriptor,
+					final boolean visible) {
+				return stub.visitParameterAnnotation(parameter, descriptor, visible);
+			}
+
+			/** {@inheritDoc} */
+			@Override
+			public void visitEnd() {
+				super.visitEnd();
+				generateEntryStub(stub);
+				stub.accept(cv);
+			}
+		}
+
+		/**
+		 * Generates the code of the stub of an entry-method.
+		 * The stub calls the renamed entry-method via {@link EntryTrigger}.
+		 * @param mv stub containing access-flags, name, descriptor and annotations of the entry-method
+		 */
+		private void generateEntryStub(final MethodNode mv) {
+			final String name = mv.name;
+			final String descriptor = mv.desc;
+			final boolean isStatic = (mv.access & Opcodes.ACC_STATIC) != 0;
+			final Type[] argTypes = Type.getArgumentTypes(descriptor);
+			final Type returnType = Type.getReturnType(descriptor);
+			mv.visitCode();
+			mv.visitLdcInsn(Type.getObjectType(tClassName));
+			mv.visitLdcInsn(EntryTrigger.PREFIX_ENTRY_METHOD + name);
+			mv.visitLdcInsn(descriptor);
+			if (isStatic) {
+				mv.visitInsn(Opcodes.ACONST_NULL);
+			}
+			else {
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+			}
+			mv.visitLdcInsn(Integer.valueOf(argTypes.length));
+			mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+			int idxLocal = isStatic ? 0 : 1;
+			for (int i = 0; i < argTypes.length; i++) {
+				final Type argType = argTypes[i];
+				mv.visitInsn(Opcodes.DUP);
+				mv.visitLdcInsn(Integer.valueOf(i));
+				mv.visitVarInsn(argType.getOpcode(Opcodes.ILOAD), idxLocal);
+				if (argType.getSort() <= Type.DOUBLE) {
+					final Type typeBox = getBoxedType(argType);
+					mv.visitMethodInsn(Opcodes.INVOKESTATIC, typeBox.getInternalName(), "valueOf",
+							Type.getMethodDescriptor(typeBox, argType), false);
+				}
+				mv.visitInsn(Opcodes.AASTORE);
+				idxLocal += argType.getSize();
+			}
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, EntryTrigger.INTERNAL_NAME, EntryTrigger.METHOD_EXECUTE,
+					EntryTrigger.DESC_EXECUTE, false);
+			if (returnType.getSort() == Type.VOID) {
+				mv.visitInsn(Opcodes.POP);
+			}
+			else if (returnType.getSort() <= Type.DOUBLE) {
+				final Type typeBox = getBoxedType(returnType);
+				mv.visitTypeInsn(Opcodes.CHECKCAST, typeBox.getInternalName());
+				mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, typeBox.getInternalName(), returnType.getClassName() + "Value",
+						Type.getMethodDescriptor(returnType), false);
+			}
+			else {
+				mv.visitTypeInsn(Opcodes.CHECKCAST, returnType.getInternalName());
+			}
+			mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		/**
+		 * Gets the object-type of a primitive type.
+		 * @param type primitive type
+		 * @return boxed type
+		 */
+		private Type getBoxedType(final Type type) {
+			final Class<?> classBoxed;
+			switch (type.getSort()) {
+			case Type.BOOLEAN:
+				classBoxed = Boolean.class;
+				break;
+			case Type.CHAR:
+				classBoxed = Character.class;
+				break;
+			case Type.BYTE:
+				classBoxed = Byte.class;
+				break;
+			case Type.SHORT:
+				classBoxed = Short.class;
+				break;
+			case Type.INT:
+				classBoxed = Integer.class;
+				break;
+			case Type.FLOAT:
+				classBoxed = Float.class;
+				break;
+			case Type.LONG:
+				classBoxed = Long.class;
+				break;
+			case Type.DOUBLE:
+				classBoxed = Double.class;
+				break;
+			default:
+				throw new JvmException("Unexpected primitive type " + type);
+			}
+			return Type.getType(classBoxed);
+		}
+
 		/** {@inheritDoc} */
 		@Override
 		public void visitEnd() {
@@ -57,6 +57,33 @@ public class JsmudConfiguration {
 	/** <code>true</code>, if reflection-calls should be emulated (default is <code>true</code>) */
 	protected final boolean isSimulateReflection = getProperty("SimulateReflection", true);
 
+	/** <code>true</code>, if methods not to be simulated should be executed via method-handles instead of reflection (default is <code>false</code>) */
+	protected final boolean isNativeExecutorMethodHandles = getProperty("NativeExecutorMethodHandles", false);
+
+	/** <code>true</code>, if operand-stacks and locals of method-frames should be recycled by a thread-local arena (default is <code>true</code>) */
+	protected final boolean isFrameArena = getProperty("FrameArena", true);
+
+	/** <code>true</code>, if calls of simulated methods should be executed by a trampoline instead of a recursion of the JVM (default is <code>false</code>) */
+	protected final boolean isTrampolineInterpreter = getProperty("TrampolineInterpreter", false);
+
+	/** number of invocations of a method (or back-edges of its loops) before its instructions are quickened, 0 disables quickening (default is 0) */
+	protected final int quickeningThreshold = getProperty("QuickeningThreshold", 0);
+
+	/** <code>true</code>, if int-methods should be executed as register-code instead of stack-code (default is <code>false</code>) */
+	protected final boolean isRegisterTier = getProperty("RegisterTier", false);
+
+	/** number of invocations of an int-method before it is compiled into bytecode of the JVM, 0 disables compilation (default is 0) */
+	protected final int compilationThreshold = getProperty("CompilationThreshold", 0);
+
+	/** number of calls of a method before it may be executed by the underlying JVM if no event-request could match it, 0 disables de-simulation (default is 0) */
+	protected final int desimulationThreshold = getProperty("DesimulationThreshold", 0);
+
+	/**
+	 * optional regular expression of entry-methods ("class-name#method-name", e.g. "com[.]example[.]Handler#handle.*"),
+	 * JsmudClassLoader patches these methods to start the simulation when they are called (entry-trigger-mode)
+	 */
+	protected final String entryMethods = getProperty("EntryMethods");
+
 	/** Java-version of patched classes (default is null) */
 	protected final String patchedClassesVersion = getProperty("PatchedClassesVersion");
 
@@ -75,18 +102,33 @@ public class JsmudConfiguration {
 	public JsmudConfiguration() {
 		reflectionHelper = new ReflectionHelper();
 		classRemapper = Optional.empty();
-		nativeExecutor = new NativeMethodExecutorReflection();
+		nativeExecutor = createDefaultNativeExecutor();
 	}
 
 	/**
 	 * Constructor.
 	 * @param remapper optional class-remapper
-	 * @param nativeExecutor executor to execute methods not to be executed via jsmud-analysis (default is to use reflection)
+	 * @param nativeExecutor executor to execute methods not to be executed via jsmud-analysis (default is to use reflection or method-handles, see property NativeExecutorMethodHandles)
 	 */
 	public JsmudConfiguration(ClassRemapper remapper, NativeMethodExecutor nativeExecutor) {
 		reflectionHelper = new ReflectionHelper();
 		classRemapper = Optional.ofNullable(remapper);
-		this.nativeExecutor = (nativeExecutor != null) ? nativeExecutor : new NativeMethodExecutorReflection();
+		this.nativeExecutor = (nativeExecutor != null) ? nativeExecutor : createDefaultNativeExecutor();
+	}
+
+	/**
+	 * Creates the default executor of methods not to be simulated.
+	 * @return executor using method-handles or reflection
+	 */
+	private NativeMethodExecutor createDefaultNativeExecutor() {
+		final NativeMethodExecutor executor;
+		if (isNativeExecutorMethodHandles) {
+			executor = new NativeMethodExecutorMethodHandle();
+		}
+		else {
+			executor = new NativeMethodExecutorReflection();
+		}
+		return executor;
 	}
 
 	/**
@@ -105,6 +147,27 @@ public class JsmudConfiguration {
 		return flag;
 	}
 
+	/**
+	 * Gets the value of the given int property.
+	 * The key's prefix is "jsmud.".
+	 * @param name property-suffix
+	 * @param valueDefault default-value
+	 * @return value
+	 */
+	protected int getProperty(final String name, final int valueDefault) {
+		int value = valueDefault;
+		final String property = System.getProperty(KEY_PREFIX + name);
+		if (property != null) {
+			try {
+				value = Integer.parseInt(property);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(String.format("Invalid int-value (%s) of property (%s)",
+						property, KEY_PREFIX + name), e);
+			}
+		}
+		return value;
+	}
+
 	/**
 	 * Gets the value of the given string-valued property.
 	 * The key's prefix is "jsmud.".
@@ -9,9 +9,47 @@ import org.rogmann.jsmud.visitors.MessagePrinter;
 
 /**
  * Visitor of bytecode-execution.
+ *
+ * <p>A visitor declares the callbacks it needs by an interest-mask, see {@link #getInterestMask()}.
+ * The interpreter skips the per-instruction callbacks which are not of interest.</p>
  */
 public interface JvmExecutionVisitor {
 
+	/** interest in {@link #visitInstruction(AbstractInsnNode, OperandStack, Object[])} */
+	int INTEREST_INSTRUCTION = 0x01;
+
+	/** interest in {@link #visitFieldAccess(int, Object, Field, Object)} */
+	int INTEREST_FIELD_ACCESS = 0x02;
+
+	/** interest in {@link #visitLine(MethodFrame, int)} */
+	int INTEREST_LINE = 0x04;
+
+	/** interest in all callbacks */
+	int INTEREST_ALL = INTEREST_INSTRUCTION | INTEREST_FIELD_ACCESS | INTEREST_LINE;
+
+	/**
+	 * Gets the callbacks this visitor is interested in.
+	 * The mask may change at runtime, e.g. when a debugger adds or clears event-requests,
+	 * so the interpreter reads the mask before each instruction.
+	 * Method-, monitor- and exception-callbacks are called independent of the mask.
+	 * @return interest-mask, e.g. {@link #INTEREST_INSTRUCTION}
+	 */
+	default int getInterestMask() {
+		return INTEREST_ALL;
+	}
+
+	/**
+	 * Checks if an event-request of the visitor could match the execution of a method.
+	 * A hot method which can't be matched may be executed by the underlying JVM
+	 * (see configuration-property DesimulationThreshold) or by quickened instructions
+	 * (see configuration-property QuickeningThreshold).
+	 * @param method method
+	 * @return <code>true</code> if the execution of the method has to be simulated
+	 */
+	default boolean isMethodObserved(final Executable method) {
+		return true;
+	}
+
 	/**
 	 * Called when a thread is started.
 	 * @param startedThread started thread
@@ -59,6 +97,18 @@ public interface JvmExecutionVisitor {
 	void visitInstruction(final AbstractInsnNode instr,
 			final OperandStack stack, final Object[] aLocals);
 
+	/**
+	 * Called when the execution reaches a line-number of the method.
+	 * In contrast to {@link #visitInstruction(AbstractInsnNode, OperandStack, Object[])}
+	 * this callback is called by compiled code, too, so a visitor which needs lines only
+	 * doesn't force the method into the interpreter.
+	 * @param frame frame of the execution, the locals and the stack aren't up-to-date in compiled code
+	 * @param lineNumber line-number
+	 */
+	default void visitLine(final MethodFrame frame, final int lineNumber) {
+		// no callback needed by default.
+	}
+
 	/**
 	 * Called after getting or before putting a field of an instance or class.
 	 * @param opcode opcode
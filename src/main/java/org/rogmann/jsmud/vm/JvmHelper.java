@@ -7,6 +7,7 @@ import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import javax.net.SocketFactory;
@@ -67,6 +68,32 @@ public class JvmHelper {
 		return visitor;
 	}
 
+	/**
+	 * Creates a class-loader of the entry-trigger-mode.
+	 * The application loaded by this class-loader runs natively, a call of an entry-method
+	 * (see configuration-property EntryMethods) is simulated including the methods called by it.
+	 * @param parentClassLoader parent class-loader containing the bytecode of the application
+	 * @param config configuration containing the pattern of entry-methods
+	 * @param patchFilter checks if a class-name belongs to a class which may contain entry-methods
+	 * @param executionFilter classes to be simulated beneath the entry-methods
+	 * @param visitorProvider provider of the execution-visitors of simulating threads
+	 * @return class-loader to load the application
+	 */
+	public static JsmudClassLoader createEntryTriggerClassLoader(final ClassLoader parentClassLoader,
+			final JsmudConfiguration config, final Predicate<String> patchFilter,
+			final ClassExecutionFilter executionFilter, final JvmExecutionVisitorProvider visitorProvider) {
+		if (config.entryMethods == null) {
+			throw new IllegalArgumentException(String.format("Missing property %sEntryMethods", JsmudConfiguration.KEY_PREFIX));
+		}
+		final JsmudClassLoader classLoader = new JsmudClassLoader(parentClassLoader, config, patchFilter,
+				false, false, false);
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(executionFilter, config);
+		final ClassRegistry registry = new ClassRegistry(executionFilter, config, classLoader,
+				visitorProvider, invocationHandler);
+		classLoader.setEntryRegistry(registry);
+		return classLoader;
+	}
+
 	/**
 	 * Connects to a remote-debugger for executing the given supplier.
 	 * @param visitor debugger-visitor initialized with vm-simulation
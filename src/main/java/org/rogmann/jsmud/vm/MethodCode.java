@@ -0,0 +1,594 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Pre-decoded instructions of a method.
+ *
+ * <p>The instruction-list of ASM is decoded once into compact arrays which are shared by all
+ * frames executing the method. Label- and frame-nodes are skipped, line-number-nodes are kept
+ * as pseudo-instructions so that visitors still see them.</p>
+ * <p>The position in the decoded arrays is called program-counter. The ASM-index of an instruction
+ * (used in JDWP-locations and line-tables) is available via {@link #getAsmIndex(int)}.</p>
+ */
+public class MethodCode {
+
+	/** pseudo-opcode of a line-number-node (operand: line-number) */
+	public static final int OPCODE_LINE = 0x100;
+
+	/** quickened ALOAD, GETFIELD */
+	static final int QUICK_ALOAD_GETFIELD = 0x101;
+	/** quickened ALOAD, ARRAYLENGTH */
+	static final int QUICK_ALOAD_ARRAYLENGTH = 0x102;
+	/** quickened ILOAD, ILOAD, IF_ICMPxx */
+	static final int QUICK_ILOAD_ILOAD_IF_ICMP = 0x103;
+	/** quickened ILOAD, ICONST/BIPUSH/SIPUSH, IADD, ISTORE */
+	static final int QUICK_ILOAD_CONST_IADD_ISTORE = 0x104;
+
+	/** opcodes of the instructions */
+	final int[] opcodes;
+
+	/**
+	 * opcodes of the instructions after quickening or <code>null</code>.
+	 * The first opcode of a recognized sequence is replaced by a fused operation,
+	 * the other opcodes of the sequence are kept (e.g. as jump-targets).
+	 */
+	volatile int[] quickOpcodes;
+
+	/** operands: local-index, branch-target (program-counter), int-operand, line-number or slot of a type-reference */
+	final int[] operands;
+
+	/**
+	 * constants of the instructions, e.g. values of LDC or ICONST_0, inline-caches of field- and invoke-instructions
+	 * or the cache of the call-site-factory of an INVOKEDYNAMIC-instruction.
+	 * The array isn't modified after decoding.
+	 */
+	final Object[] constants;
+
+	/** ASM-instructions (used by visitors and complex instructions) */
+	final AbstractInsnNode[] insns;
+
+	/** table of type-references (shared by the methods of a class) */
+	final TypeReferenceTable typeRefs;
+
+	/** map from program-counter to ASM-index */
+	final int[] asmIndex;
+
+	/** map from ASM-index to program-counter (label- and frame-nodes point to the following instruction) */
+	final int[] codeIndex;
+
+	/** start-program-counters (inclusive) of the try-catch-blocks */
+	final int[] tcbStart;
+	/** end-program-counters (exclusive) of the try-catch-blocks */
+	final int[] tcbEnd;
+	/** program-counters of the exception-handlers */
+	final int[] tcbHandler;
+	/** class-names of the caught exceptions (<code>null</code> in case of any, e.g. finally-block) */
+	final String[] tcbType;
+
+	/** maximal number of exception-classes in the handler-match-cache */
+	static final int MAX_HANDLER_MATCHES = 8;
+
+	/** catch-type hasn't been resolved yet (or is unknown, the class-not-found is thrown if the block is reached) */
+	private static final byte MATCH_UNRESOLVED = 0;
+	/** catch-type doesn't match */
+	private static final byte MATCH_NO = 1;
+	/** catch-type matches */
+	private static final byte MATCH_YES = 2;
+
+	/** no handler-matches */
+	private static final HandlerMatch[] NO_HANDLER_MATCHES = new HandlerMatch[0];
+
+	/** cache of the try-catch-blocks matching an exception-class */
+	private volatile HandlerMatch[] handlerMatches = NO_HANDLER_MATCHES;
+
+	/**
+	 * Try-catch-blocks whose catch-type matches a given exception-class.
+	 */
+	static final class HandlerMatch {
+		/** exception-class */
+		final Class<?> classException;
+		/**
+		 * match-state of each try-catch-block, e.g. {@link MethodCode#MATCH_YES}.
+		 * A state is resolved when an exception reaches the block, a concurrent resolution stores the same state.
+		 */
+		final byte[] matchStates;
+		/** redefinition-count of the registry while resolving the catch-types */
+		final int redefinitionCount;
+
+		/**
+		 * Constructor
+		 * @param classException exception-class
+		 * @param matchStates match-states
+		 * @param redefinitionCount redefinition-count
+		 */
+		HandlerMatch(final Class<?> classException, final byte[] matchStates, final int redefinitionCount) {
+			this.classException = classException;
+			this.matchStates = matchStates;
+			this.redefinitionCount = redefinitionCount;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param opcodes opcodes
+	 * @param operands operands
+	 * @param constants constants
+	 * @param insns ASM-instructions
+	 * @param typeRefs table of type-references
+	 * @param asmIndex map from program-counter to ASM-index
+	 * @param codeIndex map from ASM-index to program-counter
+	 * @param tryCatchBlocks try-catch-blocks of the method
+	 * @param instructions ASM-instructions of the method
+	 */
+	private MethodCode(final int[] opcodes, final int[] operands, final Object[] constants,
+			final AbstractInsnNode[] insns, final TypeReferenceTable typeRefs, final int[] asmIndex, final int[] codeIndex,
+			final List<TryCatchBlockNode> tryCatchBlocks, final InsnList instructions) {
+		this.opcodes = opcodes;
+		this.operands = operands;
+		this.constants = constants;
+		this.insns = insns;
+		this.typeRefs = typeRefs;
+		this.asmIndex = asmIndex;
+		this.codeIndex = codeIndex;
+		final int numTcb = (tryCatchBlocks != null) ? tryCatchBlocks.size() : 0;
+		tcbStart = new int[numTcb];
+		tcbEnd = new int[numTcb];
+		tcbHandler = new int[numTcb];
+		tcbType = new String[numTcb];
+		for (int i = 0; i < numTcb; i++) {
+			final TryCatchBlockNode tcb = tryCatchBlocks.get(i);
+			tcbStart[i] = codeIndex[instructions.indexOf(tcb.start)];
+			tcbEnd[i] = codeIndex[instructions.indexOf(tcb.end)];
+			tcbHandler[i] = codeIndex[instructions.indexOf(tcb.handler)];
+			tcbType[i] = (tcb.type != null) ? tcb.type.replace('/', '.') : null;
+		}
+	}
+
+	/**
+	 * Decodes the instructions of a method using a table of type-references of its own.
+	 * @param method ASM-method
+	 * @return decoded instructions
+	 */
+	public static MethodCode decode(final MethodNode method) {
+		return decode(method, new TypeReferenceTable());
+	}
+
+	/**
+	 * Decodes the instructions of a method.
+	 * @param method ASM-method
+	 * @param typeRefs table of type-references of the class
+	 * @return decoded instructions
+	 */
+	static MethodCode decode(final MethodNode method, final TypeReferenceTable typeRefs) {
+		final InsnList instructions = method.instructions;
+		final int numAsm = instructions.size();
+		final AbstractInsnNode[] aAsm = instructions.toArray();
+
+		// First pass: map ASM-indices to program-counters.
+		final int[] codeIndex = new int[numAsm + 1];
+		int numCode = 0;
+		for (int i = 0; i < numAsm; i++) {
+			codeIndex[i] = numCode;
+			if (isExecutable(aAsm[i])) {
+				numCode++;
+			}
+		}
+		codeIndex[numAsm] = numCode;
+
+		// Second pass: decode the instructions.
+		final int[] opcodes = new int[numCode];
+		final int[] operands = new int[numCode];
+		final Object[] constants = new Object[numCode];
+		final AbstractInsnNode[] insns = new AbstractInsnNode[numCode];
+		final int[] asmIndex = new int[numCode];
+		int pc = 0;
+		for (int i = 0; i < numAsm; i++) {
+			final AbstractInsnNode instr = aAsm[i];
+			if (!isExecutable(instr)) {
+				continue;
+			}
+			insns[pc] = instr;
+			asmIndex[pc] = i;
+			final int opcode = instr.getOpcode();
+			if (opcode < 0) {
+				opcodes[pc] = OPCODE_LINE;
+				operands[pc] = ((LineNumberNode) instr).line;
+				pc++;
+				continue;
+			}
+			opcodes[pc] = opcode;
+			switch (opcode) {
+			case Opcodes.ICONST_M1:
+			case Opcodes.ICONST_0:
+			case Opcodes.ICONST_1:
+			case Opcodes.ICONST_2:
+			case Opcodes.ICONST_3:
+			case Opcodes.ICONST_4:
+			case Opcodes.ICONST_5:
+				operands[pc] = opcode - Opcodes.ICONST_0;
+				constants[pc] = Integer.valueOf(operands[pc]);
+				break;
+			case Opcodes.LCONST_0:
+			case Opcodes.LCONST_1:
+				operands[pc] = opcode - Opcodes.LCONST_0;
+				constants[pc] = Long.valueOf(operands[pc]);
+				break;
+			case Opcodes.FCONST_0:
+			case Opcodes.FCONST_1:
+			case Opcodes.FCONST_2:
+				operands[pc] = opcode - Opcodes.FCONST_0;
+				constants[pc] = Float.valueOf(operands[pc]);
+				break;
+			case Opcodes.DCONST_0:
+			case Opcodes.DCONST_1:
+				operands[pc] = opcode - Opcodes.DCONST_0;
+				constants[pc] = Double.valueOf(operands[pc]);
+				break;
+			case Opcodes.BIPUSH:
+				operands[pc] = (byte) ((IntInsnNode) instr).operand;
+				constants[pc] = Integer.valueOf(operands[pc]);
+				break;
+			case Opcodes.SIPUSH:
+				operands[pc] = (short) ((IntInsnNode) instr).operand;
+				constants[pc] = Integer.valueOf(operands[pc]);
+				break;
+			case Opcodes.NEWARRAY:
+				operands[pc] = ((IntInsnNode) instr).operand;
+				break;
+			case Opcodes.LDC:
+			{
+				final Object cst = ((LdcInsnNode) instr).cst;
+				constants[pc] = cst;
+				if (cst instanceof Type) {
+					final int sort = ((Type) cst).getSort();
+					if (sort == Type.OBJECT || sort == Type.ARRAY) {
+						operands[pc] = typeRefs.getSlot((Type) cst);
+					}
+				}
+				break;
+			}
+			case Opcodes.NEW:
+			case Opcodes.ANEWARRAY:
+			case Opcodes.CHECKCAST:
+			case Opcodes.INSTANCEOF:
+				operands[pc] = typeRefs.getSlot(Type.getObjectType(((TypeInsnNode) instr).desc));
+				break;
+			case Opcodes.MULTIANEWARRAY:
+			{
+				// The slot contains the component-type of the dimensions to be allocated.
+				final MultiANewArrayInsnNode manai = (MultiANewArrayInsnNode) instr;
+				operands[pc] = typeRefs.getSlot(Type.getType(manai.desc.substring(manai.dims)));
+				break;
+			}
+			case Opcodes.GETSTATIC:
+			case Opcodes.PUTSTATIC:
+			case Opcodes.GETFIELD:
+			case Opcodes.PUTFIELD:
+				constants[pc] = new FieldAccessCache((FieldInsnNode) instr);
+				break;
+			case Opcodes.INVOKEVIRTUAL:
+			case Opcodes.INVOKESPECIAL:
+			case Opcodes.INVOKESTATIC:
+			case Opcodes.INVOKEINTERFACE:
+				constants[pc] = new InvokeCache((MethodInsnNode) instr);
+				break;
+			case Opcodes.INVOKEDYNAMIC:
+				constants[pc] = new InvokeDynamicCache((InvokeDynamicInsnNode) instr);
+				break;
+			case Opcodes.IINC:
+			{
+				final IincInsnNode ii = (IincInsnNode) instr;
+				operands[pc] = encodeIinc(ii.var, ii.incr);
+				break;
+			}
+			case Opcodes.TABLESWITCH:
+			{
+				final TableSwitchInsnNode tsi = (TableSwitchInsnNode) instr;
+				final int[] targets = new int[tsi.labels.size()];
+				for (int j = 0; j < targets.length; j++) {
+					targets[j] = codeIndex[instructions.indexOf(tsi.labels.get(j))];
+				}
+				constants[pc] = new SwitchTable(tsi.min, tsi.max, null, targets,
+						codeIndex[instructions.indexOf(tsi.dflt)]);
+				break;
+			}
+			case Opcodes.LOOKUPSWITCH:
+			{
+				final LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) instr;
+				final int numCases = lsi.keys.size();
+				// The keys of a LOOKUPSWITCH are sorted (JVMS 6.5) but we don't rely on it.
+				final long[] aKeyTargets = new long[numCases];
+				for (int j = 0; j < numCases; j++) {
+					final int target = codeIndex[instructions.indexOf(lsi.labels.get(j))];
+					aKeyTargets[j] = ((long) lsi.keys.get(j).intValue() << 32) | target;
+				}
+				Arrays.sort(aKeyTargets);
+				final int[] keys = new int[numCases];
+				final int[] targets = new int[numCases];
+				for (int j = 0; j < numCases; j++) {
+					keys[j] = (int) (aKeyTargets[j] >> 32);
+					targets[j] = (int) aKeyTargets[j];
+				}
+				constants[pc] = new SwitchTable(0, 0, keys, targets,
+						codeIndex[instructions.indexOf(lsi.dflt)]);
+				break;
+			}
+			default:
+				if (instr instanceof VarInsnNode) {
+					operands[pc] = ((VarInsnNode) instr).var;
+				}
+				else if (instr instanceof JumpInsnNode) {
+					final LabelNode label = ((JumpInsnNode) instr).label;
+					operands[pc] = codeIndex[instructions.indexOf(label)];
+				}
+				break;
+			}
+			pc++;
+		}
+		return new MethodCode(opcodes, operands, constants, insns, typeRefs, asmIndex, codeIndex,
+				method.tryCatchBlocks, instructions);
+	}
+
+	/**
+	 * Gets the line-number of an instruction, i.e. the last line-number before the instruction.
+	 * @param pc program-counter
+	 * @return line-number or 0
+	 */
+	int findLineNumber(final int pc) {
+		for (int i = pc; i >= 0; i--) {
+			if (opcodes[i] == OPCODE_LINE) {
+				return operands[i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Computes the quickened opcodes: frequent sequences of instructions are replaced by fused operations.
+	 * A sequence doesn't contain line-numbers, so the line-number-table stays valid.
+	 * The program-counters don't change, a fused operation sets the program-counter
+	 * to the instruction being executed, so exception-handlers and locations stay valid.
+	 */
+	void quicken() {
+		final int numCode = opcodes.length;
+		final int[] quick = Arrays.copyOf(opcodes, numCode);
+		int pc = 0;
+		while (pc < numCode) {
+			final int opcode = opcodes[pc];
+			final int next = (pc + 1 < numCode) ? opcodes[pc + 1] : -1;
+			int len = 1;
+			if (opcode == Opcodes.ALOAD && next == Opcodes.GETFIELD) {
+				quick[pc] = QUICK_ALOAD_GETFIELD;
+				len = 2;
+			}
+			else if (opcode == Opcodes.ALOAD && next == Opcodes.ARRAYLENGTH) {
+				quick[pc] = QUICK_ALOAD_ARRAYLENGTH;
+				len = 2;
+			}
+			else if (opcode == Opcodes.ILOAD && next == Opcodes.ILOAD && pc + 2 < numCode
+					&& opcodes[pc + 2] >= Opcodes.IF_ICMPEQ && opcodes[pc + 2] <= Opcodes.IF_ICMPLE) {
+				quick[pc] = QUICK_ILOAD_ILOAD_IF_ICMP;
+				len = 3;
+			}
+			else if (opcode == Opcodes.ILOAD && pc + 3 < numCode && isIntConstant(next)
+					&& opcodes[pc + 2] == Opcodes.IADD && opcodes[pc + 3] == Opcodes.ISTORE) {
+				quick[pc] = QUICK_ILOAD_CONST_IADD_ISTORE;
+				len = 4;
+			}
+			pc += len;
+		}
+		quickOpcodes = quick;
+	}
+
+	/**
+	 * Checks if an opcode pushes an int-constant stored in the operand.
+	 * @param opcode opcode
+	 * @return <code>true</code> in case of ICONST_*, BIPUSH or SIPUSH
+	 */
+	private static boolean isIntConstant(final int opcode) {
+		return (opcode >= Opcodes.ICONST_M1 && opcode <= Opcodes.ICONST_5)
+				|| opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH;
+	}
+
+	/**
+	 * Checks if an ASM-instruction is executed by the interpreter.
+	 * Labels and frames are skipped.
+	 * @param instr ASM-instruction
+	 * @return <code>true</code> in case of an instruction or a line-number-node
+	 */
+	private static boolean isExecutable(final AbstractInsnNode instr) {
+		return instr.getOpcode() >= 0 || instr instanceof LineNumberNode;
+	}
+
+	/**
+	 * Encodes the local-index and the increment of an IINC-instruction into one operand.
+	 * @param var local-index (0..65535)
+	 * @param incr increment (-32768..32767)
+	 * @return operand
+	 */
+	static int encodeIinc(final int var, final int incr) {
+		return (incr << 16) | (var & 0xffff);
+	}
+
+	/**
+	 * Gets the local-index of an encoded IINC-operand.
+	 * @param operand operand
+	 * @return local-index
+	 */
+	static int getIincVar(final int operand) {
+		return operand & 0xffff;
+	}
+
+	/**
+	 * Gets the increment of an encoded IINC-operand.
+	 * @param operand operand
+	 * @return increment
+	 */
+	static int getIincIncr(final int operand) {
+		return operand >> 16;
+	}
+
+	/**
+	 * Gets the program-counter of the exception-handler of an exception thrown at a given instruction.
+	 * The catch-types matching the exception-class are cached, so a repeated exception-class
+	 * costs some int-comparisons only. A catch-type is loaded when an exception reaches its try-catch-block.
+	 * @param pc program-counter of the instruction
+	 * @param classException class of the exception
+	 * @param registry class-registry used to load the catch-types
+	 * @param clazz context-class
+	 * @return program-counter of the handler or -1
+	 * @throws ClassNotFoundException in case of an unknown catch-type
+	 */
+	int findHandler(final int pc, final Class<?> classException, final ClassRegistry registry, final Class<?> clazz) throws ClassNotFoundException {
+		final int numTcb = tcbStart.length;
+		if (numTcb == 0) {
+			return -1;
+		}
+		final int redefinitionCount = registry.getRedefinitionCount();
+		byte[] matchStates = null;
+		final HandlerMatch[] aMatches = handlerMatches;
+		for (int i = 0; i < aMatches.length; i++) {
+			final HandlerMatch match = aMatches[i];
+			if (match.classException == classException && match.redefinitionCount == redefinitionCount) {
+				matchStates = match.matchStates;
+				break;
+			}
+		}
+		if (matchStates == null) {
+			matchStates = addHandlerMatch(classException, redefinitionCount);
+		}
+		for (int i = 0; i < numTcb; i++) {
+			if (pc < tcbStart[i] || pc >= tcbEnd[i]) {
+				continue;
+			}
+			byte matchState = matchStates[i];
+			if (matchState == MATCH_UNRESOLVED) {
+				// tcbType[i] == null: type "any", e.g. finally-block.
+				// An unknown catch-type throws the ClassNotFoundException, the block stays unresolved.
+				final Class<?> classTcb = (tcbType[i] != null) ? registry.loadClass(tcbType[i], clazz) : null;
+				matchState = (classTcb == null || classTcb.isAssignableFrom(classException)) ? MATCH_YES : MATCH_NO;
+				matchStates[i] = matchState;
+			}
+			if (matchState == MATCH_YES) {
+				return tcbHandler[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds the unresolved match-states of an exception-class into the cache.
+	 * @param classException class of the exception
+	 * @param redefinitionCount current redefinition-count of the registry
+	 * @return match-states of the try-catch-blocks
+	 */
+	private byte[] addHandlerMatch(final Class<?> classException, final int redefinitionCount) {
+		final byte[] matchStates = new byte[tcbStart.length];
+		final HandlerMatch[] aMatches = handlerMatches;
+		final HandlerMatch[] aMatchesNew = new HandlerMatch[Math.min(aMatches.length + 1, MAX_HANDLER_MATCHES)];
+		aMatchesNew[0] = new HandlerMatch(classException, matchStates, redefinitionCount);
+		int numMatches = 1;
+		for (int i = 0; i < aMatches.length && numMatches < aMatchesNew.length; i++) {
+			if (aMatches[i].redefinitionCount == redefinitionCount) {
+				aMatchesNew[numMatches++] = aMatches[i];
+			}
+		}
+		handlerMatches = (numMatches == aMatchesNew.length) ? aMatchesNew : Arrays.copyOf(aMatchesNew, numMatches);
+		return matchStates;
+	}
+
+	/**
+	 * Gets the number of decoded instructions.
+	 * @return number of instructions
+	 */
+	public int size() {
+		return opcodes.length;
+	}
+
+	/**
+	 * Gets the ASM-index of an instruction.
+	 * @param pc program-counter
+	 * @return ASM-index
+	 */
+	public int getAsmIndex(final int pc) {
+		return asmIndex[pc];
+	}
+
+	/**
+	 * Gets the program-counter of an ASM-index.
+	 * A label- or frame-node is mapped to the following instruction.
+	 * @param asmIdx ASM-index
+	 * @return program-counter
+	 */
+	public int getCodeIndex(final int asmIdx) {
+		return codeIndex[asmIdx];
+	}
+
+	/**
+	 * Branch-targets of a TABLESWITCH- or LOOKUPSWITCH-instruction.
+	 */
+	static final class SwitchTable {
+		/** minimal key of a TABLESWITCH */
+		private final int min;
+		/** maximal key of a TABLESWITCH */
+		private final int max;
+		/** sorted keys of a LOOKUPSWITCH, <code>null</code> in case of TABLESWITCH */
+		private final int[] keys;
+		/** program-counters of the branches */
+		private final int[] targets;
+		/** program-counter of the default-branch */
+		private final int dflt;
+
+		/**
+		 * Constructor
+		 * @param min minimal key (TABLESWITCH)
+		 * @param max maximal key (TABLESWITCH)
+		 * @param keys sorted keys (LOOKUPSWITCH) or <code>null</code>
+		 * @param targets program-counters of the branches
+		 * @param dflt program-counter of the default-branch
+		 */
+		SwitchTable(final int min, final int max, final int[] keys, final int[] targets, final int dflt) {
+			this.min = min;
+			this.max = max;
+			this.keys = keys;
+			this.targets = targets;
+			this.dflt = dflt;
+		}
+
+		/**
+		 * Gets the branch-target of a key.
+		 * @param key key on stack
+		 * @return program-counter
+		 */
+		int getTarget(final int key) {
+			if (keys == null) {
+				return (min <= key && key <= max) ? targets[key - min] : dflt;
+			}
+			final int idx = Arrays.binarySearch(keys, key);
+			return (idx >= 0) ? targets[idx] : dflt;
+		}
+	}
+}
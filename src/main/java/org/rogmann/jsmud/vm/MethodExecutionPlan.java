@@ -0,0 +1,319 @@
+package org.rogmann.jsmud.vm;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Execution-plan of a method.
+ *
+ * <p>The plan contains the data derivable from the bytecode of a method: argument-types,
+ * pre-decoded instructions (including branch- and handler-tables and line-numbers)
+ * and the sizes of stack and locals. A plan is computed once per method and
+ * is shared by all frames executing the method.</p>
+ *
+ * <p>The plan contains the mutable tier-state of the method, too:</p>
+ * <ul>
+ * <li>the counters invocationCount, backEdgeCount (quickening and compilation)
+ * and callCount (de-simulation),</li>
+ * <li>the quickened opcodes ({@link MethodCode#quickOpcodes}) and compiledCode,</li>
+ * <li>desimulationState and observationState, the decisions of a generation of event-requests.</li>
+ * </ul>
+ * <p>All threads executing the method update the counters without synchronization. A lost update
+ * delays a tier only. A stale counter may reach a threshold twice: a second quickening or compilation
+ * replaces the quickened opcodes or the compiled code by equivalent ones.
+ * The tier-state is written into volatile fields after it has been built completely, so a frame
+ * sees either the previous or the new state. A decision of an outdated generation is computed again.</p>
+ */
+public final class MethodExecutionPlan {
+
+	/** ASM-description of the method */
+	private final MethodNode method;
+
+	/** type-descriptions of the arguments */
+	private final Type[] argDefs;
+
+	/** pre-decoded instructions */
+	private final MethodCode code;
+
+	/** maximum size of the operand-stack */
+	private final int maxStack;
+
+	/** number of local variables */
+	private final int maxLocals;
+
+	/** <code>true</code> if the method is native (no bytecode) */
+	private final boolean isNative;
+
+	/** local-indices of the arguments (including the object-reference) in the order of the caller's stack */
+	private final int[] argLocalIndices;
+
+	/** local-indices of boolean-, byte-, char- and short-arguments */
+	private final int[] subIntArgLocalIndices;
+
+	/** types of boolean-, byte-, char- and short-arguments */
+	private final Type[] subIntArgTypes;
+
+	/** register-code of the method or <code>null</code> */
+	private final RegisterCode registerCode;
+
+	/** compiled code of the method or <code>null</code> */
+	private volatile CompiledCode compiledCode;
+
+	/** number of calls counted for the de-simulation (not synchronized, used to detect hot methods only) */
+	private int callCount;
+
+	/** de-simulation-decision (generation of the event-requests shifted left by one, lowest bit set if de-simulated) or -1 */
+	private volatile int desimulationState = -1;
+
+	/** observation-decision (generation of the event-requests shifted left by one, lowest bit set if observed) or -1 */
+	private volatile int observationState = -1;
+
+	/** number of invocations (not synchronized, used to detect hot methods only) */
+	private int invocationCount;
+
+	/** number of back-edges of loops (not synchronized, used to detect hot loops only) */
+	private int backEdgeCount;
+
+	/**
+	 * Constructor
+	 * @param method ASM-description of the method
+	 * @param methodDesc descriptor of the method
+	 * @param typeRefs table of type-references of the class
+	 * @param isRegisterTier <code>true</code> if the method should be translated into register-code
+	 */
+	MethodExecutionPlan(final MethodNode method, final String methodDesc, final TypeReferenceTable typeRefs,
+			final boolean isRegisterTier) {
+		this.method = method;
+		this.argDefs = Type.getArgumentTypes(methodDesc);
+		this.isNative = (method.access & Opcodes.ACC_NATIVE) != 0;
+		this.code = MethodCode.decode(method, typeRefs);
+		this.maxStack = method.maxStack;
+		this.maxLocals = method.maxLocals;
+
+		final boolean isStatic = (method.access & Opcodes.ACC_STATIC) != 0;
+		final int offset = isStatic ? 0 : 1;
+		argLocalIndices = new int[offset + argDefs.length];
+		int numSubInt = 0;
+		int idxLocal = offset;
+		for (int i = 0; i < argDefs.length; i++) {
+			argLocalIndices[offset + i] = idxLocal;
+			final int sort = argDefs[i].getSort();
+			if (sort == Type.BOOLEAN || sort == Type.BYTE || sort == Type.CHAR || sort == Type.SHORT) {
+				numSubInt++;
+			}
+			// long and double use two local-indizes.
+			idxLocal += argDefs[i].getSize();
+		}
+		subIntArgLocalIndices = new int[numSubInt];
+		subIntArgTypes = new Type[numSubInt];
+		int idxSubInt = 0;
+		for (int i = 0; i < argDefs.length; i++) {
+			final int sort = argDefs[i].getSort();
+			if (sort == Type.BOOLEAN || sort == Type.BYTE || sort == Type.CHAR || sort == Type.SHORT) {
+				subIntArgLocalIndices[idxSubInt] = argLocalIndices[offset + i];
+				subIntArgTypes[idxSubInt] = argDefs[i];
+				idxSubInt++;
+			}
+		}
+		registerCode = (isRegisterTier && !isNative) ? RegisterCode.translate(method, code, argDefs, argLocalIndices) : null;
+	}
+
+	/**
+	 * Gets the ASM-description of the method.
+	 * @return method-node
+	 */
+	public MethodNode getMethodNode() {
+		return method;
+	}
+
+	/**
+	 * Gets the type-descriptions of the arguments.
+	 * @return argument-types
+	 */
+	public Type[] getArgDefs() {
+		return argDefs;
+	}
+
+	/**
+	 * Gets the pre-decoded instructions.
+	 * @return instructions
+	 */
+	public MethodCode getCode() {
+		return code;
+	}
+
+	/**
+	 * Gets the maximum size of the operand-stack.
+	 * @return max-stack
+	 */
+	public int getMaxStack() {
+		return maxStack;
+	}
+
+	/**
+	 * Gets the number of local variables.
+	 * @return max-locals
+	 */
+	public int getMaxLocals() {
+		return maxLocals;
+	}
+
+	/**
+	 * Gets the local-indices of the arguments in the order of the caller's stack.
+	 * The object-reference of a non-static method is at index 0.
+	 * @return local-indices
+	 */
+	int[] getArgLocalIndices() {
+		return argLocalIndices;
+	}
+
+	/**
+	 * Gets the local-indices of the boolean-, byte-, char- and short-arguments.
+	 * These arguments may have to be converted into int-values.
+	 * @return local-indices
+	 */
+	int[] getSubIntArgLocalIndices() {
+		return subIntArgLocalIndices;
+	}
+
+	/**
+	 * Gets the types of the boolean-, byte-, char- and short-arguments.
+	 * @return types corresponding to {@link #getSubIntArgLocalIndices()}
+	 */
+	Type[] getSubIntArgTypes() {
+		return subIntArgTypes;
+	}
+
+	/**
+	 * Gets the register-code of the method.
+	 * @return register-code or <code>null</code> if the method isn't executed as register-code
+	 */
+	RegisterCode getRegisterCode() {
+		return registerCode;
+	}
+
+	/**
+	 * Gets the compiled code of the method.
+	 * @return compiled code or <code>null</code> if the method hasn't been compiled
+	 */
+	CompiledCode getCompiledCode() {
+		return compiledCode;
+	}
+
+	/**
+	 * Counts an invocation of the method. The instructions of a hot method are quickened,
+	 * a hot int-method is compiled.
+	 * @param quickeningThreshold number of invocations before quickening (0 = no quickening)
+	 * @param compilationThreshold number of invocations before compilation (0 = no compilation)
+	 */
+	void countInvocation(final int quickeningThreshold, final int compilationThreshold) {
+		if (invocationCount < Math.max(quickeningThreshold, compilationThreshold)) {
+			invocationCount++;
+			if (invocationCount == quickeningThreshold && code.quickOpcodes == null) {
+				code.quicken();
+			}
+			if (invocationCount == compilationThreshold && !isNative) {
+				compiledCode = CompiledCode.compile(method, code, argDefs, argLocalIndices);
+			}
+		}
+	}
+
+	/**
+	 * Counts a back-edge (a backward branch) of a loop. The instructions of a method executing
+	 * a long loop are quickened even if the method is invoked once only.
+	 * @param quickeningThreshold number of back-edges before quickening (0 = no quickening)
+	 * @return <code>true</code> if the instructions have been quickened by this back-edge
+	 */
+	boolean countBackEdge(final int quickeningThreshold) {
+		if (backEdgeCount < quickeningThreshold) {
+			backEdgeCount++;
+			if (backEdgeCount == quickeningThreshold && code.quickOpcodes == null) {
+				code.quicken();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a call of the method for the de-simulation.
+	 * @param desimulationThreshold number of calls before the method is hot
+	 * @return <code>true</code> if the method is hot
+	 */
+	boolean countCall(final int desimulationThreshold) {
+		if (callCount < desimulationThreshold) {
+			callCount++;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the de-simulation-decision of a generation of event-requests.
+	 * @param generation generation of the event-requests
+	 * @return decision or <code>null</code> if the method hasn't been checked in this generation
+	 */
+	Boolean getDesimulation(final int generation) {
+		return decodeDecision(desimulationState, generation);
+	}
+
+	/**
+	 * Sets the de-simulation-decision of a generation of event-requests.
+	 * @param generation generation of the event-requests
+	 * @param isDesimulated <code>true</code> if the method should be executed by the underlying JVM
+	 */
+	void setDesimulation(final int generation, final boolean isDesimulated) {
+		desimulationState = encodeDecision(generation, isDesimulated);
+	}
+
+	/**
+	 * Gets the observation-decision of a generation of event-requests.
+	 * @param generation generation of the event-requests
+	 * @return decision or <code>null</code> if the method hasn't been checked in this generation
+	 */
+	Boolean getObservation(final int generation) {
+		return decodeDecision(observationState, generation);
+	}
+
+	/**
+	 * Sets the observation-decision of a generation of event-requests.
+	 * The instructions of a method which isn't observed may be executed quickened.
+	 * @param generation generation of the event-requests
+	 * @param isObserved <code>true</code> if an event-request could match an instruction of the method
+	 */
+	void setObservation(final int generation, final boolean isObserved) {
+		observationState = encodeDecision(generation, isObserved);
+	}
+
+	/**
+	 * Decodes a decision of a generation of event-requests.
+	 * @param state encoded decision or -1
+	 * @param generation current generation of the event-requests
+	 * @return decision or <code>null</code> if the decision belongs to another generation
+	 */
+	private static Boolean decodeDecision(final int state, final int generation) {
+		if (state < 0 || (state >>> 1) != (generation & 0x3fffffff)) {
+			return null;
+		}
+		return Boolean.valueOf((state & 1) != 0);
+	}
+
+	/**
+	 * Encodes a decision of a generation of event-requests.
+	 * @param generation generation of the event-requests
+	 * @param flag decision
+	 * @return encoded decision
+	 */
+	private static int encodeDecision(final int generation, final boolean flag) {
+		return ((generation & 0x3fffffff) << 1) | (flag ? 1 : 0);
+	}
+
+	/**
+	 * Checks if the method is native.
+	 * @return native-flag
+	 */
+	public boolean isNative() {
+		return isNative;
+	}
+}
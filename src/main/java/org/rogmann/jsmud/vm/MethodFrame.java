@@ -1,5 +1,6 @@
 package org.rogmann.jsmud.vm;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
@@ -8,35 +9,20 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.objectweb.asm.Handle;
-import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.FieldInsnNode;
-import org.objectweb.asm.tree.FrameNode;
-import org.objectweb.asm.tree.IincInsnNode;
-import org.objectweb.asm.tree.InsnList;
-import org.objectweb.asm.tree.IntInsnNode;
 import org.objectweb.asm.tree.InvokeDynamicInsnNode;
-import org.objectweb.asm.tree.JumpInsnNode;
-import org.objectweb.asm.tree.LabelNode;
-import org.objectweb.asm.tree.LdcInsnNode;
-import org.objectweb.asm.tree.LineNumberNode;
-import org.objectweb.asm.tree.LookupSwitchInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.MultiANewArrayInsnNode;
-import org.objectweb.asm.tree.TableSwitchInsnNode;
-import org.objectweb.asm.tree.TryCatchBlockNode;
 import org.objectweb.asm.tree.TypeInsnNode;
-import org.objectweb.asm.tree.VarInsnNode;
 import org.rogmann.jsmud.log.Logger;
 import org.rogmann.jsmud.log.LoggerFactory;
 import org.rogmann.jsmud.source.SourceFileWriter;
@@ -65,12 +51,6 @@ public class MethodFrame {
 	/** reflection helper class */
 	private final ReflectionHelper reflectionHelper;
 
-	/** source-file-writer or <code>null</code> */
-	private final SourceFileWriter sourceFileWriter;
-
-	/** map from instruction-index to line-number in generated source (or <code>null</code>) */
-	private final Map<Integer, Integer> sourceFileMapInstrLine;
-
 	/** native method executor (this might be another simulation-engine) */
 	private final NativeMethodExecutor nativeExecutor;
 
@@ -83,29 +63,49 @@ public class MethodFrame {
 	/** ASM-description of the method */
 	private final MethodNode method;
 
+	/** execution-plan of the method */
+	private final MethodExecutionPlan plan;
+
 	/** type-descriptions of arguments */
 	private final Type[] argDefs;
 
-	/** instructions of the method */
-	private final InsnList instructions;
+	/** pre-decoded instructions of the method */
+	private final MethodCode code;
 
-	/** stack in the frame */
-	private final OperandStack stack;
-	
-	/** local variables in the stack */
-	private final Object[] aLocals;
+	/** stack in the frame (<code>null</code> after releasing the frame) */
+	private OperandStack stack;
 	
-	/** map from label to ASM-index */
-	private final Map<Label, Integer> mapLabel;
+	/** local variables in the stack (references or kinds of primitive values, <code>null</code> after releasing the frame) */
+	private Object[] aLocals;
 
+	/** primitive values of locals containing a {@link SlotKind} (<code>null</code> after releasing the frame) */
+	private long[] aPrims;
+	
 	/** visitor */
 	final JvmExecutionVisitor visitor;
 
 	/** invocation-handler used for modifying method-executions */
 	private final JvmInvocationHandler invocationHandler;
 
-	/** current instruction number */
+	/** result of {@link #executeInstructions()} in case of a pending call of a simulated method */
+	static final Object CALL_PENDING = new Object();
+
+	/** <code>true</code> if calls of simulated methods are executed by a trampoline instead of a recursion */
+	boolean isTrampolined;
+
+	/** frame of a pending call of a simulated method (trampoline-mode) */
+	private MethodFrame pendingCallee;
+
+	/** resolved method of the pending call (trampoline-mode) */
+	private InvokeCache.Entry pendingEntry;
+
+	/** invoke-instruction of the pending call (trampoline-mode) */
+	private MethodInsnNode pendingMi;
+
+	/** current instruction number (ASM-index) */
 	public int instrNum;
+	/** program-counter of the current instruction in the decoded instructions */
+	private int pc;
 	/** current line number in source (if known) */
 	private int currLineNum;
 
@@ -113,40 +113,75 @@ public class MethodFrame {
 	 * Constructor
 	 * @param registry class-registry
 	 * @param pMethod reflection-description of the method
-	 * @param method ASM-description of the method
-	 * @param argsDefs type-descriptions of arguments
+	 * @param plan execution-plan of the method
 	 * @param visitor JVM-visitor
 	 * @param invocationHandler invocation-handler
 	 */
 	public MethodFrame(final ClassRegistry registry,
-			final Executable pMethod, final MethodNode method, final Type[] argsDefs,
+			final Executable pMethod, final MethodExecutionPlan plan,
 			final JvmExecutionVisitor visitor, final JvmInvocationHandler invocationHandler) {
+		this(registry, pMethod, plan, visitor, invocationHandler, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param registry class-registry
+	 * @param pMethod reflection-description of the method
+	 * @param plan execution-plan of the method
+	 * @param visitor JVM-visitor
+	 * @param invocationHandler invocation-handler
+	 * @param arena optional frame-arena of the current thread to get stack and locals from
+	 */
+	MethodFrame(final ClassRegistry registry,
+			final Executable pMethod, final MethodExecutionPlan plan,
+			final JvmExecutionVisitor visitor, final JvmInvocationHandler invocationHandler,
+			final FrameArena arena) {
 		this.registry = registry;
 		this.configuration = registry.getConfiguration();
 		this.clazz = pMethod.getDeclaringClass();
-		this.sourceFileWriter = registry.getSourceFileWriter(clazz);
 		this.nativeExecutor = configuration.getNativeExecutor();
 		this.methodName = pMethod.getName();
 		this.pMethod = pMethod;
-		this.method = method;
+		this.plan = plan;
+		this.method = plan.getMethodNode();
 		this.reflectionHelper = configuration.getReflectionHelper();
-		if (sourceFileWriter != null) {
-			sourceFileMapInstrLine = sourceFileWriter.getMethodMapInstrLine(clazz, method);
-			// LOG.debug("line-map: " + sourceFileMapInstrLine);
+		this.argDefs = plan.getArgDefs();
+		this.code = plan.getCode();
+		if (arena != null) {
+			this.stack = arena.acquireStack(plan.getMaxStack());
+			this.aLocals = arena.acquireLocals(plan.getMaxLocals());
+			this.aPrims = arena.acquirePrims(plan.getMaxLocals());
 		}
 		else {
-			sourceFileMapInstrLine = null;
+			this.stack = new OperandStack(plan.getMaxStack());
+			this.aLocals = new Object[plan.getMaxLocals()];
+			this.aPrims = new long[plan.getMaxLocals()];
 		}
-		this.argDefs = argsDefs;
-		this.instructions = method.instructions;
-		this.stack = new OperandStack(method.maxStack);
-		this.aLocals = new Object[method.maxLocals];
-		this.mapLabel = createLabelInstructionIndex(instructions);
 		
 		this.visitor = visitor;
 		this.invocationHandler = invocationHandler;
 	}
 	
+	/**
+	 * Returns stack and locals into the frame-arena after the execution of the frame.
+	 * The frame must not be executed or inspected afterwards, its references to stack and locals are cleared.
+	 * @param arena frame-arena of the current thread
+	 */
+	void release(final FrameArena arena) {
+		final OperandStack frameStack = stack;
+		final Object[] frameLocals = aLocals;
+		final long[] framePrims = aPrims;
+		if (frameStack == null) {
+			return;
+		}
+		stack = null;
+		aLocals = null;
+		aPrims = null;
+		arena.releaseStack(frameStack, plan.getMaxStack());
+		arena.releaseLocals(frameLocals);
+		arena.releasePrims(framePrims);
+	}
+
 	/**
 	 * Gets the frame's class.
 	 * @return class
@@ -165,9 +200,11 @@ public class MethodFrame {
 
 	/**
 	 * Gets a array of the local-variables.
+	 * Primitive values are boxed, the array may be modified.
 	 * @return locals
 	 */
 	public Object[] getLocals() {
+		SlotKind.boxSlots(aLocals, aPrims, aLocals.length);
 		return aLocals;
 	}
 	
@@ -179,6 +216,14 @@ public class MethodFrame {
 		return pMethod;
 	}
 
+	/**
+	 * Gets the execution-plan of the frame's method.
+	 * @return execution-plan
+	 */
+	public MethodExecutionPlan getExecutionPlan() {
+		return plan;
+	}
+
 	/**
 	 * Gets the frame's method-node.
 	 * @return method-node
@@ -193,6 +238,9 @@ public class MethodFrame {
 	 */
 	public int getCurrLineNum() {
 		int lineNum;
+		final SourceFileWriter sourceFileWriter = registry.getSourceFileWriter(clazz);
+		final Map<Integer, Integer> sourceFileMapInstrLine = (sourceFileWriter != null)
+				? sourceFileWriter.getMethodMapInstrLine(clazz, method) : null;
 		if (sourceFileMapInstrLine != null) {
 			// In generated source-files the instructions are counted.
 			final Integer iLineNum = sourceFileMapInstrLine.get(Integer.valueOf(instrNum));
@@ -322,961 +370,452 @@ public class MethodFrame {
 
 	/**
 	 * Executes the method.
-	 * <p>This rather monolithic method contains the execution of the different instructions.</p>  
 	 * @param args arguments on caller's stack
 	 * @return result or <code>null</code>
 	 * @throws Throwable in case of an exception
 	 */
 	public Object execute(final OperandStack args) throws Throwable {
+		enter(args);
+		return executeInstructions();
+	}
+
+	/**
+	 * Enters the method: the arguments are read into the locals and the visitor is informed.
+	 * @param args arguments on caller's stack
+	 */
+	void enter(final OperandStack args) {
 		stack.clear();
 		readArgsIntoLocals(args);
 
+		pc = 0;
 		instrNum = 0;
 		currLineNum = 0;
+		plan.countInvocation(configuration.quickeningThreshold, configuration.compilationThreshold);
+		visitor.visitMethodEnter(clazz, pMethod, this);
+	}
+
+	/**
+	 * Executes the instructions starting at the current program-counter.
+	 * <p>This method contains the dispatch-loop and the frequent instructions. Groups of other instructions
+	 * are executed in separate methods, so the loop stays below HotSpot's HugeMethodLimit
+	 * (see MethodFrameSizeTest).</p>
+	 * <p>In trampoline-mode (see {@link FrameTrampoline}) the loop returns {@link #CALL_PENDING}
+	 * at a call of a simulated method, the caller of the loop executes the pending callee and
+	 * resumes the frame afterwards.</p>
+	 * @return result or <code>null</code> or {@link #CALL_PENDING}
+	 * @throws Throwable in case of an exception
+	 */
+	Object executeInstructions() throws Throwable {
+		final int[] opcodes = code.opcodes;
+		final int[] operands = code.operands;
+		final Object[] constants = code.constants;
+		final AbstractInsnNode[] insns = code.insns;
+		final int[] asmIndex = code.asmIndex;
+		final int[] codeIndex = code.codeIndex;
+		// The quickened opcodes are used if the visitor isn't interested in single instructions
+		// or doesn't observe this method (see isObserved).
+		// A loop may quicken the method while executing it (see jumpTo).
+		final int[] quickOpcodes = code.quickOpcodes;
+		int[] dispatchOpcodes = (quickOpcodes != null) ? quickOpcodes : opcodes;
+		final RegisterCode registerCode = plan.getRegisterCode();
+		final CompiledCode compiledCode = plan.getCompiledCode();
 
 		/** method-return-type (as delivered by method) */
 		Object methodReturnObj = null;
 		/** JVM-return-type (as in stack) */ 
 		Object methodReturnObjJvm = null;
-		visitor.visitMethodEnter(clazz, pMethod, this);
 		try {
+			boolean isExecutedByRegisterCode = false;
+			if (compiledCode != null && pc == 0
+					&& (visitor.getInterestMask() & JvmExecutionVisitor.INTEREST_INSTRUCTION) == 0) {
+				final Object result = executeCompiledCode(compiledCode);
+				if (result != RegisterCode.DEOPTIMIZED) {
+					methodReturnObjJvm = result;
+					isExecutedByRegisterCode = true;
+				}
+			}
+			else if (registerCode != null && pc == 0
+					&& (visitor.getInterestMask() & (JvmExecutionVisitor.INTEREST_INSTRUCTION | JvmExecutionVisitor.INTEREST_LINE)) == 0) {
+				final Object result = executeRegisterCode(registerCode);
+				if (result != RegisterCode.DEOPTIMIZED) {
+					methodReturnObjJvm = result;
+					isExecutedByRegisterCode = true;
+				}
+			}
 
 whileInstr:
-			while (true) {
-				final AbstractInsnNode instr = instructions.get(instrNum);
-				final int opcode = instr.getOpcode();
-				if (opcode < 0 && instr instanceof LineNumberNode) {
-					final LineNumberNode lnn = (LineNumberNode) instr;
-					currLineNum = lnn.line;
-				}
-				visitor.visitInstruction(instr, stack, aLocals);
+			while (!isExecutedByRegisterCode) {
+				final AbstractInsnNode instr = insns[pc];
+				final int interestMask = visitor.getInterestMask();
+				final boolean isVisitInstruction = (interestMask & JvmExecutionVisitor.INTEREST_INSTRUCTION) != 0;
+				final int opcode = (isVisitInstruction && isObserved()) ? opcodes[pc] : dispatchOpcodes[pc];
+				instrNum = asmIndex[pc];
+				if (opcode == MethodCode.OPCODE_LINE) {
+					currLineNum = operands[pc];
+					if ((interestMask & JvmExecutionVisitor.INTEREST_LINE) != 0) {
+						visitor.visitLine(this, currLineNum);
+					}
+				}
+				if (isVisitInstruction) {
+					visitor.visitInstruction(instr, stack, getLocals());
+				}
 				
 				switch (opcode) {
+				case MethodCode.OPCODE_LINE:
+					break;
+				case MethodCode.QUICK_ALOAD_GETFIELD:
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
+					pc++;
+					instrNum = asmIndex[pc];
+					if (executeFieldInstruction(Opcodes.GETFIELD)) {
+						continue whileInstr;
+					}
+					break;
+				case MethodCode.QUICK_ALOAD_ARRAYLENGTH:
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
+					pc++;
+					instrNum = asmIndex[pc];
+					if (executeArrayInstruction(Opcodes.ARRAYLENGTH)) {
+						continue whileInstr;
+					}
+					break;
+				case MethodCode.QUICK_ILOAD_ILOAD_IF_ICMP:
+				{
+					final int v1 = loadInt(operands[pc]);
+					final int v2 = loadInt(operands[pc + 1]);
+					pc += 2;
+					if (compareInt(opcodes[pc], v1, v2)) {
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
+						continue whileInstr;
+					}
+					break;
+				}
+				case MethodCode.QUICK_ILOAD_CONST_IADD_ISTORE:
+				{
+					final int v = loadInt(operands[pc]) + operands[pc + 1];
+					pc += 3;
+					final int index = operands[pc];
+					aLocals[index] = SlotKind.INT;
+					aPrims[index] = v;
+					break;
+				}
 				case Opcodes.NOP: // 0x00
 					break;
 				case Opcodes.ACONST_NULL: // 0x01
 					stack.push(null);
 					break;
 				case Opcodes.ICONST_M1: // 0x02
-					stack.push(Integer.valueOf(-1));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_0: // 0x03
-					stack.push(Integer.valueOf(0));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_1: // 0x04
-					stack.push(Integer.valueOf(1));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_2: // 0x05
-					stack.push(Integer.valueOf(2));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_3: // 0x06
-					stack.push(Integer.valueOf(3));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_4: // 0x07
-					stack.push(Integer.valueOf(4));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.ICONST_5: // 0x08
-					stack.push(Integer.valueOf(5));
+					stack.pushInt(operands[pc]);
 					break;
 				case Opcodes.LCONST_0: // 0x09
-					stack.push(Long.valueOf(0));
+					stack.pushLong(operands[pc]);
 					break;
 				case Opcodes.LCONST_1: // 0x0a
-					stack.push(Long.valueOf(1));
+					stack.pushLong(operands[pc]);
 					break;
 				case Opcodes.FCONST_0: // 0x0b
-					stack.push(Float.valueOf(0f));
+					stack.pushFloat(operands[pc]);
 					break;
 				case Opcodes.FCONST_1: // 0x0c
-					stack.push(Float.valueOf(1f));
+					stack.pushFloat(operands[pc]);
 					break;
 				case Opcodes.FCONST_2: // 0x0d
-					stack.push(Float.valueOf(2f));
+					stack.pushFloat(operands[pc]);
 					break;
 				case Opcodes.DCONST_0: // 0x0e
-					stack.push(Double.valueOf(0f));
+					stack.pushDouble(operands[pc]);
 					break;
 				case Opcodes.DCONST_1: // 0x0f
-					stack.push(Double.valueOf(1f));
+					stack.pushDouble(operands[pc]);
 					break;
 				case Opcodes.BIPUSH: // 0x10
-				{
-					final IntInsnNode ii = (IntInsnNode) instr;
-					final byte b = (byte) ii.operand;
-					stack.push(Integer.valueOf(b));
+					stack.pushInt(operands[pc]);
 					break;
-				}
 				case Opcodes.SIPUSH: // 0x11
-				{
-					final IntInsnNode ii = (IntInsnNode) instr;
-					final short b = (short) ii.operand;
-					stack.push(Integer.valueOf(b));
+					stack.pushInt(operands[pc]);
 					break;
-				}
 				case Opcodes.LDC: // 0x12
-				{
-					final LdcInsnNode li = (LdcInsnNode) instr;
-					Object obj = li.cst;
-					if (li.cst instanceof Type) {
-						final Type type = (Type) li.cst;
-						if (type.getSort() == Type.ARRAY) {
-							final int dims = type.getDimensions();
-							final Class<?> elClass = getClassArrayViaType(type, registry, clazz);
-							final int[] aDims = new int[dims];
-							final Object oArray = Array.newInstance(elClass, aDims);
-							obj = oArray.getClass();
-						}
-						else {
-							final Class<?> liClass = registry.loadClass(type.getClassName(), clazz);
-							obj = liClass;
-						}
+					if (executeLdcOrSubroutine(opcode)) {
+						continue whileInstr;
 					}
-					stack.push(obj);
 					break;
-				}
-				case 0x13: // 0x13, via LDC in ASM
-					throw new JvmException("Opcode 0x13 (Opcode_13) not yet supported, expected LDC.");
-				case 0x14: // 0x14, via LDC in ASM
-					throw new JvmException("Opcode 0x14 (Opcode_14) not yet supported, expected LDC.");
 				case Opcodes.ILOAD: // 0x15
-					stack.push(aLocals[((VarInsnNode) instr).var]);
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.LLOAD: // 0x16
-					stack.push(aLocals[((VarInsnNode) instr).var]);
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.FLOAD: // 0x17
-					stack.push(aLocals[((VarInsnNode) instr).var]);
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.DLOAD: // 0x18
-					stack.push(aLocals[((VarInsnNode) instr).var]);
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.ALOAD: // 0x19
-					stack.push(aLocals[((VarInsnNode) instr).var]);
-					break;
-				case 0x1a: // 0x1a, via ILOAD in ASM
-					throw new JvmException("Opcode 0x1a (Opcode_1a) not yet supported, expected ILOAD.");
-				case 0x1b: // 0x1b, via ILOAD in ASM
-					throw new JvmException("Opcode 0x1b (Opcode_1b) not yet supported, expected ILOAD.");
-				case 0x1c: // 0x1c, via ILOAD in ASM
-					throw new JvmException("Opcode 0x1c (Opcode_1c) not yet supported, expected ILOAD.");
-				case 0x1d: // 0x1d, via ILOAD in ASM
-					throw new JvmException("Opcode 0x1d (Opcode_1d) not yet supported, expected ILOAD.");
-				case 0x1e: // 0x1e, via LLOAD in ASM
-					throw new JvmException("Opcode 0x1e (Opcode_1e) not yet supported, expected LLOAD.");
-				case 0x1f: // 0x1f, via LLOAD in ASM
-					throw new JvmException("Opcode 0x1f (Opcode_1f) not yet supported, expected LLOAD.");
-				case 0x20: // 0x20, via LLOAD in ASM
-					throw new JvmException("Opcode 0x20 (Opcode_20) not yet supported, expected LLOAD.");
-				case 0x21: // 0x21, via LLOAD in ASM
-					throw new JvmException("Opcode 0x21 (Opcode_21) not yet supported, expected LLOAD.");
-				case 0x22: // 0x22, via FLOAD in ASM
-					throw new JvmException("Opcode 0x22 (Opcode_22) not yet supported, expected FLOAD.");
-				case 0x23: // 0x23, via FLOAD in ASM
-					throw new JvmException("Opcode 0x23 (Opcode_23) not yet supported, expected FLOAD.");
-				case 0x24: // 0x24, via FLOAD in ASM
-					throw new JvmException("Opcode 0x24 (Opcode_24) not yet supported, expected FLOAD.");
-				case 0x25: // 0x25, via FLOAD in ASM
-					throw new JvmException("Opcode 0x25 (Opcode_25) not yet supported, expected FLOAD.");
-				case 0x26: // 0x26, via DLOAD in ASM
-					throw new JvmException("Opcode 0x26 (Opcode_26) not yet supported, expected DLOAD.");
-				case 0x27: // 0x27, via DLOAD in ASM
-					throw new JvmException("Opcode 0x27 (Opcode_27) not yet supported, expected DLOAD.");
-				case 0x28: // 0x28, via DLOAD in ASM
-					throw new JvmException("Opcode 0x28 (Opcode_28) not yet supported, expected DLOAD.");
-				case 0x29: // 0x29, via DLOAD in ASM
-					throw new JvmException("Opcode 0x29 (Opcode_29) not yet supported, expected DLOAD.");
-				case 0x2a: // 0x2a, via ALOAD in ASM
-					throw new JvmException("Opcode 0x2a (Opcode_2a) not yet supported, expected ALOAD.");
-				case 0x2b: // 0x2b, via ALOAD in ASM
-					throw new JvmException("Opcode 0x2b (Opcode_2b) not yet supported, expected ALOAD.");
-				case 0x2c: // 0x2c, via ALOAD in ASM
-					throw new JvmException("Opcode 0x2c (Opcode_2c) not yet supported, expected ALOAD.");
-				case 0x2d: // 0x2d, via ALOAD in ASM
-					throw new JvmException("Opcode 0x2d (Opcode_2d) not yet supported, expected ALOAD.");
-				case Opcodes.IALOAD: // 0x2e
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final int[] aPrimitives = (int[]) stack.pop();
-						try {
-							stack.push(Integer.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("IALOAD-AIOOBE", e);
-						}
-					}
+					stack.pushSlot(aLocals, aPrims, operands[pc]);
 					break;
+				case Opcodes.IALOAD: // 0x2e
 				case Opcodes.LALOAD: // 0x2f
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final long[] aPrimitives = (long[]) stack.pop();
-						try {
-							stack.push(Long.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("LALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.FALOAD: // 0x30
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final float[] aPrimitives = (float[]) stack.pop();
-						try {
-							stack.push(Float.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("FALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.DALOAD: // 0x31
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final double[] aPrimitives = (double[]) stack.pop();
-						try {
-							stack.push(Double.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("DALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.AALOAD: // 0x32
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final Object[] aRefs = (Object[]) stack.pop();
-						try {
-							stack.push(aRefs[index]);
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("AALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.BALOAD: // 0x33
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final Object arrB = stack.pop();
-						try {
-							if (arrB instanceof boolean[]) {
-								final boolean[] aPrimitives = (boolean[]) arrB;
-								final boolean v = aPrimitives[index];
-								stack.push(Integer.valueOf(v ? 1 : 0));
-							}
-							else {
-								final byte[] aPrimitives = (byte[]) arrB;
-								// The byte value will be sign-extended to an int value.
-								final int v = aPrimitives[index];
-								stack.push(Integer.valueOf(v));
-							}
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("BALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.CALOAD: // 0x34
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final char[] aPrimitives = (char[]) stack.pop();
-						try {
-							stack.push(Integer.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("CALOAD-AIOOBE", e);
-						}
-					}
-					break;
 				case Opcodes.SALOAD: // 0x35
-					{
-						final int index = ((Integer) stack.pop()).intValue();
-						final short[] aPrimitives = (short[]) stack.pop();
-						try {
-							stack.push(Integer.valueOf(aPrimitives[index]));
-						}
-						catch (ArrayIndexOutOfBoundsException e) {
-							final boolean doContinueWhile = handleCatchException(e);
-							if (doContinueWhile) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("SALOAD-AIOOBE", e);
-						}
+					if (executeArrayInstruction(opcode)) {
+						continue whileInstr;
 					}
 					break;
 				case Opcodes.ISTORE: // 0x36
-					aLocals[((VarInsnNode) instr).var] = stack.pop();
+					stack.popSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.LSTORE: // 0x37
-					aLocals[((VarInsnNode) instr).var] = stack.pop();
+					stack.popSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.FSTORE: // 0x38
-					aLocals[((VarInsnNode) instr).var] = stack.pop();
+					stack.popSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.DSTORE: // 0x39
-					aLocals[((VarInsnNode) instr).var] = stack.pop();
+					stack.popSlot(aLocals, aPrims, operands[pc]);
 					break;
 				case Opcodes.ASTORE: // 0x3a
-					aLocals[((VarInsnNode) instr).var] = stack.pop();
-					break;
-				case 0x3b: // 0x3b, via ISTORE in ASM
-					throw new JvmException("Opcode 0x3b (Opcode_3b) not yet supported, expected ISTORE.");
-				case 0x3c: // 0x3c, via ISTORE in ASM
-					throw new JvmException("Opcode 0x3c (Opcode_3c) not yet supported, expected ISTORE.");
-				case 0x3d: // 0x3d, via ISTORE in ASM
-					throw new JvmException("Opcode 0x3d (Opcode_3d) not yet supported, expected ISTORE.");
-				case 0x3e: // 0x3e, via ISTORE in ASM
-					throw new JvmException("Opcode 0x3e (Opcode_3e) not yet supported, expected ISTORE.");
-				case 0x3f: // 0x3f, via LSTORE in ASM
-					throw new JvmException("Opcode 0x3f (Opcode_3f) not yet supported, expected LSTORE.");
-				case 0x40: // 0x40, via LSTORE in ASM
-					throw new JvmException("Opcode 0x40 (Opcode_40) not yet supported, expected LSTORE.");
-				case 0x41: // 0x41, via LSTORE in ASM
-					throw new JvmException("Opcode 0x41 (Opcode_41) not yet supported, expected LSTORE.");
-				case 0x42: // 0x42, via LSTORE in ASM
-					throw new JvmException("Opcode 0x42 (Opcode_42) not yet supported, expected LSTORE.");
-				case 0x43: // 0x43, via FSTORE in ASM
-					throw new JvmException("Opcode 0x43 (Opcode_43) not yet supported, expected FSTORE.");
-				case 0x44: // 0x44, via FSTORE in ASM
-					throw new JvmException("Opcode 0x44 (Opcode_44) not yet supported, expected FSTORE.");
-				case 0x45: // 0x45, via FSTORE in ASM
-					throw new JvmException("Opcode 0x45 (Opcode_45) not yet supported, expected FSTORE.");
-				case 0x46: // 0x46, via FSTORE in ASM
-					throw new JvmException("Opcode 0x46 (Opcode_46) not yet supported, expected FSTORE.");
-				case 0x47: // 0x47, via DSTORE in ASM
-					throw new JvmException("Opcode 0x47 (Opcode_47) not yet supported, expected DSTORE.");
-				case 0x48: // 0x48, via DSTORE in ASM
-					throw new JvmException("Opcode 0x48 (Opcode_48) not yet supported, expected DSTORE.");
-				case 0x49: // 0x49, via DSTORE in ASM
-					throw new JvmException("Opcode 0x49 (Opcode_49) not yet supported, expected DSTORE.");
-				case 0x4a: // 0x4a, via DSTORE in ASM
-					throw new JvmException("Opcode 0x4a (Opcode_4a) not yet supported, expected DSTORE.");
-				case 0x4b: // 0x4b, via ASTORE in ASM
-					throw new JvmException("Opcode 0x4b (Opcode_4b) not yet supported, expected ASTORE.");
-				case 0x4c: // 0x4c, via ASTORE in ASM
-					throw new JvmException("Opcode 0x4c (Opcode_4c) not yet supported, expected ASTORE.");
-				case 0x4d: // 0x4d, via ASTORE in ASM
-					throw new JvmException("Opcode 0x4d (Opcode_4d) not yet supported, expected ASTORE.");
-				case 0x4e: // 0x4e, via ASTORE in ASM
-					throw new JvmException("Opcode 0x4e (Opcode_4e) not yet supported, expected ASTORE.");
-				case Opcodes.IASTORE: // 0x4f
-					{
-						final int value = ((Integer) stack.pop()).intValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final int[] aPrimitives = (int[]) stack.pop();
-						aPrimitives[index] = value;
-					}
+					stack.popSlot(aLocals, aPrims, operands[pc]);
 					break;
+				case Opcodes.IASTORE: // 0x4f
 				case Opcodes.LASTORE: // 0x50
-					{
-						final long value = ((Long) stack.pop()).longValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final long[] aPrimitives = (long[]) stack.pop();
-						aPrimitives[index] = value;
-					}
-					break;
 				case Opcodes.FASTORE: // 0x51
-					{
-						final float value = ((Float) stack.pop()).floatValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final float[] aPrimitives = (float[]) stack.pop();
-						aPrimitives[index] = value;
-					}
-					break;
 				case Opcodes.DASTORE: // 0x52
-					{
-						final double value = ((Double) stack.pop()).doubleValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final double[] aPrimitives = (double[]) stack.pop();
-						aPrimitives[index] = value;
-					}
-					break;
 				case Opcodes.AASTORE: // 0x53
-					{
-						final Object value = stack.pop();
-						final int index = ((Integer) stack.pop()).intValue();
-						final Object[] aRefs = (Object[]) stack.pop();
-						aRefs[index] = value;
-					}
-					break;
 				case Opcodes.BASTORE: // 0x54
-					{
-						final Object oVal = stack.pop();
-						final int index = ((Integer) stack.pop()).intValue();
-						final Object oArr = stack.pop();
-						if (oArr instanceof boolean[]) {
-							final boolean[] aPrimitives = (boolean[]) oArr;
-							final int bVal = ((Integer) oVal).intValue() & 1;
-							aPrimitives[index] = (bVal == 0) ? false : true;
-						}
-						else {
-							assert oArr instanceof byte[];
-							final byte[] aPrimitives = (byte[]) oArr;
-							final byte bVal = ((Integer) oVal).byteValue();
-							aPrimitives[index] = bVal;
-						}
-					}
-					break;
 				case Opcodes.CASTORE: // 0x55
-					{
-						final char value = (char) ((Integer) stack.pop()).intValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final char[] aPrimitives = (char[]) stack.pop();
-						aPrimitives[index] = value;
-					}
-					break;
 				case Opcodes.SASTORE: // 0x56
-					{
-						final short value = ((Integer) stack.pop()).shortValue();
-						final int index = ((Integer) stack.pop()).intValue();
-						final short[] aPrimitives = (short[]) stack.pop();
-						aPrimitives[index] = value;
+					if (executeArrayInstruction(opcode)) {
+						continue whileInstr;
 					}
 					break;
 				case Opcodes.POP: // 0x57
-					stack.pop();
+					stack.remove(1);
 					break;
 				case Opcodes.POP2: // 0x58
-					final Object oStack = stack.pop();
-					if (!(oStack instanceof Long || oStack instanceof Double)) {
-						stack.pop();
-					}
+					stack.pop2();
 					break;
 				case Opcodes.DUP: // 0x59
-					stack.push(stack.peek());
+					stack.dup();
 					break;
 				case Opcodes.DUP_X1: // 0x5a
-				{
-					final Object o1 = stack.pop();
-					final Object o2 = stack.pop();
-					stack.push(o1);
-					stack.push(o2);
-					stack.push(o1);
+					stack.dupX1();
 					break;
-				}
 				case Opcodes.DUP_X2: // 0x5b
-				{
-					final Object o1 = stack.pop();
-					final Object o2 = stack.pop();
-					if (o2 instanceof Long || o2 instanceof Double) {
-						// Form 2: o2 is of category 2 computational type.
-						stack.push(o1);
-					}
-					else {
-						final Object o3 = stack.pop();
-						stack.push(o1);
-						stack.push(o3);
-					}
-					stack.push(o2);
-					stack.push(o1);
+					stack.dupX2();
 					break;
-				}
 				case Opcodes.DUP2: // 0x5c
-				{
-					final Object o1 = stack.peek();
-					if (o1 instanceof Long || o1 instanceof Double) {
-						stack.push(o1);
-					}
-					else {
-						final Object o2 = stack.peek(1);
-						stack.push(o2);
-						stack.push(o1);
-					}
+					stack.dup2();
 					break;
-				}
 				case Opcodes.DUP2_X1: // 0x5d
-				{
-					final Object o1 = stack.pop();
-					final Object o2 = stack.pop();
-					if (o1 instanceof Long || o1 instanceof Double) {
-						// Form 2: o1 is of category 2 computational type.
-						stack.push(o1);
-					}
-					else {
-						final Object o3 = stack.pop();
-						stack.push(o2);
-						stack.push(o1);
-						stack.push(o3);
-					}
-					stack.push(o2);
-					stack.push(o1);
+					stack.dup2X1();
 					break;
-				}
 				case Opcodes.DUP2_X2: // 0x5e
-				{
-					final Object o1 = stack.pop();
-					final Object o2 = stack.pop();
-					if (o1 instanceof Long || o1 instanceof Double) {
-						// o1 is of category 2 computational type.
-						if (o2 instanceof Long || o2 instanceof Double) {
-							// Form 4: o2 is of category 2 computational type.
-							stack.push(o1);
-						}
-						else {
-							// Form 2
-							final Object o3 = stack.pop();
-							stack.push(o1);
-							stack.push(o3);
-						}
-					}
-					else {
-						final Object o3 = stack.pop();
-						if (o3 instanceof Long || o3 instanceof Double) {
-							// Form 3: o3 ist of category 2 computational type.
-							stack.push(o2);
-							stack.push(o1);
-						}
-						else {
-							// Form 1
-							final Object o4 = stack.pop();
-							stack.push(o2);
-							stack.push(o1);
-							stack.push(o4);
-						}
-						stack.push(o3);
-					}
-					stack.push(o2);
-					stack.push(o1);
+					stack.dup2X2();
 					break;
-				}
 				case Opcodes.SWAP: // 0x5f
-				{
-					Object o1 = stack.pop();
-					Object o2 = stack.pop();
-					stack.push(o1);
-					stack.push(o2);
+					stack.swap();
 					break;
-				}
 				case Opcodes.IADD: // 0x60
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a + b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a + b);
 					break;
 				}
 				case Opcodes.LADD: // 0x61
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a + b));
-					break;
-				}
 				case Opcodes.FADD: // 0x62
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(a + b));
-					break;
-				}
 				case Opcodes.DADD: // 0x63
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(a + b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.ISUB: // 0x64
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a - b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a - b);
 				}
 				break;
 				case Opcodes.LSUB: // 0x65
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a - b));
-					break;
-				}
 				case Opcodes.FSUB: // 0x66
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(a - b));
-					break;
-				}
 				case Opcodes.DSUB: // 0x67
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(a - b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IMUL: // 0x68
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a * b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a * b);
 					break;
 				}
 				case Opcodes.LMUL: // 0x69
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a * b));
-					break;
-				}
 				case Opcodes.FMUL: // 0x6a
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(a * b));
-					break;
-				}
 				case Opcodes.DMUL: // 0x6b
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(a * b));
-					break;
-				}
 				case Opcodes.IDIV: // 0x6c
-				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					try {
-						stack.push(Integer.valueOf(a / b));
-					} catch (ArithmeticException e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error in division %d / %d in %s of %s",
-								Integer.valueOf(a), Integer.valueOf(b),
-								methodName, clazz), e);
-					}
-					break;
-				}
 				case Opcodes.LDIV: // 0x6d
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					try {
-						stack.push(Long.valueOf(a / b));
-					} catch (Exception e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error in division %d / %d in %s of %s",
-								Long.valueOf(a), Long.valueOf(b),
-								methodName, clazz), e);
-					}
-					break;
-				}
 				case Opcodes.FDIV: // 0x6e
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(a / b));
-					break;
-				}
 				case Opcodes.DDIV: // 0x6f
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(a / b));
-					break;
-				}
 				case Opcodes.IREM: // 0x70
-				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a % b));
-					break;
-				}
 				case Opcodes.LREM: // 0x71
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a % b));
-					break;
-				}
 				case Opcodes.FREM: // 0x72
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(a % b));
-					break;
-				}
 				case Opcodes.DREM: // 0x73
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(a % b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.INEG: // 0x74
 				{
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(-a));
+					final int a = stack.popInt();
+					stack.pushInt(-a);
 					break;
 				}
 				case Opcodes.LNEG: // 0x75
-				{
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(-a));
-					break;
-				}
 				case Opcodes.FNEG: // 0x76
-				{
-					final float a = ((Float) stack.pop()).floatValue();
-					stack.push(Float.valueOf(-a));
-					break;
-				}
 				case Opcodes.DNEG: // 0x77
-				{
-					final double a = ((Double) stack.pop()).doubleValue();
-					stack.push(Double.valueOf(-a));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.ISHL: // 0x78
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a << b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a << b);
 					break;
 				}
 				case Opcodes.LSHL: // 0x79
-				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a << b));
-					break;
-				}
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
+					break;
 				case Opcodes.ISHR: // 0x7a
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a >> b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a >> b);
 					break;
 				}
 				case Opcodes.LSHR: // 0x7b
-				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a >> b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IUSHR: // 0x7c
 				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final int a = ((Integer) stack.pop()).intValue();
-					stack.push(Integer.valueOf(a >>> b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a >>> b);
 					break;
 				}
 				case Opcodes.LUSHR: // 0x7d
-				{
-					final int b = ((Integer) stack.pop()).intValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a >>> b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IAND: // 0x7e
 				{
-					final Object ob = stack.pop();
-					final Object oa = stack.pop();
-					final int b = ((Integer) ob).intValue();
-					final int a = ((Integer) oa).intValue();
-					stack.push(Integer.valueOf(a & b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a & b);
 					break;
 				}
 				case Opcodes.LAND: // 0x7f
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a & b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IOR: // 0x80
 				{
-					final Object ob = stack.pop();
-					final Object oa = stack.pop();
-					final int b = ((Integer) ob).intValue();
-					final int a = ((Integer) oa).intValue();
-					stack.push(Integer.valueOf(a | b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a | b);
 					break;
 				}
 				case Opcodes.LOR: // 0x81
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a | b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IXOR: // 0x82
 				{
-					final Object ob = stack.pop();
-					final Object oa = stack.pop();
-					final int b = ((Integer) ob).intValue();
-					final int a = ((Integer) oa).intValue();
-					stack.push(Integer.valueOf(a ^ b));
+					final int b = stack.popInt();
+					final int a = stack.popInt();
+					stack.pushInt(a ^ b);
 					break;
 				}
 				case Opcodes.LXOR: // 0x83
-				{
-					final long b = ((Long) stack.pop()).longValue();
-					final long a = ((Long) stack.pop()).longValue();
-					stack.push(Long.valueOf(a ^ b));
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				}
 				case Opcodes.IINC: // 0x84
 					{
-						final IincInsnNode ii = (IincInsnNode) instr;
-						final int c = ii.incr;
-						final int index = ii.var;
-						aLocals[index] = Integer.valueOf(((Integer) aLocals[index]).intValue() + c);
+						final int c = MethodCode.getIincIncr(operands[pc]);
+						final int index = MethodCode.getIincVar(operands[pc]);
+						final Object oLocal = aLocals[index];
+						final int v = (oLocal == SlotKind.INT) ? (int) aPrims[index] : SlotKind.unboxInt(oLocal);
+						aLocals[index] = SlotKind.INT;
+						aPrims[index] = v + c;
 					}
 					break;
 				case Opcodes.I2L: // 0x85
-					stack.push(Long.valueOf(((Integer) stack.pop()).longValue()) );
-					break;
 				case Opcodes.I2F: // 0x86
-					stack.push(Float.valueOf(((Integer) stack.pop()).floatValue()) );
-					break;
 				case Opcodes.I2D: // 0x87
-					stack.push(Double.valueOf(((Integer) stack.pop()).doubleValue()) );
-					break;
 				case Opcodes.L2I: // 0x88
-					stack.push(Integer.valueOf(((Long) stack.pop()).intValue()) );
-					break;
 				case Opcodes.L2F: // 0x89
-					stack.push(Float.valueOf(((Long) stack.pop()).floatValue()) );
-					break;
 				case Opcodes.L2D: // 0x8a
-					stack.push(Double.valueOf(((Long) stack.pop()).doubleValue()) );
-					break;
 				case Opcodes.F2I: // 0x8b
-					stack.push(Integer.valueOf(((Float) stack.pop()).intValue()) );
-					break;
 				case Opcodes.F2L: // 0x8c
-					stack.push(Long.valueOf(((Float) stack.pop()).longValue()) );
-					break;
 				case Opcodes.F2D: // 0x8d
-					stack.push(Double.valueOf(((Float) stack.pop()).doubleValue()) );
-					break;
 				case Opcodes.D2I: // 0x8e
-					stack.push(Integer.valueOf(((Double) stack.pop()).intValue()) );
-					break;
 				case Opcodes.D2L: // 0x8f
-					stack.push(Long.valueOf(((Double) stack.pop()).longValue()) );
-					break;
 				case Opcodes.D2F: // 0x90
-					stack.push(Float.valueOf(((Double) stack.pop()).floatValue()) );
-					break;
 				case Opcodes.I2B: // 0x91
-					stack.push(Integer.valueOf(((Integer) stack.pop()).byteValue()) );
-					break;
 				case Opcodes.I2C: // 0x92
-					stack.push(Integer.valueOf((char) ((Integer) stack.pop()).intValue()) );
-					break;
 				case Opcodes.I2S: // 0x93
-					// truncation of int into short and sign-extension to an int-result.
-					stack.push(Integer.valueOf(((Integer) stack.pop()).shortValue()) );
-					break;
 				case Opcodes.LCMP: // 0x94
-				{
-					final long l2 = ((Long) stack.pop()).longValue();
-					final long l1 = ((Long) stack.pop()).longValue();
-					final int sgn = (l1 == l2) ? 0 : ((l1 > l2) ? 1 : -1);
-					stack.push(Integer.valueOf(sgn));
-					break;
-				}
 				case Opcodes.FCMPL: // 0x95
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					final int res;
-					if (Float.isNaN(a) || Float.isNaN(b)) {
-						res = -1;
-					}
-					else {
-						res = Float.compare(a, b);
-					}
-					stack.push(Integer.valueOf(res));
-					break;
-				}
 				case Opcodes.FCMPG: // 0x96
-				{
-					final float b = ((Float) stack.pop()).floatValue();
-					final float a = ((Float) stack.pop()).floatValue();
-					final int res;
-					if (Float.isNaN(a) || Float.isNaN(b)) {
-						res = 1;
-					}
-					else {
-						res = Float.compare(a, b);
-					}
-					stack.push(Integer.valueOf(res));
-					break;
-				}
 				case Opcodes.DCMPL: // 0x97
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					final int res;
-					if (Double.isNaN(a) || Double.isNaN(b)) {
-						res = -1;
-					}
-					else {
-						res = Double.compare(a, b);
-					}
-					stack.push(Integer.valueOf(res));
-					break;
-				}
 				case Opcodes.DCMPG: // 0x98
-				{
-					final double b = ((Double) stack.pop()).doubleValue();
-					final double a = ((Double) stack.pop()).doubleValue();
-					final int res;
-					if (Double.isNaN(a) || Double.isNaN(b)) {
-						res = +1;
-					}
-					else {
-						res = Double.compare(a, b);
+					if (executeArithmeticInstruction(opcode)) {
+						continue whileInstr;
 					}
-					stack.push(Integer.valueOf(res));
 					break;
-				}
 				case Opcodes.IFEQ: // 0x99
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v == 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1284,15 +823,11 @@ whileInstr:
 				}
 				case Opcodes.IFNE: // 0x9a
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v != 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1300,15 +835,11 @@ whileInstr:
 				}
 				case Opcodes.IFLT: // 0x9b
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v < 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1316,15 +847,11 @@ whileInstr:
 				}
 				case Opcodes.IFGE: // 0x9c
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v >= 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1332,15 +859,11 @@ whileInstr:
 				}
 				case Opcodes.IFGT: // 0x9d
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v > 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1348,15 +871,11 @@ whileInstr:
 				}
 				case Opcodes.IFLE: // 0x9e
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object oValue = stack.pop();
-					final int v = ((Integer) oValue).intValue();
+					final int v = stack.popInt();
 					if (v <= 0) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 	
@@ -1364,15 +883,12 @@ whileInstr:
 				}
 				case Opcodes.IF_ICMPEQ: // 0x9f
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 == v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 		
@@ -1380,193 +896,106 @@ whileInstr:
 					}
 				case Opcodes.IF_ICMPNE: // 0xa0
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 != v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ICMPLT: // 0xa1
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 < v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ICMPGE: // 0xa2
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 >= v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ICMPGT: // 0xa3
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 > v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ICMPLE: // 0xa4
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-		
-						final int v2 = getIntBooleanAsInt(stack);
-						final int v1 = getIntBooleanAsInt(stack);
+						final int v2 = stack.popInt();
+						final int v1 = stack.popInt();
 						if (v1 <= v2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ACMPEQ: // 0xa5
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-						
 						final Object oValue1 = stack.pop();
 						final Object oValue2 = stack.pop();
 						if (oValue1 == oValue2) {
-							instrNum = instrLabel.intValue();
+							if (jumpTo(operands[pc])) {
+								dispatchOpcodes = code.quickOpcodes;
+							}
 							continue whileInstr;
 						}
 						break;
 					}
 				case Opcodes.IF_ACMPNE: // 0xa6
 				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-					
 					final Object oValue1 = stack.pop();
 					final Object oValue2 = stack.pop();
 					if (oValue1 != oValue2) {
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 					break;
 				}
 				case Opcodes.GOTO: // 0xa7
 					{
-						final JumpInsnNode ji = (JumpInsnNode) instr;
-						final Label labelDest = ji.label.getLabel();
-						final Integer instrLabel = mapLabel.get(labelDest);
-						assert instrLabel != null : "unknown label " + labelDest;
-						
-						instrNum = instrLabel.intValue();
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
 				case Opcodes.JSR: // 0xa8
-				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final JvmReturnAddress returnAddress = new JvmReturnAddress(instrNum + 1);
-					stack.push(returnAddress);
-
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-					
-					instrNum = instrLabel.intValue();
-					continue whileInstr;
-				}
 				case Opcodes.RET: // 0xa9
-				{
-					final VarInsnNode vi = (VarInsnNode) instr;
-					final JvmReturnAddress returnAddress;
-					final Object oReturnAddress;
-					try {
-						oReturnAddress = aLocals[vi.var];
-					} catch (ArrayIndexOutOfBoundsException e) {
-						throw new JvmException(String.format("Unexpected local-var-index (%d) in RET-instruction, #local=%d",
-								Integer.valueOf(vi.var), Integer.valueOf(aLocals.length)));
-					}
-					try {
-						returnAddress = (JvmReturnAddress) oReturnAddress;
-					} catch (ClassCastException e) {
-						throw new JvmException(String.format("Unexpected value (%s) instead of returnAddress in RET %d-instruction",
-								oReturnAddress, Integer.valueOf(vi.var)));
-					}
-					if (LOG.isDebugEnabled()) {
-						LOG.debug(String.format("RET %d: jump to instr 0x%02x",
-								Integer.valueOf(vi.var), Integer.valueOf(returnAddress.getAddress())));
+					if (executeLdcOrSubroutine(opcode)) {
+						continue whileInstr;
 					}
-					instrNum = returnAddress.getAddress();
-					continue whileInstr;
-				}
+					break;
 				case Opcodes.TABLESWITCH: // 0xaa
-				{
-					final TableSwitchInsnNode tsi = (TableSwitchInsnNode) instr;
-					final int lMin = tsi.min;
-					final int lMax = tsi.max;
-					final int idx = ((Integer) stack.pop()).intValue();
-					final Label labelDest;
-					if (lMin <= idx && idx <= lMax) {
-						labelDest = tsi.labels.get(idx - lMin).getLabel();
-					}
-					else {
-						labelDest = tsi.dflt.getLabel();
-					}
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-					
-					instrNum = instrLabel.intValue();
-					continue whileInstr;
-				}
 				case Opcodes.LOOKUPSWITCH: // 0xab
 				{
-					final int idx = ((Integer) stack.pop()).intValue();
-					final LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) instr;
-					final List<Integer> keys = lsi.keys;
-					final List<LabelNode> labels = lsi.labels;
-					final int numCases = keys.size();
-					Label labelDest = lsi.dflt.getLabel();
-					for (int i = 0; i < numCases; i++) {
-						if (keys.get(i).intValue() == idx) {
-							labelDest = labels.get(i).getLabel();
-							break;
-						}
-					}
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-					
-					instrNum = instrLabel.intValue();
+					final int idx = stack.popInt();
+					pc = ((MethodCode.SwitchTable) constants[pc]).getTarget(idx);
 					continue whileInstr;
 				}
 				case Opcodes.IRETURN: // 0xac
@@ -1593,156 +1022,21 @@ whileInstr:
 					stack.clear();
 					break whileInstr;
 				case Opcodes.GETSTATIC: // 0xb2
-				{
-					final FieldInsnNode fi = (FieldInsnNode) instr;
-					final String nameFiOwner = fi.owner.replace('/', '.');
-					Object objField;
-					if ("java.lang.System".equals(nameFiOwner) && "security".equals(fi.name)) {
-						//@SuppressWarnings("removal") starting with Java 9.
-						final SecurityManager securityManager = System.getSecurityManager();
-						objField = securityManager;
-					}
-					else if (CallSiteGenerator.FIELD_IS_EXECUTED_BY_JSMUD.equals(fi.name) && "Z".equals(fi.desc)) {
-						// JSMUD-internal field: class is executed by JSMUD.
-						objField = Integer.valueOf(1);
-					}
-					else {
-						try {
-							final Class<?> classFieldOwner = registry.loadClass(nameFiOwner, clazz);
-							final Field field = findDeclaredField(classFieldOwner, fi.name, true);
-							registry.checkClassInitialization(field.getDeclaringClass());
-							field.setAccessible(true);
-							objField = field.get(classFieldOwner);
-							objField = visitor.visitFieldAccess(opcode, classFieldOwner, field, objField);
-							objField = convertFieldTypeIntoJvmType(field.getType(), objField);
-						} catch (ClassNotFoundException | NoSuchFieldException | SecurityException
-								| IllegalArgumentException | IllegalAccessException e) {
-							final boolean doContinueWhileE = handleCatchException(e);
-							if (doContinueWhileE) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException(String.format("Error while reading field (%s) of (%s) in method (%s) of class (%s) in class-loader (%s)",
-									fi.name, nameFiOwner, methodName, clazz, clazz.getClassLoader()), e);
-						}
-					}
-					stack.push(objField);
-					break;
-				}
 				case Opcodes.PUTSTATIC: // 0xb3
-				{
-					final FieldInsnNode fi = (FieldInsnNode) instr;
-					final String nameFiOwner = fi.owner.replace('/', '.');
-					try {
-						final Class<?> classFieldOwner = registry.loadClass(nameFiOwner, clazz);
-						final Field field = findDeclaredField(classFieldOwner, fi.name, false);
-						registry.checkClassInitialization(field.getDeclaringClass());
-						field.setAccessible(true);
-						if (Modifier.isFinal(field.getModifiers()) && Modifier.isStatic(pMethod.getModifiers())) {
-							// We want to set a final field while executing a constructor.
-							// Instead of static we could check for JsmudClassLoader.InitializerAdapter.METHOD_JSMUD_CLINIT.equals(methodName) in this or a calling method.
-							// Example: <clinit> in cglib-enhancer calls CGLIB$STATICHOOK1.
-							reflectionHelper.removeFieldsFinalModifier(field);
-						}
-						final Object vFieldStack = stack.pop();
-						final Class<?> fieldType = field.getType();
-						Object vField = convertJvmTypeIntoFieldType(fieldType, vFieldStack);
-						vField = visitor.visitFieldAccess(opcode, classFieldOwner, field, vField);
-						field.set(classFieldOwner, vField);
-					} catch (ClassNotFoundException | NoSuchFieldException | SecurityException
-							| IllegalArgumentException | IllegalAccessException e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error while setting field (%s) of (%s) in method (%s) of class (%s)",
-								fi.name, nameFiOwner, methodName, clazz), e);
-					}
-					break;
-				}
 				case Opcodes.GETFIELD: // 0xb4
-				{
-					final FieldInsnNode fi = (FieldInsnNode) instr;
-					final Object fieldInstance = stack.pop();
-					if (fieldInstance == null) {
-						throw new JvmException(String.format("no instance of field %s.%s on stack",
-								fi.owner, fi.name));
-					}
-					Class<?> classFieldOwner = fieldInstance.getClass();
-					final String fiOwnerName = fi.owner.replace('/', '.');
-					if (!classFieldOwner.getName().equals(fiOwnerName)) {
-						classFieldOwner = registry.loadClass(fiOwnerName, clazz);
-					}
-					try {
-						final Field field = findDeclaredField(classFieldOwner, fi.name, false);
-						assert field != null;
-						field.setAccessible(true);
-						Object fieldValue = field.get(fieldInstance);
-						fieldValue = visitor.visitFieldAccess(opcode, fieldInstance, field, fieldValue);
-						fieldValue = convertFieldTypeIntoJvmType(field.getType(), fieldValue);
-						stack.push(fieldValue);
-					} catch (NoSuchFieldException | SecurityException
-							| IllegalArgumentException | IllegalAccessException e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error while reading field (%s) of (%s) in method (%s) of class (%s)",
-								fi.name, fi.owner, methodName, classFieldOwner), e);
-					}
-					break;
-				}
 				case Opcodes.PUTFIELD: // 0xb5
-				{
-					final FieldInsnNode fi = (FieldInsnNode) instr;
-					final Object oValue = stack.pop();
-					final Object fieldInstance = stack.pop();
-					if (fieldInstance == null) {
-						throw new NullPointerException();
-					}
-					Class<?> classFieldOwner = fieldInstance.getClass(); // fi.owner?
-					final String fiOwnerName = fi.owner.replace('/', '.');
-					if (!classFieldOwner.getName().equals(fiOwnerName)) {
-						classFieldOwner = registry.loadClass(fiOwnerName, clazz);
-					}
-					try {
-						final Field field = findDeclaredField(classFieldOwner, fi.name, false);
-						field.setAccessible(true);
-						Object oValueField = convertJvmTypeIntoFieldType(field.getType(), oValue);
-						oValueField = visitor.visitFieldAccess(opcode, fieldInstance, field, oValueField);
-						if (Modifier.isFinal(field.getModifiers()) && pMethod instanceof Constructor<?>) {
-							// We want to set a final field while executing a constructor.
-							reflectionHelper.removeFieldsFinalModifier(field);
-						}
-						try {
-							field.set(fieldInstance, oValueField);
-						} catch (IllegalArgumentException e) {
-							final boolean doContinueWhileE = handleCatchException(e);
-							if (doContinueWhileE) {
-								continue whileInstr;
-							}
-							final Class<?> classValue = (oValueField != null) ? oValueField.getClass() : null;
-							final ClassLoader clValue = (classValue != null) ? classValue.getClassLoader() : null;
-							throw new JvmUncaughtException(String.format("Argument-error while setting field (%s) of (%s) of class (%s) of class-loader (%s) to object of class (%s) of (%s) in method (%s)",
-									fi.name, fi.owner, classFieldOwner, classFieldOwner.getClassLoader(),
-									classValue, clValue,
-									methodName), e);
-						}
-					}
-					catch (NoSuchFieldException | SecurityException | IllegalAccessException e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error while setting field (%s) of (%s) for (%s) in method (%s)",
-								fi.name, fi.owner, classFieldOwner, methodName), e);
+					if (executeFieldInstruction(opcode)) {
+						continue whileInstr;
 					}
 					break;
-				}
 				case Opcodes.INVOKEVIRTUAL: // 0xb6
 				{
 					final MethodInsnNode mi = (MethodInsnNode) instr;
-					final boolean exceptionHandled = executeInvoke(mi, false, false, true, false);
+					final boolean exceptionHandled = executeInvoke((InvokeCache) constants[pc], false, false, true, false);
 					if (exceptionHandled) {
+						if (pendingCallee != null) {
+							break whileInstr;
+						}
 						continue whileInstr;
 					}
 					if (invocationHandler.postprocessCall(this, mi, stack)) {
@@ -1758,9 +1052,12 @@ whileInstr:
 						exceptionHandled = executeInvokeSpecial(mi);
 					}
 					else {
-						exceptionHandled = executeInvoke(mi, false, false, false, true);
+						exceptionHandled = executeInvoke((InvokeCache) constants[pc], false, false, false, true);
 					}
 					if (exceptionHandled) {
+						if (pendingCallee != null) {
+							break whileInstr;
+						}
 						continue whileInstr;
 					}
 					if (invocationHandler.postprocessCall(this, mi, stack)) {
@@ -1771,8 +1068,11 @@ whileInstr:
 				case Opcodes.INVOKESTATIC: // 0xb8
 				{
 					final MethodInsnNode mi = (MethodInsnNode) instr;
-					final boolean exceptionHandled = executeInvoke(mi, false, true, false, false);
+					final boolean exceptionHandled = executeInvoke((InvokeCache) constants[pc], false, true, false, false);
 					if (exceptionHandled) {
+						if (pendingCallee != null) {
+							break whileInstr;
+						}
 						continue whileInstr;
 					}
 					if (invocationHandler.postprocessCall(this, mi, stack)) {
@@ -1783,8 +1083,11 @@ whileInstr:
 				case Opcodes.INVOKEINTERFACE: // 0xb9
 				{
 					final MethodInsnNode mi = (MethodInsnNode) instr;
-					final boolean exceptionHandled = executeInvoke(mi, true, false, false, true);
+					final boolean exceptionHandled = executeInvoke((InvokeCache) constants[pc], true, false, false, true);
 					if (exceptionHandled) {
+						if (pendingCallee != null) {
+							break whileInstr;
+						}
 						continue whileInstr;
 					}
 					if (invocationHandler.postprocessCall(this, mi, stack)) {
@@ -1793,231 +1096,1368 @@ whileInstr:
 					break;
 				}
 				case Opcodes.INVOKEDYNAMIC: // 0xba
-				{
-					final InvokeDynamicInsnNode idin = (InvokeDynamicInsnNode) instr;
-					final Object callSiteInstance;
-					if (configuration.isCallsiteViaProxy) {
-						final CallSiteSimulation jvmCallSite = executeInvokeDynamic(idin);
-						callSiteInstance = jvmCallSite.getProxy();
-					}
-					else {
-						callSiteInstance = registry.getCallSiteGenerator().createCallSite(registry, clazz, idin, stack);
-					}
-					stack.push(callSiteInstance);
-					break;
-				}
 				case Opcodes.NEW: // 0xbb
-				{
-					final TypeInsnNode ti = (TypeInsnNode) instr;
-					final String nameNew = ti.desc.replace('/', '.');
-					Class<?> classNew;
-					try {
-						classNew = registry.loadClass(nameNew, clazz);
-					} catch (ClassNotFoundException e) {
-						final boolean doContinueWhileE = handleCatchException(e);
-						if (doContinueWhileE) {
-							continue whileInstr;
-						}
-						throw new JvmUncaughtException(String.format("Error while loading class (%s) in method (%s)",
-								nameNew, methodName), e);
+					if (executeObjectInstruction(opcode)) {
+						continue whileInstr;
 					}
-					registry.checkClassInitialization(classNew);
-					stack.push(new UninitializedInstance(classNew));
-	
 					break;
-				}
 				case Opcodes.NEWARRAY: // 0xbc
-				{
-					final IntInsnNode ii = (IntInsnNode) instr;
-					final int atype = ii.operand;
-					final int len = ((Integer) stack.pop()).intValue();
-					final Object oArray = Array.newInstance(AtypeEnum.lookupAtypeClass(atype), len);
-					stack.push(oArray);
-					break;
-				}
 				case Opcodes.ANEWARRAY: // 0xbd
-				{
-					final TypeInsnNode ti = (TypeInsnNode) instr;
-					final Type type = Type.getObjectType(ti.desc);
-					final Class<?> classArray;
-					if (type.getSort() == Type.ARRAY) {
-						final int dims = type.getDimensions();
-						final int[] aDims = new int[dims];
-						Class<?> elClass;
-						try {
-							elClass = getClassArrayViaType(type, registry, clazz);
-						} catch (ClassNotFoundException e) {
-							final boolean doContinueWhileE = handleCatchException(e);
-							if (doContinueWhileE) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException(String.format("Error while loading array-class (%s) in method (%s)",
-									type, methodName), e);
-						}
-						final Object oArray = Array.newInstance(elClass, aDims);
-						classArray = oArray.getClass();
+				case Opcodes.ARRAYLENGTH: // 0xbe
+					if (executeArrayInstruction(opcode)) {
+						continue whileInstr;
 					}
-					else {
-						final String nameNew = ti.desc.replace('/', '.');
-						try {
-							classArray = registry.loadClass(nameNew, clazz);
-						} catch (ClassNotFoundException e) {
-							final boolean doContinueWhileE = handleCatchException(e);
-							if (doContinueWhileE) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException(String.format("Error while loading class (%s) in method (%s)",
-									nameNew, methodName), e);
-						}
+					break;
+				case Opcodes.ATHROW: // 0xbf
+				case Opcodes.CHECKCAST: // 0xc0
+				case Opcodes.INSTANCEOF: // 0xc1
+				case Opcodes.MONITORENTER: // 0xc2
+				case Opcodes.MONITOREXIT: // 0xc3
+					if (executeObjectInstruction(opcode)) {
+						continue whileInstr;
 					}
-					final int len = ((Integer) stack.pop()).intValue();
-					final Object oArray = Array.newInstance(classArray, len);
-					stack.push(oArray);
 					break;
-				}
-				case Opcodes.ARRAYLENGTH: // 0xbe
-					final int length = Array.getLength(stack.pop());
-					stack.push(Integer.valueOf(length));
+				case Opcodes.MULTIANEWARRAY: // 0xc5
+					if (executeArrayInstruction(opcode)) {
+						continue whileInstr;
+					}
 					break;
-				case Opcodes.ATHROW: // 0xbf
+				case Opcodes.IFNULL: // 0xc6
 				{
-					final Throwable e = (Throwable) stack.pop();
-					final boolean doContinueWhileE = handleCatchException(e);
-					if (doContinueWhileE) {
+					final Object value = stack.pop();
+					if (value == null) {
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
+						}
 						continue whileInstr;
 					}
-					throw new JvmUncaughtException("ATHROW in " + getMethod() + "at " + getCurrLineNum(),
-							e);
+					break;
 				}
-				case Opcodes.CHECKCAST: // 0xc0
+				case Opcodes.IFNONNULL: // 0xc7
 				{
-					final TypeInsnNode tin = (TypeInsnNode) instr;
-					final Object obj = stack.peek();
-					if (obj != null) {
-						boolean canCast = handleCheckcast(tin.desc, obj, registry, clazz);
-						if (!canCast) {
-							final ClassCastException e = new ClassCastException(String.format("Can't convert object of type (%s) in (%s) to (%s)",
-									obj.getClass(), obj.getClass().getClassLoader(), tin.desc));
-							final boolean doContinueWhileE = handleCatchException(e);
-							if (doContinueWhileE) {
-								continue whileInstr;
-							}
-							throw new JvmUncaughtException("CHECKCAST in " + getMethod() + "at " + getCurrLineNum(),
-									e);
+					final Object value = stack.pop();
+					if (value != null) {
+						if (jumpTo(operands[pc])) {
+							dispatchOpcodes = code.quickOpcodes;
 						}
+						continue whileInstr;
 					}
 					break;
 				}
-				case Opcodes.INSTANCEOF: // 0xc1
-				{
-					final TypeInsnNode tin = (TypeInsnNode) instr;
-					final Object obj = stack.pop();
-					if (obj == null) {
-						stack.push(Integer.valueOf(0));
-					}
-					else {
-						final boolean canCast = handleCheckcast(tin.desc, obj, registry, clazz);
-						stack.push(Integer.valueOf(canCast ? 1 : 0));
+				default:
+					throw createUnsupportedInstructionException(opcode);
+				}
+				
+				pc++;
+			}
+		}
+		finally {
+			if (pendingCallee == null) {
+				methodReturnObj = visitMethodExit(methodReturnObjJvm);
+			}
+		}
+		if (pendingCallee != null) {
+			return CALL_PENDING;
+		}
+
+		return methodReturnObj;
+	}
+
+	/**
+	 * Executes the register-code of the method.
+	 * In case of a de-optimization locals, operand-stack and program-counter are set to continue
+	 * the execution in the stack-code.
+	 * @param registerCode register-code
+	 * @return result (JVM-type) or <code>null</code> or {@link RegisterCode#DEOPTIMIZED}
+	 */
+	private Object executeRegisterCode(final RegisterCode registerCode) {
+		final int[] regs = registerCode.createRegisters(aLocals, aPrims);
+		final int ip = registerCode.execute(regs, visitor);
+		final Object result;
+		if (ip >= 0) {
+			pc = registerCode.codePc[ip];
+			result = registerCode.getReturnValue(regs, ip);
+		}
+		else {
+			pc = registerCode.deoptimize(regs, -1 - ip, aLocals, aPrims, stack);
+			result = RegisterCode.DEOPTIMIZED;
+		}
+		instrNum = code.asmIndex[pc];
+		currLineNum = code.findLineNumber(pc);
+		return result;
+	}
+
+	/**
+	 * Executes the compiled code of the method.
+	 * In case of a de-optimization locals and program-counter are set to continue
+	 * the execution in the stack-code.
+	 * @param compiledCode compiled code
+	 * @return result (JVM-type) or <code>null</code> or {@link RegisterCode#DEOPTIMIZED}
+	 * @throws Throwable in case of an error
+	 */
+	private Object executeCompiledCode(final CompiledCode compiledCode) throws Throwable {
+		final int[] state = compiledCode.createState(aLocals, aPrims);
+		final int value = compiledCode.execute(state, visitor, this);
+		final int pcDeopt = compiledCode.getDeoptPc(state);
+		if (pcDeopt >= 0) {
+			compiledCode.deoptimize(state, aLocals, aPrims);
+			pc = pcDeopt;
+			instrNum = code.asmIndex[pc];
+			currLineNum = code.findLineNumber(pc);
+			return RegisterCode.DEOPTIMIZED;
+		}
+		return compiledCode.getReturnValue(value);
+	}
+
+	/**
+	 * Checks if an event-request of the visitor could match an instruction of the method.
+	 * The decision is cached in the execution-plan until the event-requests change.
+	 * @return <code>true</code> if the instructions must not be quickened
+	 */
+	private boolean isObserved() {
+		final int generation = registry.getEventRequestGeneration();
+		final Boolean isObservedPlan = plan.getObservation(generation);
+		if (isObservedPlan != null) {
+			return isObservedPlan.booleanValue();
+		}
+		final boolean isObserved = visitor.isMethodObserved(pMethod);
+		plan.setObservation(generation, isObserved);
+		return isObserved;
+	}
+
+	/**
+	 * Sets the program-counter to a branch-target. A backward branch is counted as back-edge of a loop,
+	 * the instructions of a long loop are quickened while executing it.
+	 * @param target program-counter of the branch-target
+	 * @return <code>true</code> if the instructions have been quickened by this branch
+	 */
+	private boolean jumpTo(final int target) {
+		final boolean isBackEdge = (target <= pc);
+		pc = target;
+		return isBackEdge && plan.countBackEdge(configuration.quickeningThreshold);
+	}
+
+	/**
+	 * Gets the int-value of a local variable.
+	 * @param index local-index
+	 * @return int-value
+	 */
+	private int loadInt(final int index) {
+		final Object oLocal = aLocals[index];
+		return (oLocal == SlotKind.INT) ? (int) aPrims[index] : SlotKind.unboxInt(oLocal);
+	}
+
+	/**
+	 * Compares two int-values as an IF_ICMPxx-instruction.
+	 * @param opcode IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT or IF_ICMPLE
+	 * @param v1 first value
+	 * @param v2 second value
+	 * @return <code>true</code> if the branch is taken
+	 */
+	private static boolean compareInt(final int opcode, final int v1, final int v2) {
+		switch (opcode) {
+		case Opcodes.IF_ICMPEQ:
+			return v1 == v2;
+		case Opcodes.IF_ICMPNE:
+			return v1 != v2;
+		case Opcodes.IF_ICMPLT:
+			return v1 < v2;
+		case Opcodes.IF_ICMPGE:
+			return v1 >= v2;
+		case Opcodes.IF_ICMPGT:
+			return v1 > v2;
+		case Opcodes.IF_ICMPLE:
+			return v1 <= v2;
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "compareInt"));
+		}
+	}
+
+	/**
+	 * Informs the visitor about the exit of the method.
+	 * @param methodReturnObjJvm JVM-return-value (as in stack) or <code>null</code>
+	 * @return return-value of the method's type
+	 */
+	private Object visitMethodExit(final Object methodReturnObjJvm) {
+		final Object methodReturnObj;
+		if (pMethod instanceof Method) {
+			final Method mMethod = (Method) pMethod;
+			methodReturnObj = convertJvmTypeIntoFieldType(mMethod.getReturnType(), methodReturnObjJvm);
+		}
+		else {
+			methodReturnObj = methodReturnObjJvm;
+		}
+		visitor.visitMethodExit(clazz, pMethod, this, methodReturnObj);
+		return methodReturnObj;
+	}
+
+	/**
+	 * Gets the frame of the pending call of a simulated method (trampoline-mode).
+	 * @return callee-frame or <code>null</code>
+	 */
+	MethodFrame getPendingCallee() {
+		return pendingCallee;
+	}
+
+	/**
+	 * Enters the pending callee: the arguments are moved from this frame's stack into the callee.
+	 * @return callee-frame
+	 */
+	MethodFrame enterPendingCallee() {
+		final MethodFrame callee = pendingCallee;
+		pendingCallee = null;
+		callee.enter(stack);
+		return callee;
+	}
+
+	/**
+	 * Resumes this frame after the pending callee has returned (trampoline-mode).
+	 * The result is pushed onto the stack and the program-counter is moved behind the invoke-instruction.
+	 * @param returnObj result of the callee
+	 * @throws Throwable in case of an exception while post-processing the call
+	 */
+	void resumeAfterCall(final Object returnObj) throws Throwable {
+		final InvokeCache.Entry entry = pendingEntry;
+		pendingEntry = null;
+		visitor.visitMethodExitBack(clazz, pMethod, this, returnObj);
+		final Class<?> classReturnType = entry.classReturnType;
+		if (classReturnType != void.class) {
+			final Object returnObjStack = convertFieldTypeIntoJvmType(classReturnType, returnObj);
+			stack.push(returnObjStack);
+		}
+		final MethodInsnNode mi = pendingMi;
+		pendingMi = null;
+		if (!invocationHandler.postprocessCall(this, mi, stack)) {
+			pc++;
+		}
+	}
+
+	/**
+	 * Resumes this frame after the pending callee has thrown an exception (trampoline-mode).
+	 * The program-counter is set to the exception-handler.
+	 * @param e exception of the callee
+	 * @throws Throwable the exception if it isn't handled in this frame
+	 */
+	void resumeAfterException(final Throwable e) throws Throwable {
+		final InvokeCache.Entry entry = pendingEntry;
+		pendingEntry = null;
+		pendingMi = null;
+		if (e instanceof JvmUncaughtException) {
+			final boolean doContinueWhile = handleCatchException(e.getCause());
+			if (doContinueWhile) {
+				return;
+			}
+			// This exception isn't handled here.
+			throw e;
+		}
+		if (e instanceof JvmException) {
+			throw new JvmException(String.format("JvmException in %s#%d, execution of %s",
+					clazz, Integer.valueOf(getCurrLineNum()), entry.invMethod), e);
+		}
+		throw e;
+	}
+
+	/**
+	 * Leaves this frame because of an exception thrown while resuming the frame (trampoline-mode).
+	 */
+	void exitAfterException() {
+		visitMethodExit(null);
+	}
+
+	/**
+	 * Executes array-instructions (load, store, creation and length).
+	 * @param opcode opcode of the instruction
+	 * @return <code>true</code> if the program-counter has been set (e.g. exception-handler), <code>false</code> for the next instruction
+	 * @throws Throwable in case of an exception
+	 */
+	private boolean executeArrayInstruction(final int opcode) throws Throwable {
+		final AbstractInsnNode instr = code.insns[pc];
+		final int[] operands = code.operands;
+		switch (opcode) {
+		case Opcodes.IALOAD: // 0x2e
+			{
+				final int index = stack.popInt();
+				final int[] aPrimitives = (int[]) stack.pop();
+				try {
+					stack.pushInt(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("IALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.LALOAD: // 0x2f
+			{
+				final int index = stack.popInt();
+				final long[] aPrimitives = (long[]) stack.pop();
+				try {
+					stack.pushLong(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("LALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.FALOAD: // 0x30
+			{
+				final int index = stack.popInt();
+				final float[] aPrimitives = (float[]) stack.pop();
+				try {
+					stack.pushFloat(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("FALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.DALOAD: // 0x31
+			{
+				final int index = stack.popInt();
+				final double[] aPrimitives = (double[]) stack.pop();
+				try {
+					stack.pushDouble(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("DALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.AALOAD: // 0x32
+			{
+				final int index = stack.popInt();
+				final Object[] aRefs = (Object[]) stack.pop();
+				try {
+					stack.push(aRefs[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("AALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.BALOAD: // 0x33
+			{
+				final int index = stack.popInt();
+				final Object arrB = stack.pop();
+				try {
+					if (arrB instanceof boolean[]) {
+						final boolean[] aPrimitives = (boolean[]) arrB;
+						final boolean v = aPrimitives[index];
+						stack.pushInt(v ? 1 : 0);
+					}
+					else {
+						final byte[] aPrimitives = (byte[]) arrB;
+						// The byte value will be sign-extended to an int value.
+						final int v = aPrimitives[index];
+						stack.pushInt(v);
+					}
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("BALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.CALOAD: // 0x34
+			{
+				final int index = stack.popInt();
+				final char[] aPrimitives = (char[]) stack.pop();
+				try {
+					stack.pushInt(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("CALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.SALOAD: // 0x35
+			{
+				final int index = stack.popInt();
+				final short[] aPrimitives = (short[]) stack.pop();
+				try {
+					stack.pushInt(aPrimitives[index]);
+				}
+				catch (ArrayIndexOutOfBoundsException e) {
+					final boolean doContinueWhile = handleCatchException(e);
+					if (doContinueWhile) {
+						return true;
+					}
+					throw new JvmUncaughtException("SALOAD-AIOOBE", e);
+				}
+			}
+			return false;
+		case Opcodes.IASTORE: // 0x4f
+			{
+				final int value = stack.popInt();
+				final int index = stack.popInt();
+				final int[] aPrimitives = (int[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.LASTORE: // 0x50
+			{
+				final long value = stack.popLong();
+				final int index = stack.popInt();
+				final long[] aPrimitives = (long[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.FASTORE: // 0x51
+			{
+				final float value = stack.popFloat();
+				final int index = stack.popInt();
+				final float[] aPrimitives = (float[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.DASTORE: // 0x52
+			{
+				final double value = stack.popDouble();
+				final int index = stack.popInt();
+				final double[] aPrimitives = (double[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.AASTORE: // 0x53
+			{
+				final Object value = stack.pop();
+				final int index = stack.popInt();
+				final Object[] aRefs = (Object[]) stack.pop();
+				aRefs[index] = value;
+			}
+			return false;
+		case Opcodes.BASTORE: // 0x54
+			{
+				final int iVal = stack.popInt();
+				final int index = stack.popInt();
+				final Object oArr = stack.pop();
+				if (oArr instanceof boolean[]) {
+					final boolean[] aPrimitives = (boolean[]) oArr;
+					final int bVal = iVal & 1;
+					aPrimitives[index] = (bVal == 0) ? false : true;
+				}
+				else {
+					assert oArr instanceof byte[];
+					final byte[] aPrimitives = (byte[]) oArr;
+					final byte bVal = (byte) iVal;
+					aPrimitives[index] = bVal;
+				}
+			}
+			return false;
+		case Opcodes.CASTORE: // 0x55
+			{
+				final char value = (char) stack.popInt();
+				final int index = stack.popInt();
+				final char[] aPrimitives = (char[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.SASTORE: // 0x56
+			{
+				final short value = (short) stack.popInt();
+				final int index = stack.popInt();
+				final short[] aPrimitives = (short[]) stack.pop();
+				aPrimitives[index] = value;
+			}
+			return false;
+		case Opcodes.NEWARRAY: // 0xbc
+		{
+			final int atype = operands[pc];
+			final int len = stack.popInt();
+			final Object oArray = Array.newInstance(AtypeEnum.lookupAtypeClass(atype), len);
+			stack.push(oArray);
+			return false;
+		}
+		case Opcodes.ANEWARRAY: // 0xbd
+		{
+			final Class<?> classArray;
+			try {
+				classArray = code.typeRefs.resolve(code.operands[pc], registry, clazz).classResolved;
+			} catch (ClassNotFoundException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
+				}
+				throw new JvmUncaughtException(String.format("Error while loading class (%s) in method (%s)",
+						((TypeInsnNode) instr).desc, methodName), e);
+			}
+			final int len = stack.popInt();
+			final Object oArray = Array.newInstance(classArray, len);
+			stack.push(oArray);
+			return false;
+		}
+		case Opcodes.ARRAYLENGTH: // 0xbe
+			final int length = Array.getLength(stack.pop());
+			stack.pushInt(length);
+			return false;
+		case Opcodes.MULTIANEWARRAY: // 0xc5
+		{
+			final MultiANewArrayInsnNode manai = (MultiANewArrayInsnNode) instr;
+			final Class<?> classArray = code.typeRefs.resolve(code.operands[pc], registry, clazz).classResolved;
+			final int[] dims = new int[manai.dims];
+			for (int i = 0; i < dims.length; i++) {
+				dims[dims.length - 1- i] = stack.popInt();
+			}
+			final Object oArray = Array.newInstance(classArray, dims);
+			stack.push(oArray);
+			return false;
+		}
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "executeArrayInstruction"));
+		}
+	}
+
+	/**
+	 * Executes long-, float- and double-arithmetic, divisions, conversions and comparisons.
+	 * @param opcode opcode of the instruction
+	 * @return <code>true</code> if the program-counter has been set (e.g. exception-handler), <code>false</code> for the next instruction
+	 * @throws Throwable in case of an exception
+	 */
+	private boolean executeArithmeticInstruction(final int opcode) throws Throwable {
+
+		switch (opcode) {
+		case Opcodes.LADD: // 0x61
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a + b);
+			return false;
+		}
+		case Opcodes.FADD: // 0x62
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			stack.pushFloat(a + b);
+			return false;
+		}
+		case Opcodes.DADD: // 0x63
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			stack.pushDouble(a + b);
+			return false;
+		}
+		case Opcodes.LSUB: // 0x65
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a - b);
+			return false;
+		}
+		case Opcodes.FSUB: // 0x66
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			stack.pushFloat(a - b);
+			return false;
+		}
+		case Opcodes.DSUB: // 0x67
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			stack.pushDouble(a - b);
+			return false;
+		}
+		case Opcodes.LMUL: // 0x69
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a * b);
+			return false;
+		}
+		case Opcodes.FMUL: // 0x6a
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			stack.pushFloat(a * b);
+			return false;
+		}
+		case Opcodes.DMUL: // 0x6b
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			stack.pushDouble(a * b);
+			return false;
+		}
+		case Opcodes.IDIV: // 0x6c
+		{
+			final int b = stack.popInt();
+			final int a = stack.popInt();
+			try {
+				stack.pushInt(a / b);
+			} catch (ArithmeticException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
+				}
+				throw new JvmUncaughtException(String.format("Error in division %d / %d in %s of %s",
+						Integer.valueOf(a), Integer.valueOf(b),
+						methodName, clazz), e);
+			}
+			return false;
+		}
+		case Opcodes.LDIV: // 0x6d
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			try {
+				stack.pushLong(a / b);
+			} catch (Exception e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
+				}
+				throw new JvmUncaughtException(String.format("Error in division %d / %d in %s of %s",
+						Long.valueOf(a), Long.valueOf(b),
+						methodName, clazz), e);
+			}
+			return false;
+		}
+		case Opcodes.FDIV: // 0x6e
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			stack.pushFloat(a / b);
+			return false;
+		}
+		case Opcodes.DDIV: // 0x6f
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			stack.pushDouble(a / b);
+			return false;
+		}
+		case Opcodes.IREM: // 0x70
+		{
+			final int b = stack.popInt();
+			final int a = stack.popInt();
+			stack.pushInt(a % b);
+			return false;
+		}
+		case Opcodes.LREM: // 0x71
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a % b);
+			return false;
+		}
+		case Opcodes.FREM: // 0x72
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			stack.pushFloat(a % b);
+			return false;
+		}
+		case Opcodes.DREM: // 0x73
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			stack.pushDouble(a % b);
+			return false;
+		}
+		case Opcodes.LNEG: // 0x75
+		{
+			final long a = stack.popLong();
+			stack.pushLong(-a);
+			return false;
+		}
+		case Opcodes.FNEG: // 0x76
+		{
+			final float a = stack.popFloat();
+			stack.pushFloat(-a);
+			return false;
+		}
+		case Opcodes.DNEG: // 0x77
+		{
+			final double a = stack.popDouble();
+			stack.pushDouble(-a);
+			return false;
+		}
+		case Opcodes.LSHL: // 0x79
+		{
+			final int b = stack.popInt();
+			final long a = stack.popLong();
+			stack.pushLong(a << b);
+			return false;
+		}
+		case Opcodes.LSHR: // 0x7b
+		{
+			final int b = stack.popInt();
+			final long a = stack.popLong();
+			stack.pushLong(a >> b);
+			return false;
+		}
+		case Opcodes.LUSHR: // 0x7d
+		{
+			final int b = stack.popInt();
+			final long a = stack.popLong();
+			stack.pushLong(a >>> b);
+			return false;
+		}
+		case Opcodes.LAND: // 0x7f
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a & b);
+			return false;
+		}
+		case Opcodes.LOR: // 0x81
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a | b);
+			return false;
+		}
+		case Opcodes.LXOR: // 0x83
+		{
+			final long b = stack.popLong();
+			final long a = stack.popLong();
+			stack.pushLong(a ^ b);
+			return false;
+		}
+		case Opcodes.I2L: // 0x85
+			stack.pushLong((long) stack.popInt());
+			return false;
+		case Opcodes.I2F: // 0x86
+			stack.pushFloat((float) stack.popInt());
+			return false;
+		case Opcodes.I2D: // 0x87
+			stack.pushDouble((double) stack.popInt());
+			return false;
+		case Opcodes.L2I: // 0x88
+			stack.pushInt((int) stack.popLong());
+			return false;
+		case Opcodes.L2F: // 0x89
+			stack.pushFloat((float) stack.popLong());
+			return false;
+		case Opcodes.L2D: // 0x8a
+			stack.pushDouble((double) stack.popLong());
+			return false;
+		case Opcodes.F2I: // 0x8b
+			stack.pushInt((int) stack.popFloat());
+			return false;
+		case Opcodes.F2L: // 0x8c
+			stack.pushLong((long) stack.popFloat());
+			return false;
+		case Opcodes.F2D: // 0x8d
+			stack.pushDouble((double) stack.popFloat());
+			return false;
+		case Opcodes.D2I: // 0x8e
+			stack.pushInt((int) stack.popDouble());
+			return false;
+		case Opcodes.D2L: // 0x8f
+			stack.pushLong((long) stack.popDouble());
+			return false;
+		case Opcodes.D2F: // 0x90
+			stack.pushFloat((float) stack.popDouble());
+			return false;
+		case Opcodes.I2B: // 0x91
+			stack.pushInt((byte) stack.popInt());
+			return false;
+		case Opcodes.I2C: // 0x92
+			stack.pushInt((char) stack.popInt());
+			return false;
+		case Opcodes.I2S: // 0x93
+			// truncation of int into short and sign-extension to an int-result.
+			stack.pushInt((short) stack.popInt());
+			return false;
+		case Opcodes.LCMP: // 0x94
+		{
+			final long l2 = stack.popLong();
+			final long l1 = stack.popLong();
+			final int sgn = (l1 == l2) ? 0 : ((l1 > l2) ? 1 : -1);
+			stack.pushInt(sgn);
+			return false;
+		}
+		case Opcodes.FCMPL: // 0x95
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			final int res;
+			if (Float.isNaN(a) || Float.isNaN(b)) {
+				res = -1;
+			}
+			else {
+				res = Float.compare(a, b);
+			}
+			stack.pushInt(res);
+			return false;
+		}
+		case Opcodes.FCMPG: // 0x96
+		{
+			final float b = stack.popFloat();
+			final float a = stack.popFloat();
+			final int res;
+			if (Float.isNaN(a) || Float.isNaN(b)) {
+				res = 1;
+			}
+			else {
+				res = Float.compare(a, b);
+			}
+			stack.pushInt(res);
+			return false;
+		}
+		case Opcodes.DCMPL: // 0x97
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			final int res;
+			if (Double.isNaN(a) || Double.isNaN(b)) {
+				res = -1;
+			}
+			else {
+				res = Double.compare(a, b);
+			}
+			stack.pushInt(res);
+			return false;
+		}
+		case Opcodes.DCMPG: // 0x98
+		{
+			final double b = stack.popDouble();
+			final double a = stack.popDouble();
+			final int res;
+			if (Double.isNaN(a) || Double.isNaN(b)) {
+				res = +1;
+			}
+			else {
+				res = Double.compare(a, b);
+			}
+			stack.pushInt(res);
+			return false;
+		}
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "executeArithmeticInstruction"));
+		}
+	}
+
+	/**
+	 * Executes field-instructions.
+	 * @param opcode opcode of the instruction
+	 * @return <code>true</code> if the program-counter has been set (e.g. exception-handler), <code>false</code> for the next instruction
+	 * @throws Throwable in case of an exception
+	 */
+	private boolean executeFieldInstruction(final int opcode) throws Throwable {
+		final Object[] constants = code.constants;
+		switch (opcode) {
+		case Opcodes.GETSTATIC: // 0xb2
+		{
+			final FieldAccessCache fieldCache = (FieldAccessCache) constants[pc];
+			final FieldInsnNode fi = fieldCache.fi;
+			Object objField;
+			if (fieldCache.special == FieldAccessCache.SPECIAL_SECURITY_MANAGER) {
+				//@SuppressWarnings("removal") starting with Java 9.
+				final SecurityManager securityManager = System.getSecurityManager();
+				objField = securityManager;
+			}
+			else if (fieldCache.special == FieldAccessCache.SPECIAL_EXECUTED_BY_JSMUD) {
+				// JSMUD-internal field: class is executed by JSMUD.
+				objField = Integer.valueOf(1);
+			}
+			else {
+				try {
+					final FieldAccessCache.Entry entry = resolveStaticField(fieldCache, true);
+					final Field field = entry.field;
+					if (!entry.isClassInitialized) {
+						entry.isClassInitialized = registry.initializeClass(field.getDeclaringClass());
+					}
+					objField = field.get(entry.classFieldOwner);
+					if ((visitor.getInterestMask() & JvmExecutionVisitor.INTEREST_FIELD_ACCESS) != 0) {
+						objField = visitor.visitFieldAccess(opcode, entry.classFieldOwner, field, objField);
+					}
+					objField = fieldCache.convertFieldTypeIntoJvmType(objField);
+				} catch (ClassNotFoundException | NoSuchFieldException | SecurityException
+						| IllegalArgumentException | IllegalAccessException e) {
+					final boolean doContinueWhileE = handleCatchException(e);
+					if (doContinueWhileE) {
+						return true;
+					}
+					throw new JvmUncaughtException(String.format("Error while reading field (%s) of (%s) in method (%s) of class (%s) in class-loader (%s)",
+							fi.name, fieldCache.ownerName, methodName, clazz, clazz.getClassLoader()), e);
+				}
+			}
+			stack.push(objField);
+			return false;
+		}
+		case Opcodes.PUTSTATIC: // 0xb3
+		{
+			final FieldAccessCache fieldCache = (FieldAccessCache) constants[pc];
+			final FieldInsnNode fi = fieldCache.fi;
+			try {
+				final FieldAccessCache.Entry entry = resolveStaticField(fieldCache, false);
+				final Field field = entry.field;
+				if (!entry.isClassInitialized) {
+					entry.isClassInitialized = registry.initializeClass(field.getDeclaringClass());
+				}
+				final Object vFieldStack = stack.pop();
+				Object vField = fieldCache.convertJvmTypeIntoFieldType(vFieldStack);
+				if ((visitor.getInterestMask() & JvmExecutionVisitor.INTEREST_FIELD_ACCESS) != 0) {
+					vField = visitor.visitFieldAccess(opcode, entry.classFieldOwner, field, vField);
+				}
+				if (!Modifier.isFinal(field.getModifiers()) || Modifier.isStatic(pMethod.getModifiers())) {
+					// We may want to set a final field while executing a static initializer.
+					// Instead of static we could check for JsmudClassLoader.InitializerAdapter.METHOD_JSMUD_CLINIT.equals(methodName) in this or a calling method.
+					// Example: <clinit> in cglib-enhancer calls CGLIB$STATICHOOK1.
+					setFieldViaSetter(entry, null, vField);
+				}
+				else {
+					field.set(entry.classFieldOwner, vField);
+				}
+			} catch (ClassNotFoundException | NoSuchFieldException | SecurityException
+					| IllegalArgumentException | IllegalAccessException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
+				}
+				throw new JvmUncaughtException(String.format("Error while setting field (%s) of (%s) in method (%s) of class (%s)",
+						fi.name, fieldCache.ownerName, methodName, clazz), e);
+			}
+			return false;
+		}
+		case Opcodes.GETFIELD: // 0xb4
+		{
+			final FieldAccessCache fieldCache = (FieldAccessCache) constants[pc];
+			final FieldInsnNode fi = fieldCache.fi;
+			final Object fieldInstance = stack.pop();
+			if (fieldInstance == null) {
+				throw new JvmException(String.format("no instance of field %s.%s on stack",
+						fi.owner, fi.name));
+			}
+			final Class<?> classInstance = fieldInstance.getClass();
+			try {
+				final Field field = resolveInstanceField(fieldCache, classInstance).field;
+				Object fieldValue = field.get(fieldInstance);
+				if ((visitor.getInterestMask() & JvmExecutionVisitor.INTEREST_FIELD_ACCESS) != 0) {
+					fieldValue = visitor.visitFieldAccess(opcode, fieldInstance, field, fieldValue);
+				}
+				fieldValue = fieldCache.convertFieldTypeIntoJvmType(fieldValue);
+				stack.push(fieldValue);
+			} catch (ClassNotFoundException | NoSuchFieldException | SecurityException
+					| IllegalArgumentException | IllegalAccessException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
+				}
+				throw new JvmUncaughtException(String.format("Error while reading field (%s) of (%s) in method (%s) of class (%s)",
+						fi.name, fi.owner, methodName, classInstance), e);
+			}
+			return false;
+		}
+		case Opcodes.PUTFIELD: // 0xb5
+		{
+			final FieldAccessCache fieldCache = (FieldAccessCache) constants[pc];
+			final FieldInsnNode fi = fieldCache.fi;
+			final Object oValue = stack.pop();
+			final Object fieldInstance = stack.pop();
+			if (fieldInstance == null) {
+				throw new NullPointerException();
+			}
+			final Class<?> classInstance = fieldInstance.getClass();
+			try {
+				final FieldAccessCache.Entry entry = resolveInstanceField(fieldCache, classInstance);
+				final Field field = entry.field;
+				Object oValueField = fieldCache.convertJvmTypeIntoFieldType(oValue);
+				if ((visitor.getInterestMask() & JvmExecutionVisitor.INTEREST_FIELD_ACCESS) != 0) {
+					oValueField = visitor.visitFieldAccess(opcode, fieldInstance, field, oValueField);
+				}
+				try {
+					if (!Modifier.isFinal(field.getModifiers()) || pMethod instanceof Constructor<?>) {
+						// We may want to set a final field while executing a constructor.
+						setFieldViaSetter(entry, fieldInstance, oValueField);
+					}
+					else {
+						field.set(fieldInstance, oValueField);
+					}
+				} catch (IllegalArgumentException e) {
+					final boolean doContinueWhileE = handleCatchException(e);
+					if (doContinueWhileE) {
+						return true;
 					}
-					break;
+					final Class<?> classValue = (oValueField != null) ? oValueField.getClass() : null;
+					final ClassLoader clValue = (classValue != null) ? classValue.getClassLoader() : null;
+					throw new JvmUncaughtException(String.format("Argument-error while setting field (%s) of (%s) of class (%s) of class-loader (%s) to object of class (%s) of (%s) in method (%s)",
+							fi.name, fi.owner, classInstance, classInstance.getClassLoader(),
+							classValue, clValue,
+							methodName), e);
 				}
-				case Opcodes.MONITORENTER: // 0xc2
-				{
-					final Object objMonitor = stack.pop();
-					if (objMonitor == null) {
-						throw new NullPointerException("monitor-enter: no monitor-object");
-					}
-					visitor.visitMonitorEnter(objMonitor);
-					final int currCounter = registry.enterMonitor(objMonitor);
-					visitor.visitMonitorEntered(objMonitor, Integer.valueOf(currCounter));
-					break;
+			}
+			catch (ClassNotFoundException | NoSuchFieldException | SecurityException | IllegalAccessException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
 				}
-				case Opcodes.MONITOREXIT: // 0xc3
-				{
-					final Object objMonitor = stack.pop();
-					if (objMonitor == null) {
-						throw new NullPointerException("monitor-exit: no monitor-object");
-					}
-					final int currCounter = registry.exitMonitor(objMonitor); 
-					visitor.visitMonitorExit(objMonitor, Integer.valueOf(currCounter));
-					break;
+				throw new JvmUncaughtException(String.format("Error while setting field (%s) of (%s) for (%s) in method (%s)",
+						fi.name, fi.owner, classInstance, methodName), e);
+			}
+			return false;
+		}
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "executeFieldInstruction"));
+		}
+	}
+
+	/**
+	 * Executes object-instructions (INVOKEDYNAMIC, NEW, ATHROW, CHECKCAST, INSTANCEOF, monitors).
+	 * @param opcode opcode of the instruction
+	 * @return <code>true</code> if the program-counter has been set (e.g. exception-handler), <code>false</code> for the next instruction
+	 * @throws Throwable in case of an exception
+	 */
+	private boolean executeObjectInstruction(final int opcode) throws Throwable {
+		final AbstractInsnNode instr = code.insns[pc];
+		switch (opcode) {
+		case Opcodes.INVOKEDYNAMIC: // 0xba
+		{
+			final InvokeDynamicInsnNode idin = (InvokeDynamicInsnNode) instr;
+			final Object callSiteInstance;
+			if (configuration.isCallsiteViaProxy) {
+				final CallSiteSimulation jvmCallSite = executeInvokeDynamic(idin);
+				callSiteInstance = jvmCallSite.getProxy();
+			}
+			else {
+				// The factory is kept in the cache of the instruction.
+				final InvokeDynamicCache indyCache = (InvokeDynamicCache) code.constants[pc];
+				CallSiteGenerator.CallSiteFactory factory = indyCache.factory;
+				if (factory == null && indyCache.isCallSiteFactory) {
+					factory = registry.getCallSiteGenerator().getCallSiteFactory(registry, clazz, idin);
+					indyCache.factory = factory;
 				}
-				case 0xc4: // 0xc4
-					throw new JvmException("Opcode 0xc4 (Opcode_c4) not yet supported.");
-				case Opcodes.MULTIANEWARRAY: // 0xc5
-				{
-					final MultiANewArrayInsnNode manai = (MultiANewArrayInsnNode) instr;
-					final Type aType = Type.getType(manai.desc);
-					final Class<?> classArray = getClassArrayViaType(aType, registry, clazz);
-					final int[] dims = new int[manai.dims];
-					for (int i = 0; i < dims.length; i++) {
-						dims[dims.length - 1- i] = ((Integer) stack.pop()).intValue();
-					}
-					final Object oArray = Array.newInstance(classArray, dims);
-					stack.push(oArray);
-					break;
+				if (factory != null) {
+					callSiteInstance = factory.createCallSite(stack);
 				}
-				case Opcodes.IFNULL: // 0xc6
-				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object value = stack.pop();
-					if (value == null) {
-						instrNum = instrLabel.intValue();
-						continue whileInstr;
-					}
-					break;
+				else {
+					callSiteInstance = registry.getCallSiteGenerator().createCallSite(registry, clazz, idin, stack);
 				}
-				case Opcodes.IFNONNULL: // 0xc7
-				{
-					final JumpInsnNode ji = (JumpInsnNode) instr;
-					final Label labelDest = ji.label.getLabel();
-					final Integer instrLabel = mapLabel.get(labelDest);
-					assert instrLabel != null : "unknown label " + labelDest;
-	
-					final Object value = stack.pop();
-					if (value != null) {
-						instrNum = instrLabel.intValue();
-						continue whileInstr;
-					}
-					break;
+			}
+			stack.push(callSiteInstance);
+			return false;
+		}
+		case Opcodes.NEW: // 0xbb
+		{
+			final TypeReferenceTable.Resolved typeRef;
+			try {
+				typeRef = code.typeRefs.resolve(code.operands[pc], registry, clazz);
+			} catch (ClassNotFoundException e) {
+				final boolean doContinueWhileE = handleCatchException(e);
+				if (doContinueWhileE) {
+					return true;
 				}
-				default:
-					//if (instr instanceof LineNumberNode) {
-					//}
-					//else if (instr instanceof LabelNode) {
-					//	final LabelNode label = (LabelNode) instr;
-					//}
-					//else if (instr instanceof FrameNode) {
-					//	final FrameNode fn = (FrameNode) instr;
-					//}
-					if (!(instr instanceof LabelNode
-							|| instr instanceof FrameNode
-							|| instr instanceof LineNumberNode)) {
-						throw new JvmException(String.format("Unsupported instruction: %02x at instruction %d of type %s in %s",
-								Integer.valueOf(opcode), Integer.valueOf(instrNum), instr, methodName));
+				throw new JvmUncaughtException(String.format("Error while loading class (%s) in method (%s)",
+						((TypeInsnNode) instr).desc.replace('/', '.'), methodName), e);
+			}
+			final Class<?> classNew = typeRef.classResolved;
+			if (!typeRef.isClassInitialized) {
+				typeRef.isClassInitialized = registry.initializeClass(classNew);
+			}
+			stack.push(new UninitializedInstance(classNew));
+	
+			return false;
+		}
+		case Opcodes.ATHROW: // 0xbf
+		{
+			final Throwable e = (Throwable) stack.pop();
+			final boolean doContinueWhileE = handleCatchException(e);
+			if (doContinueWhileE) {
+				return true;
+			}
+			throw new JvmUncaughtException("ATHROW in " + getMethod() + "at " + getCurrLineNum(),
+					e);
+		}
+		case Opcodes.CHECKCAST: // 0xc0
+		{
+			final TypeInsnNode tin = (TypeInsnNode) instr;
+			final Object obj = stack.peek();
+			if (obj != null) {
+				final boolean canCast = resolveTypeReference(tin.desc).isInstance(obj);
+				if (!canCast) {
+					final ClassCastException e = new ClassCastException(String.format("Can't convert object of type (%s) in (%s) to (%s)",
+							obj.getClass(), obj.getClass().getClassLoader(), tin.desc));
+					final boolean doContinueWhileE = handleCatchException(e);
+					if (doContinueWhileE) {
+						return true;
 					}
-					break;
+					throw new JvmUncaughtException("CHECKCAST in " + getMethod() + "at " + getCurrLineNum(),
+							e);
 				}
-				
-				instrNum++;
 			}
+			return false;
 		}
-		finally {
-			if (pMethod instanceof Method) {
-				final Method mMethod = (Method) pMethod;
-				methodReturnObj = convertJvmTypeIntoFieldType(mMethod.getReturnType(), methodReturnObjJvm);
+		case Opcodes.INSTANCEOF: // 0xc1
+		{
+			final TypeInsnNode tin = (TypeInsnNode) instr;
+			final Object obj = stack.pop();
+			if (obj == null) {
+				stack.pushInt(0);
 			}
 			else {
-				methodReturnObj = methodReturnObjJvm;
+				final boolean canCast = resolveTypeReference(tin.desc).isInstance(obj);
+				stack.pushInt(canCast ? 1 : 0);
+			}
+			return false;
+		}
+		case Opcodes.MONITORENTER: // 0xc2
+		{
+			final Object objMonitor = stack.pop();
+			if (objMonitor == null) {
+				throw new NullPointerException("monitor-enter: no monitor-object");
 			}
-			visitor.visitMethodExit(clazz, pMethod, this, methodReturnObj);
+			visitor.visitMonitorEnter(objMonitor);
+			final int currCounter = registry.enterMonitor(objMonitor);
+			visitor.visitMonitorEntered(objMonitor, Integer.valueOf(currCounter));
+			return false;
+		}
+		case Opcodes.MONITOREXIT: // 0xc3
+		{
+			final Object objMonitor = stack.pop();
+			if (objMonitor == null) {
+				throw new NullPointerException("monitor-exit: no monitor-object");
+			}
+			final int currCounter = registry.exitMonitor(objMonitor); 
+			visitor.visitMonitorExit(objMonitor, Integer.valueOf(currCounter));
+			return false;
 		}
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "executeObjectInstruction"));
+		}
+	}
 
-		return methodReturnObj;
+	/**
+	 * Executes LDC, JSR and RET.
+	 * @param opcode opcode of the instruction
+	 * @return <code>true</code> if the program-counter has been set (e.g. exception-handler), <code>false</code> for the next instruction
+	 * @throws Throwable in case of an exception
+	 */
+	private boolean executeLdcOrSubroutine(final int opcode) throws Throwable {
+		final int[] operands = code.operands;
+		final Object[] constants = code.constants;
+		final int[] codeIndex = code.codeIndex;
+		switch (opcode) {
+		case Opcodes.LDC: // 0x12
+		{
+			Object obj = constants[pc];
+			if (obj instanceof Integer) {
+				stack.pushInt(((Integer) obj).intValue());
+				return false;
+			}
+			else if (obj instanceof Type) {
+				final Type type = (Type) obj;
+				final int sort = type.getSort();
+				if (sort == Type.OBJECT || sort == Type.ARRAY) {
+					obj = code.typeRefs.resolve(operands[pc], registry, clazz).classResolved;
+				}
+				else {
+					final Class<?> liClass = registry.loadClass(type.getClassName(), clazz);
+					obj = liClass;
+				}
+			}
+			stack.push(obj);
+			return false;
+		}
+		case Opcodes.JSR: // 0xa8
+		{
+			// The return-address is an ASM-index.
+			final JvmReturnAddress returnAddress = new JvmReturnAddress(instrNum + 1);
+			stack.push(returnAddress);
+
+			pc = operands[pc];
+			return true;
+		}
+		case Opcodes.RET: // 0xa9
+		{
+			final int var = operands[pc];
+			final JvmReturnAddress returnAddress;
+			final Object oReturnAddress;
+			try {
+				oReturnAddress = aLocals[var];
+			} catch (ArrayIndexOutOfBoundsException e) {
+				throw new JvmException(String.format("Unexpected local-var-index (%d) in RET-instruction, #local=%d",
+						Integer.valueOf(var), Integer.valueOf(aLocals.length)));
+			}
+			try {
+				returnAddress = (JvmReturnAddress) oReturnAddress;
+			} catch (ClassCastException e) {
+				throw new JvmException(String.format("Unexpected value (%s) instead of returnAddress in RET %d-instruction",
+						oReturnAddress, Integer.valueOf(var)));
+			}
+			if (LOG.isDebugEnabled()) {
+				LOG.debug(String.format("RET %d: jump to instr 0x%02x",
+						Integer.valueOf(var), Integer.valueOf(returnAddress.getAddress())));
+			}
+			pc = codeIndex[returnAddress.getAddress()];
+			return true;
+		}
+		default:
+			throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "executeLdcOrSubroutine"));
+		}
+	}
+
+	/**
+	 * Creates the exception of an unsupported instruction.
+	 * @param opcode opcode of the instruction
+	 * @return exception
+	 */
+	private JvmException createUnsupportedInstructionException(final int opcode) {
+		final JvmException e;
+		switch (opcode) {
+		case 0x13: // 0x13, via LDC in ASM
+			e = new JvmException("Opcode 0x13 (Opcode_13) not yet supported, expected LDC.");
+			break;
+		case 0x14: // 0x14, via LDC in ASM
+			e = new JvmException("Opcode 0x14 (Opcode_14) not yet supported, expected LDC.");
+			break;
+		case 0x1a: // 0x1a, via ILOAD in ASM
+			e = new JvmException("Opcode 0x1a (Opcode_1a) not yet supported, expected ILOAD.");
+			break;
+		case 0x1b: // 0x1b, via ILOAD in ASM
+			e = new JvmException("Opcode 0x1b (Opcode_1b) not yet supported, expected ILOAD.");
+			break;
+		case 0x1c: // 0x1c, via ILOAD in ASM
+			e = new JvmException("Opcode 0x1c (Opcode_1c) not yet supported, expected ILOAD.");
+			break;
+		case 0x1d: // 0x1d, via ILOAD in ASM
+			e = new JvmException("Opcode 0x1d (Opcode_1d) not yet supported, expected ILOAD.");
+			break;
+		case 0x1e: // 0x1e, via LLOAD in ASM
+			e = new JvmException("Opcode 0x1e (Opcode_1e) not yet supported, expected LLOAD.");
+			break;
+		case 0x1f: // 0x1f, via LLOAD in ASM
+			e = new JvmException("Opcode 0x1f (Opcode_1f) not yet supported, expected LLOAD.");
+			break;
+		case 0x20: // 0x20, via LLOAD in ASM
+			e = new JvmException("Opcode 0x20 (Opcode_20) not yet supported, expected LLOAD.");
+			break;
+		case 0x21: // 0x21, via LLOAD in ASM
+			e = new JvmException("Opcode 0x21 (Opcode_21) not yet supported, expected LLOAD.");
+			break;
+		case 0x22: // 0x22, via FLOAD in ASM
+			e = new JvmException("Opcode 0x22 (Opcode_22) not yet supported, expected FLOAD.");
+			break;
+		case 0x23: // 0x23, via FLOAD in ASM
+			e = new JvmException("Opcode 0x23 (Opcode_23) not yet supported, expected FLOAD.");
+			break;
+		case 0x24: // 0x24, via FLOAD in ASM
+			e = new JvmException("Opcode 0x24 (Opcode_24) not yet supported, expected FLOAD.");
+			break;
+		case 0x25: // 0x25, via FLOAD in ASM
+			e = new JvmException("Opcode 0x25 (Opcode_25) not yet supported, expected FLOAD.");
+			break;
+		case 0x26: // 0x26, via DLOAD in ASM
+			e = new JvmException("Opcode 0x26 (Opcode_26) not yet supported, expected DLOAD.");
+			break;
+		case 0x27: // 0x27, via DLOAD in ASM
+			e = new JvmException("Opcode 0x27 (Opcode_27) not yet supported, expected DLOAD.");
+			break;
+		case 0x28: // 0x28, via DLOAD in ASM
+			e = new JvmException("Opcode 0x28 (Opcode_28) not yet supported, expected DLOAD.");
+			break;
+		case 0x29: // 0x29, via DLOAD in ASM
+			e = new JvmException("Opcode 0x29 (Opcode_29) not yet supported, expected DLOAD.");
+			break;
+		case 0x2a: // 0x2a, via ALOAD in ASM
+			e = new JvmException("Opcode 0x2a (Opcode_2a) not yet supported, expected ALOAD.");
+			break;
+		case 0x2b: // 0x2b, via ALOAD in ASM
+			e = new JvmException("Opcode 0x2b (Opcode_2b) not yet supported, expected ALOAD.");
+			break;
+		case 0x2c: // 0x2c, via ALOAD in ASM
+			e = new JvmException("Opcode 0x2c (Opcode_2c) not yet supported, expected ALOAD.");
+			break;
+		case 0x2d: // 0x2d, via ALOAD in ASM
+			e = new JvmException("Opcode 0x2d (Opcode_2d) not yet supported, expected ALOAD.");
+			break;
+		case 0x3b: // 0x3b, via ISTORE in ASM
+			e = new JvmException("Opcode 0x3b (Opcode_3b) not yet supported, expected ISTORE.");
+			break;
+		case 0x3c: // 0x3c, via ISTORE in ASM
+			e = new JvmException("Opcode 0x3c (Opcode_3c) not yet supported, expected ISTORE.");
+			break;
+		case 0x3d: // 0x3d, via ISTORE in ASM
+			e = new JvmException("Opcode 0x3d (Opcode_3d) not yet supported, expected ISTORE.");
+			break;
+		case 0x3e: // 0x3e, via ISTORE in ASM
+			e = new JvmException("Opcode 0x3e (Opcode_3e) not yet supported, expected ISTORE.");
+			break;
+		case 0x3f: // 0x3f, via LSTORE in ASM
+			e = new JvmException("Opcode 0x3f (Opcode_3f) not yet supported, expected LSTORE.");
+			break;
+		case 0x40: // 0x40, via LSTORE in ASM
+			e = new JvmException("Opcode 0x40 (Opcode_40) not yet supported, expected LSTORE.");
+			break;
+		case 0x41: // 0x41, via LSTORE in ASM
+			e = new JvmException("Opcode 0x41 (Opcode_41) not yet supported, expected LSTORE.");
+			break;
+		case 0x42: // 0x42, via LSTORE in ASM
+			e = new JvmException("Opcode 0x42 (Opcode_42) not yet supported, expected LSTORE.");
+			break;
+		case 0x43: // 0x43, via FSTORE in ASM
+			e = new JvmException("Opcode 0x43 (Opcode_43) not yet supported, expected FSTORE.");
+			break;
+		case 0x44: // 0x44, via FSTORE in ASM
+			e = new JvmException("Opcode 0x44 (Opcode_44) not yet supported, expected FSTORE.");
+			break;
+		case 0x45: // 0x45, via FSTORE in ASM
+			e = new JvmException("Opcode 0x45 (Opcode_45) not yet supported, expected FSTORE.");
+			break;
+		case 0x46: // 0x46, via FSTORE in ASM
+			e = new JvmException("Opcode 0x46 (Opcode_46) not yet supported, expected FSTORE.");
+			break;
+		case 0x47: // 0x47, via DSTORE in ASM
+			e = new JvmException("Opcode 0x47 (Opcode_47) not yet supported, expected DSTORE.");
+			break;
+		case 0x48: // 0x48, via DSTORE in ASM
+			e = new JvmException("Opcode 0x48 (Opcode_48) not yet supported, expected DSTORE.");
+			break;
+		case 0x49: // 0x49, via DSTORE in ASM
+			e = new JvmException("Opcode 0x49 (Opcode_49) not yet supported, expected DSTORE.");
+			break;
+		case 0x4a: // 0x4a, via DSTORE in ASM
+			e = new JvmException("Opcode 0x4a (Opcode_4a) not yet supported, expected DSTORE.");
+			break;
+		case 0x4b: // 0x4b, via ASTORE in ASM
+			e = new JvmException("Opcode 0x4b (Opcode_4b) not yet supported, expected ASTORE.");
+			break;
+		case 0x4c: // 0x4c, via ASTORE in ASM
+			e = new JvmException("Opcode 0x4c (Opcode_4c) not yet supported, expected ASTORE.");
+			break;
+		case 0x4d: // 0x4d, via ASTORE in ASM
+			e = new JvmException("Opcode 0x4d (Opcode_4d) not yet supported, expected ASTORE.");
+			break;
+		case 0x4e: // 0x4e, via ASTORE in ASM
+			e = new JvmException("Opcode 0x4e (Opcode_4e) not yet supported, expected ASTORE.");
+			break;
+		case 0xc4: // 0xc4
+			e = new JvmException("Opcode 0xc4 (Opcode_c4) not yet supported.");
+			break;
+		default:
+			e = new JvmException(String.format("Unsupported instruction: %02x at instruction %d of type %s in %s",
+					Integer.valueOf(opcode), Integer.valueOf(instrNum), code.insns[pc], methodName));
+			break;
+		}
+		return e;
 	}
 
 	/**
@@ -2089,7 +2529,7 @@ whileInstr:
 
 	/**
 	 * Executes an INVOKE-instruction
-	 * @param mi INVOKESTATIC, INVOKEVIRTUAL, INVOKEINTERFACE or INVOKESPECIAL
+	 * @param invokeCache inline-cache of INVOKESTATIC, INVOKEVIRTUAL, INVOKEINTERFACE or INVOKESPECIAL
 	 * @param isInterface <code>true</code> in case of INVOKEINTERFACE
 	 * @param isStatic <code>true</code> in case of static method
 	 * @param isVirtual <code>true</code> in case of INVOKEVIRTUAL
@@ -2097,30 +2537,32 @@ whileInstr:
 	 * @return <code>true</code> for next step in while, <code>false</code> leave switch only (and increment instr-idx)
 	 * @throws Throwable in case of an exception 
 	 */
-	private boolean executeInvoke(final MethodInsnNode mi, final boolean isInterface,
+	private boolean executeInvoke(final InvokeCache invokeCache, final boolean isInterface,
 			final boolean isStatic, final boolean isVirtual, final boolean isSpecial) throws Throwable {
-		final Type[] origTypes = Type.getArgumentTypes(mi.desc);
+		final MethodInsnNode mi = invokeCache.mi;
+		final Type[] origTypes = invokeCache.argTypes;
 		int numArgs = origTypes.length;
 		
 		Object objRef;
 		Class<?> classOwner;
-		String miOwnerName = mi.owner.replace('/', '.');
+		Class<?> receiverClass = null;
+		String miOwnerName = invokeCache.ownerName;
 		String lMethodName = mi.name;
 		String methodDesc = mi.desc;
 		Type[] types = origTypes;
-		Type returnType = Type.getReturnType(mi.desc);
+		Type returnType = invokeCache.returnType;
 		boolean isCallSite = false;
 		boolean isCheckClassMethods = true;
 		boolean isMethodOverriden = false;
+		boolean isCacheable = false;
 		boolean lIsStatic = isStatic;
+		final int redefinitionCount = registry.getRedefinitionCount();
 		if (lIsStatic) {
 			final InvokeFlow invokeFlow = invocationHandler.preprocessStaticCall(this, mi, stack);
 			if (invokeFlow == InvokeFlow.EXEC_OK || invokeFlow == InvokeFlow.EXEC_CATCH) {
 				return invokeFlow.isHandleException();
 			}
-			if (configuration.isEmulateAccessController
-					&& "java/security/AccessController".equals(mi.owner)
-					&& "doPrivileged".equals(mi.name)) {
+			if (configuration.isEmulateAccessController && invokeCache.isDoPrivileged) {
 				// Execute java.security.PrivilegedAction.run() without checking privileges.
 				lMethodName = "run";
 				types = new Type[0];
@@ -2132,6 +2574,13 @@ whileInstr:
 				isMethodOverriden = true;
 			}
 			else {
+				final InvokeCache.Entry entry = invokeCache.lookup(null, redefinitionCount);
+				if (entry != null) {
+					if (!entry.isClassInitialized) {
+						entry.isClassInitialized = registry.initializeClass(entry.classOwner);
+					}
+					return executeInvokeResolved(mi, entry, entry.classOwner, false, methodDesc, types);
+				}
 				try {
 					classOwner = registry.loadClass(miOwnerName, clazz);
 				} catch (ClassNotFoundException e) {
@@ -2139,6 +2588,7 @@ whileInstr:
 							miOwnerName, clazz, clazz.getClassLoader()));
 				}
 				objRef = classOwner;
+				isCacheable = true;
 			}
 			registry.checkClassInitialization(classOwner);
 		}
@@ -2154,9 +2604,17 @@ whileInstr:
 			}
 			objRef = objRefStack;
 			classOwner = objRefStack.getClass();
+			if (!(objRefStack instanceof JvmCallSiteMarker) || invokeCache.isOwnerObject) {
+				final InvokeCache.Entry entry = invokeCache.lookup(classOwner, redefinitionCount);
+				if (entry != null) {
+					return executeInvokeResolved(mi, entry, objRef, true, methodDesc, types);
+				}
+				receiverClass = classOwner;
+				isCacheable = true;
+			}
 			CallSiteSimulation callSite = null;
 			int callSiteLevel = 0;
-			while (objRef instanceof JvmCallSiteMarker && !"java/lang/Object".equals(mi.owner)) {
+			while (objRef instanceof JvmCallSiteMarker && !invokeCache.isOwnerObject) {
 				callSiteLevel++;
 				if (callSiteLevel > maxCallSiteLevel) {
 					throw new JvmException(String.format("call-site with too depth level (>%s): mi.owner=%s, mi.name=%s, mi.desc=%s, objRefStack.class=%s, callSite=%s",
@@ -2355,10 +2813,77 @@ whileInstr:
 			throw new NoSuchMethodError(String.format("invoke: No such method (%s, was %s) with (%s, was %s) in (%s) for (%s, was %s)",
 					 lMethodName, mi.name, methodDesc, mi.desc, miOwnerName, mi.owner, classOwner));
 		}
-		final SimpleClassExecutor executor = registry.getClassExecutor(invMethod.getDeclaringClass());
+		final SimpleClassExecutor executorDecl = registry.getClassExecutor(invMethod.getDeclaringClass());
 		final boolean isNative = Modifier.isNative(invMethod.getModifiers());
-		Object returnObj;
-		if (executor != null && !isNative) {
+		final SimpleClassExecutor executor;
+		Method methodExec = null;
+		if (executorDecl != null && !isNative) {
+			executor = executorDecl;
+		}
+		else {
+			executor = null;
+			methodExec = invMethod;
+			final Class<?> classInt;
+			try {
+				classInt = registry.loadClass(miOwnerName, clazz);
+			} catch (ClassNotFoundException e) {
+				final boolean doContinueWhile = handleCatchException(e);
+				if (doContinueWhile) {
+					return true;
+				}
+				throw e;
+			}
+			final Method invMethodIntf = findMethodInClass(lMethodName, types, returnType, classInt);
+			if (invMethodIntf != null) {
+				methodExec = invMethodIntf;
+			}
+		}
+		final InvokeCache.Entry entry = new InvokeCache.Entry(receiverClass, classOwner, invMethod,
+				executor, methodExec, redefinitionCount);
+		if (isCacheable && !isMethodOverriden) {
+			invokeCache.add(entry);
+		}
+		final boolean isRemoveMethodObjectRef = !lIsStatic || isMethodOverriden;
+		return executeInvokeResolved(mi, entry, objRef, isRemoveMethodObjectRef, methodDesc, types);
+	}
+
+	/**
+	 * Executes a resolved method of an INVOKE-instruction.
+	 * @param mi INVOKESTATIC, INVOKEVIRTUAL, INVOKEINTERFACE or INVOKESPECIAL
+	 * @param entry resolved method
+	 * @param objRef current object (or class)
+	 * @param isRemoveMethodObjectRef <code>true</code> if the object-reference has to be removed from stack.
+	 * @param methodDesc description of the method
+	 * @param types types of method arguments
+	 * @return <code>true</code> for next step in while, <code>false</code> leave switch only (and increment instr-idx)
+	 * @throws Throwable in case of an exception 
+	 */
+	private boolean executeInvokeResolved(final MethodInsnNode mi, final InvokeCache.Entry entry, final Object objRef,
+			final boolean isRemoveMethodObjectRef, final String methodDesc, final Type[] types) throws Throwable {
+		final SimpleClassExecutor executor = entry.executor;
+		if (executor != null && (mi.getOpcode() != Opcodes.INVOKESPECIAL || Modifier.isPrivate(entry.invMethod.getModifiers()))
+				&& executor.isDesimulated(entry.invMethod, methodDesc, visitor)) {
+			// A hot method without matching event-requests is executed by the underlying JVM.
+			final Boolean doContinueWhile = executeInvokeMethodNative(entry.invMethod, objRef, types.length, types, isRemoveMethodObjectRef);
+			return doContinueWhile != null && doContinueWhile.booleanValue();
+		}
+		if (executor != null && isTrampolined) {
+			// The callee is executed by the trampoline.
+			final Method invMethod = entry.invMethod;
+			try {
+				pendingCallee = executor.createFrame(invMethod, methodDesc);
+			}
+			catch (JvmException e) {
+				throw new JvmException(String.format("JvmException in %s#%d, execution of %s",
+						clazz, Integer.valueOf(getCurrLineNum()), invMethod), e);
+			}
+			pendingEntry = entry;
+			pendingMi = mi;
+			return true;
+		}
+		if (executor != null) {
+			final Method invMethod = entry.invMethod;
+			final Object returnObj;
 			try {
 				returnObj = executor.executeMethod(mi.getOpcode(), invMethod, methodDesc, stack);
 				visitor.visitMethodExitBack(clazz, pMethod, this, returnObj);
@@ -2375,31 +2900,14 @@ whileInstr:
 				throw new JvmException(String.format("JvmException in %s#%d, execution of %s",
 						clazz, Integer.valueOf(getCurrLineNum()), invMethod), e);
 			}
-			final Class<?> classReturnType = invMethod.getReturnType();
-			if (!void.class.equals(classReturnType)) {
+			final Class<?> classReturnType = entry.classReturnType;
+			if (classReturnType != void.class) {
 				final Object returnObjStack = convertFieldTypeIntoJvmType(classReturnType, returnObj);
 				stack.push(returnObjStack);
 			}
 		}
 		else {
-			final boolean isRemoveMethodObjectRef = !lIsStatic || isMethodOverriden;
-			Method methodExec = invMethod;
-			final Class<?> classInt;
-			try {
-				classInt = registry.loadClass(miOwnerName, clazz);
-			} catch (ClassNotFoundException e) {
-				final boolean doContinueWhile = handleCatchException(e);
-				if (doContinueWhile) {
-					return true;
-				}
-				throw e;
-			}
-			final Method invMethodIntf = findMethodInClass(lMethodName, types, returnType, classInt);
-			if (invMethodIntf != null) {
-				methodExec = invMethodIntf;
-			}
-
-			final Boolean doContinueWhile = executeInvokeMethodNative(methodExec, objRef, numArgs, types, isRemoveMethodObjectRef);
+			final Boolean doContinueWhile = executeInvokeMethodNative(entry.methodExec, objRef, types.length, types, isRemoveMethodObjectRef);
 			if (doContinueWhile != null && doContinueWhile.booleanValue()) {
 				return true;
 			}
@@ -2614,6 +3122,79 @@ whileSuperClass:
 		return false;
 	}
 
+	/**
+	 * Gets the resolved static field of a field-instruction.
+	 * @param fieldCache inline-cache of the instruction
+	 * @param searchInInterfaces <code>true</code> if the field may be in an interface
+	 * @return cache-entry containing the accessible field
+	 * @throws ClassNotFoundException if the owner-class couldn't be loaded
+	 * @throws NoSuchFieldException if the field couldn't be found
+	 */
+	private FieldAccessCache.Entry resolveStaticField(final FieldAccessCache fieldCache, final boolean searchInInterfaces)
+			throws ClassNotFoundException, NoSuchFieldException {
+		final int redefinitionCount = registry.getRedefinitionCount();
+		FieldAccessCache.Entry entry = fieldCache.lookup(null, redefinitionCount);
+		if (entry == null) {
+			final Class<?> classFieldOwner = registry.loadClass(fieldCache.ownerName, clazz);
+			final Field field = findDeclaredField(classFieldOwner, fieldCache.fi.name, searchInInterfaces);
+			if (field == null) {
+				throw new NoSuchFieldException(fieldCache.fi.name);
+			}
+			field.setAccessible(true);
+			entry = new FieldAccessCache.Entry(null, classFieldOwner, field, redefinitionCount);
+			fieldCache.add(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Sets a field via the setter of the field.
+	 * The setter is prepared once per field (accessibility, removed final modifier) and kept in the cache-entry.
+	 * @param entry cache-entry of the field
+	 * @param fieldInstance instance or <code>null</code> in case of a static field
+	 * @param value value of the field
+	 * @throws IllegalArgumentException if the value doesn't match the type of the field
+	 * @throws Throwable in case of an error while setting the field
+	 */
+	private void setFieldViaSetter(final FieldAccessCache.Entry entry, final Object fieldInstance, final Object value) throws Throwable {
+		MethodHandle setter = entry.setter;
+		if (setter == null) {
+			setter = reflectionHelper.getFieldSetter(entry.field);
+			entry.setter = setter;
+		}
+		try {
+			setter.invokeExact(fieldInstance, value);
+		} catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException(String.format("Can't set field (%s) to a value of type (%s)",
+					entry.field, (value != null) ? value.getClass() : null), e);
+		}
+	}
+
+	/**
+	 * Gets the resolved instance field of a field-instruction.
+	 * @param fieldCache inline-cache of the instruction
+	 * @param classInstance class of the instance
+	 * @return cache-entry containing the accessible field
+	 * @throws ClassNotFoundException if the owner-class couldn't be loaded
+	 * @throws NoSuchFieldException if the field couldn't be found
+	 */
+	private FieldAccessCache.Entry resolveInstanceField(final FieldAccessCache fieldCache, final Class<?> classInstance)
+			throws ClassNotFoundException, NoSuchFieldException {
+		final int redefinitionCount = registry.getRedefinitionCount();
+		FieldAccessCache.Entry entry = fieldCache.lookup(classInstance, redefinitionCount);
+		if (entry == null) {
+			Class<?> classFieldOwner = classInstance;
+			if (!classFieldOwner.getName().equals(fieldCache.ownerName)) {
+				classFieldOwner = registry.loadClass(fieldCache.ownerName, clazz);
+			}
+			final Field field = findDeclaredField(classFieldOwner, fieldCache.fi.name, false);
+			field.setAccessible(true);
+			entry = new FieldAccessCache.Entry(classInstance, classFieldOwner, field, redefinitionCount);
+			fieldCache.add(entry);
+		}
+		return entry;
+	}
+
 	/**
 	 * Gets a field in the class or one of its super-classes.
 	 * @param classFieldOwner class
@@ -2821,76 +3402,43 @@ loopDeclMeth:
 		return classArray;
 	}
 
-	/**
-	 * Gets an boolean-, char- or int-value from stack as int-value.
-	 * @param stack current stack
-	 * @return int-value
-	 */
-	static int getIntBooleanAsInt(OperandStack pStack) {
-		final Object oValue = pStack.pop();
-		final int v;
-		if (oValue instanceof Integer) {
-			v = ((Integer) oValue).intValue();
-		}
-		else if (oValue instanceof Boolean) {
-			v = ((Boolean) oValue).booleanValue() ? 1 : 0;
-		}
-		else if (oValue == null) {
-			throw new JvmException("Unexpected null (expected int-value)");
-		}
-		else {
-			throw new JvmException("Unexpected type " + oValue.getClass());
-		}
-		return v;
-	}
-
 	/**
 	 * Checks if a thrown exception is handled by a try-catch-block.
-	 * In that case the instruction-index will be set to the catch-block.
+	 * In that case the instruction-index and the program-counter will be set to the catch-block.
 	 * @param eCause thrown exception
 	 * @return <code>true</code> if the exception will be handled at the current instruction
 	 */
 	public boolean handleCatchException(final Throwable eCause) {
 		visitor.invokeException(eCause);
 
-		for (final TryCatchBlockNode tcb : method.tryCatchBlocks) {
-			// tcb.type == null: type "any"), e.g. finally-block 
-			if (tcb.type != null) {
-				Class<?> classTcb;
-				try {
-					classTcb = registry.loadClass(tcb.type.replace("/", "."), clazz);
-				} catch (ClassNotFoundException cnfe) {
-					throw new JvmException(String.format("Throwable %s in catch-block of %s is unknown",
-							tcb.type, methodName), cnfe);
-				}
-				if (!classTcb.isAssignableFrom(eCause.getClass())) {
-					continue;
-				}
-			}
-			final Integer instrStart = mapLabel.get(tcb.start.getLabel());
-			final Integer instrEnd = mapLabel.get(tcb.end.getLabel());
-			if (instrStart == null) {
-				throw new JvmException(String.format("Unknown start-label in tcb of %s: %s, %s - %s",
-						methodName, tcb.type, tcb.start.getLabel(), tcb.end.getLabel()));
-			}
-			if (instrEnd == null) {
-				throw new JvmException(String.format("Unknown end-label in tcb of %s: %s, %s - %s",
-						methodName, tcb.type, tcb.start.getLabel(), tcb.end.getLabel()));
-			}
-			if (instrStart.intValue() <= instrNum && instrNum < instrEnd.intValue()) {
-				final Integer instrHandler = mapLabel.get(tcb.handler.getLabel());
-				if (instrHandler == null) {
-					throw new JvmException(String.format("Unknown handler-label (%s) in tcb of %s: %s, %s - %s",
-							tcb.handler.getLabel(), methodName,
-							tcb.type, tcb.start.getLabel(), tcb.end.getLabel()));
-				}
-				stack.clear();
-				stack.push(eCause);
-				instrNum = instrHandler.intValue();
-				return true; // continue while
-			}
+		final int pcHandler;
+		try {
+			pcHandler = code.findHandler(pc, eCause.getClass(), registry, clazz);
+		} catch (ClassNotFoundException cnfe) {
+			throw new JvmException(String.format("Throwable in catch-block of %s is unknown",
+					methodName), cnfe);
+		}
+		if (pcHandler < 0) {
+			return false;
+		}
+		stack.clear();
+		stack.push(eCause);
+		pc = pcHandler;
+		instrNum = code.asmIndex[pcHandler];
+		return true; // continue while
+	}
+
+	/**
+	 * Gets the class of the type-reference of the current instruction (CHECKCAST or INSTANCEOF).
+	 * @param desc internal name of the type (used in case of an unknown class)
+	 * @return class
+	 */
+	private Class<?> resolveTypeReference(final String desc) {
+		try {
+			return code.typeRefs.resolve(code.operands[pc], registry, clazz).classResolved;
+		} catch (ClassNotFoundException e) {
+			throw new JvmUncaughtException("Unknown class " + desc.replace('/', '.'), e);
 		}
-		return false;
 	}
 
 	/**
@@ -2996,53 +3544,21 @@ loopDeclMeth:
 	 * @param args stack of the caller
 	 */
 	private void readArgsIntoLocals(final OperandStack args) {
-		final int argDefsLen = argDefs.length;
-		int j = 0;
-		final boolean isStatic = Modifier.isStatic(pMethod.getModifiers());
-		if (!isStatic) {
-			j++;
-		}
-		assert aLocals.length >= argDefs.length : String.format("aLocals.len=%d < argDefs.len=%d",
-				Integer.valueOf(aLocals.length), Integer.valueOf(argDefs.length));
-		for (int i = 0; i < argDefs.length; i++) {
-			final Type curType = argDefs[i];
-			try {
-				Object sValue = args.peek(argDefsLen - 1 - i);
-				sValue = convertDeclTypeIntoJvmType(curType, sValue);
-				aLocals[j] = sValue;
-			} catch (ArrayIndexOutOfBoundsException e) {
-				throw new JvmException(String.format("Stack small (%s): i=%d, j=%d, argDefs=%s, aLocals.length=%d, stack=(%s), method=%s",
-						e.getMessage(), Integer.valueOf(i), Integer.valueOf(j),
-						Arrays.toString(argDefs), Integer.valueOf(aLocals.length), args, pMethod));
-			}
-			j++;
-			if (Type.LONG_TYPE.equals(curType) || Type.DOUBLE_TYPE.equals(curType)) {
-				// long and double use two local-indizes.
-				j++;
-			}
-		}
-		args.remove(argDefs.length);
-		if (!isStatic) {
-			aLocals[0] = args.pop();
+		final int[] argLocalIndices = plan.getArgLocalIndices();
+		if (args.size() < argLocalIndices.length) {
+			throw new JvmException(String.format("Stack small: argDefs=%s, aLocals.length=%d, stack=(%s), method=%s",
+					Arrays.toString(argDefs), Integer.valueOf(aLocals.length), args, pMethod));
 		}
-	}
-
-	/**
-	 * Gets the instruction-index of a label.
-	 * @param instructions list of instructions
-	 * @return map from label to instructions
-	 */
-	static Map<Label, Integer> createLabelInstructionIndex(final InsnList instructions) {
-		final Map<Label, Integer> mapLabel = new HashMap<>();
-		final int anzInstructions = instructions.size();
-		for (int i = 0; i < anzInstructions; i++) {
-			final AbstractInsnNode iLoop = instructions.get(i);
-			if (iLoop instanceof LabelNode) {
-				final LabelNode loopLabel = (LabelNode) iLoop;
-				mapLabel.put(loopLabel.getLabel(), Integer.valueOf(i));
+		args.popSlots(aLocals, aPrims, argLocalIndices);
+		final int[] subIntArgLocalIndices = plan.getSubIntArgLocalIndices();
+		for (int i = 0; i < subIntArgLocalIndices.length; i++) {
+			final int idxLocal = subIntArgLocalIndices[i];
+			final Object sValue = aLocals[idxLocal];
+			if (!(sValue instanceof SlotKind)) {
+				// boxed value, e.g. given by an invocation-handler.
+				aLocals[idxLocal] = convertDeclTypeIntoJvmType(plan.getSubIntArgTypes()[i], sValue);
 			}
 		}
-		return mapLabel;
 	}
 
 	/** {@inheritDoc} */
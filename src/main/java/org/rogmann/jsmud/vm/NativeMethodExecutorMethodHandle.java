@@ -0,0 +1,219 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Execution of methods via method-handles.
+ *
+ * <p>The method-handle of a method or constructor is computed once. It is adapted to the type
+ * <code>(Object, Object[])Object</code> (method) or <code>(Object[])Object</code> (constructor),
+ * the spreading of the arguments, boxing and unboxing are bound into the handle.
+ * So there are no reflection-checks per call.</p>
+ * <p>Like {@link java.lang.reflect.Method#invoke(Object, Object...)} an exception thrown
+ * by the executed method is wrapped into an {@link InvocationTargetException}.
+ * The object-reference and the arguments are checked before the call, an argument which
+ * can't be adapted to the handle results in an {@link IllegalArgumentException}.</p>
+ * <p>The handles are stored by declaring class (see {@link ClassValue}),
+ * so the executor doesn't prevent the unloading of classes.</p>
+ */
+public class NativeMethodExecutorMethodHandle implements NativeMethodExecutor {
+
+	/** lookup used to unreflect methods and constructors */
+	private static final Lookup LOOKUP = MethodHandles.lookup();
+
+	/** adapted method-handles of the methods and constructors of a class */
+	private final ClassValue<ConcurrentMap<Executable, AdaptedHandle>> cvHandles = new ClassValue<ConcurrentMap<Executable, AdaptedHandle>>() {
+		/** {@inheritDoc} */
+		@Override
+		protected ConcurrentMap<Executable, AdaptedHandle> computeValue(final Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Adapted method-handle of a method or constructor.
+	 */
+	static final class AdaptedHandle {
+		/** method-handle of type <code>(Object, Object[])Object</code> or <code>(Object[])Object</code> */
+		final MethodHandle mh;
+		/** parameter-types of the method or constructor */
+		final Class<?>[] parameterTypes;
+
+		/**
+		 * Constructor
+		 * @param mh adapted method-handle
+		 * @param parameterTypes parameter-types
+		 */
+		AdaptedHandle(final MethodHandle mh, final Class<?>[] parameterTypes) {
+			this.mh = mh;
+			this.parameterTypes = parameterTypes;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Object executeConstructorNative(Constructor<?> constructor, Object[] aJvmArgs)
+			throws IllegalAccessException, IllegalArgumentException, InstantiationException, InvocationTargetException {
+		if (Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+			throw new InstantiationException(constructor.getDeclaringClass().getName());
+		}
+		final ConcurrentMap<Executable, AdaptedHandle> mapHandles = cvHandles.get(constructor.getDeclaringClass());
+		AdaptedHandle handle = mapHandles.get(constructor);
+		if (handle == null) {
+			constructor.setAccessible(true);
+			MethodHandle mh = LOOKUP.unreflectConstructor(constructor).asFixedArity();
+			mh = mh.asType(MethodType.genericMethodType(constructor.getParameterCount()))
+					.asSpreader(Object[].class, constructor.getParameterCount());
+			handle = new AdaptedHandle(mh, constructor.getParameterTypes());
+			mapHandles.putIfAbsent(constructor, handle);
+		}
+		checkArgs(constructor, handle.parameterTypes, aJvmArgs);
+		try {
+			return (Object) handle.mh.invokeExact(aJvmArgs);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Object executeMethodNative(Method methodExec, Object objRef, Object[] initargs)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+		final boolean isStatic = Modifier.isStatic(methodExec.getModifiers());
+		if (!isStatic && objRef == null) {
+			throw new NullPointerException(String.format("No instance to execute (%s)", methodExec));
+		}
+		final Class<?> classDecl = methodExec.getDeclaringClass();
+		if (!isStatic && !classDecl.isInstance(objRef)) {
+			throw new IllegalArgumentException(String.format("object of (%s) is not an instance of declaring class of (%s)",
+					objRef.getClass().getName(), methodExec));
+		}
+		final ConcurrentMap<Executable, AdaptedHandle> mapHandles = cvHandles.get(classDecl);
+		AdaptedHandle handle = mapHandles.get(methodExec);
+		if (handle == null) {
+			handle = new AdaptedHandle(createMethodHandle(methodExec, isStatic), methodExec.getParameterTypes());
+			mapHandles.putIfAbsent(methodExec, handle);
+		}
+		checkArgs(methodExec, handle.parameterTypes, initargs);
+		try {
+			return (Object) handle.mh.invokeExact(objRef, initargs);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * Creates a method-handle of type <code>(Object, Object[])Object</code>.
+	 * The first argument (object-reference) is ignored in case of a static method.
+	 * @param method method
+	 * @param isStatic <code>true</code> in case of a static method
+	 * @return adapted method-handle
+	 * @throws IllegalAccessException in case of an access-violation
+	 */
+	private static MethodHandle createMethodHandle(final Method method, final boolean isStatic) throws IllegalAccessException {
+		method.setAccessible(true);
+		MethodHandle mh = LOOKUP.unreflect(method).asFixedArity();
+		if (isStatic) {
+			mh = MethodHandles.dropArguments(mh, 0, Object.class);
+		}
+		final int numArgs = method.getParameterCount();
+		return mh.asType(MethodType.genericMethodType(numArgs + 1))
+				.asSpreader(Object[].class, numArgs);
+	}
+
+	/**
+	 * Checks the number and the types of the arguments.
+	 * So an exception thrown by the method-handle is an exception of the executed method.
+	 * @param executable method or constructor
+	 * @param parameterTypes parameter-types of the method or constructor
+	 * @param aJvmArgs arguments
+	 * @throws IllegalArgumentException in case of a wrong number of arguments or an argument of a wrong type
+	 */
+	private static void checkArgs(final Executable executable, final Class<?>[] parameterTypes,
+			final Object[] aJvmArgs) throws IllegalArgumentException {
+		final int numArgs = (aJvmArgs != null) ? aJvmArgs.length : 0;
+		if (numArgs != parameterTypes.length) {
+			throw new IllegalArgumentException(String.format("wrong number of arguments (%d) of (%s)",
+					Integer.valueOf(numArgs), executable));
+		}
+		for (int i = 0; i < numArgs; i++) {
+			if (!isAssignable(parameterTypes[i], aJvmArgs[i])) {
+				throw new IllegalArgumentException(String.format("argument %d (%s) doesn't match parameter-type (%s) of (%s)",
+						Integer.valueOf(i), (aJvmArgs[i] != null) ? aJvmArgs[i].getClass().getName() : null,
+						parameterTypes[i].getName(), executable));
+			}
+		}
+	}
+
+	/**
+	 * Checks if an argument can be assigned to a parameter.
+	 * A primitive parameter accepts a boxed value which can be unboxed and widened
+	 * (see {@link Method#invoke(Object, Object...)}).
+	 * @param paramType parameter-type
+	 * @param arg argument
+	 * @return <code>true</code> if the argument is assignable
+	 */
+	private static boolean isAssignable(final Class<?> paramType, final Object arg) {
+		if (!paramType.isPrimitive()) {
+			return arg == null || paramType.isInstance(arg);
+		}
+		if (arg == null) {
+			return false;
+		}
+		final Class<?> argType = arg.getClass();
+		if (paramType == boolean.class || argType == Boolean.class) {
+			return paramType == boolean.class && argType == Boolean.class;
+		}
+		if (paramType == char.class) {
+			return argType == Character.class;
+		}
+		final int rankParam = getWideningRank(paramType);
+		if (argType == Character.class) {
+			return rankParam >= getWideningRank(int.class);
+		}
+		final int rankArg = getWideningRank(argType);
+		return rankArg > 0 && rankArg <= rankParam;
+	}
+
+	/**
+	 * Gets the rank of a numeric type in the primitive widening conversions (byte, short, int, long, float, double).
+	 * @param type primitive type or wrapper-class
+	 * @return rank (1 = byte, 6 = double) or 0
+	 */
+	private static int getWideningRank(final Class<?> type) {
+		final int rank;
+		if (type == byte.class || type == Byte.class) {
+			rank = 1;
+		}
+		else if (type == short.class || type == Short.class) {
+			rank = 2;
+		}
+		else if (type == int.class || type == Integer.class) {
+			rank = 3;
+		}
+		else if (type == long.class || type == Long.class) {
+			rank = 4;
+		}
+		else if (type == float.class || type == Float.class) {
+			rank = 5;
+		}
+		else if (type == double.class || type == Double.class) {
+			rank = 6;
+		}
+		else {
+			rank = 0;
+		}
+		return rank;
+	}
+
+}
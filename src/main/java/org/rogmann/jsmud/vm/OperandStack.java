@@ -9,6 +9,10 @@ import org.rogmann.jsmud.log.LoggerFactory;
 /**
  * Operand stack.
  * The maximum size can be increased via pushInto, a hack to store INVOKEDYNAMIC-arguments. 
+ *
+ * <p>Primitive values pushed by the typed push-methods are stored unboxed in a parallel long-array,
+ * the slot itself contains the {@link SlotKind}. The untyped methods (e.g. {@link #pop()} or {@link #peek(int)})
+ * box such values, the typed pop-methods accept boxed values, too.</p>
  */
 public class OperandStack {
 	/** logger */
@@ -23,7 +27,11 @@ public class OperandStack {
 	/** flag to display a bootstrap-error only once */
 	private final static AtomicBoolean IS_FIRST_BOOTSTRAP_ERROR = new AtomicBoolean(true);
 
+	/** references or kinds of primitive values */
 	private Object[] stack;
+
+	/** primitive values of slots containing a {@link SlotKind} */
+	private long[] prims;
 	
 	/** size of resize because of pushInto */
 	private int resize;
@@ -37,16 +45,119 @@ public class OperandStack {
 	 */
 	public OperandStack(final int maxSize) {
 		stack = new Object[maxSize];
+		prims = new long[maxSize];
 		idx = -1;
 	}
 	
+	/**
+	 * Constructor of a full stack using the given array of values, without copying.
+	 * @param values values, the last one is on top
+	 */
+	OperandStack(final Object[] values) {
+		stack = values;
+		prims = new long[values.length];
+		idx = values.length - 1;
+	}
+
 	/**
 	 * Gets and removes the element on top.
 	 * @return element
 	 */
 	public Object pop() {
 		assert idx >= 0 : "pop at empty stack";
-		return stack[idx--];
+		final Object o = stack[idx];
+		if (o instanceof SlotKind) {
+			return ((SlotKind) o).box(prims[idx--]);
+		}
+		idx--;
+		return o;
+	}
+
+	/**
+	 * Gets and removes an int-value on top.
+	 * @return int-value
+	 */
+	public int popInt() {
+		assert idx >= 0 : "pop at empty stack";
+		final Object o = stack[idx];
+		if (o == SlotKind.INT) {
+			return (int) prims[idx--];
+		}
+		idx--;
+		return SlotKind.unboxInt(o);
+	}
+
+	/**
+	 * Gets and removes a long-value on top.
+	 * @return long-value
+	 */
+	public long popLong() {
+		assert idx >= 0 : "pop at empty stack";
+		final Object o = stack[idx];
+		if (o == SlotKind.LONG) {
+			return prims[idx--];
+		}
+		idx--;
+		return ((Long) o).longValue();
+	}
+
+	/**
+	 * Gets and removes a float-value on top.
+	 * @return float-value
+	 */
+	public float popFloat() {
+		assert idx >= 0 : "pop at empty stack";
+		final Object o = stack[idx];
+		if (o == SlotKind.FLOAT) {
+			return Float.intBitsToFloat((int) prims[idx--]);
+		}
+		idx--;
+		return ((Float) o).floatValue();
+	}
+
+	/**
+	 * Gets and removes a double-value on top.
+	 * @return double-value
+	 */
+	public double popDouble() {
+		assert idx >= 0 : "pop at empty stack";
+		final Object o = stack[idx];
+		if (o == SlotKind.DOUBLE) {
+			return Double.longBitsToDouble(prims[idx--]);
+		}
+		idx--;
+		return ((Double) o).doubleValue();
+	}
+
+	/**
+	 * Removes the slot on top and stores it unboxed into an array of slots (e.g. locals).
+	 * @param aRefs references or kinds of the target-slots
+	 * @param aPrims primitive values of the target-slots
+	 * @param index index of the target-slot
+	 */
+	void popSlot(final Object[] aRefs, final long[] aPrims, final int index) {
+		assert idx >= 0 : "pop at empty stack";
+		aRefs[index] = stack[idx];
+		aPrims[index] = prims[idx--];
+	}
+
+	/**
+	 * Removes the slots on top and stores them unboxed into an array of slots (e.g. the locals of a callee).
+	 * The lowest removed slot is stored at the first index.
+	 * @param aRefs references or kinds of the target-slots
+	 * @param aPrims primitive values of the target-slots
+	 * @param indices indices of the target-slots
+	 */
+	void popSlots(final Object[] aRefs, final long[] aPrims, final int[] indices) {
+		final int num = indices.length;
+		final int base = idx + 1 - num;
+		assert base >= 0 : "popSlots(" + num + ") at too small stack";
+		for (int i = 0; i < num; i++) {
+			final int index = indices[i];
+			aRefs[index] = stack[base + i];
+			aPrims[index] = prims[base + i];
+		}
+		idx = base - 1;
 	}
 
 	/**
@@ -56,8 +167,12 @@ public class OperandStack {
 	 */
 	public Object pop(final int index) {
 		assert idx >= index : "pop(" + index + ") at too small stack";
-		final Object oStack = stack[idx - index];
+		Object oStack = stack[idx - index];
+		if (oStack instanceof SlotKind) {
+			oStack = ((SlotKind) oStack).box(prims[idx - index]);
+		}
 		System.arraycopy(stack, idx - index + 1, stack, idx - index, index);
+		System.arraycopy(prims, idx - index + 1, prims, idx - index, index);
 		idx--;
 		return oStack;
 	}
@@ -75,6 +190,53 @@ public class OperandStack {
 		}
 	}
 
+	/**
+	 * Puts an int-value on top.
+	 * @param v int-value
+	 */
+	public void pushInt(final int v) {
+		stack[++idx] = SlotKind.INT;
+		prims[idx] = v;
+	}
+
+	/**
+	 * Puts a long-value on top.
+	 * @param v long-value
+	 */
+	public void pushLong(final long v) {
+		stack[++idx] = SlotKind.LONG;
+		prims[idx] = v;
+	}
+
+	/**
+	 * Puts a float-value on top.
+	 * @param v float-value
+	 */
+	public void pushFloat(final float v) {
+		stack[++idx] = SlotKind.FLOAT;
+		prims[idx] = Float.floatToRawIntBits(v);
+	}
+
+	/**
+	 * Puts a double-value on top.
+	 * @param v double-value
+	 */
+	public void pushDouble(final double v) {
+		stack[++idx] = SlotKind.DOUBLE;
+		prims[idx] = Double.doubleToRawLongBits(v);
+	}
+
+	/**
+	 * Puts a slot of an array of slots (e.g. locals) on top, without boxing.
+	 * @param aRefs references or kinds of the source-slots
+	 * @param aPrims primitive values of the source-slots
+	 * @param index index of the source-slot
+	 */
+	void pushSlot(final Object[] aRefs, final long[] aPrims, final int index) {
+		stack[++idx] = aRefs[index];
+		prims[idx] = aPrims[index];
+	}
+
 	/**
 	 * Pushes an array of elements into the stack and resizes.
 	 * @param offset offset in the stack (0 = top)
@@ -90,11 +252,13 @@ public class OperandStack {
 						Integer.valueOf(stack.length), Integer.valueOf(newLength)));
 			}
 			stack = Arrays.copyOfRange(stack, 0, newLength);
+			prims = Arrays.copyOfRange(prims, 0, newLength);
 			resize = objLen;
 		}
 		int stackOffset = idx + 1 - offset;
 		if (offset > 0) {
 			System.arraycopy(stack, stackOffset, stack, stackOffset + objLen, offset);
+			System.arraycopy(prims, stackOffset, prims, stackOffset + objLen, offset);
 		}
 		System.arraycopy(objects, 0, stack, stackOffset, objLen);
 		idx += objLen;
@@ -107,7 +271,11 @@ public class OperandStack {
 	public Object peek() {
 		assert idx >= 0 : "peek at empty stack";
 		assert idx < stack.length : "stack-index too large";
-		return stack[idx];
+		final Object o = stack[idx];
+		if (o instanceof SlotKind) {
+			return ((SlotKind) o).box(prims[idx]);
+		}
+		return o;
 	}
 	
 	/**
@@ -118,7 +286,11 @@ public class OperandStack {
 	public Object peek(final int index) {
 		assert idx - index >= 0 : "stack-index minus index " + index + " too low";
 		assert idx - index < stack.length : "stack-index minus index " + index + " too large";
-		return stack[idx - index];
+		final Object o = stack[idx - index];
+		if (o instanceof SlotKind) {
+			return ((SlotKind) o).box(prims[idx - index]);
+		}
+		return o;
 	}
 
 	/**
@@ -128,6 +300,20 @@ public class OperandStack {
 		idx = -1;
 	}
 
+	/**
+	 * Clears the stack and its references to be reused by another frame.
+	 * @param maxSize maximum size of the stack while creating
+	 * @return <code>false</code> if the stack has been resized and can't be reused
+	 */
+	boolean reset(final int maxSize) {
+		if (stack.length != maxSize) {
+			return false;
+		}
+		Arrays.fill(stack, null);
+		idx = -1;
+		return true;
+	}
+
 	/**
 	 * Replaces an element from top with index.
 	 * @param index 0 = element on top, 1 = next element, ...
@@ -139,6 +325,97 @@ public class OperandStack {
 		stack[idx - index] = obj;
 	}
 
+	/**
+	 * Removes the value on top (POP2): one value of category 2 or two values of category 1.
+	 */
+	public void pop2() {
+		if (SlotKind.isCategory2(stack[idx])) {
+			idx--;
+		}
+		else {
+			idx -= 2;
+		}
+	}
+
+	/**
+	 * Duplicates the value on top (DUP).
+	 */
+	public void dup() {
+		stack[idx + 1] = stack[idx];
+		prims[idx + 1] = prims[idx];
+		idx++;
+	}
+
+	/**
+	 * Duplicates the value on top and inserts it below the second value (DUP_X1).
+	 */
+	public void dupX1() {
+		dupX(1, 1);
+	}
+
+	/**
+	 * Duplicates the value on top and inserts it two slots (or one value of category 2) down (DUP_X2).
+	 */
+	public void dupX2() {
+		// Form 2: value2 is of category 2 computational type.
+		dupX(1, SlotKind.isCategory2(stack[idx - 1]) ? 1 : 2);
+	}
+
+	/**
+	 * Duplicates one value of category 2 or two values of category 1 on top (DUP2).
+	 */
+	public void dup2() {
+		dupX(SlotKind.isCategory2(stack[idx]) ? 1 : 2, 0);
+	}
+
+	/**
+	 * Duplicates the top value(s) and inserts them below the next value (DUP2_X1).
+	 */
+	public void dup2X1() {
+		// Form 2: value1 is of category 2 computational type.
+		dupX(SlotKind.isCategory2(stack[idx]) ? 1 : 2, 1);
+	}
+
+	/**
+	 * Duplicates the top value(s) and inserts them below the next value(s) (DUP2_X2).
+	 */
+	public void dup2X2() {
+		if (SlotKind.isCategory2(stack[idx])) {
+			// value1 is of category 2: form 4 (value2 of category 2) or form 2.
+			dupX(1, SlotKind.isCategory2(stack[idx - 1]) ? 1 : 2);
+		}
+		else {
+			// Form 3 (value3 of category 2) or form 1.
+			dupX(2, SlotKind.isCategory2(stack[idx - 2]) ? 1 : 2);
+		}
+	}
+
+	/**
+	 * Swaps the two values on top (SWAP).
+	 */
+	public void swap() {
+		final Object o1 = stack[idx];
+		final long p1 = prims[idx];
+		stack[idx] = stack[idx - 1];
+		prims[idx] = prims[idx - 1];
+		stack[idx - 1] = o1;
+		prims[idx - 1] = p1;
+	}
+
+	/**
+	 * Duplicates the top slots and inserts them below some further slots.
+	 * @param numDup number of slots to be duplicated
+	 * @param depth number of slots between the inserted copy and the original slots
+	 */
+	private void dupX(final int numDup, final int depth) {
+		final int top = idx + 1;
+		System.arraycopy(stack, top - numDup - depth, stack, top - depth, numDup + depth);
+		System.arraycopy(prims, top - numDup - depth, prims, top - depth, numDup + depth);
+		System.arraycopy(stack, top, stack, top - numDup - depth, numDup);
+		System.arraycopy(prims, top, prims, top - numDup - depth, numDup);
+		idx += numDup;
+	}
+
 	/**
 	 * Replace uninitialized classes with the new initialized instance.
 	 * @param uninstType uninitialized instance
@@ -183,11 +460,13 @@ public class OperandStack {
 		}
 		final StringBuilder sbTypes = new StringBuilder(20);
 		final int lenTypes = SHOW_FULL_STACK ? stack.length : idx + 1;
+		final Object[] aValues = stack.clone();
+		SlotKind.boxSlots(aValues, prims, lenTypes);
 		for (int i = 0; i < lenTypes; i++) {
 			if (i > 0) {
 				sbTypes.append(", ");
 			}
-			final Object so = stack[i];
+			final Object so = aValues[i];
 			if (so == null) {
 				sbTypes.append(so);
 			}
@@ -204,7 +483,7 @@ public class OperandStack {
 		}
 		return String.format("stack: currLen=%d, maxLen=%d, types=[%s], values=%s",
 				Integer.valueOf(idx + 1), Integer.valueOf(stack.length),
-				sbTypes, toString(stack, idx)
+				sbTypes, toString(aValues, idx)
 		);
 	}
 
@@ -9,6 +9,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.rogmann.jsmud.log.Logger;
 import org.rogmann.jsmud.log.LoggerFactory;
@@ -59,6 +61,21 @@ public class ReflectionHelper {
 	/** method-handle of VarHandle#set */
 	private final MethodHandle mhVarHandleSet;
 
+	// field setters
+	//
+
+	/** type of a field-setter: (Object instance, Object value)void */
+	private static final MethodType TYPE_FIELD_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/** prepared setters of the fields of a class by field-name */
+	private final ClassValue<ConcurrentMap<String, MethodHandle>> cvFieldSetters = new ClassValue<ConcurrentMap<String, MethodHandle>>() {
+		/** {@inheritDoc} */
+		@Override
+		protected ConcurrentMap<String, MethodHandle> computeValue(final Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
 	/**
 	 * Constructor
 	 */
@@ -203,6 +220,64 @@ public class ReflectionHelper {
 		return obj;
 	}
 
+	/**
+	 * Gets the setter of a field. The field is prepared once: it is made accessible
+	 * and a final modifier is removed. The given Field-instance keeps its modifiers.
+	 * @param field field
+	 * @return setter of type (Object, Object)void, the instance is ignored in case of a static field
+	 * @throws JvmException in case of an error
+	 */
+	public MethodHandle getFieldSetter(final Field field) throws JvmException {
+		final ConcurrentMap<String, MethodHandle> mapSetters = cvFieldSetters.get(field.getDeclaringClass());
+		MethodHandle setter = mapSetters.get(field.getName());
+		if (setter == null) {
+			setter = createFieldSetter(field);
+			final MethodHandle setterPrev = mapSetters.putIfAbsent(field.getName(), setter);
+			if (setterPrev != null) {
+				setter = setterPrev;
+			}
+		}
+		return setter;
+	}
+
+	/**
+	 * Creates the setter of a field.
+	 * @param field field
+	 * @return setter of type (Object, Object)void
+	 * @throws JvmException in case of an error
+	 */
+	private MethodHandle createFieldSetter(final Field field) throws JvmException {
+		final Field fieldSet;
+		try {
+			fieldSet = field.getDeclaringClass().getDeclaredField(field.getName());
+		} catch (NoSuchFieldException | SecurityException e) {
+			throw new JvmException(String.format("Can't prepare field (%s)", field), e);
+		}
+		fieldSet.setAccessible(true);
+		final boolean isStatic = Modifier.isStatic(fieldSet.getModifiers());
+		if (Modifier.isFinal(fieldSet.getModifiers())) {
+			removeFieldsFinalModifier(fieldSet);
+		}
+		MethodHandle setter;
+		try {
+			setter = MethodHandles.lookup().unreflectSetter(fieldSet);
+			if (isStatic) {
+				setter = MethodHandles.dropArguments(setter, 0, Object.class);
+			}
+		} catch (IllegalAccessException e) {
+			// e.g. a static final field in newer JVMs: we use Field#set.
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(String.format("No setter-handle of (%s): %s", fieldSet, e.getMessage()));
+			}
+			try {
+				setter = MethodHandles.publicLookup().findVirtual(Field.class, "set", TYPE_FIELD_SETTER).bindTo(fieldSet);
+			} catch (NoSuchMethodException | IllegalAccessException e2) {
+				throw new JvmException(String.format("Can't build setter of field (%s)", field), e2);
+			}
+		}
+		return setter.asType(TYPE_FIELD_SETTER);
+	}
+
 	/**
 	 * Removes the final modifier of a Field-instance.
 	 * @param field field
@@ -0,0 +1,789 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Register-based code of a method (optional execution-tier).
+ *
+ * <p>The pre-decoded stack-code of a method is translated into three-address-instructions
+ * working on int-registers: the locals are the registers 0 to max-locals - 1, followed by one
+ * register per slot of the operand-stack and by registers containing the constants.
+ * Loads, constants, DUP and POP don't produce instructions, they are tracked on a symbolic stack
+ * while translating. At jump-targets the symbolic stack is stored into the stack-registers,
+ * so every jump-target has the canonical layout of the stack-code.</p>
+ * <p>Only methods using int-values (including LDC of int-constants), int-arithmetic (without division), int-branches and returns
+ * are translated. Every instruction knows the program-counter of its stack-instruction. If the
+ * execution-visitor gets interested in single instructions (e.g. a breakpoint has been set) or in lines,
+ * the execution continues at the next backward-branch in the stack-code (de-optimization).</p>
+ */
+final class RegisterCode {
+
+	/** marker of a de-optimized execution */
+	static final Object DEOPTIMIZED = new Object();
+
+	/** d = a */
+	static final int MOV = 0;
+	/** d = a + b */
+	static final int ADD = 1;
+	/** d = a - b */
+	static final int SUB = 2;
+	/** d = a * b */
+	static final int MUL = 3;
+	/** d = a &amp; b */
+	static final int AND = 4;
+	/** d = a | b */
+	static final int OR = 5;
+	/** d = a ^ b */
+	static final int XOR = 6;
+	/** d = a &lt;&lt; b */
+	static final int SHL = 7;
+	/** d = a &gt;&gt; b */
+	static final int SHR = 8;
+	/** d = a &gt;&gt;&gt; b */
+	static final int USHR = 9;
+	/** d = -a */
+	static final int NEG = 10;
+	/** d = (byte) a */
+	static final int I2B = 11;
+	/** d = (char) a */
+	static final int I2C = 12;
+	/** d = (short) a */
+	static final int I2S = 13;
+	/** jump to d if a == b */
+	static final int IF_EQ = 14;
+	/** jump to d if a != b */
+	static final int IF_NE = 15;
+	/** jump to d if a &lt; b */
+	static final int IF_LT = 16;
+	/** jump to d if a &gt;= b */
+	static final int IF_GE = 17;
+	/** jump to d if a &gt; b */
+	static final int IF_GT = 18;
+	/** jump to d if a &lt;= b */
+	static final int IF_LE = 19;
+	/** jump to d */
+	static final int GOTO = 20;
+	/** return a */
+	static final int RET = 21;
+	/** return (void) */
+	static final int RET_VOID = 22;
+
+	/** operations */
+	final int[] ops;
+	/** destination-registers or jump-targets */
+	final int[] dst;
+	/** first source-registers */
+	final int[] src1;
+	/** second source-registers */
+	final int[] src2;
+	/** program-counters of the corresponding stack-instructions */
+	final int[] codePc;
+	/** program-counters of the jump-targets in the stack-code (jumps only) */
+	final int[] targetPc;
+	/** depths of the operand-stack at the jump-targets (jumps only) */
+	final int[] targetDepth;
+
+	/** number of registers */
+	private final int numRegs;
+	/** index of the first stack-register */
+	private final int stackBase;
+	/** index of the first constant-register */
+	private final int constBase;
+	/** values of the constant-registers */
+	private final int[] constValues;
+	/** indices of the int-arguments in the locals */
+	private final int[] intArgLocals;
+	/** indices of locals written by the register-code (including the int-arguments) */
+	private final int[] intLocals;
+
+	/**
+	 * Constructor
+	 * @param builder translated instructions
+	 */
+	private RegisterCode(final Builder builder) {
+		final int size = builder.size;
+		ops = Arrays.copyOf(builder.ops, size);
+		dst = Arrays.copyOf(builder.dst, size);
+		src1 = Arrays.copyOf(builder.src1, size);
+		src2 = Arrays.copyOf(builder.src2, size);
+		codePc = Arrays.copyOf(builder.codePc, size);
+		targetPc = Arrays.copyOf(builder.targetPc, size);
+		targetDepth = Arrays.copyOf(builder.targetDepth, size);
+		stackBase = builder.stackBase;
+		constBase = builder.constBase;
+		constValues = new int[builder.constValues.size()];
+		for (int i = 0; i < constValues.length; i++) {
+			constValues[i] = builder.constValues.get(i).intValue();
+		}
+		numRegs = constBase + constValues.length;
+		intArgLocals = builder.intArgLocals;
+		intLocals = builder.intLocals;
+	}
+
+	/**
+	 * Instructions while translating.
+	 */
+	static final class Builder {
+		/** operations */
+		int[] ops = new int[16];
+		/** destination-registers or jump-targets */
+		int[] dst = new int[16];
+		/** first source-registers */
+		int[] src1 = new int[16];
+		/** second source-registers */
+		int[] src2 = new int[16];
+		/** program-counters of the stack-instructions */
+		int[] codePc = new int[16];
+		/** program-counters of the jump-targets */
+		int[] targetPc = new int[16];
+		/** depths of the operand-stack at the jump-targets */
+		int[] targetDepth = new int[16];
+		/** number of instructions */
+		int size;
+		/** index of the first instruction after the last jump-target */
+		int lastTargetIr;
+
+		/** index of the first stack-register */
+		final int stackBase;
+		/** index of the first constant-register */
+		final int constBase;
+		/** values of the constant-registers */
+		final List<Integer> constValues = new ArrayList<>();
+		/** map from constant-value to constant-register */
+		final Map<Integer, Integer> mapConstRegs = new HashMap<>();
+		/** indices of the int-arguments in the locals */
+		int[] intArgLocals;
+		/** indices of locals written by the register-code */
+		int[] intLocals;
+
+		/** registers of the symbolic operand-stack */
+		final int[] sym;
+		/** depth of the symbolic operand-stack */
+		int depth;
+
+		/**
+		 * Constructor
+		 * @param maxLocals number of locals
+		 * @param maxStack maximum size of the operand-stack
+		 */
+		Builder(final int maxLocals, final int maxStack) {
+			stackBase = maxLocals;
+			constBase = maxLocals + maxStack;
+			sym = new int[maxStack];
+		}
+
+		/**
+		 * Appends an instruction.
+		 * @param op operation
+		 * @param d destination-register or jump-target
+		 * @param a first source-register
+		 * @param b second source-register
+		 * @param pc program-counter of the stack-instruction
+		 */
+		void emit(final int op, final int d, final int a, final int b, final int pc) {
+			if (size == ops.length) {
+				final int newLen = 2 * size;
+				ops = Arrays.copyOf(ops, newLen);
+				dst = Arrays.copyOf(dst, newLen);
+				src1 = Arrays.copyOf(src1, newLen);
+				src2 = Arrays.copyOf(src2, newLen);
+				codePc = Arrays.copyOf(codePc, newLen);
+				targetPc = Arrays.copyOf(targetPc, newLen);
+				targetDepth = Arrays.copyOf(targetDepth, newLen);
+			}
+			ops[size] = op;
+			dst[size] = d;
+			src1[size] = a;
+			src2[size] = b;
+			codePc[size] = pc;
+			size++;
+		}
+
+		/**
+		 * Gets the register of a constant.
+		 * @param value int-value
+		 * @return constant-register
+		 */
+		int constReg(final int value) {
+			final Integer key = Integer.valueOf(value);
+			Integer reg = mapConstRegs.get(key);
+			if (reg == null) {
+				reg = Integer.valueOf(constBase + constValues.size());
+				constValues.add(key);
+				mapConstRegs.put(key, reg);
+			}
+			return reg.intValue();
+		}
+
+		/**
+		 * Pushes a register onto the symbolic stack.
+		 * @param reg register
+		 */
+		void push(final int reg) {
+			sym[depth++] = reg;
+		}
+
+		/**
+		 * Pops a register from the symbolic stack.
+		 * @return register
+		 */
+		int pop() {
+			return sym[--depth];
+		}
+
+		/**
+		 * Stores the symbolic stack into the stack-registers.
+		 * The stack is processed from top to bottom: a register of a slot is referenced by
+		 * slots above only, so no source-register is overwritten before it is read.
+		 * @param pc program-counter of the stack-instruction
+		 */
+		void materialize(final int pc) {
+			for (int i = depth - 1; i >= 0; i--) {
+				final int reg = stackBase + i;
+				if (sym[i] != reg) {
+					emit(MOV, reg, sym[i], 0, pc);
+					sym[i] = reg;
+				}
+			}
+		}
+
+		/**
+		 * Stores stack-slots referencing a local into their stack-registers before the local is written.
+		 * @param local index of the local
+		 * @param pc program-counter of the stack-instruction
+		 * @return <code>true</code> if a slot has been stored
+		 */
+		boolean spillLocal(final int local, final int pc) {
+			boolean isSpilled = false;
+			for (int i = 0; i < depth; i++) {
+				if (sym[i] == local) {
+					emit(MOV, stackBase + i, local, 0, pc);
+					sym[i] = stackBase + i;
+					isSpilled = true;
+				}
+			}
+			return isSpilled;
+		}
+
+		/**
+		 * Checks if a register is referenced by a slot of the symbolic stack (e.g. after DUP).
+		 * @param reg register
+		 * @return <code>true</code> if referenced
+		 */
+		boolean isReferenced(final int reg) {
+			for (int i = 0; i < depth; i++) {
+				if (sym[i] == reg) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Appends a binary operation of the two values on top of the symbolic stack.
+		 * @param op operation
+		 * @param pc program-counter of the stack-instruction
+		 */
+		void binary(final int op, final int pc) {
+			final int b = pop();
+			final int a = pop();
+			final int d = stackBase + depth;
+			emit(op, d, a, b, pc);
+			push(d);
+		}
+
+		/**
+		 * Appends a unary operation of the value on top of the symbolic stack.
+		 * @param op operation
+		 * @param pc program-counter of the stack-instruction
+		 */
+		void unary(final int op, final int pc) {
+			final int a = pop();
+			final int d = stackBase + depth;
+			emit(op, d, a, 0, pc);
+			push(d);
+		}
+	}
+
+	/**
+	 * Translates the pre-decoded code of a method into register-code.
+	 * @param method ASM-method
+	 * @param code pre-decoded code
+	 * @param argDefs types of the arguments
+	 * @param argLocalIndices local-indices of the arguments in the order of the caller's stack
+	 * @return register-code or <code>null</code> if the method contains unsupported instructions
+	 */
+	static RegisterCode translate(final MethodNode method, final MethodCode code,
+			final Type[] argDefs, final int[] argLocalIndices) {
+		if (!isIntMethod(method, code)) {
+			return null;
+		}
+		final int[] opcodes = code.opcodes;
+		final int[] operands = code.operands;
+		final int numCode = opcodes.length;
+		final boolean[] isTarget = new boolean[numCode + 1];
+		for (int pc = 0; pc < numCode; pc++) {
+			if (isJump(opcodes[pc])) {
+				isTarget[operands[pc]] = true;
+			}
+		}
+
+		final Builder builder = new Builder(method.maxLocals, method.maxStack);
+		builder.intArgLocals = getIntArgLocals(argDefs, argLocalIndices);
+		builder.intLocals = getIntLocals(method, code, builder.intArgLocals);
+
+		final int[] irOfPc = new int[numCode];
+		final int[] depthAtPc = new int[numCode];
+		Arrays.fill(depthAtPc, -1);
+		boolean isReachable = true;
+		for (int pc = 0; pc < numCode; pc++) {
+			if (isTarget[pc]) {
+				if (isReachable) {
+					builder.materialize(pc);
+					if (depthAtPc[pc] >= 0 && depthAtPc[pc] != builder.depth) {
+						return null;
+					}
+					depthAtPc[pc] = builder.depth;
+				}
+				else {
+					if (depthAtPc[pc] < 0) {
+						// target of a backward-jump only.
+						return null;
+					}
+					builder.depth = depthAtPc[pc];
+					for (int i = 0; i < builder.depth; i++) {
+						builder.sym[i] = builder.stackBase + i;
+					}
+					isReachable = true;
+				}
+				builder.lastTargetIr = builder.size;
+			}
+			irOfPc[pc] = builder.size;
+			if (!isReachable) {
+				continue;
+			}
+			final int opcode = opcodes[pc];
+			switch (opcode) {
+			case MethodCode.OPCODE_LINE:
+			case Opcodes.NOP:
+				break;
+			case Opcodes.ICONST_M1:
+			case Opcodes.ICONST_0:
+			case Opcodes.ICONST_1:
+			case Opcodes.ICONST_2:
+			case Opcodes.ICONST_3:
+			case Opcodes.ICONST_4:
+			case Opcodes.ICONST_5:
+			case Opcodes.BIPUSH:
+			case Opcodes.SIPUSH:
+				builder.push(builder.constReg(operands[pc]));
+				break;
+			case Opcodes.LDC:
+				builder.push(builder.constReg(((Integer) code.constants[pc]).intValue()));
+				break;
+			case Opcodes.ILOAD:
+				builder.push(operands[pc]);
+				break;
+			case Opcodes.ISTORE:
+			{
+				final int local = operands[pc];
+				final int value = builder.pop();
+				final boolean isSpilled = builder.spillLocal(local, pc);
+				final int last = builder.size - 1;
+				if (!isSpilled && value >= builder.stackBase && value < builder.constBase
+						&& last >= builder.lastTargetIr && builder.dst[last] == value && builder.ops[last] < IF_EQ
+						&& !builder.isReferenced(value)) {
+					// The result of the last operation is stored into the local directly.
+					builder.dst[last] = local;
+				}
+				else if (value != local) {
+					builder.emit(MOV, local, value, 0, pc);
+				}
+				break;
+			}
+			case Opcodes.IINC:
+			{
+				final int local = MethodCode.getIincVar(operands[pc]);
+				builder.spillLocal(local, pc);
+				builder.emit(ADD, local, local, builder.constReg(MethodCode.getIincIncr(operands[pc])), pc);
+				break;
+			}
+			case Opcodes.POP:
+				builder.pop();
+				break;
+			case Opcodes.DUP:
+			{
+				final int reg = builder.pop();
+				builder.push(reg);
+				builder.push(reg);
+				break;
+			}
+			case Opcodes.IADD: builder.binary(ADD, pc); break;
+			case Opcodes.ISUB: builder.binary(SUB, pc); break;
+			case Opcodes.IMUL: builder.binary(MUL, pc); break;
+			case Opcodes.IAND: builder.binary(AND, pc); break;
+			case Opcodes.IOR: builder.binary(OR, pc); break;
+			case Opcodes.IXOR: builder.binary(XOR, pc); break;
+			case Opcodes.ISHL: builder.binary(SHL, pc); break;
+			case Opcodes.ISHR: builder.binary(SHR, pc); break;
+			case Opcodes.IUSHR: builder.binary(USHR, pc); break;
+			case Opcodes.INEG: builder.unary(NEG, pc); break;
+			case Opcodes.I2B: builder.unary(I2B, pc); break;
+			case Opcodes.I2C: builder.unary(I2C, pc); break;
+			case Opcodes.I2S: builder.unary(I2S, pc); break;
+			case Opcodes.IFEQ:
+			case Opcodes.IFNE:
+			case Opcodes.IFLT:
+			case Opcodes.IFGE:
+			case Opcodes.IFGT:
+			case Opcodes.IFLE:
+			{
+				final int a = builder.pop();
+				if (!emitJump(builder, IF_EQ + (opcode - Opcodes.IFEQ), a, builder.constReg(0), pc, operands[pc], depthAtPc)) {
+					return null;
+				}
+				break;
+			}
+			case Opcodes.IF_ICMPEQ:
+			case Opcodes.IF_ICMPNE:
+			case Opcodes.IF_ICMPLT:
+			case Opcodes.IF_ICMPGE:
+			case Opcodes.IF_ICMPGT:
+			case Opcodes.IF_ICMPLE:
+			{
+				final int b = builder.pop();
+				final int a = builder.pop();
+				if (!emitJump(builder, IF_EQ + (opcode - Opcodes.IF_ICMPEQ), a, b, pc, operands[pc], depthAtPc)) {
+					return null;
+				}
+				break;
+			}
+			case Opcodes.GOTO:
+				if (!emitJump(builder, GOTO, 0, 0, pc, operands[pc], depthAtPc)) {
+					return null;
+				}
+				isReachable = false;
+				break;
+			case Opcodes.IRETURN:
+				builder.emit(RET, 0, builder.pop(), 0, pc);
+				isReachable = false;
+				break;
+			case Opcodes.RETURN:
+				builder.emit(RET_VOID, 0, 0, 0, pc);
+				isReachable = false;
+				break;
+			default:
+				throw new JvmException(String.format("Unexpected opcode %02x in %s", Integer.valueOf(opcode), "RegisterCode"));
+			}
+		}
+		if (isReachable) {
+			// The code mustn't fall off its end.
+			return null;
+		}
+
+		// Resolve the jump-targets.
+		for (int i = 0; i < builder.size; i++) {
+			if (builder.ops[i] >= IF_EQ && builder.ops[i] <= GOTO) {
+				builder.dst[i] = irOfPc[builder.targetPc[i]];
+			}
+		}
+		return new RegisterCode(builder);
+	}
+
+	/**
+	 * Checks if a method uses int-values, int-arithmetic (without division), int-branches and returns only.
+	 * Such a method can be executed as register-code or as compiled code.
+	 * @param method ASM-method
+	 * @param code pre-decoded code
+	 * @return <code>true</code> if all instructions are supported
+	 */
+	static boolean isIntMethod(final MethodNode method, final MethodCode code) {
+		if ((method.access & (Opcodes.ACC_SYNCHRONIZED | Opcodes.ACC_NATIVE | Opcodes.ACC_ABSTRACT)) != 0
+				|| code.tcbStart.length > 0) {
+			return false;
+		}
+		final int[] opcodes = code.opcodes;
+		for (int pc = 0; pc < opcodes.length; pc++) {
+			final int opcode = opcodes[pc];
+			if (opcode == Opcodes.LDC) {
+				if (!(code.constants[pc] instanceof Integer)) {
+					return false;
+				}
+			}
+			else if (!isSupported(opcode)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the local-indices of the int-arguments (boolean, byte, char, short and int).
+	 * @param argDefs types of the arguments
+	 * @param argLocalIndices local-indices of the arguments in the order of the caller's stack
+	 * @return local-indices
+	 */
+	static int[] getIntArgLocals(final Type[] argDefs, final int[] argLocalIndices) {
+		final int offset = argLocalIndices.length - argDefs.length;
+		final int[] intArgLocals = new int[argDefs.length];
+		int numIntArgs = 0;
+		for (int i = 0; i < argDefs.length; i++) {
+			final int sort = argDefs[i].getSort();
+			if (sort == Type.INT || sort == Type.BOOLEAN || sort == Type.BYTE
+					|| sort == Type.CHAR || sort == Type.SHORT) {
+				intArgLocals[numIntArgs++] = argLocalIndices[offset + i];
+			}
+		}
+		return Arrays.copyOf(intArgLocals, numIntArgs);
+	}
+
+	/**
+	 * Gets the local-indices of the int-locals of an int-method: int-arguments and locals written by ISTORE or IINC.
+	 * @param method ASM-method
+	 * @param code pre-decoded code
+	 * @param intArgLocals local-indices of the int-arguments
+	 * @return local-indices
+	 */
+	static int[] getIntLocals(final MethodNode method, final MethodCode code, final int[] intArgLocals) {
+		final boolean[] isIntLocal = new boolean[method.maxLocals];
+		for (final int local : intArgLocals) {
+			isIntLocal[local] = true;
+		}
+		final int[] opcodes = code.opcodes;
+		for (int pc = 0; pc < opcodes.length; pc++) {
+			if (opcodes[pc] == Opcodes.ISTORE) {
+				isIntLocal[code.operands[pc]] = true;
+			}
+			else if (opcodes[pc] == Opcodes.IINC) {
+				isIntLocal[MethodCode.getIincVar(code.operands[pc])] = true;
+			}
+		}
+		int numIntLocals = 0;
+		final int[] intLocals = new int[isIntLocal.length];
+		for (int i = 0; i < isIntLocal.length; i++) {
+			if (isIntLocal[i]) {
+				intLocals[numIntLocals++] = i;
+			}
+		}
+		return Arrays.copyOf(intLocals, numIntLocals);
+	}
+
+	/**
+	 * Appends a jump. The symbolic stack is stored into the stack-registers before.
+	 * @param builder instructions
+	 * @param op jump-operation
+	 * @param a first source-register
+	 * @param b second source-register
+	 * @param pc program-counter of the jump-instruction
+	 * @param target program-counter of the jump-target
+	 * @param depthAtPc depths of the operand-stack at the jump-targets
+	 * @return <code>false</code> in case of inconsistent stack-depths
+	 */
+	private static boolean emitJump(final Builder builder, final int op, final int a, final int b,
+			final int pc, final int target, final int[] depthAtPc) {
+		builder.materialize(pc);
+		if (depthAtPc[target] >= 0 && depthAtPc[target] != builder.depth) {
+			return false;
+		}
+		depthAtPc[target] = builder.depth;
+		builder.emit(op, 0, a, b, pc);
+		builder.targetPc[builder.size - 1] = target;
+		builder.targetDepth[builder.size - 1] = builder.depth;
+		return true;
+	}
+
+	/**
+	 * Checks if an opcode can be translated.
+	 * @param opcode opcode of the stack-code
+	 * @return <code>true</code> if supported
+	 */
+	private static boolean isSupported(final int opcode) {
+		switch (opcode) {
+		case MethodCode.OPCODE_LINE:
+		case Opcodes.NOP:
+		case Opcodes.ICONST_M1:
+		case Opcodes.ICONST_0:
+		case Opcodes.ICONST_1:
+		case Opcodes.ICONST_2:
+		case Opcodes.ICONST_3:
+		case Opcodes.ICONST_4:
+		case Opcodes.ICONST_5:
+		case Opcodes.BIPUSH:
+		case Opcodes.SIPUSH:
+		case Opcodes.ILOAD:
+		case Opcodes.ISTORE:
+		case Opcodes.IINC:
+		case Opcodes.POP:
+		case Opcodes.DUP:
+		case Opcodes.IADD:
+		case Opcodes.ISUB:
+		case Opcodes.IMUL:
+		case Opcodes.IAND:
+		case Opcodes.IOR:
+		case Opcodes.IXOR:
+		case Opcodes.ISHL:
+		case Opcodes.ISHR:
+		case Opcodes.IUSHR:
+		case Opcodes.INEG:
+		case Opcodes.I2B:
+		case Opcodes.I2C:
+		case Opcodes.I2S:
+		case Opcodes.IRETURN:
+		case Opcodes.RETURN:
+			return true;
+		default:
+			return isJump(opcode);
+		}
+	}
+
+	/**
+	 * Checks if an opcode is a supported jump.
+	 * @param opcode opcode of the stack-code
+	 * @return <code>true</code> in case of IFxx, IF_ICMPxx or GOTO
+	 */
+	private static boolean isJump(final int opcode) {
+		return (opcode >= Opcodes.IFEQ && opcode <= Opcodes.IF_ICMPLE) || opcode == Opcodes.GOTO;
+	}
+
+	/**
+	 * Creates the registers of an execution. The int-arguments are read from the locals.
+	 * @param aLocals locals (references or kinds of primitive values)
+	 * @param aPrims primitive values of the locals
+	 * @return registers
+	 */
+	int[] createRegisters(final Object[] aLocals, final long[] aPrims) {
+		final int[] regs = new int[numRegs];
+		for (final int local : intArgLocals) {
+			final Object oLocal = aLocals[local];
+			regs[local] = (oLocal == SlotKind.INT) ? (int) aPrims[local] : SlotKind.unboxInt(oLocal);
+		}
+		System.arraycopy(constValues, 0, regs, constBase, constValues.length);
+		return regs;
+	}
+
+	/**
+	 * Executes the register-code.
+	 * @param regs registers
+	 * @param visitor execution-visitor (checked at backward-branches)
+	 * @return index of the executed return-instruction or -1 - index of the backward-branch
+	 * where the execution has been de-optimized
+	 */
+	int execute(final int[] regs, final JvmExecutionVisitor visitor) {
+		int ip = 0;
+		while (true) {
+			switch (ops[ip]) {
+			case MOV: regs[dst[ip]] = regs[src1[ip]]; break;
+			case ADD: regs[dst[ip]] = regs[src1[ip]] + regs[src2[ip]]; break;
+			case SUB: regs[dst[ip]] = regs[src1[ip]] - regs[src2[ip]]; break;
+			case MUL: regs[dst[ip]] = regs[src1[ip]] * regs[src2[ip]]; break;
+			case AND: regs[dst[ip]] = regs[src1[ip]] & regs[src2[ip]]; break;
+			case OR: regs[dst[ip]] = regs[src1[ip]] | regs[src2[ip]]; break;
+			case XOR: regs[dst[ip]] = regs[src1[ip]] ^ regs[src2[ip]]; break;
+			case SHL: regs[dst[ip]] = regs[src1[ip]] << regs[src2[ip]]; break;
+			case SHR: regs[dst[ip]] = regs[src1[ip]] >> regs[src2[ip]]; break;
+			case USHR: regs[dst[ip]] = regs[src1[ip]] >>> regs[src2[ip]]; break;
+			case NEG: regs[dst[ip]] = -regs[src1[ip]]; break;
+			case I2B: regs[dst[ip]] = (byte) regs[src1[ip]]; break;
+			case I2C: regs[dst[ip]] = (char) regs[src1[ip]]; break;
+			case I2S: regs[dst[ip]] = (short) regs[src1[ip]]; break;
+			case IF_EQ:
+			case IF_NE:
+			case IF_LT:
+			case IF_GE:
+			case IF_GT:
+			case IF_LE:
+				if (!compare(ops[ip], regs[src1[ip]], regs[src2[ip]])) {
+					break;
+				}
+				ip = branch(ip, visitor);
+				if (ip < 0) {
+					return ip;
+				}
+				continue;
+			case GOTO:
+				ip = branch(ip, visitor);
+				if (ip < 0) {
+					return ip;
+				}
+				continue;
+			case RET:
+			case RET_VOID:
+				return ip;
+			default:
+				throw new JvmException(String.format("Unexpected operation %d in register-code", Integer.valueOf(ops[ip])));
+			}
+			ip++;
+		}
+	}
+
+	/**
+	 * Gets the target of a taken branch.
+	 * @param ip index of the branch-instruction
+	 * @param visitor execution-visitor (checked at backward-branches)
+	 * @return index of the target or -1 - ip if the execution has to be de-optimized at a backward-branch
+	 */
+	private int branch(final int ip, final JvmExecutionVisitor visitor) {
+		final int target = dst[ip];
+		if (target <= ip && (visitor.getInterestMask() & (JvmExecutionVisitor.INTEREST_INSTRUCTION | JvmExecutionVisitor.INTEREST_LINE)) != 0) {
+			return -1 - ip;
+		}
+		return target;
+	}
+
+	/**
+	 * Compares two int-values.
+	 * @param op IF_EQ, IF_NE, IF_LT, IF_GE, IF_GT or IF_LE
+	 * @param a first value
+	 * @param b second value
+	 * @return <code>true</code> if the branch is taken
+	 */
+	private static boolean compare(final int op, final int a, final int b) {
+		switch (op) {
+		case IF_EQ: return a == b;
+		case IF_NE: return a != b;
+		case IF_LT: return a < b;
+		case IF_GE: return a >= b;
+		case IF_GT: return a > b;
+		default: return a <= b;
+		}
+	}
+
+	/**
+	 * Gets the result of an executed return-instruction.
+	 * @param regs registers
+	 * @param ip index of the return-instruction
+	 * @return boxed int-value or <code>null</code> (void)
+	 */
+	Object getReturnValue(final int[] regs, final int ip) {
+		return (ops[ip] == RET) ? Integer.valueOf(regs[src1[ip]]) : null;
+	}
+
+	/**
+	 * Stores the registers into locals and operand-stack of the stack-code at a backward-branch.
+	 * @param regs registers
+	 * @param ip index of the backward-branch
+	 * @param aLocals locals (references or kinds of primitive values)
+	 * @param aPrims primitive values of the locals
+	 * @param stack operand-stack
+	 * @return program-counter of the jump-target in the stack-code
+	 */
+	int deoptimize(final int[] regs, final int ip, final Object[] aLocals, final long[] aPrims, final OperandStack stack) {
+		for (final int local : intLocals) {
+			aLocals[local] = SlotKind.INT;
+			aPrims[local] = regs[local];
+		}
+		final int depth = targetDepth[ip];
+		for (int i = 0; i < depth; i++) {
+			stack.pushInt(regs[stackBase + i]);
+		}
+		return targetPc[ip];
+	}
+}
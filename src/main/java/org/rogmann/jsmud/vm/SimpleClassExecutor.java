@@ -5,21 +5,40 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.Type;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 /**
  * Simple class for executing methods in .class-files.
+ *
+ * <p>The parsed class and the decoded instructions of its methods are immutable,
+ * so an executor is shared by all threads of a class-registry.
+ * The execution-plans contain mutable state used for optimizations only: invocation- and call-counters
+ * (not synchronized), quickened opcodes, compiled code and de-simulation-decisions (volatile).
+ * A method is executed using the execution-visitor of the current thread.</p>
  */
 public class SimpleClassExecutor {
+	/** prefixes of classes whose methods are simulated by the invocation-handler or the thread-patching */
+	private static final String[] PREFIXES_SPECIAL_OWNERS = {
+			"java/lang/Class", "java/lang/ClassLoader", "java/lang/Thread", "java/lang/System",
+			"java/lang/invoke/", "java/lang/reflect/", "java/security/AccessController"
+	};
+
 	/** class-registry */
 	private final ClassRegistry fRegistry;
 
@@ -33,12 +52,12 @@ public class SimpleClassExecutor {
 	private final ClassNode fNode;
 	/** methods by name */
 	private final Map<String, List<MethodNode>> fMethods;
-	
-	/** map from method-descriptor to method-args */
-	private final Map<String, Type[]> fMethodArgs;
-	
-	/** visitor */
-	private final JvmExecutionVisitor fVisitor;
+
+	/** execution-plans by method-name and method-descriptor */
+	private final ConcurrentMap<String, ConcurrentMap<String, MethodExecutionPlan>> fPlans;
+
+	/** resolved type-references of the methods */
+	private final TypeReferenceTable fTypeRefs = new TypeReferenceTable();
 
 	/** invocation-handler */
 	private final JvmInvocationHandler fInvocationHandler;
@@ -58,7 +77,7 @@ public class SimpleClassExecutor {
 		fNode = new ClassNode();
 		fReader.accept(fNode, 0);
 		fMethods = new HashMap<>(fNode.methods.size());
-		fMethodArgs = new HashMap<>(fNode.methods.size());
+		fPlans = new ConcurrentHashMap<>(fNode.methods.size());
 		for (MethodNode method : fNode.methods) {
 			List<MethodNode> methodsByName = fMethods.get(method.name);
 			if (methodsByName == null) {
@@ -66,9 +85,7 @@ public class SimpleClassExecutor {
 				fMethods.put(method.name, methodsByName);
 			}
 			methodsByName.add(method);
-			fMethodArgs.put(method.desc, Type.getArgumentTypes(method.desc));
 		}
-		fVisitor = registry.getCurrentVisitor();
 		fInvocationHandler = invocationHandler;
 	}
 
@@ -120,28 +137,19 @@ public class SimpleClassExecutor {
 	 */
 	public Object executeMethod(final int invokeOpcode,
 			final Executable pMethod, final String methodDesc, OperandStack args) throws Throwable {
-		String methodName = (pMethod instanceof Constructor<?>) ? "<init>" : pMethod.getName();
-		MethodNode method;
-		try {
-			method = loopkupMethod(methodName, methodDesc);
-		} catch (NoSuchMethodError e) {
-			if (JsmudClassLoader.METHOD_JSMUD_CLINIT.equals(methodName)) {
-				methodName = "<clinit>";
-				method = loopkupMethod(methodName, methodDesc);
-			}
-			else {
-				throw e;
-			}
-		}
-
-		final Type[] argsDefs = fMethodArgs.get(methodDesc);
-		final MethodFrame frame = new MethodFrame(fRegistry, pMethod, method, argsDefs, fVisitor, fInvocationHandler);
+		final FrameArena arena = fRegistry.getFrameArena();
+		final MethodFrame frame = createFrame(pMethod, methodDesc, arena);
 		final Thread thread = Thread.currentThread();
 		final Object methodReturnObj;
 		try {
 			fRegistry.pushMethodFrame(thread, frame);
 			try {
-				methodReturnObj = frame.execute(args);
+				if (fRegistry.isTrampolineInterpreter()) {
+					methodReturnObj = FrameTrampoline.execute(fRegistry, frame, args);
+				}
+				else {
+					methodReturnObj = frame.execute(args);
+				}
 			} catch (JvmUncaughtException e) {
 				final StackTraceElement ste = new StackTraceElement(frame.clazz.getName(),
 						pMethod.getName(), "", frame.getCurrLineNum());
@@ -151,11 +159,170 @@ public class SimpleClassExecutor {
 		}
 		finally {
 			fRegistry.popMethodFrame(thread);
+			if (arena != null) {
+				// The frame isn't referenced by the debugger any more.
+				frame.release(arena);
+			}
 		}
 
 		return methodReturnObj;
 	}
 
+	/**
+	 * Creates the frame of a method to be executed.
+	 * @param pMethod method or constructor
+	 * @param methodDesc descriptor of the method
+	 * @return method-frame (not yet entered)
+	 * @throws JvmException in case of a native method
+	 */
+	MethodFrame createFrame(final Executable pMethod, final String methodDesc) {
+		return createFrame(pMethod, methodDesc, fRegistry.getFrameArena());
+	}
+
+	/**
+	 * Creates the frame of a method to be executed.
+	 * @param pMethod method or constructor
+	 * @param methodDesc descriptor of the method
+	 * @param arena frame-arena of the current thread or <code>null</code>
+	 * @return method-frame (not yet entered)
+	 * @throws JvmException in case of a native method
+	 */
+	private MethodFrame createFrame(final Executable pMethod, final String methodDesc, final FrameArena arena) {
+		final String methodName = (pMethod instanceof Constructor<?>) ? "<init>" : pMethod.getName();
+		final MethodExecutionPlan plan = getExecutionPlan(methodName, methodDesc);
+		if (plan.isNative()) {
+			throw new JvmException(String.format("Native method (%s%s) in (%s) can't be simulated",
+					methodName, methodDesc, fClass.getName()));
+		}
+		return new MethodFrame(fRegistry, pMethod, plan, fRegistry.getCurrentVisitor(), fInvocationHandler, arena);
+	}
+
+	/**
+	 * Checks if a hot method should be executed by the underlying JVM instead of being simulated.
+	 * This is the case if the method is a leaf (see {@link #isLeafMethod(MethodNode)})
+	 * and no event-request of the visitor could match it.
+	 * The decision is checked again after a change of the event-requests.
+	 * @param pMethod method to be called
+	 * @param methodDesc descriptor of the method
+	 * @param visitor execution-visitor of the current thread
+	 * @return <code>true</code> if the method should be executed by the underlying JVM
+	 */
+	boolean isDesimulated(final Executable pMethod, final String methodDesc, final JvmExecutionVisitor visitor) {
+		final int desimulationThreshold = fRegistry.getDesimulationThreshold();
+		if (desimulationThreshold == 0 || !(pMethod instanceof Method)) {
+			return false;
+		}
+		final MethodExecutionPlan plan = getExecutionPlan(pMethod.getName(), methodDesc);
+		if (!plan.countCall(desimulationThreshold)) {
+			return false;
+		}
+		final int generation = fRegistry.getEventRequestGeneration();
+		final Boolean isDesimulatedPlan = plan.getDesimulation(generation);
+		if (isDesimulatedPlan != null) {
+			return isDesimulatedPlan.booleanValue();
+		}
+		final boolean isDesimulated = !plan.isNative() && isLeafMethod(plan.getMethodNode())
+				&& !visitor.isMethodObserved(pMethod);
+		plan.setDesimulation(generation, isDesimulated);
+		return isDesimulated;
+	}
+
+	/**
+	 * Checks if a method is a leaf: it doesn't call simulated methods (which could match an event-request),
+	 * doesn't call methods simulated by the invocation-handler (e.g. reflection),
+	 * doesn't use monitors and doesn't access static fields of other simulated classes.
+	 * Virtual calls are accepted in final classes only.
+	 * @param method method
+	 * @return <code>true</code> if the method may be executed by the underlying JVM
+	 */
+	private boolean isLeafMethod(final MethodNode method) {
+		if ((method.access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+			return false;
+		}
+		for (final AbstractInsnNode instr : method.instructions) {
+			final int opcode = instr.getOpcode();
+			if (opcode == Opcodes.MONITORENTER || opcode == Opcodes.MONITOREXIT || opcode == Opcodes.INVOKEDYNAMIC) {
+				return false;
+			}
+			if (instr instanceof MethodInsnNode) {
+				final boolean isVirtual = (opcode == Opcodes.INVOKEVIRTUAL || opcode == Opcodes.INVOKEINTERFACE);
+				if (!isNativeOwner(((MethodInsnNode) instr).owner, isVirtual)) {
+					return false;
+				}
+			}
+			else if (opcode == Opcodes.GETSTATIC || opcode == Opcodes.PUTSTATIC) {
+				final String owner = ((FieldInsnNode) instr).owner;
+				if (!owner.equals(fNode.name) && !isNativeOwner(owner, false)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the members of a class are executed by the underlying JVM.
+	 * @param owner internal name of the class
+	 * @param isVirtual <code>true</code> in case of a virtual call (a sub-class could be simulated)
+	 * @return <code>true</code> if the class isn't simulated
+	 */
+	private boolean isNativeOwner(final String owner, final boolean isVirtual) {
+		if (owner.charAt(0) == '[') {
+			// e.g. clone() of an array
+			return true;
+		}
+		for (final String prefix : PREFIXES_SPECIAL_OWNERS) {
+			if (owner.startsWith(prefix)) {
+				return false;
+			}
+		}
+		final Class<?> classOwner;
+		try {
+			classOwner = Class.forName(owner.replace('/', '.'), false, fClassLoader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+		if (MockMethods.class.equals(classOwner) || fRegistry.isClassToBeSimulated(classOwner)) {
+			return false;
+		}
+		return !isVirtual || Modifier.isFinal(classOwner.getModifiers());
+	}
+
+	/**
+	 * Gets the execution-plan of a method.
+	 * The plan is computed at the first execution of the method.
+	 * @param methodName name of the method
+	 * @param methodDesc descriptor of the method
+	 * @return execution-plan
+	 * @throws NoSuchMethodError in case of an unknown method
+	 */
+	public MethodExecutionPlan getExecutionPlan(final String methodName, final String methodDesc) throws NoSuchMethodError {
+		ConcurrentMap<String, MethodExecutionPlan> mapPlans = fPlans.get(methodName);
+		if (mapPlans == null) {
+			mapPlans = fPlans.computeIfAbsent(methodName, name -> new ConcurrentHashMap<>(2));
+		}
+		MethodExecutionPlan plan = mapPlans.get(methodDesc);
+		if (plan == null) {
+			MethodNode method;
+			try {
+				method = loopkupMethod(methodName, methodDesc);
+			} catch (NoSuchMethodError e) {
+				if (JsmudClassLoader.METHOD_JSMUD_CLINIT.equals(methodName)) {
+					method = loopkupMethod("<clinit>", methodDesc);
+				}
+				else {
+					throw e;
+				}
+			}
+			plan = new MethodExecutionPlan(method, methodDesc, fTypeRefs, fRegistry.isRegisterTier());
+			final MethodExecutionPlan planPrev = mapPlans.putIfAbsent(methodDesc, plan);
+			if (planPrev != null) {
+				plan = planPrev;
+			}
+		}
+		return plan;
+	}
+
 	/**
 	 * Gets the class-node.
 	 * @return class-node
@@ -165,11 +332,11 @@ public class SimpleClassExecutor {
 	}
 
 	/**
-	 * Gets the execution-visitor of the executor.
+	 * Gets the execution-visitor of the current thread.
 	 * @return visitor
 	 */
 	public JvmExecutionVisitor getVisitor() {
-		return fVisitor;
+		return fRegistry.getCurrentVisitor();
 	}
 
 	/**
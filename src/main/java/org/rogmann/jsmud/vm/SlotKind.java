@@ -0,0 +1,99 @@
+package org.rogmann.jsmud.vm;
+
+/**
+ * Kind of a primitive value stored in a slot of the operand-stack or of the locals.
+ *
+ * <p>A slot contains either a reference or one of these kinds. In the latter case
+ * the value is stored in a parallel <code>long</code>-array, floats and doubles
+ * as raw bits. So primitive values don't have to be boxed while executing a method.</p>
+ */
+enum SlotKind {
+	/** int-value (boolean, byte, char, short and int) */
+	INT {
+		@Override
+		Object box(final long value) {
+			return Integer.valueOf((int) value);
+		}
+	},
+	/** long-value */
+	LONG {
+		@Override
+		Object box(final long value) {
+			return Long.valueOf(value);
+		}
+	},
+	/** float-value */
+	FLOAT {
+		@Override
+		Object box(final long value) {
+			return Float.valueOf(Float.intBitsToFloat((int) value));
+		}
+	},
+	/** double-value */
+	DOUBLE {
+		@Override
+		Object box(final long value) {
+			return Double.valueOf(Double.longBitsToDouble(value));
+		}
+	};
+
+	/**
+	 * Boxes a primitive value of this kind.
+	 * @param value primitive value
+	 * @return boxed value
+	 */
+	abstract Object box(long value);
+
+	/**
+	 * Boxes the values of all primitive slots in an array.
+	 * @param aRefs slots
+	 * @param aPrims primitive values of the slots
+	 * @param len number of slots to be boxed
+	 */
+	static void boxSlots(final Object[] aRefs, final long[] aPrims, final int len) {
+		for (int i = 0; i < len; i++) {
+			final Object o = aRefs[i];
+			if (o instanceof SlotKind) {
+				aRefs[i] = ((SlotKind) o).box(aPrims[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets an int-value of a boxed value.
+	 * Boolean-, char-, byte- or short-values (e.g. given by an invocation-handler) are accepted, too.
+	 * @param oValue boxed value
+	 * @return int-value
+	 */
+	static int unboxInt(final Object oValue) {
+		final int v;
+		if (oValue instanceof Integer) {
+			v = ((Integer) oValue).intValue();
+		}
+		else if (oValue instanceof Boolean) {
+			v = ((Boolean) oValue).booleanValue() ? 1 : 0;
+		}
+		else if (oValue instanceof Character) {
+			v = ((Character) oValue).charValue();
+		}
+		else if (oValue instanceof Byte || oValue instanceof Short) {
+			v = ((Number) oValue).intValue();
+		}
+		else if (oValue == null) {
+			throw new JvmException("Unexpected null (expected int-value)");
+		}
+		else {
+			throw new JvmException("Unexpected type " + oValue.getClass());
+		}
+		return v;
+	}
+
+	/**
+	 * Checks if a slot contains a value of category 2 (long or double).
+	 * @param o reference or kind of the slot
+	 * @return <code>true</code> in case of long or double
+	 */
+	static boolean isCategory2(final Object o) {
+		return o == LONG || o == DOUBLE || o instanceof Long || o instanceof Double;
+	}
+}
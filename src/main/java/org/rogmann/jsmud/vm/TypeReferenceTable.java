@@ -0,0 +1,123 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.asm.Type;
+
+/**
+ * Table of resolved type-references of a class, similar to the resolved constant-pool of a JVM.
+ *
+ * <p>The type-instructions (NEW, CHECKCAST, INSTANCEOF, ANEWARRAY, MULTIANEWARRAY and LDC of a class-constant)
+ * get a slot while decoding a method. A slot is resolved at its first execution and reused afterwards.
+ * A table belongs to the executor of a class, so all types are resolved in the context of the same class.</p>
+ * <p>A slot of a redefined class is resolved again, see {@link ClassRegistry#getRedefinitionCount()}.</p>
+ */
+final class TypeReferenceTable {
+
+	/** map from type-descriptor to slot */
+	private final Map<String, Integer> mapSlots = new HashMap<>();
+
+	/** types of the slots */
+	private Type[] types = new Type[8];
+
+	/** resolved types by slot (an element is <code>null</code> if the slot hasn't been resolved yet) */
+	private volatile Resolved[] aResolved = new Resolved[8];
+
+	/**
+	 * Resolved type-reference.
+	 */
+	static final class Resolved {
+		/** resolved class */
+		final Class<?> classResolved;
+		/** redefinition-count of the registry while resolving the type */
+		final int redefinitionCount;
+		/** <code>true</code> if the resolved class is initialized completely (used by NEW) */
+		volatile boolean isClassInitialized;
+
+		/**
+		 * Constructor
+		 * @param classResolved resolved class
+		 * @param redefinitionCount redefinition-count
+		 */
+		Resolved(final Class<?> classResolved, final int redefinitionCount) {
+			this.classResolved = classResolved;
+			this.redefinitionCount = redefinitionCount;
+		}
+	}
+
+	/**
+	 * Gets the slot of a type, a new slot is added if necessary.
+	 * @param type object-, array- or primitive-type
+	 * @return slot
+	 */
+	synchronized int getSlot(final Type type) {
+		final String desc = type.getDescriptor();
+		final Integer slot = mapSlots.get(desc);
+		if (slot != null) {
+			return slot.intValue();
+		}
+		final int slotNew = mapSlots.size();
+		if (slotNew == types.length) {
+			types = Arrays.copyOf(types, 2 * slotNew);
+			aResolved = Arrays.copyOf(aResolved, 2 * slotNew);
+		}
+		types[slotNew] = type;
+		mapSlots.put(desc, Integer.valueOf(slotNew));
+		return slotNew;
+	}
+
+	/**
+	 * Gets the resolved type of a slot, the type is resolved at the first call.
+	 * @param slot slot
+	 * @param registry class-registry
+	 * @param ctxClass context-class
+	 * @return resolved type
+	 * @throws ClassNotFoundException if a class can't be found
+	 */
+	Resolved resolve(final int slot, final ClassRegistry registry, final Class<?> ctxClass) throws ClassNotFoundException {
+		final int redefinitionCount = registry.getRedefinitionCount();
+		final Resolved[] aResolvedCurr = aResolved;
+		final Resolved resolved = aResolvedCurr[slot];
+		if (resolved != null && resolved.redefinitionCount == redefinitionCount) {
+			return resolved;
+		}
+		final Type type;
+		synchronized (this) {
+			type = types[slot];
+		}
+		final Resolved resolvedNew = new Resolved(resolveType(type, registry, ctxClass), redefinitionCount);
+		synchronized (this) {
+			// A concurrent resolution stores the same class.
+			aResolved[slot] = resolvedNew;
+		}
+		return resolvedNew;
+	}
+
+	/**
+	 * Resolves a type.
+	 * @param type object-, array- or primitive-type
+	 * @param registry class-registry
+	 * @param ctxClass context-class
+	 * @return class
+	 * @throws ClassNotFoundException if a class can't be found
+	 */
+	private static Class<?> resolveType(final Type type, final ClassRegistry registry, final Class<?> ctxClass) throws ClassNotFoundException {
+		final int sort = type.getSort();
+		final Class<?> classResolved;
+		if (sort == Type.OBJECT) {
+			classResolved = registry.loadClass(type.getClassName(), ctxClass);
+		}
+		else if (sort == Type.ARRAY) {
+			final Class<?> elClass = MethodFrame.getClassArrayViaType(type, registry, ctxClass);
+			classResolved = Array.newInstance(elClass, new int[type.getDimensions()]).getClass();
+		}
+		else {
+			// primitive component-type of MULTIANEWARRAY (the element-type of a primitive type isn't defined in ASM).
+			classResolved = MethodFrame.getClassArrayViaType(Type.getType('[' + type.getDescriptor()), registry, ctxClass);
+		}
+		return classResolved;
+	}
+}
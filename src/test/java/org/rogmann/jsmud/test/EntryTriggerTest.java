@@ -0,0 +1,120 @@
+package org.rogmann.jsmud.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.rogmann.jsmud.vm.EntryTrigger;
+import org.rogmann.jsmud.vm.JsmudClassLoader;
+import org.rogmann.jsmud.vm.JsmudConfiguration;
+import org.rogmann.jsmud.vm.JvmExecutionVisitorProvider;
+import org.rogmann.jsmud.vm.JvmHelper;
+import org.rogmann.jsmud.vm.MethodFrame;
+import org.rogmann.jsmud.visitors.ExecutionVisitorDelegation;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the entry-trigger-mode (see {@link EntryTrigger}).
+ */
+@SuppressWarnings("static-method")
+class EntryTriggerTest {
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.PARAMETER })
+	public @interface Route {
+		String value();
+	}
+
+	public static class Handler {
+		private final String prefix;
+
+		private int counter;
+
+		public Handler(final String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Route("/handle")
+		public String handle(@Route("count") final int count, final boolean isUpper) {
+			final String text = prefix + twice(count);
+			return isUpper ? text.toUpperCase() : text;
+		}
+
+		public static long square(final long value) {
+			if (value < 0) {
+				throw new IllegalArgumentException("negative: " + value);
+			}
+			return value * value;
+		}
+
+		public synchronized int next() {
+			return ++counter;
+		}
+
+		private static int twice(final int value) {
+			return 2 * value;
+		}
+	}
+
+	@Test
+	void testEntryMethods() throws Exception {
+		final String key = JsmudConfiguration.KEY_PREFIX + "EntryMethods";
+		System.setProperty(key, ".*[$]Handler#(handle|square|next)");
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final AtomicInteger numMethodEnter = new AtomicInteger();
+		final InstructionVisitorProvider vp = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		vp.setShowOutput(false);
+		final JvmExecutionVisitorProvider visitorProvider = (vm, thread, parent) -> new ExecutionVisitorDelegation(vp.create(vm, thread, parent)) {
+			@Override
+			public void visitMethodEnter(final Class<?> currClass, final Executable method, final MethodFrame frame) {
+				numMethodEnter.incrementAndGet();
+				super.visitMethodEnter(currClass, method, frame);
+			}
+		};
+		final String nameHandler = Handler.class.getName();
+		final JsmudClassLoader classLoader = JvmHelper.createEntryTriggerClassLoader(getClass().getClassLoader(), config,
+				nameHandler::equals, JvmHelper.createNonJavaExecutionFilter(), visitorProvider);
+		final Class<?> classHandler = classLoader.loadClass(nameHandler);
+		Assertions.assertNotEquals(Handler.class, classHandler);
+
+		// The constructor runs natively, handle and twice are simulated.
+		final Object handler = classHandler.getConstructor(String.class).newInstance("n=");
+		final Method methodHandle = classHandler.getMethod("handle", int.class, boolean.class);
+		Assertions.assertEquals("N=42", methodHandle.invoke(handler, Integer.valueOf(21), Boolean.TRUE));
+		Assertions.assertEquals(2, numMethodEnter.get());
+
+		final Method methodSquare = classHandler.getMethod("square", long.class);
+		Assertions.assertEquals(Long.valueOf(1L << 40), methodSquare.invoke(null, Long.valueOf(1L << 20)));
+		final InvocationTargetException e = Assertions.assertThrows(InvocationTargetException.class,
+				() -> methodSquare.invoke(null, Long.valueOf(-1)));
+		Assertions.assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+		Assertions.assertEquals(4, numMethodEnter.get());
+
+		// The stub keeps annotations and the synchronized-modifier of the entry-method.
+		final Route route = methodHandle.getAnnotation(Route.class);
+		Assertions.assertNotNull(route, "annotation of handle");
+		Assertions.assertEquals("/handle", route.value());
+		Assertions.assertEquals("count", ((Route) methodHandle.getParameterAnnotations()[0][0]).value());
+		final Method methodNext = classHandler.getMethod("next");
+		Assertions.assertTrue(Modifier.isSynchronized(methodNext.getModifiers()), "synchronized next");
+		Assertions.assertEquals(Integer.valueOf(1), methodNext.invoke(handler));
+		Assertions.assertEquals(5, numMethodEnter.get());
+	}
+}
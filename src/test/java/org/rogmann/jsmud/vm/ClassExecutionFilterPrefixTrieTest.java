@@ -0,0 +1,44 @@
+package org.rogmann.jsmud.vm;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit-tests of {@link ClassExecutionFilterPrefixTrie}.
+ */
+@SuppressWarnings("static-method")
+class ClassExecutionFilterPrefixTrieTest {
+
+	@Test
+	void testLongestPrefix() {
+		final ClassExecutionFilterPrefixTrie filter = new ClassExecutionFilterPrefixTrie(true,
+				Arrays.asList("java.util.", "com.sun.net."),
+				Arrays.asList("java.", "jdk.internal.", "com.sun.", "sun."));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("org.example.Test"));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("java.util.ArrayList"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("java.utility.Test"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("java.lang.String"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("sun.misc.Unsafe"));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("com.sun.net.httpserver.HttpServer"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("com.sun.proxy.$Proxy1"));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("sunny.Test"));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("j"));
+		Assertions.assertTrue(filter.isClassToBeSimulated(Test.class));
+		Assertions.assertFalse(filter.isClassToBeSimulated(String.class));
+	}
+
+	@Test
+	void testDefaultAndConflict() {
+		final ClassExecutionFilterPrefixTrie filter = new ClassExecutionFilterPrefixTrie(false,
+				Arrays.asList("org.example.", "org.example.internal."),
+				Collections.singletonList("org.example.internal."));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("java.lang.String"));
+		Assertions.assertTrue(filter.isClassNameToBeSimulated("org.example.Test"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated("org.example.internal.Test"));
+		Assertions.assertFalse(filter.isClassNameToBeSimulated(""));
+	}
+
+}
@@ -0,0 +1,227 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.rogmann.jsmud.visitors.ExecutionVisitorDelegation;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of {@link CompiledCode}.
+ */
+@SuppressWarnings("static-method")
+class CompiledCodeTest {
+
+	/** number of visited lines before the visitor gets interested in instructions */
+	private static final int LINES_BEFORE_DEOPT = 8;
+
+	static int sumOfMultiples(final int n) {
+		int sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += 3 * i;
+		}
+		return sum;
+	}
+
+	static int gcd(int a, int b) {
+		while (a != b) {
+			if (a > b) {
+				a -= b;
+			}
+			else {
+				b -= a;
+			}
+		}
+		return a;
+	}
+
+	static int narrow(final int x, final short y) {
+		final byte b = (byte) (x * 37);
+		return (b << 8) - (char) y + (short) (x ^ -y);
+	}
+
+	static int remainder(final int x) {
+		return x % 7;
+	}
+
+	@Test
+	void testExecution() throws Throwable {
+		for (int n = 0; n < 20; n++) {
+			Assertions.assertEquals(Integer.valueOf(sumOfMultiples(n)), execute("sumOfMultiples", 0, n), "sumOfMultiples(" + n + ")");
+			Assertions.assertEquals(Integer.valueOf(gcd(12 * (n + 1), 18)), execute("gcd", 0, 12 * (n + 1), 18), "gcd(" + n + ")");
+		}
+		Assertions.assertEquals(Integer.valueOf(narrow(1234, (short) -5)), execute("narrow", 0, 1234, -5));
+		Assertions.assertNull(compile("remainder"), "IREM isn't supported");
+	}
+
+	@Test
+	void testDeoptimization() throws Throwable {
+		final MethodNode method = lookupMethod("sumOfMultiples");
+		final CompiledCode compiledCode = compile("sumOfMultiples");
+		Assertions.assertNotNull(compiledCode);
+		final Object[] aLocals = new Object[method.maxLocals];
+		final long[] aPrims = new long[method.maxLocals];
+		aLocals[0] = SlotKind.INT;
+		aPrims[0] = 10;
+		final int[] state = compiledCode.createState(aLocals, aPrims);
+		compiledCode.execute(state, createVisitor(JvmExecutionVisitor.INTEREST_INSTRUCTION), null);
+		Assertions.assertEquals(0, compiledCode.getDeoptPc(state), "safe-point at the first line");
+		compiledCode.deoptimize(state, aLocals, aPrims);
+		Assertions.assertEquals(SlotKind.INT, aLocals[0]);
+		Assertions.assertEquals(10, aPrims[0]);
+	}
+
+	/**
+	 * Executes a compiled method via the execution-plan. The visitor traces lines
+	 * and gets interested in instructions inside the loop, so the interpreter continues the frame.
+	 * @throws Throwable in case of an error
+	 */
+	@Test
+	void testDeoptimizationInLoop() throws Throwable {
+		final List<Integer> linesInterpreted = new ArrayList<>();
+		Assertions.assertEquals(Integer.valueOf(sumOfMultiples(20)),
+				executeTraced(0, Integer.MAX_VALUE, linesInterpreted, new AtomicReference<>(), new AtomicReference<>()));
+
+		final List<Integer> lines = new ArrayList<>();
+		final AtomicReference<MethodFrame> refFrame = new AtomicReference<>();
+		final AtomicReference<AbstractInsnNode> refFirstInstr = new AtomicReference<>();
+		Assertions.assertEquals(Integer.valueOf(sumOfMultiples(20)),
+				executeTraced(1, LINES_BEFORE_DEOPT, lines, refFrame, refFirstInstr));
+		Assertions.assertNotNull(refFrame.get().getExecutionPlan().getCompiledCode(), "compiled at the first invocation");
+		Assertions.assertEquals(linesInterpreted, lines, "line-trace of compiled code and interpreter");
+		Assertions.assertNotNull(refFirstInstr.get(), "de-optimized");
+		final int asmIdxDeopt = refFrame.get().getMethodNode().instructions.indexOf(refFirstInstr.get());
+		Assertions.assertTrue(asmIdxDeopt > 0, "continued at the safe-point: " + asmIdxDeopt);
+	}
+
+	/**
+	 * Executes sumOfMultiples(20) in the simulator using a line-tracing visitor.
+	 * @param compilationThreshold compilation-threshold
+	 * @param linesBeforeDeopt number of visited lines before the visitor gets interested in instructions
+	 * @param lines list of visited lines
+	 * @param refFrame frame of the method
+	 * @param refFirstInstr first visited instruction
+	 * @return result
+	 * @throws Throwable in case of an error
+	 */
+	private static Object executeTraced(final int compilationThreshold, final int linesBeforeDeopt, final List<Integer> lines,
+			final AtomicReference<MethodFrame> refFrame, final AtomicReference<AbstractInsnNode> refFirstInstr) throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "CompilationThreshold";
+		System.setProperty(key, Integer.toString(compilationThreshold));
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final AtomicInteger interestMask = new AtomicInteger(JvmExecutionVisitor.INTEREST_LINE);
+		final InstructionVisitorProvider vp = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		vp.setShowOutput(false);
+		final JvmExecutionVisitorProvider visitorProvider = (vm, thread, parent) -> new ExecutionVisitorDelegation(vp.create(vm, thread, parent)) {
+			@Override
+			public int getInterestMask() {
+				return interestMask.get();
+			}
+
+			@Override
+			public void visitMethodEnter(final Class<?> currClass, final Executable method, final MethodFrame frame) {
+				refFrame.set(frame);
+				super.visitMethodEnter(currClass, method, frame);
+			}
+
+			@Override
+			public void visitLine(final MethodFrame frame, final int lineNumber) {
+				lines.add(Integer.valueOf(lineNumber));
+				if (lines.size() == linesBeforeDeopt) {
+					interestMask.set(JvmExecutionVisitor.INTEREST_LINE | JvmExecutionVisitor.INTEREST_INSTRUCTION);
+				}
+				super.visitLine(frame, lineNumber);
+			}
+
+			@Override
+			public void visitInstruction(final AbstractInsnNode instr, final OperandStack stack, final Object[] aLocals) {
+				refFirstInstr.compareAndSet(null, instr);
+				super.visitInstruction(instr, stack, aLocals);
+			}
+		};
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config,
+				CompiledCodeTest.class.getClassLoader(), visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, CompiledCodeTest.class, invocationHandler);
+			final Method method = CompiledCodeTest.class.getDeclaredMethod("sumOfMultiples", int.class);
+			final OperandStack stackArgs = new OperandStack(1);
+			stackArgs.pushInt(20);
+			return executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", stackArgs);
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+		}
+	}
+
+	private static Object execute(final String methodName, final int interestMask, final int... args) throws Throwable {
+		final MethodNode method = lookupMethod(methodName);
+		final CompiledCode compiledCode = compile(methodName);
+		Assertions.assertNotNull(compiledCode, methodName);
+		final Object[] aLocals = new Object[method.maxLocals];
+		final long[] aPrims = new long[method.maxLocals];
+		for (int i = 0; i < args.length; i++) {
+			aLocals[i] = SlotKind.INT;
+			aPrims[i] = args[i];
+		}
+		final int[] state = compiledCode.createState(aLocals, aPrims);
+		final int value = compiledCode.execute(state, createVisitor(interestMask), null);
+		Assertions.assertEquals(-1, compiledCode.getDeoptPc(state), "completed execution");
+		return compiledCode.getReturnValue(value);
+	}
+
+	private static JvmExecutionVisitor createVisitor(final int interestMask) {
+		return (JvmExecutionVisitor) Proxy.newProxyInstance(CompiledCodeTest.class.getClassLoader(),
+				new Class<?>[] { JvmExecutionVisitor.class },
+				(proxy, m, a) -> Integer.valueOf(interestMask));
+	}
+
+	private static CompiledCode compile(final String methodName) throws IOException {
+		final MethodNode method = lookupMethod(methodName);
+		final Type[] argDefs = Type.getArgumentTypes(method.desc);
+		final int[] argLocalIndices = new int[argDefs.length];
+		for (int i = 0; i < argDefs.length; i++) {
+			argLocalIndices[i] = i;
+		}
+		return CompiledCode.compile(method, MethodCode.decode(method), argDefs, argLocalIndices);
+	}
+
+	private static MethodNode lookupMethod(final String methodName) throws IOException {
+		final ClassNode classNode = new ClassNode();
+		try (final InputStream is = CompiledCodeTest.class.getResourceAsStream(CompiledCodeTest.class.getSimpleName() + ".class")) {
+			new ClassReader(is).accept(classNode, 0);
+		}
+		for (final MethodNode method : classNode.methods) {
+			if (method.name.equals(methodName)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+}
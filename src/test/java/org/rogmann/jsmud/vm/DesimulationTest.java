@@ -0,0 +1,112 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.rogmann.jsmud.visitors.ExecutionVisitorDelegation;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the de-simulation of hot methods (see configuration-property DesimulationThreshold).
+ */
+@SuppressWarnings("static-method")
+class DesimulationTest {
+
+	/** number of calls before a method may be de-simulated */
+	private static final int THRESHOLD = 3;
+
+	static int square(final int x) {
+		return x * x;
+	}
+
+	static int squarePlusOne(final int x) {
+		return square(x) + 1;
+	}
+
+	static int sumOfSquares(final int n) {
+		int sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += squarePlusOne(i);
+		}
+		return sum;
+	}
+
+	@Test
+	void testDesimulation() throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "DesimulationThreshold";
+		System.setProperty(key, Integer.toString(THRESHOLD));
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		// The visitor observes the methods having a "breakpoint" and counts the simulated method-entries.
+		final Set<String> observedMethods = ConcurrentHashMap.newKeySet();
+		final Map<String, AtomicInteger> mapEnters = new ConcurrentHashMap<>();
+		final InstructionVisitorProvider vp = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		vp.setShowOutput(false);
+		final JvmExecutionVisitorProvider visitorProvider = (vm, thread, parent) -> new ExecutionVisitorDelegation(vp.create(vm, thread, parent)) {
+			@Override
+			public boolean isMethodObserved(final Executable method) {
+				return observedMethods.contains(method.getName());
+			}
+
+			@Override
+			public void visitMethodEnter(final Class<?> currClass, final Executable method, final MethodFrame frame) {
+				mapEnters.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+				super.visitMethodEnter(currClass, method, frame);
+			}
+		};
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config,
+				DesimulationTest.class.getClassLoader(), visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, DesimulationTest.class, invocationHandler);
+			final Method method = DesimulationTest.class.getDeclaredMethod("sumOfSquares", int.class);
+
+			// The leaf square is executed natively after the threshold, squarePlusOne calls a simulated method.
+			Assertions.assertEquals(Integer.valueOf(sumOfSquares(10)), execute(executor, method, 10));
+			Assertions.assertEquals(10, getEnters(mapEnters, "squarePlusOne"), "non-leaf method is simulated");
+			Assertions.assertEquals(THRESHOLD, getEnters(mapEnters, "square"), "leaf method is simulated up to the threshold");
+
+			// The decision is kept until the event-requests change.
+			observedMethods.add("square");
+			Assertions.assertEquals(Integer.valueOf(sumOfSquares(10)), execute(executor, method, 10));
+			Assertions.assertEquals(THRESHOLD, getEnters(mapEnters, "square"), "de-simulated in the same generation");
+
+			// A matching breakpoint in a new generation of event-requests simulates the method again.
+			registry.invalidateDesimulation();
+			Assertions.assertEquals(Integer.valueOf(sumOfSquares(10)), execute(executor, method, 10));
+			Assertions.assertEquals(THRESHOLD + 10, getEnters(mapEnters, "square"), "simulated again");
+			Assertions.assertEquals(30, getEnters(mapEnters, "squarePlusOne"));
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+		}
+	}
+
+	private static Object execute(final SimpleClassExecutor executor, final Method method, final int arg) throws Throwable {
+		final OperandStack stackArgs = new OperandStack(1);
+		stackArgs.pushInt(arg);
+		return executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", stackArgs);
+	}
+
+	private static int getEnters(final Map<String, AtomicInteger> mapEnters, final String methodName) {
+		final AtomicInteger counter = mapEnters.get(methodName);
+		return (counter != null) ? counter.get() : 0;
+	}
+}
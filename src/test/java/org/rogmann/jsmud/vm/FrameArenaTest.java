@@ -0,0 +1,170 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.rogmann.jsmud.datatypes.VMFrameID;
+import org.rogmann.jsmud.replydata.RefFrameBean;
+import org.rogmann.jsmud.visitors.ExecutionVisitorDelegation;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the recycling of stacks and locals of method-frames (see {@link FrameArena}).
+ */
+@SuppressWarnings("static-method")
+class FrameArenaTest {
+
+	static int boxed(final int a) {
+		final Object o = Integer.valueOf(a);
+		final int b = a * 2;
+		return o.hashCode() + b;
+	}
+
+	/**
+	 * Details of the executions of the method boxed recorded by the visitor.
+	 */
+	static class Executions {
+		/** frames of the executions */
+		final List<MethodFrame> frames = new ArrayList<>();
+		/** frame-ids given to the debugger */
+		final List<VMFrameID> frameIds = new ArrayList<>();
+		/** local-arrays of the frames */
+		final List<Object[]> locals = new ArrayList<>();
+		/** locals at the first instruction */
+		final List<Object[]> localsAtStart = new ArrayList<>();
+		/** stack-sizes at the first instruction */
+		final List<Integer> stackSizesAtStart = new ArrayList<>();
+		/** locals at the last instruction */
+		final List<Object[]> localsAtEnd = new ArrayList<>();
+	}
+
+	@Test
+	void testFrameArena() throws Throwable {
+		final Executions executions = new Executions();
+		execute(true, executions, registry -> {
+			Assertions.assertNotNull(registry.getFrameArena());
+			for (int i = 0; i < 2; i++) {
+				final MethodFrame frame = executions.frames.get(i);
+				final VMFrameID frameId = executions.frameIds.get(i);
+				Assertions.assertNull(registry.getVMObject(frameId), "frame-id of a returned frame");
+				Assertions.assertNull(registry.getRefFrameBean(frame), "frame-reference of a returned frame");
+			}
+		});
+
+		// The second execution gets the recycled locals of the first one.
+		Assertions.assertTrue(executions.locals.get(0) == executions.locals.get(1), "recycled locals");
+		Assertions.assertEquals(Integer.valueOf(5), executions.localsAtEnd.get(0)[0]);
+		Assertions.assertNotNull(executions.localsAtEnd.get(0)[1], "local o of the first execution");
+		Assertions.assertEquals(Arrays.asList(Integer.valueOf(7), null, null),
+				Arrays.asList(executions.localsAtStart.get(1)), "clean recycled locals");
+		Assertions.assertEquals(Arrays.asList(Integer.valueOf(0), Integer.valueOf(0)), executions.stackSizesAtStart);
+	}
+
+	@Test
+	void testWithoutFrameArena() throws Throwable {
+		final Executions executions = new Executions();
+		execute(false, executions, registry -> Assertions.assertNull(registry.getFrameArena()));
+		Assertions.assertTrue(executions.locals.get(0) != executions.locals.get(1), "new locals");
+		Assertions.assertEquals(Arrays.asList(Integer.valueOf(7), null, null),
+				Arrays.asList(executions.localsAtStart.get(1)));
+	}
+
+	/**
+	 * Check of the registry after the executions.
+	 */
+	interface RegistryCheck {
+		/**
+		 * Checks the registry.
+		 * @param registry class-registry
+		 */
+		void check(ClassRegistry registry);
+	}
+
+	/**
+	 * Executes boxed(5) and boxed(7). The visitor gives the frames to the debugger-interface.
+	 * @param isFrameArena value of the configuration-property FrameArena
+	 * @param executions recorded executions
+	 * @param registryCheck check of the registry after the executions
+	 * @throws Throwable in case of an error
+	 */
+	private static void execute(final boolean isFrameArena, final Executions executions,
+			final RegistryCheck registryCheck) throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "FrameArena";
+		System.setProperty(key, Boolean.toString(isFrameArena));
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final InstructionVisitorProvider vp = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		vp.setShowOutput(false);
+		final JvmExecutionVisitorProvider visitorProvider = (vm, thread, parent) -> new ExecutionVisitorDelegation(vp.create(vm, thread, parent)) {
+			/** <code>true</code> before the first instruction of a frame */
+			private boolean isStart;
+
+			@Override
+			public int getInterestMask() {
+				return INTEREST_INSTRUCTION;
+			}
+
+			@Override
+			public void visitMethodEnter(final Class<?> currClass, final Executable method, final MethodFrame frame) {
+				executions.frames.add(frame);
+				isStart = true;
+				super.visitMethodEnter(currClass, method, frame);
+			}
+
+			@Override
+			public void visitInstruction(final AbstractInsnNode instr, final OperandStack stack, final Object[] aLocals) {
+				if (instr.getOpcode() < 0) {
+					return;
+				}
+				if (isStart) {
+					isStart = false;
+					final List<RefFrameBean> frames = vm.getThreadFrames(vm.getThreadId(Thread.currentThread()), 0, 1);
+					executions.frameIds.add(frames.get(0).getFrameId());
+					Assertions.assertTrue(vm.getVMObject(frames.get(0).getFrameId()) == executions.frames.get(executions.frames.size() - 1));
+					executions.locals.add(aLocals);
+					executions.localsAtStart.add(aLocals.clone());
+					executions.stackSizesAtStart.add(Integer.valueOf(stack.size()));
+				}
+				if (instr.getOpcode() == Opcodes.IRETURN) {
+					executions.localsAtEnd.add(aLocals.clone());
+				}
+				super.visitInstruction(instr, stack, aLocals);
+			}
+		};
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config,
+				FrameArenaTest.class.getClassLoader(), visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, FrameArenaTest.class, invocationHandler);
+			final Method method = FrameArenaTest.class.getDeclaredMethod("boxed", int.class);
+			for (final int arg : new int[] { 5, 7 }) {
+				final OperandStack stackArgs = new OperandStack(1);
+				stackArgs.pushInt(arg);
+				Assertions.assertEquals(Integer.valueOf(boxed(arg)),
+						executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", stackArgs));
+			}
+			Assertions.assertEquals(2, executions.frames.size());
+			registryCheck.check(registry);
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the trampoline-interpreter (see {@link FrameTrampoline}).
+ */
+@SuppressWarnings("static-method")
+class FrameTrampolineTest {
+
+	/** stack-size of the executing thread */
+	private static final long STACK_SIZE = 512 * 1024;
+
+	/** recursion-depth which exceeds the stack-size in recursive mode */
+	private static final int DEPTH = 20000;
+
+	/**
+	 * Action which may throw a throwable.
+	 */
+	interface SimulationAction {
+		/**
+		 * Executes the action.
+		 * @return result
+		 * @throws Throwable exception thrown while executing
+		 */
+		Object execute() throws Throwable;
+	}
+
+	static int depth(final int n) {
+		if (n == 0) {
+			return 0;
+		}
+		return depth(n - 1) + 1;
+	}
+
+	static int throwAt(final int n) {
+		if (n == 0) {
+			throw new IllegalStateException("bottom");
+		}
+		return throwAt(n - 1) + 1;
+	}
+
+	static int catchAt(final int n) {
+		final int marker = 3 * n;
+		try {
+			return throwAt(n);
+		}
+		catch (IllegalStateException e) {
+			return marker + e.getMessage().length();
+		}
+	}
+
+	@Test
+	void testDeepRecursion() throws Throwable {
+		Assertions.assertEquals(Integer.valueOf(DEPTH), execute(true, "depth", DEPTH));
+		final Throwable e = Assertions.assertThrows(Throwable.class, () -> execute(false, "depth", DEPTH));
+		Throwable cause = e;
+		while (!(cause instanceof StackOverflowError) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		Assertions.assertTrue(cause instanceof StackOverflowError, "stack-overflow in recursive mode: " + e);
+	}
+
+	@Test
+	void testCaughtException() throws Throwable {
+		Assertions.assertEquals(Integer.valueOf(catchAt(10)), execute(true, "catchAt", 10));
+		Assertions.assertEquals(Integer.valueOf(36), execute(true, "catchAt", 10));
+	}
+
+	@Test
+	void testUncaughtException() throws Throwable {
+		final JvmUncaughtException eTrampoline = Assertions.assertThrows(JvmUncaughtException.class,
+				() -> execute(true, "throwAt", 3));
+		final JvmUncaughtException eRecursive = Assertions.assertThrows(JvmUncaughtException.class,
+				() -> execute(false, "throwAt", 3));
+		Assertions.assertTrue(eTrampoline.getCause() instanceof IllegalStateException, "cause: " + eTrampoline.getCause());
+		final List<StackTraceElement> stTrampoline = eTrampoline.getSimStacktrace();
+		Assertions.assertEquals(4, stTrampoline.size(), "simulated frames: " + stTrampoline);
+		for (final StackTraceElement element : stTrampoline) {
+			Assertions.assertEquals(FrameTrampolineTest.class.getName(), element.getClassName());
+			Assertions.assertEquals("throwAt", element.getMethodName());
+		}
+		Assertions.assertEquals(eRecursive.getSimStacktrace(), stTrampoline);
+	}
+
+	/**
+	 * Executes a static method of this class in a thread with a small stack.
+	 * @param isTrampoline <code>true</code> to use the trampoline-interpreter
+	 * @param methodName name of the method
+	 * @param arg int-argument
+	 * @return return-value
+	 * @throws Throwable exception thrown while executing
+	 */
+	private static Object execute(final boolean isTrampoline, final String methodName, final int arg) throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "TrampolineInterpreter";
+		System.setProperty(key, Boolean.toString(isTrampoline));
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final Method method = FrameTrampolineTest.class.getDeclaredMethod(methodName, int.class);
+		return runWithSmallStack(() -> {
+			final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+			final PrintStream psOut = new PrintStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+					// The output isn't needed.
+				}
+			});
+			final InstructionVisitorProvider visitorProvider = new InstructionVisitorProvider(psOut, false, false, false, false);
+			final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+			final ClassRegistry registry = new ClassRegistry(filter, config,
+					FrameTrampolineTest.class.getClassLoader(), visitorProvider, invocationHandler);
+			registry.registerThread(Thread.currentThread());
+			try {
+				final SimpleClassExecutor executor = new SimpleClassExecutor(registry, FrameTrampolineTest.class, invocationHandler);
+				final OperandStack stackArgs = new OperandStack(1);
+				stackArgs.push(Integer.valueOf(arg));
+				return executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", stackArgs);
+			}
+			finally {
+				registry.unregisterThread(Thread.currentThread());
+			}
+		});
+	}
+
+	/**
+	 * Executes an action in a new thread with a stack-size of {@link #STACK_SIZE}.
+	 * @param action action
+	 * @return result of the action
+	 * @throws Throwable exception thrown by the action
+	 */
+	private static Object runWithSmallStack(final SimulationAction action) throws Throwable {
+		final AtomicReference<Object> refResult = new AtomicReference<>();
+		final AtomicReference<Throwable> refException = new AtomicReference<>();
+		final Thread thread = new Thread(null, () -> {
+			try {
+				refResult.set(action.execute());
+			}
+			catch (Throwable e) {
+				refException.set(e);
+			}
+		}, "FrameTrampolineTest", STACK_SIZE);
+		thread.start();
+		thread.join();
+		if (refException.get() != null) {
+			throw refException.get();
+		}
+		return refResult.get();
+	}
+}
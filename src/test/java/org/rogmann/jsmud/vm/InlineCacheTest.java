@@ -0,0 +1,161 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the inline-caches ({@link InvokeCache}, {@link FieldAccessCache},
+ * {@link TypeReferenceTable} and {@link CallSiteContext}) and their invalidation by a redefined class.
+ */
+@SuppressWarnings("static-method")
+class InlineCacheTest {
+
+	/**
+	 * Class to be redefined: the redefined method value returns 2.
+	 */
+	public static class Target {
+		/** static field */
+		public static int counter;
+
+		/**
+		 * Gets a value.
+		 * @return 1
+		 */
+		public static int value() {
+			return 1;
+		}
+	}
+
+	static int sumOfTarget() {
+		return Target.value() + Target.counter;
+	}
+
+	static Class<?> classOfTarget() {
+		return Target.class;
+	}
+
+	@Test
+	void testInvokeCacheTransitions() throws NoSuchMethodException {
+		final Method method = Object.class.getMethod("hashCode");
+		final InvokeCache cache = new InvokeCache(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, "java/lang/Object", "hashCode", "()I", false));
+		final Class<?>[] receiverClasses = { String.class, Integer.class, Long.class, Double.class, Float.class };
+		Assertions.assertEquals(InvokeCache.MAX_ENTRIES + 1, receiverClasses.length);
+
+		// monomorphic
+		cache.add(new InvokeCache.Entry(receiverClasses[0], receiverClasses[0], method, null, method, 0));
+		Assertions.assertNotNull(cache.lookup(receiverClasses[0], 0));
+		Assertions.assertNull(cache.lookup(receiverClasses[1], 0));
+
+		// polymorphic
+		for (int i = 1; i < InvokeCache.MAX_ENTRIES; i++) {
+			cache.add(new InvokeCache.Entry(receiverClasses[i], receiverClasses[i], method, null, method, 0));
+		}
+		for (int i = 0; i < InvokeCache.MAX_ENTRIES; i++) {
+			Assertions.assertNotNull(cache.lookup(receiverClasses[i], 0), "polymorphic: " + receiverClasses[i]);
+		}
+
+		// megamorphic
+		for (int i = 0; i < receiverClasses.length; i++) {
+			cache.add(new InvokeCache.Entry(receiverClasses[i], receiverClasses[i], method, null, method, 0));
+		}
+		for (final Class<?> receiverClass : receiverClasses) {
+			Assertions.assertNull(cache.lookup(receiverClass, 0), "megamorphic: " + receiverClass);
+		}
+
+		// A redefinition starts a new inline-cache.
+		cache.add(new InvokeCache.Entry(receiverClasses[0], receiverClasses[0], method, null, method, 1));
+		Assertions.assertNotNull(cache.lookup(receiverClasses[0], 1), "monomorphic after redefinition");
+		Assertions.assertNull(cache.lookup(receiverClasses[0], 0));
+	}
+
+	/**
+	 * Executes simulated methods using the inline-caches, redefines the class of the
+	 * cached method, field and type and executes the methods again.
+	 * @throws Throwable in case of an error
+	 */
+	@Test
+	void testRedefinition() throws Throwable {
+		final JsmudConfiguration config = new JsmudConfiguration();
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final JsmudClassLoader classLoader = new JsmudClassLoader(InlineCacheTest.class.getClassLoader(), config,
+				name -> false, false, false, true);
+		final InstructionVisitorProvider visitorProvider = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		visitorProvider.setShowOutput(false);
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config, classLoader, visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, InlineCacheTest.class, invocationHandler);
+			final CallSiteContext callSiteContext = new CallSiteContext(registry, InlineCacheTest.class,
+					new Handle(Opcodes.H_INVOKESTATIC, Type.getInternalName(Target.class), "value", "()I", false));
+			Target.counter = 10;
+			for (int i = 0; i < 2; i++) {
+				Assertions.assertEquals(Integer.valueOf(11), execute(executor, "sumOfTarget"));
+				Assertions.assertEquals(Target.class, execute(executor, "classOfTarget"));
+				Assertions.assertEquals(Integer.valueOf(1), callSiteContext.executeMethod(new Object[0]));
+			}
+
+			final int redefinitionCount = registry.getRedefinitionCount();
+			registry.redefineClass(null, Target.class, createRedefinedTarget());
+			Assertions.assertEquals(redefinitionCount + 1, registry.getRedefinitionCount());
+			final Class<?> classRedefined = registry.loadClass(Target.class.getName(), InlineCacheTest.class);
+			Assertions.assertNotEquals(Target.class, classRedefined);
+
+			// The caches resolve the redefined class: its method returns 2, its static field is 0.
+			Assertions.assertEquals(Integer.valueOf(2), execute(executor, "sumOfTarget"), "invoke- and field-cache");
+			Assertions.assertEquals(classRedefined, execute(executor, "classOfTarget"), "type-reference");
+			Assertions.assertEquals(Integer.valueOf(2), callSiteContext.executeMethod(new Object[0]), "call-site-target");
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+			Target.counter = 0;
+		}
+	}
+
+	private static Object execute(final SimpleClassExecutor executor, final String methodName) throws Throwable {
+		final Method method = InlineCacheTest.class.getDeclaredMethod(methodName);
+		return executor.executeMethod(Opcodes.INVOKESTATIC, method, Type.getMethodDescriptor(method), new OperandStack(0));
+	}
+
+	/**
+	 * Creates the bytecode of the class Target whose method value returns 2.
+	 * @return bytecode
+	 * @throws IOException in case of an IO-error
+	 */
+	private static byte[] createRedefinedTarget() throws IOException {
+		final ClassNode classNode = new ClassNode();
+		try (final InputStream is = Target.class.getResourceAsStream(InlineCacheTest.class.getSimpleName() + "$Target.class")) {
+			new ClassReader(is).accept(classNode, 0);
+		}
+		for (final MethodNode method : classNode.methods) {
+			if ("value".equals(method.name)) {
+				for (final AbstractInsnNode instr : method.instructions.toArray()) {
+					if (instr.getOpcode() == Opcodes.ICONST_1) {
+						method.instructions.set(instr, new InsnNode(Opcodes.ICONST_2));
+					}
+				}
+			}
+		}
+		final ClassWriter cw = new ClassWriter(0);
+		classNode.accept(cw);
+		return cw.toByteArray();
+	}
+}
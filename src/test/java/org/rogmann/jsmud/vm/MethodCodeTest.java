@@ -0,0 +1,92 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of {@link MethodCode}.
+ */
+@SuppressWarnings("static-method")
+class MethodCodeTest {
+
+	static int parse(final String text) {
+		final int len = text.length();
+		try {
+			return Integer.parseInt(text) + len;
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Test method for {@link MethodCode#findHandler(int, Class, ClassRegistry, Class)}.
+	 * @throws Exception in case of an error
+	 */
+	@Test
+	void testFindHandler() throws Exception {
+		final MethodCode code = MethodCode.decode(lookupMethod("parse"));
+		Assertions.assertEquals(1, code.tcbStart.length);
+		final int pcTry = code.tcbStart[0];
+		Assertions.assertTrue(pcTry > 0, "instructions before the try-block");
+
+		final List<String> loadedClasses = new ArrayList<>();
+		final boolean[] isClassMissing = { true };
+		final JsmudConfiguration config = new JsmudConfiguration();
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final InstructionVisitorProvider visitorProvider = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		final ClassRegistry registry = new ClassRegistry(filter, config, MethodCodeTest.class.getClassLoader(),
+				visitorProvider, new JvmInvocationHandlerReflection(filter, config)) {
+			@Override
+			public Class<?> loadClass(final String className, final Class<?> ctxClass) throws ClassNotFoundException {
+				loadedClasses.add(className);
+				if (isClassMissing[0]) {
+					throw new ClassNotFoundException(className);
+				}
+				return super.loadClass(className, ctxClass);
+			}
+		};
+
+		// The catch-type isn't loaded for an exception outside the try-block.
+		Assertions.assertEquals(-1, code.findHandler(0, NumberFormatException.class, registry, MethodCodeTest.class));
+		Assertions.assertTrue(loadedClasses.isEmpty(), "loaded: " + loadedClasses);
+
+		// An unknown catch-type is resolved again when the exception reaches the block once more.
+		Assertions.assertThrows(ClassNotFoundException.class,
+				() -> code.findHandler(pcTry, NumberFormatException.class, registry, MethodCodeTest.class));
+		isClassMissing[0] = false;
+		Assertions.assertEquals(code.tcbHandler[0], code.findHandler(pcTry, NumberFormatException.class, registry, MethodCodeTest.class));
+		Assertions.assertEquals(2, loadedClasses.size());
+
+		// The resolved match-states are cached.
+		Assertions.assertEquals(code.tcbHandler[0], code.findHandler(pcTry, NumberFormatException.class, registry, MethodCodeTest.class));
+		Assertions.assertEquals(-1, code.findHandler(pcTry, IllegalStateException.class, registry, MethodCodeTest.class));
+		Assertions.assertEquals(-1, code.findHandler(pcTry, IllegalStateException.class, registry, MethodCodeTest.class));
+		Assertions.assertEquals(3, loadedClasses.size());
+	}
+
+	private static MethodNode lookupMethod(final String methodName) throws IOException {
+		final ClassNode classNode = new ClassNode();
+		try (final InputStream is = MethodCodeTest.class.getResourceAsStream(MethodCodeTest.class.getSimpleName() + ".class")) {
+			new ClassReader(is).accept(classNode, 0);
+		}
+		for (final MethodNode method : classNode.methods) {
+			if (method.name.equals(methodName)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+}
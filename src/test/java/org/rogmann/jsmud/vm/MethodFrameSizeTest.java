@@ -0,0 +1,103 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Checks the bytecode-size of the interpreter-loop.
+ *
+ * <p>HotSpot doesn't compile methods larger than HugeMethodLimit (8000 bytes of bytecode).
+ * The dispatch-loop {@link MethodFrame#executeInstructions()} and the instruction-handlers
+ * have to stay below this limit.</p>
+ */
+@SuppressWarnings("static-method")
+class MethodFrameSizeTest {
+
+	/** HotSpot's default HugeMethodLimit */
+	private static final int HUGE_METHOD_LIMIT = 8000;
+
+	/** limit of the dispatch-loop (leaving room for further instructions) */
+	private static final int EXECUTE_LIMIT = 5000;
+
+	/**
+	 * Checks the code-lengths of the methods of {@link MethodFrame}.
+	 * @throws IOException in case of an IO-error
+	 */
+	@Test
+	void testMethodSizes() throws IOException {
+		final Map<String, Integer> mapCodeLengths = readCodeLengths(MethodFrame.class);
+		final Integer lenExecute = mapCodeLengths.get("executeInstructions()Ljava/lang/Object;");
+		Assertions.assertNotNull(lenExecute, "code-length of executeInstructions");
+		Assertions.assertTrue(lenExecute.intValue() < EXECUTE_LIMIT,
+				"code-length of executeInstructions: " + lenExecute);
+		for (final Entry<String, Integer> entry : mapCodeLengths.entrySet()) {
+			Assertions.assertTrue(entry.getValue().intValue() < HUGE_METHOD_LIMIT,
+					"code-length of " + entry.getKey() + ": " + entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads the code-lengths of the methods of a class.
+	 * @param clazz class
+	 * @return map from method-name and descriptor to code-length
+	 * @throws IOException in case of an IO-error
+	 */
+	static Map<String, Integer> readCodeLengths(final Class<?> clazz) throws IOException {
+		final ClassReader reader;
+		try (final InputStream is = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+			reader = new ClassReader(is);
+		}
+		final char[] buf = new char[reader.getMaxStringLength()];
+		// access_flags, this_class, super_class, interfaces
+		int offset = reader.header + 6;
+		offset += 2 + 2 * reader.readUnsignedShort(offset);
+		// fields
+		final int numFields = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < numFields; i++) {
+			offset = skipAttributes(reader, offset + 6);
+		}
+		// methods
+		final Map<String, Integer> mapCodeLengths = new LinkedHashMap<>();
+		final int numMethods = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < numMethods; i++) {
+			final String name = reader.readUTF8(offset + 2, buf);
+			final String desc = reader.readUTF8(offset + 4, buf);
+			final int numAttrs = reader.readUnsignedShort(offset + 6);
+			offset += 8;
+			for (int j = 0; j < numAttrs; j++) {
+				final String attrName = reader.readUTF8(offset, buf);
+				final int attrLen = reader.readInt(offset + 2);
+				if ("Code".equals(attrName)) {
+					// max_stack, max_locals, code_length
+					mapCodeLengths.put(name + desc, Integer.valueOf(reader.readInt(offset + 10)));
+				}
+				offset += 6 + attrLen;
+			}
+		}
+		return mapCodeLengths;
+	}
+
+	/**
+	 * Skips the attributes of a field.
+	 * @param reader class-reader
+	 * @param offset offset of attributes_count
+	 * @return offset after the attributes
+	 */
+	private static int skipAttributes(final ClassReader reader, final int offset) {
+		final int numAttrs = reader.readUnsignedShort(offset);
+		int offsetAttr = offset + 2;
+		for (int i = 0; i < numAttrs; i++) {
+			offsetAttr += 6 + reader.readInt(offsetAttr + 2);
+		}
+		return offsetAttr;
+	}
+}
@@ -0,0 +1,92 @@
+package org.rogmann.jsmud.vm;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit-Tests of class {@link NativeMethodExecutorMethodHandle}.
+ */
+@SuppressWarnings("static-method")
+class NativeMethodExecutorMethodHandleTest {
+
+	/**
+	 * Test method for {@link NativeMethodExecutorMethodHandle#executeMethodNative(java.lang.reflect.Method, Object, Object[])}.
+	 * @throws Exception in case of an error
+	 */
+	@Test
+	void testExecuteMethodNative() throws Exception {
+		final NativeMethodExecutor executor = new NativeMethodExecutorMethodHandle();
+		// static method with primitive argument and return-value
+		Assertions.assertEquals(Integer.valueOf(-5), executor.executeMethodNative(
+				Math.class.getMethod("negateExact", int.class), Math.class, new Object[] { Integer.valueOf(5) }));
+		// virtual method
+		final List<String> list = new ArrayList<>();
+		Assertions.assertEquals(Boolean.TRUE, executor.executeMethodNative(
+				List.class.getMethod("add", Object.class), list, new Object[] { "a" }));
+		Assertions.assertEquals(Character.valueOf('a'), executor.executeMethodNative(
+				String.class.getMethod("charAt", int.class), list.get(0), new Object[] { Integer.valueOf(0) }));
+		// varargs-method is called with an array
+		Assertions.assertEquals("1-x", executor.executeMethodNative(
+				String.class.getMethod("format", String.class, Object[].class), null,
+				new Object[] { "%d-%s", new Object[] { Integer.valueOf(1), "x" } }));
+		// void-method
+		Assertions.assertNull(executor.executeMethodNative(
+				List.class.getMethod("clear"), list, new Object[0]));
+		Assertions.assertTrue(list.isEmpty());
+		// exception of the method
+		final InvocationTargetException e = Assertions.assertThrows(InvocationTargetException.class,
+				() -> executor.executeMethodNative(String.class.getMethod("charAt", int.class), "",
+						new Object[] { Integer.valueOf(1) }));
+		Assertions.assertTrue(e.getCause() instanceof StringIndexOutOfBoundsException);
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(List.class.getMethod("clear"), list, new Object[1]));
+	}
+
+	/**
+	 * Test method for {@link NativeMethodExecutorMethodHandle#executeMethodNative(java.lang.reflect.Method, Object, Object[])}
+	 * with arguments which don't match the method.
+	 * @throws Exception in case of an error
+	 */
+	@Test
+	void testExecuteMethodNativeArguments() throws Exception {
+		final NativeMethodExecutor executor = new NativeMethodExecutorMethodHandle();
+		// widening of a boxed argument as in Method#invoke
+		Assertions.assertEquals(Long.valueOf(5), executor.executeMethodNative(
+				Math.class.getMethod("abs", long.class), null, new Object[] { Integer.valueOf(-5) }));
+		Assertions.assertEquals(Integer.valueOf('a' + 1), executor.executeMethodNative(
+				Math.class.getMethod("addExact", int.class, int.class), null, new Object[] { Character.valueOf('a'), Byte.valueOf((byte) 1) }));
+		// wrong object-reference
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(String.class.getMethod("length"), Integer.valueOf(1), new Object[0]));
+		// arguments which can't be adapted
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(String.class.getMethod("charAt", int.class), "abc", new Object[] { "0" }));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(String.class.getMethod("charAt", int.class), "abc", new Object[] { null }));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(Math.class.getMethod("abs", int.class), null, new Object[] { Long.valueOf(1) }));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeMethodNative(String.class.getMethod("concat", String.class), "a", new Object[] { Integer.valueOf(1) }));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> executor.executeConstructorNative(StringBuilder.class.getConstructor(int.class), new Object[] { Boolean.TRUE }));
+	}
+
+	/**
+	 * Test method for {@link NativeMethodExecutorMethodHandle#executeConstructorNative(java.lang.reflect.Constructor, Object[])}.
+	 * @throws Exception in case of an error
+	 */
+	@Test
+	void testExecuteConstructorNative() throws Exception {
+		final NativeMethodExecutor executor = new NativeMethodExecutorMethodHandle();
+		Assertions.assertEquals("abc", executor.executeConstructorNative(
+				String.class.getConstructor(char[].class), new Object[] { new char[] { 'a', 'b', 'c' } }));
+		Assertions.assertEquals(new StringBuilder(10).capacity(), ((StringBuilder) executor.executeConstructorNative(
+				StringBuilder.class.getConstructor(int.class), new Object[] { Integer.valueOf(10) })).capacity());
+		Assertions.assertThrows(InstantiationException.class,
+				() -> executor.executeConstructorNative(Number.class.getConstructor(), new Object[0]));
+	}
+}
@@ -0,0 +1,360 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.rogmann.jsmud.visitors.ExecutionVisitorDelegation;
+import org.rogmann.jsmud.visitors.InstructionVisitorProvider;
+
+/**
+ * JUnit-tests of the quickened instructions (see {@link MethodCode#quicken()}).
+ */
+@SuppressWarnings("static-method")
+class QuickeningTest {
+
+	/** name of the generated class */
+	private static final String GENERATED_CLASS = "org.rogmann.jsmud.vm.QuickeningGenerated";
+
+	/**
+	 * Holder of an int-value.
+	 */
+	static class Holder {
+		final int value;
+
+		Holder(final int value) {
+			this.value = value;
+		}
+	}
+
+	static int max(final int a, final int b) {
+		if (a < b) {
+			return b;
+		}
+		return a;
+	}
+
+	static int addSeven(final int x) {
+		final int y = x + 7;
+		return y;
+	}
+
+	static int value(final Holder holder) {
+		return holder.value;
+	}
+
+	static int length(final int[] array) {
+		return array.length;
+	}
+
+	@Test
+	void testQuicken() throws IOException {
+		assertQuickened(lookupMethod(readClass(QuickeningTest.class), "max"), MethodCode.QUICK_ILOAD_ILOAD_IF_ICMP);
+		assertQuickened(lookupMethod(readClass(QuickeningTest.class), "addSeven"), MethodCode.QUICK_ILOAD_CONST_IADD_ISTORE);
+		assertQuickened(lookupMethod(readClass(QuickeningTest.class), "value"), MethodCode.QUICK_ALOAD_GETFIELD);
+		assertQuickened(lookupMethod(readClass(QuickeningTest.class), "length"), MethodCode.QUICK_ALOAD_ARRAYLENGTH);
+		final MethodNode methodLoop = lookupMethod(readClass(generateClass()), "countTo");
+		assertQuickened(methodLoop, MethodCode.QUICK_ILOAD_CONST_IADD_ISTORE);
+		assertQuickened(methodLoop, MethodCode.QUICK_ILOAD_ILOAD_IF_ICMP);
+	}
+
+	@Test
+	void testIntCompare() throws Throwable {
+		final Method method = QuickeningTest.class.getDeclaredMethod("max", int.class, int.class);
+		// The branch is taken (a < b) and not taken, the arguments are boxed or primitive locals.
+		Assertions.assertEquals(Integer.valueOf(5), execute(method, "(II)I", Integer.valueOf(3), Integer.valueOf(5)));
+		Assertions.assertEquals(Integer.valueOf(5), execute(method, "(II)I", Integer.valueOf(5), Integer.valueOf(3)));
+		Assertions.assertEquals(Integer.valueOf(-2), execute(method, "(II)I", Integer.valueOf(-2), Integer.valueOf(-2)));
+		Assertions.assertEquals(Integer.valueOf(8), executeInt(method, "(II)I", 8, -8));
+		Assertions.assertEquals(Integer.valueOf(8), executeInt(method, "(II)I", -8, 8));
+	}
+
+	@Test
+	void testAddConstant() throws Throwable {
+		final Method method = QuickeningTest.class.getDeclaredMethod("addSeven", int.class);
+		Assertions.assertEquals(Integer.valueOf(12), execute(method, "(I)I", Integer.valueOf(5)));
+		Assertions.assertEquals(Integer.valueOf(Integer.MIN_VALUE + 6), executeInt(method, "(I)I", Integer.MAX_VALUE));
+	}
+
+	@Test
+	void testFieldAndArray() throws Throwable {
+		final Method methodField = QuickeningTest.class.getDeclaredMethod("value", Holder.class);
+		final String descField = "(Lorg/rogmann/jsmud/vm/QuickeningTest$Holder;)I";
+		Assertions.assertEquals(Integer.valueOf(42), execute(methodField, descField, new Holder(42)));
+		final Method methodArray = QuickeningTest.class.getDeclaredMethod("length", int[].class);
+		Assertions.assertEquals(Integer.valueOf(3), execute(methodArray, "([I)I", new int[3]));
+
+		// An exception at the second instruction of a fused sequence is the exception of the plain instruction.
+		final Throwable eField = Assertions.assertThrows(Throwable.class, () -> execute(methodField, descField, (Object) null));
+		final Throwable eFieldPlain = Assertions.assertThrows(Throwable.class,
+				() -> execute(methodField, descField, 0, createArgs((Object) null)));
+		Assertions.assertEquals(eFieldPlain.getClass(), eField.getClass());
+		Assertions.assertEquals(eFieldPlain.getMessage(), eField.getMessage());
+		final Throwable eArray = Assertions.assertThrows(Throwable.class, () -> execute(methodArray, "([I)I", (Object) null));
+		final Throwable eArrayPlain = Assertions.assertThrows(Throwable.class,
+				() -> execute(methodArray, "([I)I", 0, createArgs((Object) null)));
+		Assertions.assertEquals(eArrayPlain.getClass(), eArray.getClass());
+		Assertions.assertEquals(eArrayPlain.getMessage(), eArray.getMessage());
+	}
+
+	@Test
+	void testBranchIntoFusedSequence() throws Throwable {
+		final byte[] bytecode = generateClass();
+		final ClassLoader classLoader = new ClassLoader(QuickeningTest.class.getClassLoader()) {
+			private final Class<?> classGenerated = defineClass(GENERATED_CLASS, bytecode, 0, bytecode.length);
+
+			@Override
+			protected Class<?> findClass(final String name) throws ClassNotFoundException {
+				if (GENERATED_CLASS.equals(name)) {
+					return classGenerated;
+				}
+				return super.findClass(name);
+			}
+
+			@Override
+			public InputStream getResourceAsStream(final String name) {
+				if (name.endsWith(GENERATED_CLASS.replace('.', '/') + ".class")) {
+					return new ByteArrayInputStream(bytecode);
+				}
+				return super.getResourceAsStream(name);
+			}
+		};
+		final Method method = classLoader.loadClass(GENERATED_CLASS).getMethod("countTo", int.class);
+		for (int n = -1; n <= 20; n++) {
+			Assertions.assertEquals(Integer.valueOf(Math.max(n, 0)), execute(method, "(I)I", Integer.valueOf(n)), "countTo(" + n + ")");
+		}
+	}
+
+	@Test
+	void testBackEdges() throws IOException {
+		final MethodNode method = lookupMethod(readClass(generateClass()), "countTo");
+		final MethodExecutionPlan plan = new MethodExecutionPlan(method, method.desc, new TypeReferenceTable(), false);
+		Assertions.assertFalse(plan.countBackEdge(3));
+		Assertions.assertFalse(plan.countBackEdge(3));
+		Assertions.assertNull(plan.getCode().quickOpcodes);
+		Assertions.assertTrue(plan.countBackEdge(3), "quickened at the third back-edge");
+		Assertions.assertNotNull(plan.getCode().quickOpcodes);
+		Assertions.assertFalse(plan.countBackEdge(3));
+	}
+
+	/**
+	 * A visitor interested in instructions executes the quickened opcodes of a method it doesn't observe.
+	 * @throws Throwable in case of an error
+	 */
+	@Test
+	void testObservedMethod() throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "QuickeningThreshold";
+		System.setProperty(key, "1");
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final Set<String> observedMethods = ConcurrentHashMap.newKeySet();
+		final AtomicInteger numInstructions = new AtomicInteger();
+		final InstructionVisitorProvider vp = new InstructionVisitorProvider(new PrintStream(new ByteArrayOutputStream()),
+				false, false, false, false);
+		vp.setShowOutput(false);
+		final JvmExecutionVisitorProvider visitorProvider = (vm, thread, parent) -> new ExecutionVisitorDelegation(vp.create(vm, thread, parent)) {
+			@Override
+			public int getInterestMask() {
+				return INTEREST_INSTRUCTION;
+			}
+
+			@Override
+			public boolean isMethodObserved(final Executable method) {
+				return observedMethods.contains(method.getName());
+			}
+
+			@Override
+			public void visitInstruction(final AbstractInsnNode instr, final OperandStack stack, final Object[] aLocals) {
+				if (instr.getOpcode() >= 0) {
+					numInstructions.incrementAndGet();
+				}
+				super.visitInstruction(instr, stack, aLocals);
+			}
+		};
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config,
+				QuickeningTest.class.getClassLoader(), visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, QuickeningTest.class, invocationHandler);
+			final Method method = QuickeningTest.class.getDeclaredMethod("addSeven", int.class);
+			// ILOAD, BIPUSH, IADD, ISTORE are fused, ILOAD and IRETURN follow.
+			Assertions.assertEquals(Integer.valueOf(12), executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", createArgs(Integer.valueOf(5))));
+			Assertions.assertEquals(3, numInstructions.getAndSet(0), "quickened instructions");
+
+			// The observation-decision is kept until the event-requests change.
+			observedMethods.add("addSeven");
+			Assertions.assertEquals(Integer.valueOf(12), executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", createArgs(Integer.valueOf(5))));
+			Assertions.assertEquals(3, numInstructions.getAndSet(0), "decision of the same generation");
+
+			registry.invalidateDesimulation();
+			Assertions.assertEquals(Integer.valueOf(12), executor.executeMethod(Opcodes.INVOKESTATIC, method, "(I)I", createArgs(Integer.valueOf(5))));
+			Assertions.assertEquals(6, numInstructions.getAndSet(0), "observed method isn't quickened");
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+		}
+	}
+
+	/**
+	 * Generates a class with a method <code>static int countTo(int n)</code> containing a loop.
+	 * The loop is entered by a branch into the middle of the fused sequence ILOAD, ILOAD, IF_ICMPLT.
+	 * @return bytecode
+	 */
+	private static byte[] generateClass() {
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, GENERATED_CLASS.replace('.', '/'),
+				null, "java/lang/Object", null);
+		final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "countTo", "(I)I", null, null);
+		mv.visitCode();
+		final Label labelLoop = new Label();
+		final Label labelCompare = new Label();
+		mv.visitInsn(Opcodes.ICONST_0);
+		mv.visitVarInsn(Opcodes.ISTORE, 1);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitJumpInsn(Opcodes.GOTO, labelCompare);
+		mv.visitLabel(labelLoop);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitInsn(Opcodes.IADD);
+		mv.visitVarInsn(Opcodes.ISTORE, 1);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitLabel(labelCompare);
+		mv.visitVarInsn(Opcodes.ILOAD, 0);
+		mv.visitJumpInsn(Opcodes.IF_ICMPLT, labelLoop);
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitInsn(Opcodes.IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Executes a static method with boxed arguments, the instructions are quickened at the first invocation.
+	 * @param method method
+	 * @param desc descriptor of the method
+	 * @param args arguments
+	 * @return return-value
+	 * @throws Throwable exception thrown while executing
+	 */
+	private static Object execute(final Method method, final String desc, final Object... args) throws Throwable {
+		return execute(method, desc, 1, createArgs(args));
+	}
+
+	private static OperandStack createArgs(final Object... args) {
+		final OperandStack stackArgs = new OperandStack(args.length);
+		for (final Object arg : args) {
+			stackArgs.push(arg);
+		}
+		return stackArgs;
+	}
+
+	/**
+	 * Executes a static method with primitive int-arguments, the instructions are quickened at the first invocation.
+	 * @param method method
+	 * @param desc descriptor of the method
+	 * @param args arguments
+	 * @return return-value
+	 * @throws Throwable exception thrown while executing
+	 */
+	private static Object executeInt(final Method method, final String desc, final int... args) throws Throwable {
+		final OperandStack stackArgs = new OperandStack(args.length);
+		for (final int arg : args) {
+			stackArgs.pushInt(arg);
+		}
+		return execute(method, desc, 1, stackArgs);
+	}
+
+	private static Object execute(final Method method, final String desc, final int quickeningThreshold,
+			final OperandStack stackArgs) throws Throwable {
+		final String key = JsmudConfiguration.KEY_PREFIX + "QuickeningThreshold";
+		System.setProperty(key, Integer.toString(quickeningThreshold));
+		final JsmudConfiguration config;
+		try {
+			config = new JsmudConfiguration();
+		}
+		finally {
+			System.clearProperty(key);
+		}
+		final ClassExecutionFilter filter = JvmHelper.createNonJavaExecutionFilter();
+		final PrintStream psOut = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+				// The output isn't needed.
+			}
+		});
+		// A visitor without interest in single instructions executes the quickened opcodes.
+		final InstructionVisitorProvider visitorProvider = new InstructionVisitorProvider(psOut, false, false, false, false);
+		visitorProvider.setShowOutput(false);
+		final JvmInvocationHandler invocationHandler = new JvmInvocationHandlerReflection(filter, config);
+		final ClassRegistry registry = new ClassRegistry(filter, config,
+				method.getDeclaringClass().getClassLoader(), visitorProvider, invocationHandler);
+		registry.registerThread(Thread.currentThread());
+		try {
+			final SimpleClassExecutor executor = new SimpleClassExecutor(registry, method.getDeclaringClass(), invocationHandler);
+			return executor.executeMethod(Opcodes.INVOKESTATIC, method, desc, stackArgs);
+		}
+		finally {
+			registry.unregisterThread(Thread.currentThread());
+		}
+	}
+
+	private static void assertQuickened(final MethodNode method, final int quickOpcode) {
+		final MethodCode code = MethodCode.decode(method);
+		code.quicken();
+		for (final int opcode : code.quickOpcodes) {
+			if (opcode == quickOpcode) {
+				return;
+			}
+		}
+		Assertions.fail(String.format("%s: missing quickened opcode 0x%x", method.name, Integer.valueOf(quickOpcode)));
+	}
+
+	private static ClassNode readClass(final Class<?> clazz) throws IOException {
+		final ClassNode classNode = new ClassNode();
+		try (final InputStream is = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+			new ClassReader(is).accept(classNode, 0);
+		}
+		return classNode;
+	}
+
+	private static ClassNode readClass(final byte[] bytecode) {
+		final ClassNode classNode = new ClassNode();
+		new ClassReader(bytecode).accept(classNode, 0);
+		return classNode;
+	}
+
+	private static MethodNode lookupMethod(final ClassNode classNode, final String methodName) {
+		for (final MethodNode method : classNode.methods) {
+			if (method.name.equals(methodName)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+}
@@ -0,0 +1,129 @@
+package org.rogmann.jsmud.vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * JUnit-tests of {@link RegisterCode}.
+ */
+@SuppressWarnings("static-method")
+class RegisterCodeTest {
+
+	static int sum(final int n) {
+		int s = 0;
+		for (int i = 1; i <= n; i++) {
+			s += i;
+		}
+		return s;
+	}
+
+	static int fib(final int n) {
+		int a = 0;
+		int b = 1;
+		for (int i = 0; i < n; i++) {
+			final int t = a + b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	static int mix(int x, final byte y) {
+		int z = x++ + ++x;
+		z = (z << 3) ^ (x >>> 1) | -y;
+		return (short) (z & 0xffff) + (y > 0 ? x : -x);
+	}
+
+	static int divide(final int x) {
+		return 100 / x;
+	}
+
+	@Test
+	void testExecution() throws IOException {
+		for (int n = 0; n < 20; n++) {
+			Assertions.assertEquals(sum(n), execute("sum", n), "sum(" + n + ")");
+			Assertions.assertEquals(fib(n), execute("fib", n), "fib(" + n + ")");
+		}
+		Assertions.assertEquals(mix(17, (byte) 5), execute("mix", 17, 5));
+		Assertions.assertEquals(mix(-123456, (byte) -7), execute("mix", -123456, -7));
+	}
+
+	@Test
+	void testUnsupported() throws IOException {
+		Assertions.assertNull(translate("divide"), "IDIV isn't supported");
+	}
+
+	@Test
+	void testDeoptimization() throws IOException {
+		final MethodNode method = lookupMethod("sum");
+		final RegisterCode registerCode = translate("sum");
+		Assertions.assertNotNull(registerCode);
+		final Object[] aLocals = new Object[method.maxLocals];
+		final long[] aPrims = new long[method.maxLocals];
+		aLocals[0] = SlotKind.INT;
+		aPrims[0] = 10;
+		final int[] regs = registerCode.createRegisters(aLocals, aPrims);
+		final JvmExecutionVisitor visitor = (JvmExecutionVisitor) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { JvmExecutionVisitor.class },
+				(proxy, m, args) -> Integer.valueOf(JvmExecutionVisitor.INTEREST_ALL));
+		final int ip = registerCode.execute(regs, visitor);
+		Assertions.assertTrue(ip < 0, "de-optimization at backward-branch");
+		final OperandStack stack = new OperandStack(method.maxStack);
+		final int pc = registerCode.deoptimize(regs, -1 - ip, aLocals, aPrims, stack);
+		Assertions.assertTrue(pc > 0 && pc < registerCode.codePc[-1 - ip], "target of the backward-branch");
+		Assertions.assertEquals(SlotKind.INT, aLocals[1]);
+		Assertions.assertEquals(1, aPrims[1], "s after first iteration");
+		Assertions.assertEquals(2, aPrims[2], "i after first iteration");
+		Assertions.assertEquals(0, stack.size());
+	}
+
+	private static Object execute(final String methodName, final int... args) throws IOException {
+		final MethodNode method = lookupMethod(methodName);
+		final RegisterCode registerCode = translate(methodName);
+		Assertions.assertNotNull(registerCode, methodName);
+		final Object[] aLocals = new Object[method.maxLocals];
+		final long[] aPrims = new long[method.maxLocals];
+		for (int i = 0; i < args.length; i++) {
+			aLocals[i] = SlotKind.INT;
+			aPrims[i] = args[i];
+		}
+		final int[] regs = registerCode.createRegisters(aLocals, aPrims);
+		final JvmExecutionVisitor visitor = (JvmExecutionVisitor) Proxy.newProxyInstance(RegisterCodeTest.class.getClassLoader(),
+				new Class<?>[] { JvmExecutionVisitor.class },
+				(proxy, m, a) -> Integer.valueOf(0));
+		final int ip = registerCode.execute(regs, visitor);
+		Assertions.assertTrue(ip >= 0, "return-instruction");
+		return registerCode.getReturnValue(regs, ip);
+	}
+
+	private static RegisterCode translate(final String methodName) throws IOException {
+		final MethodNode method = lookupMethod(methodName);
+		final Type[] argDefs = Type.getArgumentTypes(method.desc);
+		final int[] argLocalIndices = new int[argDefs.length];
+		for (int i = 0; i < argDefs.length; i++) {
+			argLocalIndices[i] = i;
+		}
+		return RegisterCode.translate(method, MethodCode.decode(method), argDefs, argLocalIndices);
+	}
+
+	private static MethodNode lookupMethod(final String methodName) throws IOException {
+		final ClassNode classNode = new ClassNode();
+		try (final InputStream is = RegisterCodeTest.class.getResourceAsStream(RegisterCodeTest.class.getSimpleName() + ".class")) {
+			new ClassReader(is).accept(classNode, 0);
+		}
+		for (final MethodNode method : classNode.methods) {
+			if (method.name.equals(methodName)) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+}